@@ -0,0 +1,171 @@
+package com.finance_tracker;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Synthetic but format-faithful inputs for the JMH benchmarks. Everything is generated from a
+ * fixed seed so runs on different commits parse byte-identical files.
+ */
+public final class BenchmarkFixtures {
+
+    private static final long SEED = 20_240_401L;
+    private static final DateTimeFormatter BANK_DATE = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final DateTimeFormatter AMFI_DATE = DateTimeFormatter.ofPattern("dd-MMM-yyyy", Locale.ENGLISH);
+
+    private static final String[] NARRATIONS = {
+            "UPI/DR/412345678901/SWIGGY/YESB/swiggy@ybl/Payment",
+            "POS 416021XXXXXX1234 AMAZON PAY INDIA",
+            "NEFT CR-HDFC0000001-ACME TECHNOLOGIES PVT LTD-SALARY OCT",
+            "ACH D- BAJAJ FINANCE LTD-P400PHL0012345",
+            "ATW-416021XXXXXX1234-S1ANMU12-MUMBAI",
+            "IMPS-412345678901-RAHUL SHARMA-SBIN-XXXXXXX1234-Rent",
+            "UPI/DR/412345678902/BESCOM/ICIC/bescom@icici/Electricity",
+            "BIL/ONL/000123456789/ZERODHA BROKING/ZERODHA"
+    };
+
+    private static final String[] AMCS = {
+            "Aditya Birla Sun Life Mutual Fund", "Axis Mutual Fund", "HDFC Mutual Fund",
+            "ICICI Prudential Mutual Fund", "Kotak Mahindra Mutual Fund", "Mirae Asset Mutual Fund",
+            "Nippon India Mutual Fund", "SBI Mutual Fund", "Tata Mutual Fund", "UTI Mutual Fund"
+    };
+
+    private static final String[] CATEGORIES = {
+            "Open Ended Schemes(Equity Scheme - Flexi Cap Fund)",
+            "Open Ended Schemes(Equity Scheme - Large Cap Fund)",
+            "Open Ended Schemes(Debt Scheme - Liquid Fund)",
+            "Open Ended Schemes(Hybrid Scheme - Balanced Advantage)",
+            "Open Ended Schemes(Other Scheme - Index Funds)"
+    };
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * HDFC-style statement export: bank banner lines, then Date/Narration/Ref/Value Dt/
+     * Withdrawal/Deposit/Closing Balance.
+     */
+    public static byte[] bankStatementCsv(int rows) {
+        Random random = new Random(SEED);
+        StringBuilder csv = new StringBuilder(rows * 110);
+        csv.append("HDFC BANK Ltd.,,,,,,\n");
+        csv.append("Statement of account,,,,,,\n");
+        csv.append("Date,Narration,Chq./Ref.No.,Value Dt,Withdrawal Amt.,Deposit Amt.,Closing Balance\n");
+        LocalDate date = LocalDate.of(2023, 1, 1);
+        long balancePaise = 25_000_000L;
+        for (int i = 0; i < rows; i++) {
+            if (random.nextInt(4) == 0) {
+                date = date.plusDays(1);
+            }
+            boolean credit = random.nextInt(10) == 0;
+            long amountPaise = credit ? 5_000_000L + random.nextInt(10_000_000) : 1_000 + random.nextInt(2_500_000);
+            balancePaise += credit ? amountPaise : -amountPaise;
+            String narration = NARRATIONS[random.nextInt(NARRATIONS.length)];
+            String amount = rupees(amountPaise);
+            csv.append(date.format(BANK_DATE)).append(',')
+                    .append('"').append(narration).append("\",")
+                    .append(String.format("%016d", random.nextLong(1L, 9_999_999_999_999_999L))).append(',')
+                    .append(date.format(BANK_DATE)).append(',')
+                    .append(credit ? "" : amount).append(',')
+                    .append(credit ? amount : "").append(',')
+                    .append(rupees(balancePaise)).append('\n');
+        }
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * AMFI NAVAll.txt layout: header, category and AMC banner lines without semicolons, then
+     * {@code code;isin1;isin2;name;nav;date} rows. ~14k schemes matches the live file.
+     */
+    public static String navAll(int schemes) {
+        Random random = new Random(SEED);
+        String navDate = LocalDate.of(2024, 10, 14).format(AMFI_DATE);
+        StringBuilder out = new StringBuilder(schemes * 120);
+        out.append("Scheme Code;ISIN Div Payout/ ISIN Growth;ISIN Div Reinvestment;Scheme Name;Net Asset Value;Date\r\n");
+        int perBlock = Math.max(1, schemes / (CATEGORIES.length * AMCS.length));
+        int code = 100_000;
+        while (code - 100_000 < schemes) {
+            for (String category : CATEGORIES) {
+                out.append("\r\n").append(category).append("\r\n\r\n");
+                for (String amc : AMCS) {
+                    out.append(amc).append("\r\n\r\n");
+                    for (int i = 0; i < perBlock && code - 100_000 < schemes; i++, code++) {
+                        String isin1 = isin(random, "INF");
+                        String isin2 = random.nextInt(3) == 0 ? isin(random, "INF") : "-";
+                        // NAV in paise: ₹10.00 up to ₹50,010.00
+                        String nav = random.nextInt(200) == 0 ? "N.A." : rupees(1_000 + random.nextInt(5_000_000));
+                        out.append(code).append(';').append(isin1).append(';').append(isin2).append(';')
+                                .append(amc.replace(" Mutual Fund", "")).append(' ')
+                                .append(category, category.indexOf('-') + 2, category.length() - 1)
+                                .append(random.nextBoolean() ? " - Direct Plan - Growth" : " - Regular Plan - IDCW")
+                                .append(';').append(nav).append(';').append(navDate).append("\r\n");
+                    }
+                }
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Zerodha Console holdings layout: preamble rows, the header at row 23, then one holding per row.
+     */
+    public static byte[] holdingsXlsx(int holdings) {
+        Random random = new Random(SEED);
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            Sheet sheet = workbook.createSheet("Equity");
+            sheet.createRow(0).createCell(1).setCellValue("Holdings Statement as on 2024-10-14");
+            sheet.createRow(1).createCell(1).setCellValue("Client ID AB1234");
+            String[] headers = {"Symbol", "ISIN", "Sector", "Quantity Available", "Quantity Discrepant",
+                    "Quantity Long Term", "Quantity Pledged (Margin)", "Average Price", "Previous Closing Price",
+                    "Unrealized P&L", "Unrealized P&L Pct."};
+            Row header = sheet.createRow(22);
+            for (int c = 0; c < headers.length; c++) {
+                header.createCell(c + 1).setCellValue(headers[c]);
+            }
+            for (int i = 0; i < holdings; i++) {
+                Row row = sheet.createRow(23 + i);
+                double qty = 1 + random.nextInt(500);
+                double avg = 10 + random.nextInt(400_000) / 100.0;
+                double close = avg * (0.7 + random.nextDouble() * 0.6);
+                row.createCell(1).setCellValue("SYM" + i);
+                row.createCell(2).setCellValue(isin(random, "INE"));
+                row.createCell(3).setCellValue("Financials");
+                row.createCell(4).setCellValue(qty);
+                row.createCell(5).setCellValue(0);
+                row.createCell(6).setCellValue(qty);
+                row.createCell(7).setCellValue(0);
+                row.createCell(8).setCellValue(avg);
+                row.createCell(9).setCellValue(close);
+                row.createCell(10).setCellValue((close - avg) * qty);
+                row.createCell(11).setCellValue((close - avg) / avg * 100);
+            }
+            workbook.write(out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String isin(Random random, String prefix) {
+        StringBuilder isin = new StringBuilder(prefix);
+        for (int i = 0; i < 8; i++) {
+            int v = random.nextInt(36);
+            isin.append((char) (v < 10 ? '0' + v : 'A' + v - 10));
+        }
+        return isin.append(random.nextInt(10)).toString();
+    }
+
+    private static String rupees(long paise) {
+        return (paise / 100) + "." + String.format("%02d", Math.abs(paise % 100));
+    }
+}
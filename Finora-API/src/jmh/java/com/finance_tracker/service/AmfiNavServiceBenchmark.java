@@ -0,0 +1,99 @@
+package com.finance_tracker.service;
+
+import com.finance_tracker.BenchmarkFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Daily NAVAll.txt refresh, parse step only (the HTTP fetch is excluded). The input arrives as
+ * bytes, as it does off the wire. Set AMFI_NAVALL to a recorded NAVAll.txt to parse that instead
+ * of the synthetic file.
+ *
+ * <p>{@code parseNavAllBaseline} is the original whole-body implementation (String body,
+ * {@code split}, regex ISIN check, double NAV parse, HashMaps keyed by text), kept for
+ * side-by-side comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AmfiNavServiceBenchmark {
+
+    private byte[] navAll;
+
+    @Setup
+    public void setUp() throws IOException {
+        String recorded = System.getenv("AMFI_NAVALL");
+        navAll = recorded != null && !recorded.isBlank()
+                ? Files.readAllBytes(Path.of(recorded))
+                : BenchmarkFixtures.navAll(14_000).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public AmfiNavService.NavIndex parseNavAll() throws IOException {
+        return AmfiNavService.parseNavAll(new BufferedReader(
+                new InputStreamReader(new ByteArrayInputStream(navAll), StandardCharsets.UTF_8)));
+    }
+
+    @Benchmark
+    public BaselineIndex parseNavAllBaseline() throws IOException {
+        String body = new String(navAll, StandardCharsets.UTF_8);
+        BufferedReader reader = new BufferedReader(new StringReader(body));
+        Map<String, BigDecimal> navs = new HashMap<>();
+        Map<String, String> isinMap = new HashMap<>();
+        Map<String, String> nameMap = new HashMap<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (!line.contains(";")) continue;
+            String[] parts = line.split(";", -1);
+            if (parts.length < 6) continue;
+            String schemeCode = parts[0].trim();
+            String isin1 = parts[1].trim().toUpperCase();
+            String isin2 = parts[2].trim().toUpperCase();
+            String schemeName = parts[3].trim();
+            String navStr = parts[4].trim();
+            if (schemeCode.isEmpty() || navStr.isEmpty() || !isNumeric(navStr)) continue;
+            navs.put(schemeCode, new BigDecimal(navStr));
+            if (!schemeName.isEmpty()) nameMap.put(schemeCode, schemeName);
+            if (isin1.matches("IN[A-Z0-9]{9}\\d")) isinMap.put(isin1, schemeCode);
+            if (isin2.matches("IN[A-Z0-9]{9}\\d") && !isin2.equals(isin1)) isinMap.put(isin2, schemeCode);
+        }
+        return new BaselineIndex(navs, isinMap, nameMap);
+    }
+
+    public record BaselineIndex(Map<String, BigDecimal> navs, Map<String, String> schemeCodeByIsin,
+                                Map<String, String> schemeNameByCode) {
+    }
+
+    private static boolean isNumeric(String str) {
+        try {
+            new BigDecimal(str);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
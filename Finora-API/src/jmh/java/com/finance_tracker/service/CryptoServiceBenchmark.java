@@ -0,0 +1,55 @@
+package com.finance_tracker.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Backup file encryption. Dominated by the PBKDF2 run, so the payload sizes mostly show where
+ * AES-GCM starts to matter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CryptoServiceBenchmark {
+
+    private static final String PASSWORD = "correct horse battery staple";
+
+    @Param({"65536", "4194304"})
+    public int payloadBytes;
+
+    private final CryptoService service = new CryptoService();
+    private byte[] payload;
+    private byte[] encrypted;
+
+    @Setup
+    public void setUp() {
+        payload = new byte[payloadBytes];
+        new Random(42).nextBytes(payload);
+        encrypted = service.encrypt(payload, PASSWORD);
+    }
+
+    @Benchmark
+    public byte[] encrypt() {
+        return service.encrypt(payload, PASSWORD);
+    }
+
+    @Benchmark
+    public byte[] decrypt() {
+        return service.decrypt(encrypted, PASSWORD);
+    }
+}
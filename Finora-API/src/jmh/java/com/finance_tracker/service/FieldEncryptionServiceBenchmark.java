@@ -0,0 +1,72 @@
+package com.finance_tracker.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-column encrypt/decrypt cost as seen by the JPA converters. Key caches are warm after
+ * setup, so this measures the steady state rather than the first PBKDF2 run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FieldEncryptionServiceBenchmark {
+
+    private static final String SERVER_KEY = "benchmark-server-key-32-chars-ok";
+    private static final String VAULT_KEY = "benchmark-vault-key-32-chars-ok!";
+    private static final String PLAINTEXT = "UPI/DR/412345678901/SWIGGY/YESB/swiggy@ybl/Payment";
+
+    private FieldEncryptionService service;
+    private String serverCiphertext;
+    private String vaultCiphertext;
+    private String deterministicCiphertext;
+
+    @Setup
+    public void setUp() {
+        service = new FieldEncryptionService(SERVER_KEY);
+        serverCiphertext = service.encrypt(PLAINTEXT);
+        vaultCiphertext = service.encrypt(PLAINTEXT, VAULT_KEY);
+        deterministicCiphertext = service.encryptDeterministic(PLAINTEXT);
+        service.decrypt(serverCiphertext);
+        service.decrypt(vaultCiphertext, VAULT_KEY);
+        service.decrypt(deterministicCiphertext);
+    }
+
+    @Benchmark
+    public String encrypt() {
+        return service.encrypt(PLAINTEXT);
+    }
+
+    @Benchmark
+    public String decrypt() {
+        return service.decrypt(serverCiphertext);
+    }
+
+    @Benchmark
+    public String encryptWithVault() {
+        return service.encrypt(PLAINTEXT, VAULT_KEY);
+    }
+
+    @Benchmark
+    public String decryptWithVault() {
+        return service.decrypt(vaultCiphertext, VAULT_KEY);
+    }
+
+    @Benchmark
+    public String decryptLegacyDeterministic() {
+        return service.decrypt(deterministicCiphertext);
+    }
+}
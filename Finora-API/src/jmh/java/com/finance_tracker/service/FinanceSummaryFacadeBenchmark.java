@@ -0,0 +1,67 @@
+package com.finance_tracker.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Dashboard summary fan-out with instant (stub-only) services, i.e. the cost the facade itself
+ * adds on top of the repository queries: async dispatch, security-context hand-off, assembly.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FinanceSummaryFacadeBenchmark {
+
+    private static final LocalDate START = LocalDate.of(2024, 10, 1);
+    private static final LocalDate END = LocalDate.of(2024, 10, 31);
+
+    private FinanceSummaryFacade facade;
+
+    @Setup
+    public void setUp() {
+        ExpenseService expenseService = mock(ExpenseService.class, withSettings().stubOnly());
+        InvestmentService investmentService = mock(InvestmentService.class, withSettings().stubOnly());
+        LoanService loanService = mock(LoanService.class, withSettings().stubOnly());
+        SipService sipService = mock(SipService.class, withSettings().stubOnly());
+
+        when(expenseService.getTotalExpenses(any(), any())).thenReturn(new BigDecimal("48210.75"));
+        when(expenseService.getExpensesByCategory(any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(Map.of("Food", new BigDecimal("12000"), "Rent", new BigDecimal("25000")));
+        when(expenseService.getAverageMonthlyExpense(any())).thenReturn(new BigDecimal("51234.10"));
+        when(sipService.getLinkedInvestmentIds()).thenReturn(List.of(1L, 2L, 3L));
+        when(investmentService.getTotalInvestmentValueExcluding(any())).thenReturn(new BigDecimal("1250000"));
+        when(investmentService.getTotalProfitLossExcluding(any())).thenReturn(new BigDecimal("180000"));
+        when(loanService.getTotalLoanBalance()).thenReturn(new BigDecimal("3400000"));
+        when(sipService.getTotalSipValue()).thenReturn(new BigDecimal("640000"));
+        when(sipService.getTotalSipInvestment()).thenReturn(new BigDecimal("520000"));
+
+        facade = new FinanceSummaryFacade(expenseService, investmentService, loanService, sipService);
+    }
+
+    @Benchmark
+    public FinanceSummaryFacade.ComprehensiveFinanceSummary comprehensiveSummary() {
+        return facade.getComprehensiveSummary(START, END);
+    }
+}
@@ -0,0 +1,76 @@
+package com.finance_tracker.service;
+
+import com.finance_tracker.BenchmarkFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Type-ahead fund search over the scheme names of a synthetic 14k-scheme NAVAll.txt, one query
+ * per parameter: short prefixes, a single AMC, multi-word and broad plan/option words.
+ *
+ * <p>{@code scanBaseline} is the previous {@code searchByName}: lower-case every name, keep the
+ * first 50 containing the query, sort by name.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FundNameIndexBenchmark {
+
+    @Param({"hd", "hdfc", "hdfc flexi", "sbi large cap", "direct growth", "liquid idcw"})
+    public String query;
+
+    private Map<String, String> schemeNames;
+    private FundNameIndex index;
+
+    @Setup
+    public void setUp() throws IOException {
+        NavTable navs = AmfiNavService.parseNavAll(new BufferedReader(
+                new StringReader(BenchmarkFixtures.navAll(14_000)))).navs();
+        schemeNames = new HashMap<>();
+        navs.forEach((code, unscaledNav, scale, name) -> schemeNames.put(Integer.toString(code), name));
+        index = FundNameIndex.build(navs);
+    }
+
+    @Benchmark
+    public List<FundNameIndex.Match> search() {
+        return index.search(query, 15);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> scanBaseline() {
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (Map.Entry<String, String> entry : schemeNames.entrySet()) {
+            if (entry.getValue().toLowerCase().contains(query)) {
+                Map<String, Object> item = new HashMap<>();
+                item.put("schemeCode", entry.getKey());
+                item.put("name", entry.getValue());
+                results.add(item);
+                if (results.size() == 50) break;
+            }
+        }
+        results.sort(Comparator.comparing(m -> (String) m.get("name")));
+        return results.size() > 15 ? results.subList(0, 15) : results;
+    }
+}
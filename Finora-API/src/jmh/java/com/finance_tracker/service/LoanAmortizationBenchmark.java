@@ -0,0 +1,69 @@
+package com.finance_tracker.service;
+
+import com.finance_tracker.model.CompoundingFrequency;
+import com.finance_tracker.model.LoanInterestType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rolling a 25 lakh, 20-year home loan forward by {@code months} missed EMIs.
+ *
+ * <p>{@code loopBaseline} is the previous {@code updateLoanBalances}: one round of interest per
+ * month, re-deriving the monthly rate from the annual percentage each time. {@code closedForm}
+ * includes deriving the rate, as the balance job does once per loan.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoanAmortizationBenchmark {
+
+    @Param({"1", "12", "120"})
+    public int months;
+
+    private final BigDecimal annualRatePercent = new BigDecimal("8.75");
+    private final BigDecimal balance = new BigDecimal("2500000.00");
+    private BigDecimal emi;
+
+    @Setup
+    public void setUp() {
+        emi = new LoanAmortization(LoanAmortization.monthlyRate(annualRatePercent, LoanInterestType.COMPOUND,
+                CompoundingFrequency.MONTHLY)).emi(balance, 240);
+    }
+
+    @Benchmark
+    public BigDecimal closedForm() {
+        return new LoanAmortization(LoanAmortization.monthlyRate(annualRatePercent, LoanInterestType.COMPOUND,
+                CompoundingFrequency.MONTHLY)).balanceAfter(balance, emi, months);
+    }
+
+    @Benchmark
+    public BigDecimal loopBaseline() {
+        BigDecimal currentBalance = balance;
+        for (int i = 0; i < months; i++) {
+            BigDecimal annualRate = annualRatePercent.divide(new BigDecimal("100"), 10, RoundingMode.HALF_UP);
+            BigDecimal monthlyRate = annualRate.divide(new BigDecimal("12"), 10, RoundingMode.HALF_UP);
+            BigDecimal monthlyInterest = currentBalance.multiply(monthlyRate).setScale(2, RoundingMode.HALF_UP);
+            currentBalance = currentBalance.subtract(emi.subtract(monthlyInterest));
+            if (currentBalance.compareTo(BigDecimal.ZERO) < 0) {
+                return BigDecimal.ZERO;
+            }
+        }
+        return currentBalance;
+    }
+}
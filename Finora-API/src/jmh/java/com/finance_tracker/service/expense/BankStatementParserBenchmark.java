@@ -0,0 +1,41 @@
+package com.finance_tracker.service.expense;
+
+import com.finance_tracker.BenchmarkFixtures;
+import com.finance_tracker.dto.expense.ExpensePreviewDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Import preview of a year's worth of statement lines (5,000 rows).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BankStatementParserBenchmark {
+
+    private final BankStatementParser parser = new BankStatementParser();
+    private byte[] csv;
+
+    @Setup
+    public void setUp() {
+        csv = BenchmarkFixtures.bankStatementCsv(5_000);
+    }
+
+    @Benchmark
+    public ExpensePreviewDTO parseCsv() {
+        return parser.parse(csv, "statement.csv");
+    }
+}
@@ -0,0 +1,41 @@
+package com.finance_tracker.service.statement;
+
+import com.finance_tracker.BenchmarkFixtures;
+import com.finance_tracker.dto.statement.StatementPreviewDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Broker holdings import of a 200-holding Zerodha Console export.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HoldingsExcelParserBenchmark {
+
+    private final HoldingsExcelParser parser = new HoldingsExcelParser();
+    private byte[] xlsx;
+
+    @Setup
+    public void setUp() {
+        xlsx = BenchmarkFixtures.holdingsXlsx(200);
+    }
+
+    @Benchmark
+    public StatementPreviewDTO parseXlsx() throws Exception {
+        return parser.parse(xlsx, null, "ZERODHA_EXCEL");
+    }
+}
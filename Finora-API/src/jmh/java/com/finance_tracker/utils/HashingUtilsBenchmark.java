@@ -0,0 +1,102 @@
+package com.finance_tracker.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.finance_tracker.model.Expense;
+import com.finance_tracker.model.Investment;
+import com.finance_tracker.model.InvestmentType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ledger write path: canonical JSON of an entity snapshot plus the chained SHA-256.
+ * {@code toCanonicalJsonTreeRoundTrip} is the pre-one-pass implementation, kept for comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HashingUtilsBenchmark {
+
+    @Param({"expense", "investment"})
+    public String entity;
+
+    private final HashingUtils hashingUtils = new HashingUtils();
+    private final ObjectMapper treeMapper = new ObjectMapper();
+    private Object snapshot;
+    private String snapshotJson;
+
+    @Setup
+    public void setUp() {
+        treeMapper.registerModule(new JavaTimeModule());
+        treeMapper.configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+        treeMapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+
+        snapshot = "expense".equals(entity) ? expense() : investment();
+        snapshotJson = hashingUtils.toCanonicalJson(snapshot);
+    }
+
+    @Benchmark
+    public String toCanonicalJson() {
+        return hashingUtils.toCanonicalJson(snapshot);
+    }
+
+    @Benchmark
+    public String toCanonicalJsonTreeRoundTrip() throws JsonProcessingException {
+        Object sorted = treeMapper.treeToValue(treeMapper.valueToTree(snapshot), Object.class);
+        return treeMapper.writeValueAsString(sorted);
+    }
+
+    @Benchmark
+    public String computeHash() {
+        return hashingUtils.computeHash("EXPENSE", "48213", "UPDATE", snapshotJson, snapshotJson,
+                "2024-10-14T10:15:30.123456Z",
+                "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08", "17", 1);
+    }
+
+    private static Expense expense() {
+        Expense expense = new Expense();
+        expense.setId(48_213L);
+        expense.setDescription("UPI/DR/412345678901/SWIGGY/YESB/swiggy@ybl/Payment");
+        expense.setAmount(new BigDecimal("412.50"));
+        expense.setDate(LocalDate.of(2024, 10, 14));
+        expense.setCategory("Food");
+        expense.setPaymentMethod("UPI");
+        expense.setUserId(17L);
+        return expense;
+    }
+
+    // Investment also carries computed getters (current value, P&L, return %)
+    private static Investment investment() {
+        Investment investment = new Investment();
+        investment.setId(9_120L);
+        investment.setName("Reliance Industries Ltd");
+        investment.setSymbol("RELIANCE.NS");
+        investment.setType(InvestmentType.STOCK);
+        investment.setQuantity(new BigDecimal("35.0000"));
+        investment.setPurchasePrice(new BigDecimal("2411.35"));
+        investment.setCurrentPrice(new BigDecimal("2987.60"));
+        investment.setPurchaseDate(LocalDate.of(2022, 6, 3));
+        investment.setLastUpdated(LocalDate.of(2024, 10, 14));
+        investment.setUserId(17L);
+        investment.setIsin("INE002A01018");
+        return investment;
+    }
+}
@@ -0,0 +1,51 @@
+package com.finance_tracker.config;
+
+import com.finance_tracker.service.FieldEncryptionService;
+import com.finance_tracker.service.FieldKeyManager;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Function;
+
+/**
+ * Publishes the field-encryption key cache counters under {@code finora.crypto.key.cache.*},
+ * tagged {@code cache=master|legacy|data}. Visible at {@code /actuator/metrics}.
+ */
+@Component
+public class FieldEncryptionMetrics implements MeterBinder {
+
+    private final FieldEncryptionService encryptionService;
+
+    public FieldEncryptionMetrics(FieldEncryptionService encryptionService) {
+        this.encryptionService = encryptionService;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bind(registry, "master", FieldEncryptionService::getMasterKeyCacheStats);
+        bind(registry, "legacy", FieldEncryptionService::getLegacyKeyCacheStats);
+        bind(registry, "data", FieldEncryptionService::getDataKeyCacheStats);
+    }
+
+    // Micrometer only holds the state object weakly, so the (singleton) service is the anchor.
+    private void bind(MeterRegistry registry, String cache,
+                      Function<FieldEncryptionService, FieldKeyManager.CacheStats> stats) {
+        FunctionCounter.builder("finora.crypto.key.cache.requests", encryptionService, s -> stats.apply(s).hits())
+                .tag("cache", cache)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("finora.crypto.key.cache.requests", encryptionService, s -> stats.apply(s).misses())
+                .tag("cache", cache)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("finora.crypto.key.cache.evictions", encryptionService, s -> stats.apply(s).evictions())
+                .tag("cache", cache)
+                .register(registry);
+        Gauge.builder("finora.crypto.key.cache.size", encryptionService, s -> stats.apply(s).size())
+                .tag("cache", cache)
+                .register(registry);
+    }
+}
@@ -0,0 +1,29 @@
+package com.finance_tracker.config;
+
+import com.finance_tracker.service.LedgerAuditService;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * {@code /actuator/ledgeraudit}: progress, throughput and failure counts of the current or last
+ * all-users ledger audit. Counts only; per-user outcomes are behind the admin API. Admin-only, like
+ * every actuator endpoint but health (see {@code SecurityConfig}).
+ */
+@Component
+@Endpoint(id = "ledgeraudit")
+public class LedgerAuditEndpoint {
+
+    private final LedgerAuditService auditService;
+
+    public LedgerAuditEndpoint(LedgerAuditService auditService) {
+        this.auditService = auditService;
+    }
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        return auditService.getStatus();
+    }
+}
@@ -0,0 +1,31 @@
+package com.finance_tracker.config;
+
+import com.finance_tracker.utils.scheduler.LedgerOutboxWriter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the outbox writer's progress under {@code finora.ledger.outbox.*}. Request latency
+ * for the write endpoints, with and without async append, is {@code http.server.requests}.
+ */
+@Component
+public class LedgerOutboxMetrics implements MeterBinder {
+
+    private final LedgerOutboxWriter writer;
+
+    public LedgerOutboxMetrics(LedgerOutboxWriter writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("finora.ledger.outbox.appended", writer, LedgerOutboxWriter::getAppendedCount)
+                .description("Queued ledger events chained by the outbox writer")
+                .register(registry);
+        FunctionCounter.builder("finora.ledger.outbox.failures", writer, LedgerOutboxWriter::getFailureCount)
+                .description("Outbox drain attempts that failed and were left for retry")
+                .register(registry);
+    }
+}
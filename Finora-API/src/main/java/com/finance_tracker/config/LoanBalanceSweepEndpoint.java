@@ -0,0 +1,28 @@
+package com.finance_tracker.config;
+
+import com.finance_tracker.service.LoanBalanceSweep;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * {@code /actuator/loanbalancesweep}: state, counts and timing of the current or last loan balance
+ * sweep, including when the startup sweep finished. Admin-only (see {@code SecurityConfig}).
+ */
+@Component
+@Endpoint(id = "loanbalancesweep")
+public class LoanBalanceSweepEndpoint {
+
+    private final LoanBalanceSweep loanBalanceSweep;
+
+    public LoanBalanceSweepEndpoint(LoanBalanceSweep loanBalanceSweep) {
+        this.loanBalanceSweep = loanBalanceSweep;
+    }
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        return loanBalanceSweep.getStatus();
+    }
+}
@@ -0,0 +1,44 @@
+package com.finance_tracker.config;
+
+import com.finance_tracker.utils.strategy.PriceProviderService;
+import com.finance_tracker.utils.strategy.QuoteCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToLongFunction;
+
+/**
+ * Publishes the quote cache counters under {@code finora.prices.quote.cache.*}; requests are
+ * tagged {@code result=hit|stale|miss}, where a stale hit was served while being refreshed.
+ */
+@Component
+public class QuoteCacheMetrics implements MeterBinder {
+
+    private final PriceProviderService priceProviderService;
+
+    public QuoteCacheMetrics(PriceProviderService priceProviderService) {
+        this.priceProviderService = priceProviderService;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        requests(registry, "hit", QuoteCache.CacheStats::hits);
+        requests(registry, "stale", QuoteCache.CacheStats::staleHits);
+        requests(registry, "miss", QuoteCache.CacheStats::misses);
+        FunctionCounter.builder("finora.prices.quote.cache.evictions", priceProviderService,
+                        s -> s.getQuoteCacheStats().evictions())
+                .register(registry);
+        Gauge.builder("finora.prices.quote.cache.size", priceProviderService, s -> s.getQuoteCacheStats().size())
+                .register(registry);
+    }
+
+    private void requests(MeterRegistry registry, String result, ToLongFunction<QuoteCache.CacheStats> count) {
+        FunctionCounter.builder("finora.prices.quote.cache.requests", priceProviderService,
+                        s -> count.applyAsLong(s.getQuoteCacheStats()))
+                .tag("result", result)
+                .register(registry);
+    }
+}
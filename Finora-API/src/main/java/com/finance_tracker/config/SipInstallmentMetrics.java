@@ -0,0 +1,45 @@
+package com.finance_tracker.config;
+
+import com.finance_tracker.service.SipInstallmentProcessor;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes monthly SIP installment outcomes under {@code finora.sip.installments}, tagged by
+ * outcome, plus the duration of the last run. Per-run counts and the resume cursor are kept in
+ * {@code sip_installment_runs}.
+ */
+@Component
+public class SipInstallmentMetrics implements MeterBinder {
+
+    private final SipInstallmentProcessor processor;
+
+    public SipInstallmentMetrics(SipInstallmentProcessor processor) {
+        this.processor = processor;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("finora.sip.installments", processor, SipInstallmentProcessor::getProcessedCount)
+                .tag("outcome", "processed")
+                .description("SIP installments invested")
+                .register(registry);
+        FunctionCounter.builder("finora.sip.installments", processor, SipInstallmentProcessor::getSkippedCount)
+                .tag("outcome", "skipped")
+                .description("SIPs not due, already invested this month or without a NAV")
+                .register(registry);
+        FunctionCounter.builder("finora.sip.installments", processor, SipInstallmentProcessor::getFailedCount)
+                .tag("outcome", "failed")
+                .description("SIPs whose installment could not be computed")
+                .register(registry);
+        TimeGauge.builder("finora.sip.installments.last.run.duration", processor, TimeUnit.MILLISECONDS,
+                        p -> p.getLastRunDuration().toMillis())
+                .description("Wall time of the last monthly installment run")
+                .register(registry);
+    }
+}
@@ -1,6 +1,6 @@
 package com.finance_tracker.config;
 
-import com.finance_tracker.service.LoanService;
+import com.finance_tracker.service.LoanBalanceSweep;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -8,22 +8,27 @@ import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.stereotype.Component;
 
+/**
+ * Catches loan balances up after downtime. The sweep runs in the background so it does not hold
+ * up startup; readiness reports OUT_OF_SERVICE until it finishes (see
+ * {@link LoanBalanceSweepHealthIndicator}).
+ */
 @Component
 @RequiredArgsConstructor
 public class StartupDataInitializer implements ApplicationRunner {
 
     private static final Logger logger = LoggerFactory.getLogger(StartupDataInitializer.class);
 
-    private final LoanService loanService;
+    private final LoanBalanceSweep loanBalanceSweep;
 
     @Override
-    public void run(ApplicationArguments args) throws Exception {
-        logger.info("Startup: recalculating loan balances");
+    public void run(ApplicationArguments args) {
         try {
-            loanService.updateLoanBalances();
-            logger.info("Startup loan balance update complete");
+            if (loanBalanceSweep.startInBackground()) {
+                logger.info("Startup: recalculating loan balances in the background");
+            }
         } catch (Exception e) {
-            logger.error("Startup loan balance update failed (non-fatal): {}", e.getMessage(), e);
+            logger.error("Startup loan balance update failed to start (non-fatal): {}", e.getMessage(), e);
         }
     }
 }
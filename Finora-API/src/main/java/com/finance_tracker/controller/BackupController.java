@@ -4,6 +4,7 @@ import com.finance_tracker.dto.ApiResponse;
 import com.finance_tracker.dto.BackupExportRequestDTO;
 import com.finance_tracker.dto.BackupMetadataDTO;
 import com.finance_tracker.service.BackupService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpHeaders;
@@ -17,6 +18,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
 
@@ -30,21 +32,32 @@ public class BackupController {
 
     private final BackupService backupService;
 
+    /**
+     * Streams the encrypted backup into the response as it is written. Headers go out with the
+     * first full buffer, so a failure before then, such as an unknown user, is still a normal
+     * error response; one after it cuts the download short.
+     */
     @PostMapping("/export")
-    public ResponseEntity<byte[]> exportBackup(@Valid @RequestBody BackupExportRequestDTO request) {
+    public void exportBackup(@Valid @RequestBody BackupExportRequestDTO request,
+                             HttpServletResponse response) throws IOException {
         Long userId = getAuthenticatedUserId();
 
-        byte[] encryptedBackup = backupService.exportBackup(userId, request.getPassword());
-
         String filename = String.format("finora-backup-%s.enc",
                 OffsetDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HHmmss")));
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                .header(HttpHeaders.CACHE_CONTROL, "no-store, no-cache, must-revalidate")
-                .header(HttpHeaders.PRAGMA, "no-cache")
-                .body(encryptedBackup);
+        response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store, no-cache, must-revalidate");
+        response.setHeader(HttpHeaders.PRAGMA, "no-cache");
+        try {
+            backupService.exportBackup(userId, request.getPassword(), response.getOutputStream());
+        } catch (RuntimeException e) {
+            if (!response.isCommitted()) {
+                // Drop the download headers so the error goes out as a normal JSON response
+                response.reset();
+            }
+            throw e;
+        }
     }
 
     @PostMapping("/import")
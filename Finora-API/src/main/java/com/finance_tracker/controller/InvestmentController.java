@@ -4,14 +4,20 @@ import com.finance_tracker.dto.InvestmentRequestDTO;
 import com.finance_tracker.dto.InvestmentResponseDTO;
 import com.finance_tracker.dto.InvestmentSummaryDTO;
 import com.finance_tracker.dto.InvestmentTradeRequestDTO;
+import com.finance_tracker.dto.PricePointDTO;
 import com.finance_tracker.mapper.InvestmentMapper;
 import com.finance_tracker.model.Investment;
 import com.finance_tracker.service.AmfiNavService;
 import com.finance_tracker.service.InvestmentService;
+import com.finance_tracker.service.PriceHistoryService;
+import com.finance_tracker.service.PriceRefreshService;
 import com.finance_tracker.service.SipService;
+import com.finance_tracker.service.UserService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -24,6 +30,7 @@ import org.springframework.web.bind.annotation.RestController;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
@@ -37,6 +44,9 @@ public class InvestmentController {
     private final InvestmentMapper investmentMapper;
     private final SipService sipService;
     private final AmfiNavService amfiNavService;
+    private final PriceRefreshService priceRefreshService;
+    private final PriceHistoryService priceHistoryService;
+    private final UserService userService;
 
     @GetMapping
     public List<InvestmentResponseDTO> getAllInvestments() {
@@ -96,7 +106,7 @@ public class InvestmentController {
     public ResponseEntity<Map<String, String>> refreshPrices() {
         Thread.ofVirtual().start(() -> {
             try {
-                investmentService.updateCurrentPrices();
+                priceRefreshService.refreshAll();
                 sipService.updateCurrentNavs();
             } catch (Exception e) {
                 logger.error("Background price refresh failed: {}", e.getMessage(), e);
@@ -108,6 +118,21 @@ public class InvestmentController {
         ));
     }
 
+    // Global run and provider health, not per-user data
+    @GetMapping("/refresh-prices/status")
+    public Map<String, Object> getRefreshStatus() {
+        userService.requireAdmin(getCurrentUserId());
+        return priceRefreshService.getStatus();
+    }
+
+    @GetMapping("/price-history")
+    public List<PricePointDTO> getPriceHistory(
+            @RequestParam String symbol,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return priceHistoryService.getHistory(symbol, from, to);
+    }
+
     @GetMapping("/search-mf")
     public List<Map<String, Object>> searchMf(@RequestParam(required = false, defaultValue = "") String q) {
         return amfiNavService.searchByName(q);
@@ -129,4 +154,8 @@ public class InvestmentController {
                 .<ResponseEntity<?>>map(inv -> ResponseEntity.ok(investmentMapper.toDTO(inv)))
                 .orElseGet(() -> ResponseEntity.noContent().build());
     }
+
+    private Long getCurrentUserId() {
+        return Long.parseLong(SecurityContextHolder.getContext().getAuthentication().getName());
+    }
 }
@@ -2,17 +2,23 @@ package com.finance_tracker.controller;
 
 import com.finance_tracker.dto.ApiResponse;
 import com.finance_tracker.dto.LedgerIntegrityResultDTO;
+import com.finance_tracker.model.LedgerAuditResult;
 import com.finance_tracker.model.LedgerEvent;
+import com.finance_tracker.service.LedgerAuditService;
 import com.finance_tracker.service.LedgerService;
+import com.finance_tracker.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/ledger")
@@ -20,11 +26,14 @@ import java.util.List;
 public class LedgerController {
 
     private final LedgerService ledgerService;
+    private final LedgerAuditService ledgerAuditService;
+    private final UserService userService;
 
     @GetMapping("/verify")
-    public ResponseEntity<ApiResponse<LedgerIntegrityResultDTO>> verifyIntegrity() {
+    public ResponseEntity<ApiResponse<LedgerIntegrityResultDTO>> verifyIntegrity(
+            @RequestParam(defaultValue = "false") boolean full) {
         String userId = SecurityContextHolder.getContext().getAuthentication().getName();
-        LedgerIntegrityResultDTO result = ledgerService.verifyIntegrity(userId);
+        LedgerIntegrityResultDTO result = ledgerService.verifyIntegrity(userId, full);
         return ResponseEntity.ok(ApiResponse.success(result));
     }
 
@@ -35,4 +44,25 @@ public class LedgerController {
         List<LedgerEvent> timeline = ledgerService.getTimeline(type, id);
         return ResponseEntity.ok(ApiResponse.success(timeline));
     }
+
+    @PostMapping("/audit")
+    public ResponseEntity<Map<String, String>> startAudit(@RequestParam(defaultValue = "false") boolean full) {
+        userService.requireAdmin(getCurrentUserId());
+        String runId = ledgerAuditService.startAudit(full);
+        return ResponseEntity.accepted().body(Map.of(
+                "status", "audit_started",
+                "runId", runId,
+                "message", "Verifying all ledgers in background. Progress at /actuator/ledgeraudit."
+        ));
+    }
+
+    @GetMapping("/audit/failures")
+    public ResponseEntity<ApiResponse<List<LedgerAuditResult>>> getAuditFailures() {
+        userService.requireAdmin(getCurrentUserId());
+        return ResponseEntity.ok(ApiResponse.success(ledgerAuditService.getFailures()));
+    }
+
+    private Long getCurrentUserId() {
+        return Long.parseLong(SecurityContextHolder.getContext().getAuthentication().getName());
+    }
 }
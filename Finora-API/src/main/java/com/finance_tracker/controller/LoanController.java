@@ -1,5 +1,6 @@
 package com.finance_tracker.controller;
 
+import com.finance_tracker.dto.LoanInstallmentDTO;
 import com.finance_tracker.dto.LoanRequestDTO;
 import com.finance_tracker.dto.LoanResponseDTO;
 import com.finance_tracker.dto.LoanSummaryDTO;
@@ -40,6 +41,11 @@ public class LoanController {
         return loanMapper.toDTO(loan);
     }
 
+    @GetMapping("/{id}/schedule")
+    public List<LoanInstallmentDTO> getAmortizationSchedule(@PathVariable Long id) {
+        return loanMapper.toInstallmentDTOList(loanService.getAmortizationSchedule(id));
+    }
+
     @PostMapping
     public LoanResponseDTO createLoan(@Valid @RequestBody LoanRequestDTO loanDTO) {
         Loan loan = loanMapper.toEntity(loanDTO);
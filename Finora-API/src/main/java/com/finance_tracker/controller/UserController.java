@@ -7,7 +7,11 @@ import com.finance_tracker.dto.VaultDisableRequestDTO;
 import com.finance_tracker.dto.VaultEnableRequestDTO;
 import com.finance_tracker.dto.VaultStatusDTO;
 import com.finance_tracker.model.Role;
+import com.finance_tracker.exception.ValidationException;
+import com.finance_tracker.service.EncryptionMigrationService;
 import com.finance_tracker.service.UserService;
+import com.finance_tracker.utils.security.DataKey;
+import com.finance_tracker.utils.security.VaultKeyContext;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -23,6 +27,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/users")
@@ -30,6 +35,7 @@ import java.util.List;
 public class UserController {
 
     private final UserService userService;
+    private final EncryptionMigrationService encryptionMigrationService;
 
     @GetMapping("/me")
     public ResponseEntity<ApiResponse<UserResponseDTO>> getCurrentUser() {
@@ -94,6 +100,25 @@ public class UserController {
         return ResponseEntity.ok(ApiResponse.success(userService.disableVault(userId, request)));
     }
 
+    @PostMapping("/vault/migrate")
+    public ResponseEntity<Map<String, String>> migrateEncryption() {
+        Long userId = getCurrentUserId();
+        DataKey dataKey = VaultKeyContext.getDataKey();
+        if (dataKey == null || dataKey.userId() != userId) {
+            throw new ValidationException("Data key unavailable — send the X-Vault-Key header if the vault is enabled");
+        }
+        encryptionMigrationService.startUserMigration(userId, dataKey, VaultKeyContext.get());
+        return ResponseEntity.accepted().body(Map.of(
+                "status", "migration_started",
+                "message", "Re-encrypting stored data in background."
+        ));
+    }
+
+    @GetMapping("/vault/migrate/status")
+    public ResponseEntity<Map<String, Object>> getMigrationStatus() {
+        return ResponseEntity.ok(encryptionMigrationService.getUserMigrationStatus(getCurrentUserId()));
+    }
+
     private Long getCurrentUserId() {
         String subject = SecurityContextHolder.getContext().getAuthentication().getName();
         return Long.parseLong(subject);
@@ -13,4 +13,7 @@ public class LedgerIntegrityResultDTO {
     private boolean valid;
     private long eventCount;
     private String brokenAtEventUuid;
+    // Events rehashed by this call; less than eventCount when resumed from a checkpoint
+    private long checkedCount;
+    private boolean fullVerification;
 }
@@ -0,0 +1,22 @@
+package com.finance_tracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanInstallmentDTO {
+    private Integer installmentNumber;
+    private LocalDate dueDate;
+    private BigDecimal payment;
+    private BigDecimal interest;
+    private BigDecimal principal;
+    private BigDecimal balance;
+}
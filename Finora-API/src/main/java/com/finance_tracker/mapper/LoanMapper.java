@@ -1,8 +1,10 @@
 package com.finance_tracker.mapper;
 
+import com.finance_tracker.dto.LoanInstallmentDTO;
 import com.finance_tracker.dto.LoanRequestDTO;
 import com.finance_tracker.dto.LoanResponseDTO;
 import com.finance_tracker.model.Loan;
+import com.finance_tracker.service.LoanAmortization;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
@@ -48,5 +50,17 @@ public class LoanMapper {
                 .map(this::toDTO)
                 .collect(Collectors.toList());
     }
-}
 
+    public List<LoanInstallmentDTO> toInstallmentDTOList(List<LoanAmortization.Installment> installments) {
+        return installments.stream()
+                .map(installment -> LoanInstallmentDTO.builder()
+                        .installmentNumber(installment.number())
+                        .dueDate(installment.dueDate())
+                        .payment(installment.payment())
+                        .interest(installment.interest())
+                        .principal(installment.principal())
+                        .balance(installment.balance())
+                        .build())
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,47 @@
+package com.finance_tracker.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Outcome of the most recent audit run for one user's ledger chain. {@code error} is set when the
+ * chain could not be checked at all (as opposed to checked and found broken).
+ */
+@Data
+@Entity
+@Table(name = "ledger_audit_results")
+public class LedgerAuditResult {
+
+    @Id
+    @Column(name = "user_id", nullable = false, updatable = false)
+    private String userId;
+
+    @Column(name = "run_id", nullable = false)
+    private String runId;
+
+    @Column(nullable = false)
+    private boolean valid;
+
+    @Column(name = "event_count", nullable = false)
+    private long eventCount;
+
+    @Column(name = "checked_count", nullable = false)
+    private long checkedCount;
+
+    @Column(name = "broken_at_event_uuid")
+    private String brokenAtEventUuid;
+
+    @Column(columnDefinition = "text")
+    private String error;
+
+    @Column(name = "duration_ms", nullable = false)
+    private long durationMs;
+
+    @Column(name = "audited_at", nullable = false)
+    private OffsetDateTime auditedAt;
+}
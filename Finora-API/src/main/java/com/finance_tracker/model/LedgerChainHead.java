@@ -0,0 +1,30 @@
+package com.finance_tracker.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Hash of the newest event in a user's ledger chain. Appends lock this row, which both
+ * serialises concurrent writers for one user and saves a read of the latest event.
+ */
+@Data
+@Entity
+@Table(name = "ledger_chain_heads")
+public class LedgerChainHead {
+
+    @Id
+    @Column(name = "user_id", nullable = false, updatable = false)
+    private String userId;
+
+    // Null until the first event is appended
+    @Column(name = "last_hash")
+    private String lastHash;
+
+    @Column(name = "updated_at", nullable = false)
+    private OffsetDateTime updatedAt;
+}
@@ -0,0 +1,35 @@
+package com.finance_tracker.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Last ledger position known to verify cleanly for a user. Incremental verification resumes
+ * from here instead of rehashing the whole chain.
+ */
+@Data
+@Entity
+@Table(name = "ledger_checkpoints")
+public class LedgerCheckpoint {
+
+    @Id
+    @Column(name = "user_id", nullable = false, updatable = false)
+    private String userId;
+
+    @Column(name = "last_event_sequence", nullable = false)
+    private Long lastEventSequence;
+
+    @Column(name = "last_hash", nullable = false)
+    private String lastHash;
+
+    @Column(name = "event_count", nullable = false)
+    private Long eventCount;
+
+    @Column(name = "verified_at", nullable = false)
+    private OffsetDateTime verifiedAt;
+}
@@ -0,0 +1,47 @@
+package com.finance_tracker.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+import java.time.OffsetDateTime;
+
+/**
+ * A ledger append that has been committed with its business change but not yet chained.
+ * States are already encrypted; the outbox writer only hashes and moves them into
+ * {@code ledger_events}, in id order per user.
+ */
+@Data
+@Entity
+@Table(name = "ledger_outbox")
+public class LedgerOutboxEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false, updatable = false)
+    private String userId;
+
+    @Column(name = "entity_type", nullable = false)
+    private String entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private String entityId;
+
+    @Column(name = "action_type", nullable = false)
+    private String actionType;
+
+    @Column(name = "before_state", columnDefinition = "text")
+    private String beforeState;
+
+    @Column(name = "after_state", columnDefinition = "text")
+    private String afterState;
+
+    @Column(name = "event_timestamp", nullable = false)
+    private OffsetDateTime eventTimestamp;
+}
@@ -0,0 +1,44 @@
+package com.finance_tracker.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Closing price of a market symbol or AMFI scheme code on one day. Symbols are stored trimmed and
+ * upper-cased, the same way the price refresh groups holdings.
+ */
+@Data
+@Entity
+@Table(name = "price_history")
+@IdClass(PriceHistory.Key.class)
+public class PriceHistory {
+
+    @Id
+    @Column(nullable = false, updatable = false)
+    private String symbol;
+
+    @Id
+    @Column(name = "price_date", nullable = false, updatable = false)
+    private LocalDate priceDate;
+
+    @Column(nullable = false, precision = 19, scale = 6)
+    private BigDecimal close;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String symbol;
+        private LocalDate priceDate;
+    }
+}
@@ -0,0 +1,59 @@
+package com.finance_tracker.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Progress of one month's SIP installment run. {@code lastSipId} is the resume cursor: every SIP
+ * up to and including it has been handled, and the counts cover exactly those SIPs.
+ */
+@Data
+@Entity
+@Table(name = "sip_installment_runs")
+public class SipInstallmentRun {
+
+    public enum Status { RUNNING, COMPLETED, FAILED }
+
+    /** {@code yyyy-MM} of the installments. */
+    @Id
+    @Column(nullable = false, updatable = false)
+    private String period;
+
+    @Column(name = "run_id", nullable = false)
+    private String runId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status;
+
+    @Column(name = "last_sip_id", nullable = false)
+    private long lastSipId;
+
+    @Column(name = "processed_count", nullable = false)
+    private long processedCount;
+
+    @Column(name = "skipped_count", nullable = false)
+    private long skippedCount;
+
+    @Column(name = "failed_count", nullable = false)
+    private long failedCount;
+
+    @Column(name = "started_at", nullable = false)
+    private OffsetDateTime startedAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private OffsetDateTime updatedAt;
+
+    @Column(name = "finished_at")
+    private OffsetDateTime finishedAt;
+
+    @Column(columnDefinition = "text")
+    private String error;
+}
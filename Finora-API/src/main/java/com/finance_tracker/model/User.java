@@ -64,6 +64,9 @@ public class User {
     @Column(name = "vault_salt", length = 64)
     private String vaultSalt;
 
+    @Column(name = "wrapped_data_key", columnDefinition = "text")
+    private String wrappedDataKey;
+
     @PrePersist
     protected void onCreate() {
         OffsetDateTime now = OffsetDateTime.now();
@@ -4,12 +4,14 @@ import com.finance_tracker.model.Expense;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -25,4 +27,9 @@ public interface ExpenseRepository extends JpaRepository<Expense, Long> {
 
     @Query("SELECT e.category, COALESCE(SUM(e.amount), 0) as total FROM Expense e WHERE e.userId = :userId AND e.date BETWEEN :startDate AND :endDate GROUP BY e.category")
     List<Object[]> sumExpensesByUserIdAndCategoryBetweenDates(@Param("userId") Long userId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
-}
\ No newline at end of file
+
+    // Null leaves the column as it is
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Expense e SET e.category = COALESCE(:category, e.category), e.paymentMethod = COALESCE(:paymentMethod, e.paymentMethod) WHERE e.id IN :ids")
+    int updateCategoryAndPaymentMethod(@Param("ids") Collection<Long> ids, @Param("category") String category, @Param("paymentMethod") String paymentMethod);
+}
@@ -1,6 +1,7 @@
 package com.finance_tracker.repository;
 
 import com.finance_tracker.model.Investment;
+import com.finance_tracker.model.InvestmentType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -35,4 +36,21 @@ public interface InvestmentRepository extends JpaRepository<Investment, Long> {
 
     @Query("SELECT COALESCE(SUM(i.quantity * i.purchasePrice), 0) FROM Investment i WHERE i.id IN :ids")
     BigDecimal sumCostBasisByIds(@Param("ids") List<Long> ids);
+
+    /**
+     * Only the columns a price refresh reads. The encrypted name is left out, so a refresh
+     * without any user's data key bound can read vault users' holdings.
+     */
+    interface PricedHolding {
+        Long getId();
+
+        String getSymbol();
+
+        InvestmentType getType();
+
+        String getIsin();
+    }
+
+    @Query("SELECT i.id AS id, i.symbol AS symbol, i.type AS type, i.isin AS isin FROM Investment i")
+    List<PricedHolding> findAllForPriceRefresh();
 }
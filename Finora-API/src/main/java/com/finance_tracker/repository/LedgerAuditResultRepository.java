@@ -0,0 +1,13 @@
+package com.finance_tracker.repository;
+
+import com.finance_tracker.model.LedgerAuditResult;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface LedgerAuditResultRepository extends JpaRepository<LedgerAuditResult, String> {
+
+    List<LedgerAuditResult> findByValidFalseOrderByAuditedAtDesc();
+}
@@ -0,0 +1,25 @@
+package com.finance_tracker.repository;
+
+import com.finance_tracker.model.LedgerChainHead;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface LedgerChainHeadRepository extends JpaRepository<LedgerChainHead, String> {
+
+    // SELECT ... FOR UPDATE; held until the surrounding transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM LedgerChainHead h WHERE h.userId = :userId")
+    Optional<LedgerChainHead> findByUserIdForUpdate(@Param("userId") String userId);
+
+    // Every user with a ledger has a head (V4 backfilled the pre-existing chains)
+    @Query("SELECT h.userId FROM LedgerChainHead h ORDER BY h.userId")
+    List<String> findAllUserIds();
+}
@@ -1,12 +1,18 @@
 package com.finance_tracker.repository;
 
 import com.finance_tracker.model.LedgerEvent;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface LedgerEventRepository extends JpaRepository<LedgerEvent, UUID> {
@@ -15,5 +21,23 @@ public interface LedgerEventRepository extends JpaRepository<LedgerEvent, UUID>
 
     List<LedgerEvent> findByUserIdOrderByEventSequenceAsc(String userId);
 
+    /**
+     * Forward-only cursor over a user's chain after {@code afterSequence}. Must be consumed inside
+     * a transaction and closed; callers detach each event once processed so the persistence
+     * context stays constant-size.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT e FROM LedgerEvent e WHERE e.userId = :userId AND e.eventSequence > :afterSequence "
+            + "ORDER BY e.eventSequence ASC")
+    Stream<LedgerEvent> streamByUserIdAfterSequence(@Param("userId") String userId,
+                                                    @Param("afterSequence") Long afterSequence);
+
+    Optional<LedgerEvent> findByUserIdAndEventSequence(String userId, Long eventSequence);
+
+    long countByUserId(String userId);
+
     List<LedgerEvent> findByEntityTypeAndEntityIdOrderByEventSequenceAsc(String entityType, String entityId);
 }
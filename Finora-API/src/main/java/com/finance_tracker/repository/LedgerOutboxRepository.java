@@ -0,0 +1,24 @@
+package com.finance_tracker.repository;
+
+import com.finance_tracker.model.LedgerOutboxEntry;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface LedgerOutboxRepository extends JpaRepository<LedgerOutboxEntry, Long> {
+
+    List<LedgerOutboxEntry> findByUserIdOrderByIdAsc(String userId, Limit limit);
+
+    @Query("SELECT DISTINCT o.userId FROM LedgerOutboxEntry o")
+    List<String> findPendingUserIds();
+
+    @Modifying
+    @Query("DELETE FROM LedgerOutboxEntry o WHERE o.userId = :userId")
+    int deleteByUserId(@Param("userId") String userId);
+}
@@ -1,12 +1,16 @@
 package com.finance_tracker.repository;
 
+import com.finance_tracker.model.CompoundingFrequency;
 import com.finance_tracker.model.Loan;
+import com.finance_tracker.model.LoanInterestType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 
 @Repository
@@ -15,5 +19,39 @@ public interface LoanRepository extends JpaRepository<Loan, Long> {
 
     @Query("SELECT COALESCE(SUM(l.currentBalance), 0) FROM Loan l WHERE l.userId = :userId")
     BigDecimal sumCurrentBalanceByUserId(@Param("userId") Long userId);
+
+    /**
+     * Only the columns a balance roll-forward reads. The encrypted name is left out, so a sweep
+     * without any user's data key bound can read vault users' loans.
+     */
+    interface DueLoan {
+        Long getId();
+
+        BigDecimal getCurrentBalance();
+
+        BigDecimal getEmiAmount();
+
+        BigDecimal getInterestRate();
+
+        LoanInterestType getInterestType();
+
+        CompoundingFrequency getCompoundingFrequency();
+
+        LocalDate getStartDate();
+
+        LocalDate getLastUpdated();
+    }
+
+    /**
+     * Loans after {@code afterId}, in id order, last rolled forward (or started) on or before
+     * {@code cutoff} and with what a roll-forward needs.
+     */
+    @Query("SELECT l.id AS id, l.currentBalance AS currentBalance, l.emiAmount AS emiAmount, "
+            + "l.interestRate AS interestRate, l.interestType AS interestType, "
+            + "l.compoundingFrequency AS compoundingFrequency, l.startDate AS startDate, l.lastUpdated AS lastUpdated "
+            + "FROM Loan l WHERE l.id > :afterId AND COALESCE(l.lastUpdated, l.startDate) <= :cutoff "
+            + "AND l.currentBalance IS NOT NULL AND l.emiAmount IS NOT NULL AND l.interestRate IS NOT NULL "
+            + "ORDER BY l.id")
+    List<DueLoan> findDueForRollForward(@Param("cutoff") LocalDate cutoff, @Param("afterId") long afterId, Limit limit);
 }
 
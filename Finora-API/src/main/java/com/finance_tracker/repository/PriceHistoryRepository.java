@@ -0,0 +1,13 @@
+package com.finance_tracker.repository;
+
+import com.finance_tracker.model.PriceHistory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PriceHistoryRepository extends JpaRepository<PriceHistory, PriceHistory.Key> {
+
+    List<PriceHistory> findBySymbolOrderByPriceDateAsc(String symbol);
+}
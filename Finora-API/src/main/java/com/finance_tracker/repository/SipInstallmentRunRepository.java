@@ -0,0 +1,14 @@
+package com.finance_tracker.repository;
+
+import com.finance_tracker.model.SipInstallmentRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface SipInstallmentRunRepository extends JpaRepository<SipInstallmentRun, String> {
+
+    /** Runs that crashed or failed, oldest month first. */
+    List<SipInstallmentRun> findByStatusNotOrderByPeriodAsc(SipInstallmentRun.Status status);
+}
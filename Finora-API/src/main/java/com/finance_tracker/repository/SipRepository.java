@@ -1,12 +1,15 @@
 package com.finance_tracker.repository;
 
 import com.finance_tracker.model.Sip;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,5 +27,26 @@ public interface SipRepository extends JpaRepository<Sip, Long> {
 
     @Query("SELECT s.investmentId FROM Sip s WHERE s.userId = :userId AND s.investmentId IS NOT NULL")
     List<Long> findLinkedInvestmentIdsByUserId(@Param("userId") Long userId);
-}
 
+    /** Keyset page over all SIPs: the next {@code limit} ids after {@code afterId}, ascending. */
+    @Query("SELECT s.id FROM Sip s WHERE s.id > :afterId ORDER BY s.id")
+    List<Long> findIdsAfter(@Param("afterId") long afterId, Limit limit);
+
+    /** The fields a monthly installment reads; leaves out the encrypted name. */
+    interface InstallmentSip {
+        Long getId();
+
+        String getSchemeCode();
+
+        BigDecimal getMonthlyAmount();
+
+        LocalDate getStartDate();
+
+        LocalDate getLastInvestmentDate();
+    }
+
+    @Query("SELECT s.id AS id, s.schemeCode AS schemeCode, s.monthlyAmount AS monthlyAmount, "
+            + "s.startDate AS startDate, s.lastInvestmentDate AS lastInvestmentDate "
+            + "FROM Sip s WHERE s.id IN :ids ORDER BY s.id")
+    List<InstallmentSip> findInstallmentFieldsByIdIn(@Param("ids") Collection<Long> ids);
+}
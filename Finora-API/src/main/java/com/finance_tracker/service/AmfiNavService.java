@@ -1,164 +1,387 @@
 package com.finance_tracker.service;
 
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.io.BufferedReader;
-import java.io.StringReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.math.BigDecimal;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
-import java.time.LocalDate;
+import java.time.Instant;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * In-memory index of AMFI's daily NAVAll.txt: NAV and name by scheme code, scheme code by ISIN.
+ *
+ * <p>Everything a lookup reads is one immutable {@link NavState} behind a single volatile
+ * reference, replaced whole by each refresh, so a reader never mixes two files and never waits
+ * on a refresh. Lookups never fetch. The file is revalidated on a fixed delay with If-None-Match /
+ * If-Modified-Since, so an unchanged file costs a 304 and no parse. Every parsed file is saved as
+ * a compact snapshot that is loaded at startup, so a restart serves yesterday's NAVs straight
+ * away instead of waiting on AMFI.
+ */
 @Service
 public class AmfiNavService {
 
     private static final Logger logger = LoggerFactory.getLogger(AmfiNavService.class);
     private static final String AMFI_URL = "https://portal.amfiindia.com/spages/NAVAll.txt";
-    private static final String ISIN_REGEX = "IN[A-Z]{2}[A-Z0-9]{9}\\d";
+    // NAVAll.txt lists roughly 14k schemes; maps are sized for this or the last file, whichever is larger
+    private static final int EXPECTED_SCHEMES = 16_384;
+    private static final int SEARCH_LIMIT = 15;
+    // parseNav packs the unscaled NAV and its scale into one long
+    private static final int NAV_SCALE_BITS = 5;
+    private static final long NAV_SCALE_MASK = (1L << NAV_SCALE_BITS) - 1;
 
     private final HttpClient httpClient = HttpClient.newBuilder()
             .connectTimeout(Duration.ofSeconds(15))
             .followRedirects(HttpClient.Redirect.NORMAL)
             .build();
 
-    private volatile Map<String, BigDecimal> navsBySchemeCode = new HashMap<>();
-    private volatile Map<String, String> schemeCodeByIsin = new HashMap<>();
-    private volatile Map<String, String> schemeNameByCode = new HashMap<>();
-    private volatile LocalDate cacheDate = null;
+    // Empty disables the on-disk snapshot
+    @Value("${finora.amfi.snapshot-path:}")
+    private String snapshotPath = "";
 
+    // Off in tests and one-off tools that must not reach AMFI on their own
+    @Value("${finora.amfi.background-refresh:true}")
+    private boolean backgroundRefresh = true;
+
+    @Value("${finora.amfi.refresh-interval:30m}")
+    private Duration refreshInterval = Duration.ofMinutes(30);
+
+    private volatile NavState state = NavState.EMPTY;
+    // Last time AMFI confirmed the loaded file, by a 200 or a 304
+    private volatile Instant lastChecked;
+
+    // Refreshes only ever run on background threads; lookups never wait for one
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private final AtomicBoolean refreshQueued = new AtomicBoolean();
+
+    /**
+     * Read-only view of every NAV by scheme code, from a single file.
+     */
     public Map<String, BigDecimal> getAllNavs() {
         refreshIfStale();
-        return Collections.unmodifiableMap(navsBySchemeCode);
+        return state.index().navs().asMap();
     }
 
     public Optional<BigDecimal> getNavBySchemeCode(String schemeCode) {
         if (schemeCode == null || schemeCode.isBlank()) return Optional.empty();
         refreshIfStale();
-        return Optional.ofNullable(navsBySchemeCode.get(schemeCode.trim()));
+        int code = NavTable.parseCode(schemeCode, 0, schemeCode.length());
+        return Optional.ofNullable(state.index().navs().nav(code));
     }
 
     public Optional<String> lookupSchemeCodeByIsin(String isin) {
         if (isin == null || isin.isBlank()) return Optional.empty();
         refreshIfStale();
-        return Optional.ofNullable(schemeCodeByIsin.get(isin.trim().toUpperCase()));
+        Integer code = state.index().schemeCodeByIsin().get(isin.trim().toUpperCase());
+        return Optional.ofNullable(code).map(String::valueOf);
     }
 
+    /**
+     * Up to 15 funds whose names contain every word of {@code query}, each word matched as a
+     * prefix, best match first. Served from the name index built on each refresh.
+     */
     public List<Map<String, Object>> searchByName(String query) {
         if (query == null || query.trim().length() < 2) return List.of();
         refreshIfStale();
-        String q = query.trim().toLowerCase();
+        NavState current = state;
+        NavTable navs = current.index().navs();
         List<Map<String, Object>> results = new ArrayList<>();
-        for (Map.Entry<String, String> entry : schemeNameByCode.entrySet()) {
-            if (entry.getValue().toLowerCase().contains(q)) {
-                Map<String, Object> item = new HashMap<>();
-                item.put("schemeCode", entry.getKey());
-                item.put("name", entry.getValue());
-                item.put("nav", navsBySchemeCode.getOrDefault(entry.getKey(), java.math.BigDecimal.ZERO));
-                results.add(item);
-                if (results.size() == 50) break; // cap before sort
-            }
+        for (FundNameIndex.Match match : current.nameIndex().search(query, SEARCH_LIMIT)) {
+            BigDecimal nav = navs.nav(NavTable.parseCode(match.schemeCode(), 0, match.schemeCode().length()));
+            Map<String, Object> item = new HashMap<>();
+            item.put("schemeCode", match.schemeCode());
+            item.put("name", match.name());
+            item.put("nav", nav != null ? nav : BigDecimal.ZERO);
+            results.add(item);
+        }
+        return results;
+    }
+
+    /**
+     * Unconditional download on the calling thread, waiting for any refresh already running.
+     */
+    public void forceRefresh() {
+        refreshLock.lock();
+        try {
+            fetchAndCache(false);
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Warm start: the last snapshot is loaded before the first request, so lookups work while
+     * AMFI is slow or down. The scheduled refresh then brings it up to date.
+     */
+    @PostConstruct
+    void loadSnapshot() {
+        if (snapshotPath == null || snapshotPath.isBlank()) return;
+        Path path = Path.of(snapshotPath);
+        if (!Files.exists(path)) {
+            logger.info("No AMFI snapshot at {}; NAVs load on the first refresh", path);
+            return;
+        }
+        try {
+            AmfiNavSnapshot snapshot = AmfiNavSnapshot.readFrom(path);
+            state = NavState.of(snapshot);
+            lastChecked = snapshot.fetchedAt();
+            logger.info("Loaded AMFI snapshot from {} fetched at {}: {} NAVs",
+                    path, snapshot.fetchedAt(), snapshot.index().navs().size());
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable AMFI snapshot {}: {}", path, e.getMessage());
         }
-        results.sort(Comparator.comparing(m -> (String) m.get("name")));
-        return results.size() > 15 ? results.subList(0, 15) : results;
     }
 
-    public synchronized void forceRefresh() {
-        fetchAndCache();
+    /**
+     * Queues a conditional refresh on its own virtual thread and returns at once. The download,
+     * parse and snapshot write can take half a minute, and Spring's scheduler has one thread
+     * shared with the ledger outbox poll and the cron jobs, so none of it runs there.
+     */
+    @Scheduled(fixedDelayString = "${finora.amfi.refresh-interval:30m}",
+            initialDelayString = "${finora.amfi.refresh-initial-delay:0s}")
+    public void scheduledRefresh() {
+        startBackgroundRefresh();
     }
 
+    /**
+     * Safety net for when the schedule falls behind: a lookup that finds the data unchecked for
+     * longer than the refresh interval queues one background refresh and carries on with what
+     * is loaded.
+     */
     private void refreshIfStale() {
-        if (cacheDate != null && cacheDate.equals(LocalDate.now()) && !navsBySchemeCode.isEmpty()) {
+        Instant checked = lastChecked;
+        if (checked != null && checked.plus(refreshInterval).isAfter(Instant.now())) {
             return;
         }
-        synchronized (this) {
-            if (cacheDate != null && cacheDate.equals(LocalDate.now()) && !navsBySchemeCode.isEmpty()) {
-                return;
-            }
-            fetchAndCache();
+        startBackgroundRefresh();
+    }
+
+    // At most one refresh queued or running; skipped if a forced refresh holds the lock
+    private void startBackgroundRefresh() {
+        if (!backgroundRefresh || !refreshQueued.compareAndSet(false, true)) {
+            return;
         }
+        Thread.ofVirtual().name("amfi-refresh").start(() -> {
+            try {
+                if (!refreshLock.tryLock()) return;
+                try {
+                    fetchAndCache(true);
+                } finally {
+                    refreshLock.unlock();
+                }
+            } finally {
+                refreshQueued.set(false);
+            }
+        });
     }
 
-    private void fetchAndCache() {
+    private void fetchAndCache(boolean conditional) {
         try {
-            logger.info("Fetching AMFI NAV data from {}", AMFI_URL);
-
-            HttpRequest request = HttpRequest.newBuilder()
+            HttpRequest.Builder builder = HttpRequest.newBuilder()
                     .uri(URI.create(AMFI_URL))
                     .timeout(Duration.ofSeconds(30))
-                    .GET()
-                    .build();
+                    .GET();
+            // Without data a 304 would leave us empty, so only revalidate what is loaded
+            AmfiNavSnapshot loaded = state.snapshot();
+            boolean revalidate = conditional && !loaded.index().navs().isEmpty();
+            if (revalidate && loaded.etag() != null) builder.header("If-None-Match", loaded.etag());
+            if (revalidate && loaded.lastModified() != null) builder.header("If-Modified-Since", loaded.lastModified());
+            logger.info("Fetching AMFI NAV data from {}{}", AMFI_URL, revalidate ? " (conditional)" : "");
 
-            HttpResponse<String> response =
-                    httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<InputStream> response =
+                    httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
 
-            if (response.statusCode() != 200) {
-                logger.error("AMFI returned HTTP {} — cache not refreshed", response.statusCode());
-                return;
+            NavIndex index;
+            try (InputStream body = response.body()) {
+                if (response.statusCode() == 304) {
+                    lastChecked = Instant.now();
+                    logger.info("AMFI NAV data unchanged since {}",
+                            loaded.lastModified() != null ? loaded.lastModified() : loaded.etag());
+                    return;
+                }
+                if (response.statusCode() != 200) {
+                    logger.error("AMFI returned HTTP {} — cache not refreshed", response.statusCode());
+                    return;
+                }
+                // Parsed line by line as it arrives; the multi-megabyte body is never held whole
+                index = parseNavAll(new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8)),
+                        Math.max(EXPECTED_SCHEMES, loaded.index().navs().size()));
             }
 
-            Map<String, BigDecimal> navs = new HashMap<>();
-            Map<String, String> isinMap = new HashMap<>();
-            Map<String, String> nameMap = new HashMap<>();
+            AmfiNavSnapshot fetched = new AmfiNavSnapshot(index,
+                    response.headers().firstValue("ETag").orElse(null),
+                    response.headers().firstValue("Last-Modified").orElse(null),
+                    Instant.now());
+            state = NavState.of(fetched);
+            lastChecked = fetched.fetchedAt();
+
+            logger.info("AMFI cache refreshed: {} NAVs, {} ISINs indexed",
+                    index.navs().size(), index.schemeCodeByIsin().size());
+            saveSnapshot(fetched);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("Interrupted while fetching AMFI NAV data");
+        } catch (Exception e) {
+            logger.error("Error fetching AMFI NAV data: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * One file's data plus the name index derived from it. Built in full before it is published,
+     * so searches never see a half-built index.
+     */
+    record NavState(AmfiNavSnapshot snapshot, FundNameIndex nameIndex) {
 
-            BufferedReader reader = new BufferedReader(new StringReader(response.body()));
-            String line;
-            while ((line = reader.readLine()) != null) {
-                if (!line.contains(";")) continue;
+        static final NavState EMPTY = new NavState(
+                new AmfiNavSnapshot(new NavIndex(NavTable.EMPTY, Map.of()), null, null, null), FundNameIndex.EMPTY);
 
-                // Split with -1 limit to preserve trailing empty fields.
-                String[] parts = line.split(";", -1);
-                if (parts.length < 6) continue;
+        static NavState of(AmfiNavSnapshot snapshot) {
+            return new NavState(snapshot, FundNameIndex.build(snapshot.index().navs()));
+        }
 
-                String schemeCode = parts[0].trim();
-                String isin1      = parts[1].trim().toUpperCase(); // growth / div-payout
-                String isin2      = parts[2].trim().toUpperCase(); // div-reinvestment
-                String schemeName = parts[3].trim();
-                String navStr     = parts[4].trim();
+        NavIndex index() {
+            return snapshot.index();
+        }
+    }
 
-                if (schemeCode.isEmpty() || navStr.isEmpty() || !isNumeric(navStr)) continue;
+    private void saveSnapshot(AmfiNavSnapshot snapshot) {
+        if (snapshotPath == null || snapshotPath.isBlank()) return;
+        try {
+            snapshot.writeTo(Path.of(snapshotPath));
+        } catch (Exception e) {
+            // The in-memory data is already live; only the next cold start loses out
+            logger.warn("Could not write AMFI snapshot to {}: {}", snapshotPath, e.getMessage());
+        }
+    }
 
-                navs.put(schemeCode, new BigDecimal(navStr));
-                if (!schemeName.isEmpty()) nameMap.put(schemeCode, schemeName);
+    static NavIndex parseNavAll(BufferedReader reader) throws IOException {
+        return parseNavAll(reader, EXPECTED_SCHEMES);
+    }
 
-                if (isin1.matches(ISIN_REGEX)) {
-                    isinMap.put(isin1, schemeCode);
-                }
-                if (isin2.matches(ISIN_REGEX) && !isin2.equals(isin1)) {
-                    isinMap.put(isin2, schemeCode);
-                }
+    /**
+     * Parses the semicolon-separated NAVAll.txt body into a {@link NavTable} and ISIN index, sized
+     * up front for {@code expectedSchemes}. AMC and category header lines carry no semicolons and
+     * are skipped, as are rows without a numeric scheme code or NAV.
+     *
+     * <p>Runs once per line of a ~14k-scheme file, so fields are cut out by index rather than
+     * split into arrays, and scheme codes, ISINs and NAVs are read by hand without intermediate
+     * strings.
+     */
+    static NavIndex parseNavAll(BufferedReader reader, int expectedSchemes) throws IOException {
+        NavTable.Builder navs = new NavTable.Builder(expectedSchemes);
+        Map<String, Integer> isinMap = HashMap.newHashMap(expectedSchemes * 2);
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            // Code;ISIN growth/div-payout;ISIN div-reinvestment;Name;NAV;Date
+            int codeEnd = line.indexOf(';');
+            if (codeEnd < 0) continue;
+            int isin1End = line.indexOf(';', codeEnd + 1);
+            int isin2End = isin1End < 0 ? -1 : line.indexOf(';', isin1End + 1);
+            int nameEnd = isin2End < 0 ? -1 : line.indexOf(';', isin2End + 1);
+            int navEnd = nameEnd < 0 ? -1 : line.indexOf(';', nameEnd + 1);
+            if (navEnd < 0) continue;
+
+            int schemeCode = NavTable.parseCode(line, 0, codeEnd);
+            long nav = parseNav(line, nameEnd + 1, navEnd);
+            if (schemeCode < 0 || nav < 0) continue;
+
+            String schemeName = field(line, isin2End + 1, nameEnd);
+            navs.put(schemeCode, nav >>> NAV_SCALE_BITS, (int) (nav & NAV_SCALE_MASK),
+                    schemeName.isEmpty() ? null : schemeName);
+
+            String isin1 = isin(line, codeEnd + 1, isin1End);
+            if (isin1 != null) {
+                isinMap.put(isin1, schemeCode);
             }
+            String isin2 = isin(line, isin1End + 1, isin2End);
+            if (isin2 != null && !isin2.equals(isin1)) {
+                isinMap.put(isin2, schemeCode);
+            }
+        }
+        return new NavIndex(navs.build(), isinMap);
+    }
 
-            navsBySchemeCode = navs;
-            schemeCodeByIsin = isinMap;
-            schemeNameByCode = nameMap;
-            cacheDate = LocalDate.now();
+    record NavIndex(NavTable navs, Map<String, Integer> schemeCodeByIsin) {
+    }
 
-            logger.info("AMFI cache refreshed: {} NAVs, {} ISINs indexed",
-                    navs.size(), isinMap.size());
+    /** {@code line[from, to)} with surrounding whitespace removed. */
+    private static String field(String line, int from, int to) {
+        while (from < to && line.charAt(from) <= ' ') from++;
+        while (to > from && line.charAt(to - 1) <= ' ') to--;
+        return line.substring(from, to);
+    }
 
-        } catch (Exception e) {
-            logger.error("Error fetching AMFI NAV data: {}", e.getMessage(), e);
+    /**
+     * The NAV in {@code line[from, to)} as {@code unscaled << 5 | scale}, or -1 for "N.A." and
+     * anything else that is not plain digits with at most one point, or has more than 17 digits.
+     */
+    private static long parseNav(String line, int from, int to) {
+        while (from < to && line.charAt(from) <= ' ') from++;
+        while (to > from && line.charAt(to - 1) <= ' ') to--;
+        long unscaled = 0;
+        int digits = 0;
+        int scale = -1;
+        for (int i = from; i < to; i++) {
+            char c = line.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++digits > 17) return -1;
+                unscaled = unscaled * 10 + (c - '0');
+                if (scale >= 0) scale++;
+            } else if (c == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                return -1;
+            }
         }
+        if (digits == 0) return -1;
+        return unscaled << NAV_SCALE_BITS | Math.max(scale, 0);
     }
 
-    private boolean isNumeric(String str) {
-        try {
-            new BigDecimal(str);
-            return true;
-        } catch (NumberFormatException e) {
-            return false;
+    /**
+     * The upper-cased ISIN in {@code line[from, to)} if it has the shape IN + 9 alphanumerics + a
+     * check digit, else null.
+     */
+    static String isin(String line, int from, int to) {
+        while (from < to && line.charAt(from) <= ' ') from++;
+        while (to > from && line.charAt(to - 1) <= ' ') to--;
+        if (to - from != 12) return null;
+        boolean upper = true;
+        for (int i = 0; i < 12; i++) {
+            char c = line.charAt(from + i);
+            char u = c >= 'a' && c <= 'z' ? (char) (c - 32) : c;
+            upper &= c == u;
+            boolean ok = switch (i) {
+                case 0 -> u == 'I';
+                case 1 -> u == 'N';
+                case 11 -> u >= '0' && u <= '9';
+                default -> (u >= 'A' && u <= 'Z') || (u >= '0' && u <= '9');
+            };
+            if (!ok) return null;
         }
+        String isin = line.substring(from, to);
+        return upper ? isin : isin.toUpperCase();
     }
 }
@@ -0,0 +1,145 @@
+package com.finance_tracker.service;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Last parsed NAVAll.txt plus the validators it was served with, persisted so a restart starts
+ * warm and the next refresh can be conditional.
+ *
+ * <p>Layout (big-endian): magic, version, fetched-at millis, ETag, Last-Modified, then two
+ * sections of count + entries: scheme code (int), NAV (unscaled long + byte scale) and name, then
+ * ISIN and scheme code. Strings are length-prefixed UTF-8, length -1 for null. The file is written
+ * to a temporary sibling and moved into place, and read through a memory mapping.
+ */
+record AmfiNavSnapshot(AmfiNavService.NavIndex index, String etag, String lastModified, Instant fetchedAt) {
+
+    private static final int MAGIC = 0x414D4649; // "AMFI"
+    private static final int VERSION = 2;
+    // Smallest possible entries: code, NAV, scale and a null name; an ISIN length and a code
+    private static final int MIN_NAV_ENTRY_BYTES = Integer.BYTES + Long.BYTES + 1 + Integer.BYTES;
+    private static final int MIN_ISIN_ENTRY_BYTES = Integer.BYTES + Integer.BYTES;
+
+    void writeTo(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tmp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(fetchedAt.toEpochMilli());
+                writeString(out, etag);
+                writeString(out, lastModified);
+
+                out.writeInt(index.navs().size());
+                try {
+                    index.navs().forEach((code, unscaledNav, scale, name) -> {
+                        try {
+                            out.writeInt(code);
+                            out.writeLong(unscaledNav);
+                            out.writeByte(scale);
+                            writeString(out, name);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+                out.writeInt(index.schemeCodeByIsin().size());
+                for (Map.Entry<String, Integer> isin : index.schemeCodeByIsin().entrySet()) {
+                    writeString(out, isin.getKey());
+                    out.writeInt(isin.getValue());
+                }
+            }
+            try {
+                Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * The snapshot at {@code path}; throws if the file is missing, truncated or of another version.
+     * Counts and string lengths are checked against the bytes left before anything is allocated,
+     * so a corrupt file fails with an IOException rather than an OutOfMemoryError.
+     */
+    static AmfiNavSnapshot readFrom(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+                throw new IOException("Not a version " + VERSION + " AMFI snapshot: " + path);
+            }
+            Instant fetchedAt = Instant.ofEpochMilli(in.getLong());
+            String etag = readString(in);
+            String lastModified = readString(in);
+
+            int navCount = readCount(in, MIN_NAV_ENTRY_BYTES);
+            NavTable.Builder navs = new NavTable.Builder(navCount);
+            for (int i = 0; i < navCount; i++) {
+                int code = in.getInt();
+                long unscaledNav = in.getLong();
+                int scale = in.get();
+                navs.put(code, unscaledNav, scale, readString(in));
+            }
+            int isinCount = readCount(in, MIN_ISIN_ENTRY_BYTES);
+            Map<String, Integer> isins = HashMap.newHashMap(isinCount);
+            for (int i = 0; i < isinCount; i++) {
+                String isin = readString(in);
+                isins.put(isin, in.getInt());
+            }
+            return new AmfiNavSnapshot(new AmfiNavService.NavIndex(navs.build(), isins), etag, lastModified, fetchedAt);
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt AMFI snapshot " + path + ": " + e, e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static int readCount(ByteBuffer in, int minEntryBytes) throws IOException {
+        int count = in.getInt();
+        if (count < 0 || count > in.remaining() / minEntryBytes) {
+            throw new IOException("Corrupt AMFI snapshot: entry count " + count + " does not fit the " + in.remaining() + " bytes left");
+        }
+        return count;
+    }
+
+    private static String readString(ByteBuffer in) throws IOException {
+        int length = in.getInt();
+        if (length == -1) {
+            return null;
+        }
+        if (length < 0 || length > in.remaining()) {
+            throw new IOException("Corrupt AMFI snapshot: string length " + length + " does not fit the " + in.remaining() + " bytes left");
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
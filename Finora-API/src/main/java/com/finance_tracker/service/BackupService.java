@@ -1,5 +1,6 @@
 package com.finance_tracker.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
@@ -19,15 +20,22 @@ import com.finance_tracker.repository.LedgerEventRepository;
 import com.finance_tracker.repository.LoanRepository;
 import com.finance_tracker.repository.SipRepository;
 import com.finance_tracker.repository.UserRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -44,13 +52,29 @@ public class BackupService {
     private final SipRepository sipRepository;
     private final LedgerEventRepository ledgerEventRepository;
     private final UserRepository userRepository;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
 
     private final ObjectMapper backupMapper = createBackupMapper();
 
-    @Transactional(readOnly = true)
-    public byte[] exportBackup(Long userId, String password) {
+    /**
+     * Writes {@code userId}'s encrypted backup to {@code out} and closes it. The JSON is encrypted
+     * as it is generated, so memory stays flat however large the backup is. If the export fails
+     * part-way the GCM tag is never written, so whatever reached {@code out} cannot be imported.
+     */
+    public void exportBackup(Long userId, String password, OutputStream out) {
         logger.info("Starting backup export for user {}", userId);
 
+        // Queued outbox appends belong in the exported chain. Drained first, in their own
+        // transaction, so the export never holds two pooled connections at once.
+        ledgerService.appendAllPending(String.valueOf(userId));
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> exportSnapshot(userId, password, out));
+    }
+
+    private void exportSnapshot(Long userId, String password, OutputStream out) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new BusinessLogicException("User not found"));
 
@@ -59,47 +83,15 @@ public class BackupService {
         List<Investment> investments = investmentRepository.findByUserId(userId);
         List<Loan> loans = loanRepository.findByUserId(userId);
         List<Sip> sips = sipRepository.findByUserId(userId);
-        List<LedgerEvent> ledgerEvents = ledgerEventRepository
-                .findByUserIdOrderByEventSequenceAsc(String.valueOf(userId));
-
-        // Compute ledger root hash (hash of the last event in the chain)
-        String ledgerRootHash = ledgerEvents.isEmpty()
-                ? null
-                : ledgerEvents.get(ledgerEvents.size() - 1).getHash();
-
-        // Build metadata
-        BackupMetadataDTO metadata = BackupMetadataDTO.builder()
-                .version(BACKUP_FORMAT_VERSION)
-                .exportTimestamp(OffsetDateTime.now())
-                .userId(userId)
-                .username(user.getUsername())
-                .ledgerRootHash(ledgerRootHash)
-                .ledgerEventCount(ledgerEvents.size())
-                .expenseCount(expenses.size())
-                .investmentCount(investments.size())
-                .loanCount(loans.size())
-                .sipCount(sips.size())
-                .build();
-
-        // Assemble payload
-        BackupPayloadDTO payload = BackupPayloadDTO.builder()
-                .metadata(metadata)
-                .expenses(expenses)
-                .investments(investments)
-                .loans(loans)
-                .sips(sips)
-                .ledgerEvents(ledgerEvents)
-                .build();
-
-        // Serialize and encrypt
+
         try {
-            byte[] jsonBytes = backupMapper.writeValueAsBytes(payload);
-            byte[] encrypted = cryptoService.encrypt(jsonBytes, password);
+            OutputStream encrypted = cryptoService.encryptingStream(out, password);
+            int ledgerEventCount = writePayload(userId, user, expenses, investments, loans, sips, encrypted);
+            // Writes the GCM tag; a failed export above never gets one
+            encrypted.close();
 
             logger.info("Backup export completed for user {} — {} expenses, {} investments, {} loans, {} SIPs, {} ledger events",
-                    userId, expenses.size(), investments.size(), loans.size(), sips.size(), ledgerEvents.size());
-
-            return encrypted;
+                    userId, expenses.size(), investments.size(), loans.size(), sips.size(), ledgerEventCount);
         } catch (BackupException e) {
             throw e;
         } catch (Exception e) {
@@ -107,6 +99,55 @@ public class BackupService {
         }
     }
 
+    /**
+     * Writes the backup JSON to {@code out}, leaving it open, and returns the ledger event count.
+     * Serialized field by field so the ledger is streamed straight into the output instead of
+     * being held as entities. Metadata goes last: its root hash and count come from the stream.
+     */
+    private int writePayload(Long userId, User user, List<Expense> expenses, List<Investment> investments,
+                             List<Loan> loans, List<Sip> sips, OutputStream out) throws IOException {
+        try (JsonGenerator json = backupMapper.getFactory().createGenerator(out)
+                     .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+             Stream<LedgerEvent> ledger = ledgerEventRepository
+                     .streamByUserIdAfterSequence(String.valueOf(userId), 0L)) {
+            json.writeStartObject();
+            json.writePOJOField("expenses", expenses);
+            json.writePOJOField("investments", investments);
+            json.writePOJOField("loans", loans);
+            json.writePOJOField("sips", sips);
+
+            json.writeArrayFieldStart("ledgerEvents");
+            String ledgerRootHash = null;
+            int ledgerEventCount = 0;
+            Iterator<LedgerEvent> it = ledger.iterator();
+            while (it.hasNext()) {
+                LedgerEvent event = it.next();
+                json.writePOJO(event);
+                ledgerRootHash = event.getHash();
+                ledgerEventCount++;
+                entityManager.detach(event);
+            }
+            json.writeEndArray();
+
+            BackupMetadataDTO metadata = BackupMetadataDTO.builder()
+                    .version(BACKUP_FORMAT_VERSION)
+                    .exportTimestamp(OffsetDateTime.now())
+                    .userId(userId)
+                    .username(user.getUsername())
+                    .ledgerRootHash(ledgerRootHash)
+                    .ledgerEventCount(ledgerEventCount)
+                    .expenseCount(expenses.size())
+                    .investmentCount(investments.size())
+                    .loanCount(loans.size())
+                    .sipCount(sips.size())
+                    .build();
+            json.writePOJOField("metadata", metadata);
+            json.writeEndObject();
+            json.flush();
+            return ledgerEventCount;
+        }
+    }
+
     @Transactional
     public BackupMetadataDTO importBackup(Long userId, byte[] encryptedData, String password) {
         logger.info("Starting backup import for user {}", userId);
@@ -141,9 +182,14 @@ public class BackupService {
         // Verify embedded ledger chain integrity before importing
         verifyBackupLedgerIntegrity(payload);
 
+        // Hold the chain head for the whole restore so no append can chain onto the old ledger
+        ledgerService.lockChainHead(String.valueOf(userId));
+        ledgerService.discardPending(String.valueOf(userId));
+
         // Clear existing user data (order matters for FK constraints — ledger first since it has no FKs)
         ledgerEventRepository.deleteAll(
                 ledgerEventRepository.findByUserIdOrderByEventSequenceAsc(String.valueOf(userId)));
+        ledgerService.resetCheckpoint(String.valueOf(userId));
 
         List<Expense> existingExpenses = expenseRepository.findByUserId(userId);
         if (!existingExpenses.isEmpty()) expenseRepository.deleteAll(existingExpenses);
@@ -170,6 +216,11 @@ public class BackupService {
         importLoans(payload.getLoans(), userId);
         importSips(payload.getSips(), userId);
         importLedgerEvents(payload.getLedgerEvents(), String.valueOf(userId));
+        List<LedgerEvent> restoredEvents = payload.getLedgerEvents();
+        ledgerService.resetChainHead(String.valueOf(userId),
+                restoredEvents == null || restoredEvents.isEmpty()
+                        ? null
+                        : restoredEvents.get(restoredEvents.size() - 1).getHash());
 
         logger.info("Backup import completed for user {} — {} expenses, {} investments, {} loans, {} SIPs, {} ledger events",
                 userId,
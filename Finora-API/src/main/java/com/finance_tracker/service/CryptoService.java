@@ -4,11 +4,13 @@ import com.finance_tracker.exception.BackupException;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.Cipher;
+import javax.crypto.CipherOutputStream;
 import javax.crypto.SecretKey;
 import javax.crypto.SecretKeyFactory;
 import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.PBEKeySpec;
 import javax.crypto.spec.SecretKeySpec;
+import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.security.SecureRandom;
 import java.security.spec.KeySpec;
@@ -52,6 +54,34 @@ public class CryptoService {
         }
     }
 
+    /**
+     * Streaming form of {@link #encrypt}: writes the salt and IV to {@code out} and returns a
+     * stream that encrypts whatever is written to it. The output is only complete, and only
+     * decrypts, once the returned stream is closed, since that writes the GCM tag. Closing it
+     * also closes {@code out}.
+     */
+    public OutputStream encryptingStream(OutputStream out, String password) {
+        try {
+            byte[] salt = new byte[SALT_LENGTH_BYTES];
+            secureRandom.nextBytes(salt);
+
+            byte[] iv = new byte[IV_LENGTH_BYTES];
+            secureRandom.nextBytes(iv);
+
+            SecretKey key = deriveKey(password, salt);
+
+            Cipher cipher = Cipher.getInstance(ALGORITHM);
+            GCMParameterSpec gcmSpec = new GCMParameterSpec(GCM_TAG_LENGTH_BITS, iv);
+            cipher.init(Cipher.ENCRYPT_MODE, key, gcmSpec);
+
+            out.write(salt);
+            out.write(iv);
+            return new CipherOutputStream(out, cipher);
+        } catch (Exception e) {
+            throw new BackupException("Encryption failed", e);
+        }
+    }
+
     public byte[] decrypt(byte[] encryptedData, String password) {
         try {
             if (encryptedData.length < SALT_LENGTH_BYTES + IV_LENGTH_BYTES + GCM_TAG_LENGTH_BITS / 8) {
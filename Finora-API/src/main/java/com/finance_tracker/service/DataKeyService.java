@@ -0,0 +1,114 @@
+package com.finance_tracker.service;
+
+import com.finance_tracker.utils.security.DataKey;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Owns the per-user envelope key stored in {@code users.wrapped_data_key}.
+ *
+ * <p>The key is wrapped under the server key, plus the vault key while the vault is enabled.
+ * Enabling or disabling the vault therefore only rewraps 32 bytes instead of re-encrypting
+ * every column. Plain JDBC is used so lookups made while Hibernate is hydrating entities never
+ * re-enter the persistence context.
+ */
+@Service
+@RequiredArgsConstructor
+public class DataKeyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataKeyService.class);
+
+    private final FieldEncryptionService encryptionService;
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    void registerLoader() {
+        encryptionService.setWrappedDataKeyLoader(this::loadWrappedKey);
+    }
+
+    /**
+     * Unwraps (creating on first use) the user's data key for the current request.
+     *
+     * @return the key, or null when encryption is off or the key is vault-wrapped and no
+     *         usable vault key was supplied
+     */
+    public DataKey resolveForRequest(long userId, String vaultKey) {
+        if (!encryptionService.isEnabled()) {
+            return null;
+        }
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT vault_enabled, wrapped_data_key FROM users WHERE id = ?", userId);
+        if (rows.isEmpty()) {
+            return null;
+        }
+        boolean vaultEnabled = Boolean.TRUE.equals(rows.get(0).get("vault_enabled"));
+        String wrapped = (String) rows.get(0).get("wrapped_data_key");
+        boolean hasVaultKey = vaultKey != null && !vaultKey.isBlank();
+
+        if (wrapped == null) {
+            return createKey(userId, vaultEnabled && hasVaultKey ? vaultKey : null);
+        }
+
+        boolean vaultWrapped = encryptionService.isVaultWrapped(wrapped);
+        if (vaultWrapped && !hasVaultKey) {
+            return null;
+        }
+
+        DataKey dataKey;
+        try {
+            dataKey = toDataKey(userId, encryptionService.unwrapDataKey(wrapped, vaultKey));
+        } catch (IllegalStateException e) {
+            logger.debug("Data key for user {} could not be unwrapped: {}", userId, e.getMessage());
+            return null;
+        }
+
+        // Bring the wrapping in line with the vault flag whenever the vault key is at hand
+        if (vaultEnabled && hasVaultKey && !vaultWrapped) {
+            rewrap(dataKey, vaultKey);
+        } else if (!vaultEnabled && vaultWrapped) {
+            rewrap(dataKey, null);
+        }
+        return dataKey;
+    }
+
+    /**
+     * Re-wraps an unwrapped data key under the server key, plus {@code vaultKey} when non-blank.
+     */
+    public void rewrap(DataKey dataKey, String vaultKey) {
+        String wrapped = encryptionService.wrapDataKey(dataKey.key().getEncoded(), vaultKey);
+        jdbcTemplate.update("UPDATE users SET wrapped_data_key = ? WHERE id = ?", wrapped, dataKey.userId());
+        encryptionService.evictDataKey(dataKey.userId());
+    }
+
+    private DataKey createKey(long userId, String vaultKey) {
+        byte[] raw = encryptionService.generateDataKey();
+        String wrapped = encryptionService.wrapDataKey(raw, vaultKey);
+        int updated = jdbcTemplate.update(
+                "UPDATE users SET wrapped_data_key = ? WHERE id = ? AND wrapped_data_key IS NULL", wrapped, userId);
+        if (updated == 0) {
+            // Lost a race with a concurrent request — use the key that won
+            String winner = loadWrappedKey(userId);
+            return winner == null ? null : toDataKey(userId, encryptionService.unwrapDataKey(winner, vaultKey));
+        }
+        logger.info("Created data key for user {}", userId);
+        return toDataKey(userId, raw);
+    }
+
+    private String loadWrappedKey(long userId) {
+        List<String> keys = jdbcTemplate.queryForList(
+                "SELECT wrapped_data_key FROM users WHERE id = ?", String.class, userId);
+        return keys.isEmpty() ? null : keys.get(0);
+    }
+
+    private static DataKey toDataKey(long userId, byte[] raw) {
+        return new DataKey(userId, new SecretKeySpec(raw, "AES"));
+    }
+}
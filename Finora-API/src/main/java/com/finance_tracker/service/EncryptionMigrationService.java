@@ -0,0 +1,219 @@
+package com.finance_tracker.service;
+
+import com.finance_tracker.exception.BusinessLogicException;
+import com.finance_tracker.utils.security.DataKey;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Re-encrypts {@code v1:}/{@code v2:} column values into the envelope format, keyset-paged per
+ * table so no more than one batch is held at a time.
+ *
+ * <p>v2 values need the vault key, so the nightly sweep only covers users without a vault;
+ * vault users migrate through {@code POST /api/users/vault/migrate} with the key in the
+ * request. Ledger snapshots are left alone: the ledger is append-only and its hash chain
+ * covers the stored ciphertext.
+ *
+ * <p>A user is migrated by at most one run at a time, whether it came from the endpoint or the
+ * sweep; the latest run per user is kept for {@link #getUserMigrationStatus}.
+ */
+@Service
+@RequiredArgsConstructor
+public class EncryptionMigrationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EncryptionMigrationService.class);
+    private static final int BATCH_SIZE = 500;
+
+    private static final List<EncryptedColumn> ENCRYPTED_COLUMNS = List.of(
+            new EncryptedColumn("expenses", "description"),
+            new EncryptedColumn("investments", "name"),
+            new EncryptedColumn("loans", "name"),
+            new EncryptedColumn("sips", "name")
+    );
+
+    private final FieldEncryptionService encryptionService;
+    private final DataKeyService dataKeyService;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<Long, MigrationRun> userRuns = new ConcurrentHashMap<>();
+
+    /**
+     * Migrates every non-vault user's legacy rows.
+     *
+     * @return total number of values re-encrypted
+     */
+    public int migrateAll() {
+        if (!encryptionService.isEnabled()) {
+            return 0;
+        }
+        List<Long> userIds = jdbcTemplate.queryForList(
+                "SELECT id FROM users WHERE vault_enabled = FALSE ORDER BY id", Long.class);
+        int total = 0;
+        for (Long userId : userIds) {
+            try {
+                DataKey dataKey = dataKeyService.resolveForRequest(userId, null);
+                MigrationRun run = dataKey != null ? begin(userId) : null;
+                if (run != null) {
+                    total += runMigration(run, userId, dataKey, null);
+                }
+            } catch (Exception e) {
+                logger.warn("Encryption migration failed for user {}: {}", userId, e.getMessage());
+            }
+        }
+        logger.info("Encryption migration sweep complete: {} values re-encrypted across {} users", total, userIds.size());
+        return total;
+    }
+
+    /**
+     * Re-encrypts one user's legacy values under {@code dataKey}. Values that cannot be
+     * decrypted (e.g. v2 without a vault key) are skipped and left as they are.
+     *
+     * @return number of values re-encrypted
+     */
+    public int migrateUser(long userId, DataKey dataKey, String vaultKey) {
+        return migrateUser(userId, dataKey, vaultKey, new MigrationRun(OffsetDateTime.now()));
+    }
+
+    /**
+     * Runs {@link #migrateUser} for one user on a virtual thread and returns at once. Rejected
+     * while a migration of the same user is still running.
+     */
+    public void startUserMigration(long userId, DataKey dataKey, String vaultKey) {
+        MigrationRun run = begin(userId);
+        if (run == null) {
+            throw new BusinessLogicException("An encryption migration is already running for this account");
+        }
+        Thread.ofVirtual().name("vault-migrate-" + userId).start(() -> {
+            try {
+                runMigration(run, userId, dataKey, vaultKey);
+            } catch (Exception e) {
+                logger.error("Background encryption migration failed for user {}: {}", userId, e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Progress of the user's latest migration run.
+     */
+    public Map<String, Object> getUserMigrationStatus(long userId) {
+        MigrationRun run = userRuns.get(userId);
+        Map<String, Object> status = new LinkedHashMap<>();
+        if (run == null) {
+            status.put("state", "idle");
+            return status;
+        }
+        status.put("state", run.isRunning() ? "running" : run.error != null ? "aborted" : "completed");
+        status.put("startedAt", run.startedAt);
+        status.put("finishedAt", run.finishedAt);
+        status.put("totalColumns", ENCRYPTED_COLUMNS.size());
+        status.put("completedColumns", run.completedColumns.get());
+        status.put("valuesMigrated", run.valuesMigrated.get());
+        if (run.error != null) {
+            status.put("error", run.error);
+        }
+        return status;
+    }
+
+    // Registers a new run for the user, or returns null if one is already running
+    private MigrationRun begin(long userId) {
+        MigrationRun run = new MigrationRun(OffsetDateTime.now());
+        MigrationRun current = userRuns.compute(userId,
+                (id, previous) -> previous != null && previous.isRunning() ? previous : run);
+        return current == run ? run : null;
+    }
+
+    private int runMigration(MigrationRun run, long userId, DataKey dataKey, String vaultKey) {
+        try {
+            return migrateUser(userId, dataKey, vaultKey, run);
+        } catch (RuntimeException e) {
+            run.error = e.getMessage();
+            throw e;
+        } finally {
+            run.finishedAt = OffsetDateTime.now();
+        }
+    }
+
+    private int migrateUser(long userId, DataKey dataKey, String vaultKey, MigrationRun run) {
+        int migrated = 0;
+        for (EncryptedColumn column : ENCRYPTED_COLUMNS) {
+            migrated += migrateColumn(userId, column, dataKey, vaultKey, run);
+            run.completedColumns.incrementAndGet();
+        }
+        if (migrated > 0) {
+            logger.info("Re-encrypted {} legacy values for user {}", migrated, userId);
+        }
+        return migrated;
+    }
+
+    private int migrateColumn(long userId, EncryptedColumn column, DataKey dataKey, String vaultKey,
+                              MigrationRun run) {
+        String select = "SELECT id, " + column.column() + " AS val FROM " + column.table()
+                + " WHERE user_id = ? AND id > ? AND (" + column.column() + " LIKE 'v1:%' OR "
+                + column.column() + " LIKE 'v2:%') ORDER BY id LIMIT " + BATCH_SIZE;
+        // Compare-and-set on the old ciphertext so a concurrent user edit is never overwritten
+        String update = "UPDATE " + column.table() + " SET " + column.column() + " = ? WHERE id = ? AND "
+                + column.column() + " = ?";
+
+        int migrated = 0;
+        long lastId = 0;
+        while (true) {
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(select, userId, lastId);
+            if (rows.isEmpty()) {
+                break;
+            }
+            List<Object[]> batch = new ArrayList<>(rows.size());
+            for (Map<String, Object> row : rows) {
+                long id = ((Number) row.get("id")).longValue();
+                String current = (String) row.get("val");
+                lastId = id;
+                try {
+                    String plaintext = encryptionService.decrypt(current, vaultKey);
+                    batch.add(new Object[]{encryptionService.encryptWithDataKey(plaintext, dataKey), id, current});
+                } catch (IllegalStateException e) {
+                    logger.debug("Skipping {}.{} id={}: {}", column.table(), column.column(), id, e.getMessage());
+                }
+            }
+            if (!batch.isEmpty()) {
+                for (int count : jdbcTemplate.batchUpdate(update, batch)) {
+                    migrated += Math.max(count, 0);
+                    run.valuesMigrated.addAndGet(Math.max(count, 0));
+                }
+            }
+            if (rows.size() < BATCH_SIZE) {
+                break;
+            }
+        }
+        return migrated;
+    }
+
+    private record EncryptedColumn(String table, String column) {
+    }
+
+    static final class MigrationRun {
+        final OffsetDateTime startedAt;
+        final AtomicInteger completedColumns = new AtomicInteger();
+        final AtomicLong valuesMigrated = new AtomicLong();
+        volatile OffsetDateTime finishedAt;
+        volatile String error;
+
+        MigrationRun(OffsetDateTime startedAt) {
+            this.startedAt = startedAt;
+        }
+
+        boolean isRunning() {
+            return finishedAt == null;
+        }
+    }
+}
@@ -12,6 +12,7 @@ import lombok.RequiredArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -137,43 +138,72 @@ public class ExpenseService {
         return total.divide(new BigDecimal("6"), 2, java.math.RoundingMode.HALF_UP);
     }
 
+    /**
+     * Creates many expenses at once and records their CREATE events as one ledger batch.
+     */
     @Transactional
-    public int bulkDelete(List<Long> ids) {
+    public List<Expense> saveExpenses(List<Expense> expenses) {
         Long userId = resolveUserId();
-        int count = 0;
-        for (Long id : ids) {
-            Expense expense = expenseRepository.findById(id).orElse(null);
-            if (expense == null) continue;
-            validateOwnership(expense.getUserId(), userId);
-            expenseRepository.deleteById(id);
-            ledgerService.recordEvent("EXPENSE", String.valueOf(id), "DELETE", expense, null, String.valueOf(userId));
-            count++;
+        for (Expense expense : expenses) {
+            if (expense.getDate() == null) {
+                expense.setDate(LocalDate.now());
+            }
+            expense.setUserId(userId);
         }
-        return count;
+        List<Expense> saved = expenseRepository.saveAll(expenses);
+        ledgerService.recordEvents(saved.stream()
+                .map(e -> new LedgerService.LedgerEntry("EXPENSE", String.valueOf(e.getId()), "CREATE", null, e))
+                .toList(), String.valueOf(userId));
+        return saved;
+    }
+
+    @Transactional
+    public int bulkDelete(List<Long> ids) {
+        Long userId = resolveUserId();
+        List<Expense> targets = loadOwned(ids, userId);
+        if (targets.isEmpty()) return 0;
+        expenseRepository.deleteAllByIdInBatch(targets.stream().map(Expense::getId).toList());
+        ledgerService.recordEvents(targets.stream()
+                .map(e -> new LedgerService.LedgerEntry("EXPENSE", String.valueOf(e.getId()), "DELETE", e, null))
+                .toList(), String.valueOf(userId));
+        return targets.size();
     }
 
     @Transactional
     public int bulkUpdate(List<Long> ids, String category, String paymentMethod) {
         Long userId = resolveUserId();
-        int count = 0;
-        for (Long id : ids) {
-            Expense expense = expenseRepository.findById(id).orElse(null);
-            if (expense == null) continue;
-            validateOwnership(expense.getUserId(), userId);
-            Expense before = new Expense();
-            before.setId(expense.getId());
-            before.setDescription(expense.getDescription());
-            before.setAmount(expense.getAmount());
-            before.setDate(expense.getDate());
-            before.setCategory(expense.getCategory());
-            before.setPaymentMethod(expense.getPaymentMethod());
-            before.setUserId(expense.getUserId());
-            if (category != null && !category.isBlank()) expense.setCategory(category);
-            if (paymentMethod != null && !paymentMethod.isBlank()) expense.setPaymentMethod(paymentMethod);
-            expenseRepository.save(expense);
-            ledgerService.recordEvent("EXPENSE", String.valueOf(id), "UPDATE", before, expense, String.valueOf(userId));
-            count++;
+        List<Expense> targets = loadOwned(ids, userId);
+        if (targets.isEmpty()) return 0;
+        String newCategory = category != null && !category.isBlank() ? category : null;
+        String newPaymentMethod = paymentMethod != null && !paymentMethod.isBlank() ? paymentMethod : null;
+
+        List<LedgerService.LedgerEntry> entries = new ArrayList<>(targets.size());
+        for (Expense before : targets) {
+            // Edit a copy: touching the managed row would flush a per-row UPDATE ahead of the bulk one
+            Expense after = copyOf(before);
+            if (newCategory != null) after.setCategory(newCategory);
+            if (newPaymentMethod != null) after.setPaymentMethod(newPaymentMethod);
+            entries.add(new LedgerService.LedgerEntry("EXPENSE", String.valueOf(before.getId()), "UPDATE", before, after));
         }
-        return count;
+        expenseRepository.updateCategoryAndPaymentMethod(
+                targets.stream().map(Expense::getId).toList(), newCategory, newPaymentMethod);
+        ledgerService.recordEvents(entries, String.valueOf(userId));
+        return targets.size();
+    }
+
+    private List<Expense> loadOwned(List<Long> ids, Long userId) {
+        return OwnedRecords.loadOwned(expenseRepository, ids, e -> validateOwnership(e.getUserId(), userId));
+    }
+
+    private static Expense copyOf(Expense expense) {
+        Expense copy = new Expense();
+        copy.setId(expense.getId());
+        copy.setDescription(expense.getDescription());
+        copy.setAmount(expense.getAmount());
+        copy.setDate(expense.getDate());
+        copy.setCategory(expense.getCategory());
+        copy.setPaymentMethod(expense.getPaymentMethod());
+        copy.setUserId(expense.getUserId());
+        return copy;
     }
 }
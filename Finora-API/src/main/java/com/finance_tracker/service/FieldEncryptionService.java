@@ -1,19 +1,38 @@
 package com.finance_tracker.service;
 
+import com.finance_tracker.utils.security.DataKey;
+import com.finance_tracker.utils.security.VaultKeyContext;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.Cipher;
 import javax.crypto.SecretKey;
-import javax.crypto.SecretKeyFactory;
 import javax.crypto.spec.GCMParameterSpec;
-import javax.crypto.spec.PBEKeySpec;
 import javax.crypto.spec.SecretKeySpec;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.security.SecureRandom;
 import java.util.Base64;
-
+import java.util.function.LongFunction;
+
+/**
+ * Column-level AES-256-GCM encryption.
+ *
+ * <p>Ciphertext formats:
+ * <ul>
+ *   <li>{@code v1:} — PBKDF2(server key, random salt) per value. Still written by
+ *       {@link #encryptDeterministic} so equality lookups on existing rows keep matching.</li>
+ *   <li>{@code v2:} — v1 wrapped in a second PBKDF2 layer keyed by the vault key. Read-only.</li>
+ *   <li>{@code v3:} — first byte selects the key source:
+ *     <ul>
+ *       <li>{@code 0x01}/{@code 0x02} — server key, optionally under a vault layer; per-value keys
+ *           come from {@link FieldKeyManager} via HKDF over a cached master key.</li>
+ *       <li>{@code 0x03} — envelope mode: the owning user's data key, random IV only. The data key
+ *           itself is stored wrapped (as a 0x01/0x02 value) in {@code users.wrapped_data_key}.</li>
+ *     </ul>
+ *   </li>
+ * </ul>
+ */
 @Service
 public class FieldEncryptionService {
 
@@ -22,11 +41,22 @@ public class FieldEncryptionService {
     private static final int GCM_IV_LENGTH_BYTES = 12;
     private static final int SALT_LENGTH_BYTES = 16;
     private static final int PBKDF2_ITERATIONS = 310_000;
-    private static final int KEY_LENGTH_BITS = 256;
     private static final String KEY_VERSION_PREFIX = "v1:";
+    private static final String V2_PREFIX = "v2:";
+    private static final String V3_PREFIX = "v3:";
+    private static final byte V3_MODE_SERVER = 0x01;
+    private static final byte V3_MODE_VAULT = 0x02;
+    private static final byte V3_MODE_DATA_KEY = 0x03;
+    private static final int DATA_KEY_LENGTH_BYTES = 32;
+    private static final int MASTER_KEY_CACHE_SIZE = 1_024;
+    private static final int LEGACY_KEY_CACHE_SIZE = 10_000;
+    private static final int DATA_KEY_CACHE_SIZE = 4_096;
 
     private final SecureRandom secureRandom = new SecureRandom();
     private final String serverKey;
+    private final FieldKeyManager keyManager = new FieldKeyManager(
+            PBKDF2_ITERATIONS, MASTER_KEY_CACHE_SIZE, LEGACY_KEY_CACHE_SIZE, DATA_KEY_CACHE_SIZE);
+    private volatile LongFunction<String> wrappedDataKeyLoader;
 
     public FieldEncryptionService(@Value("${field.encryption.key:}") String serverKey) {
         this.serverKey = serverKey;
@@ -59,12 +89,46 @@ public class FieldEncryptionService {
         }
 
         try {
-            String serverEncrypted = doEncrypt(plaintext, serverKey, false);
+            byte[] payload = sealV3(V3_MODE_SERVER, serverKey, plaintext.getBytes(StandardCharsets.UTF_8));
             if (vaultKey != null && !vaultKey.isBlank()) {
-                String vaultEncrypted = doEncrypt(serverEncrypted, vaultKey, false);
-                return "v2:" + vaultEncrypted.substring(KEY_VERSION_PREFIX.length());
+                payload = sealV3(V3_MODE_VAULT, vaultKey, payload);
             }
-            return serverEncrypted;
+            return V3_PREFIX + Base64.getEncoder().encodeToString(payload);
+        } catch (Exception e) {
+            throw new IllegalStateException("Encryption failed", e);
+        }
+    }
+
+    /**
+     * Envelope-mode encryption with the owner's data key: one AES-GCM call, no key derivation.
+     */
+    public String encryptWithDataKey(String plaintext, DataKey dataKey) {
+        if (plaintext == null || plaintext.isEmpty()) {
+            return plaintext;
+        }
+        if (!isEnabled()) {
+            return plaintext;
+        }
+        if (isEncrypted(plaintext)) {
+            return plaintext;
+        }
+
+        try {
+            byte[] iv = new byte[GCM_IV_LENGTH_BYTES];
+            secureRandom.nextBytes(iv);
+            byte[] header = dataKeyHeader(dataKey.userId());
+
+            Cipher cipher = Cipher.getInstance(ALGORITHM);
+            cipher.init(Cipher.ENCRYPT_MODE, dataKey.key(), new GCMParameterSpec(GCM_TAG_LENGTH_BITS, iv));
+            cipher.updateAAD(header);
+            byte[] ciphertext = cipher.doFinal(plaintext.getBytes(StandardCharsets.UTF_8));
+
+            byte[] payload = ByteBuffer.allocate(header.length + GCM_IV_LENGTH_BYTES + ciphertext.length)
+                    .put(header)
+                    .put(iv)
+                    .put(ciphertext)
+                    .array();
+            return V3_PREFIX + Base64.getEncoder().encodeToString(payload);
         } catch (Exception e) {
             throw new IllegalStateException("Encryption failed", e);
         }
@@ -104,11 +168,14 @@ public class FieldEncryptionService {
         }
 
         try {
-            if (ciphertext.startsWith("v2:")) {
+            if (ciphertext.startsWith(V3_PREFIX)) {
+                return decryptV3(ciphertext, vaultKey);
+            }
+            if (ciphertext.startsWith(V2_PREFIX)) {
                 if (vaultKey == null || vaultKey.isBlank()) {
                     throw new IllegalStateException("Vault key required to decrypt v2: ciphertext");
                 }
-                String vaultDecrypted = doDecrypt(KEY_VERSION_PREFIX + ciphertext.substring(3), vaultKey);
+                String vaultDecrypted = doDecrypt(KEY_VERSION_PREFIX + ciphertext.substring(V2_PREFIX.length()), vaultKey);
                 return doDecrypt(vaultDecrypted, serverKey);
             } else {
                 return doDecrypt(ciphertext, serverKey);
@@ -119,22 +186,79 @@ public class FieldEncryptionService {
     }
 
     public boolean isEncrypted(String value) {
-        return value != null && (value.startsWith("v1:") || value.startsWith("v2:"));
+        return value != null
+                && (value.startsWith(KEY_VERSION_PREFIX) || value.startsWith(V2_PREFIX) || value.startsWith(V3_PREFIX));
     }
 
-    public byte[] deriveKey(String passphrase, byte[] salt) {
-        try {
-            SecretKeyFactory factory = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256");
-            PBEKeySpec spec = new PBEKeySpec(
-                    passphrase.toCharArray(),
-                    salt,
-                    PBKDF2_ITERATIONS,
-                    KEY_LENGTH_BITS
-            );
-            return factory.generateSecret(spec).getEncoded();
-        } catch (Exception e) {
-            throw new IllegalStateException("Key derivation failed", e);
+    /**
+     * @return true for formats that predate envelope keys and should be re-encrypted.
+     */
+    public boolean isLegacyFormat(String value) {
+        return value != null && (value.startsWith(KEY_VERSION_PREFIX) || value.startsWith(V2_PREFIX));
+    }
+
+    // ========== Data keys ==========
+
+    public byte[] generateDataKey() {
+        byte[] key = new byte[DATA_KEY_LENGTH_BYTES];
+        secureRandom.nextBytes(key);
+        return key;
+    }
+
+    /**
+     * Wraps a data key under the server key, plus the vault key when one is given.
+     */
+    public String wrapDataKey(byte[] dataKey, String vaultKey) {
+        return encrypt(Base64.getEncoder().encodeToString(dataKey), vaultKey);
+    }
+
+    public byte[] unwrapDataKey(String wrappedDataKey, String vaultKey) {
+        return Base64.getDecoder().decode(decrypt(wrappedDataKey, vaultKey));
+    }
+
+    public boolean isVaultWrapped(String wrappedDataKey) {
+        if (wrappedDataKey == null || !wrappedDataKey.startsWith(V3_PREFIX)) {
+            return false;
         }
+        byte[] head = Base64.getDecoder().decode(wrappedDataKey.substring(V3_PREFIX.length(), V3_PREFIX.length() + 4));
+        return head[0] == V3_MODE_VAULT;
+    }
+
+    /**
+     * Registers the lookup used to fetch a user's wrapped data key when an envelope ciphertext is
+     * read outside that user's request (schedulers, bulk jobs).
+     */
+    public void setWrappedDataKeyLoader(LongFunction<String> wrappedDataKeyLoader) {
+        this.wrappedDataKeyLoader = wrappedDataKeyLoader;
+    }
+
+    public void evictDataKey(long userId) {
+        keyManager.evictDataKey(userId);
+    }
+
+    public byte[] deriveKey(String passphrase, byte[] salt) {
+        return keyManager.pbkdf2(passphrase, salt);
+    }
+
+    /**
+     * @return hit/miss/eviction counters for the v3 master-key cache.
+     */
+    public FieldKeyManager.CacheStats getMasterKeyCacheStats() {
+        return keyManager.masterStats();
+    }
+
+    /**
+     * @return hit/miss/eviction counters for the v1/v2 per-salt key cache.
+     */
+    public FieldKeyManager.CacheStats getLegacyKeyCacheStats() {
+        return keyManager.legacyStats();
+    }
+
+    /**
+     * @return hit/miss/eviction counters for the unwrapped (server-wrapped) data-key cache.
+     */
+    public FieldKeyManager.CacheStats getDataKeyCacheStats() {
+        return keyManager.dataKeyStats();
     }
 
     public byte[] generateSalt() {
@@ -157,7 +281,7 @@ public class FieldEncryptionService {
             secureRandom.nextBytes(iv);
         }
 
-        SecretKey key = deriveSecretKey(keyMaterial, salt);
+        SecretKey key = keyManager.legacyKey(keyMaterial, salt);
 
         Cipher cipher = Cipher.getInstance(ALGORITHM);
         GCMParameterSpec gcmSpec = new GCMParameterSpec(GCM_TAG_LENGTH_BITS, iv);
@@ -190,7 +314,7 @@ public class FieldEncryptionService {
         buffer.get(iv);
         buffer.get(encrypted);
 
-        SecretKey key = deriveSecretKey(keyMaterial, salt);
+        SecretKey key = keyManager.legacyKey(keyMaterial, salt);
 
         Cipher cipher = Cipher.getInstance(ALGORITHM);
         GCMParameterSpec gcmSpec = new GCMParameterSpec(GCM_TAG_LENGTH_BITS, iv);
@@ -200,8 +324,104 @@ public class FieldEncryptionService {
         return new String(plainBytes, StandardCharsets.UTF_8);
     }
 
-    private SecretKey deriveSecretKey(String keyMaterial, byte[] salt) throws Exception {
-        byte[] keyBytes = deriveKey(keyMaterial, salt);
-        return new SecretKeySpec(keyBytes, "AES");
+    private String decryptV3(String ciphertext, String vaultKey) throws Exception {
+        byte[] payload = Base64.getDecoder().decode(ciphertext.substring(V3_PREFIX.length()));
+        if (payload.length > 0 && payload[0] == V3_MODE_DATA_KEY) {
+            return openWithDataKey(payload);
+        }
+        if (payload.length > 0 && payload[0] == V3_MODE_VAULT) {
+            if (vaultKey == null || vaultKey.isBlank()) {
+                throw new IllegalStateException("Vault key required to decrypt vault-layer v3: ciphertext");
+            }
+            payload = openV3(V3_MODE_VAULT, vaultKey, payload);
+        }
+        return new String(openV3(V3_MODE_SERVER, serverKey, payload), StandardCharsets.UTF_8);
+    }
+
+    // Pack: mode ‖ userId ‖ iv ‖ ciphertext — mode and userId are authenticated as AAD
+    private String openWithDataKey(byte[] payload) throws Exception {
+        int headerLength = 1 + Long.BYTES;
+        if (payload.length < headerLength + GCM_IV_LENGTH_BYTES) {
+            throw new IllegalArgumentException("Malformed v3 ciphertext");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        buffer.get();
+        long userId = buffer.getLong();
+        byte[] iv = new byte[GCM_IV_LENGTH_BYTES];
+        byte[] encrypted = new byte[payload.length - headerLength - GCM_IV_LENGTH_BYTES];
+        buffer.get(iv);
+        buffer.get(encrypted);
+
+        SecretKey key = resolveDataKey(userId);
+        if (key == null) {
+            throw new IllegalStateException("Data key unavailable for user " + userId);
+        }
+        Cipher cipher = Cipher.getInstance(ALGORITHM);
+        cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_LENGTH_BITS, iv));
+        cipher.updateAAD(payload, 0, headerLength);
+        return new String(cipher.doFinal(encrypted), StandardCharsets.UTF_8);
+    }
+
+    // The request-bound key wins; otherwise only server-wrapped keys can be unwrapped here.
+    private SecretKey resolveDataKey(long userId) {
+        DataKey current = VaultKeyContext.getDataKey();
+        if (current != null && current.userId() == userId) {
+            return current.key();
+        }
+        LongFunction<String> loader = wrappedDataKeyLoader;
+        if (loader == null) {
+            return null;
+        }
+        return keyManager.dataKey(userId, id -> {
+            String wrapped = loader.apply(id);
+            if (wrapped == null || isVaultWrapped(wrapped)) {
+                return null;
+            }
+            return new SecretKeySpec(unwrapDataKey(wrapped, null), "AES");
+        });
+    }
+
+    private static byte[] dataKeyHeader(long userId) {
+        return ByteBuffer.allocate(1 + Long.BYTES).put(V3_MODE_DATA_KEY).putLong(userId).array();
+    }
+
+    // Pack: mode ‖ salt ‖ iv ‖ ciphertext — key = HKDF(master(keyMaterial), salt)
+    private byte[] sealV3(byte mode, String keyMaterial, byte[] plaintext) throws Exception {
+        byte[] salt = new byte[SALT_LENGTH_BYTES];
+        byte[] iv = new byte[GCM_IV_LENGTH_BYTES];
+        secureRandom.nextBytes(salt);
+        secureRandom.nextBytes(iv);
+
+        Cipher cipher = Cipher.getInstance(ALGORITHM);
+        cipher.init(Cipher.ENCRYPT_MODE, keyManager.fieldKey(keyMaterial, salt),
+                new GCMParameterSpec(GCM_TAG_LENGTH_BITS, iv));
+        cipher.updateAAD(new byte[]{mode});
+        byte[] ciphertext = cipher.doFinal(plaintext);
+
+        return ByteBuffer.allocate(1 + SALT_LENGTH_BYTES + GCM_IV_LENGTH_BYTES + ciphertext.length)
+                .put(mode)
+                .put(salt)
+                .put(iv)
+                .put(ciphertext)
+                .array();
+    }
+
+    private byte[] openV3(byte expectedMode, String keyMaterial, byte[] payload) throws Exception {
+        if (payload.length < 1 + SALT_LENGTH_BYTES + GCM_IV_LENGTH_BYTES || payload[0] != expectedMode) {
+            throw new IllegalArgumentException("Malformed v3 ciphertext");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(payload, 1, payload.length - 1);
+        byte[] salt = new byte[SALT_LENGTH_BYTES];
+        byte[] iv = new byte[GCM_IV_LENGTH_BYTES];
+        byte[] encrypted = new byte[buffer.remaining() - SALT_LENGTH_BYTES - GCM_IV_LENGTH_BYTES];
+        buffer.get(salt);
+        buffer.get(iv);
+        buffer.get(encrypted);
+
+        Cipher cipher = Cipher.getInstance(ALGORITHM);
+        cipher.init(Cipher.DECRYPT_MODE, keyManager.fieldKey(keyMaterial, salt),
+                new GCMParameterSpec(GCM_TAG_LENGTH_BITS, iv));
+        cipher.updateAAD(new byte[]{expectedMode});
+        return cipher.doFinal(encrypted);
     }
 }
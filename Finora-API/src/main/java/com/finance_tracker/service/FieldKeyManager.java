@@ -0,0 +1,200 @@
+package com.finance_tracker.service;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+
+/**
+ * Key-management layer behind {@link FieldEncryptionService}.
+ *
+ * <p>PBKDF2 at 310k iterations is far too slow to run once per column value, so keys are
+ * handled in three tiers:
+ * <ul>
+ *   <li><b>Master keys</b> — one PBKDF2 run per distinct key material (server key, vault key),
+ *       cached. Per-value keys for the {@code v3:} format are derived from the master with
+ *       HKDF-SHA256, which costs two HMAC invocations.</li>
+ *   <li><b>Legacy keys</b> — {@code v1:}/{@code v2:} ciphertexts embed a random PBKDF2 salt, so
+ *       their keys cannot come from the master. A bounded LRU of (key material, salt) → key means
+ *       re-reading the same rows (e.g. paging through expenses) only pays PBKDF2 once per value.</li>
+ *   <li><b>Data keys</b> — per-user envelope keys unwrapped from {@code users.wrapped_data_key}.
+ *       Only server-wrapped keys are cached here; vault-wrapped keys live for one request in
+ *       {@code VaultKeyContext}.</li>
+ * </ul>
+ * Key material is never used as a cache key directly; it is fingerprinted with SHA-256 first.
+ */
+public class FieldKeyManager {
+
+    private static final String PBKDF2_ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int KEY_LENGTH_BITS = 256;
+    private static final int KEY_LENGTH_BYTES = KEY_LENGTH_BITS / 8;
+    private static final byte[] MASTER_KEY_SALT = "finora-field-master-v3".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] FIELD_KEY_INFO = "finora-field-key-v3".getBytes(StandardCharsets.UTF_8);
+
+    private final int pbkdf2Iterations;
+    private final BoundedCache<String, byte[]> masterKeys;
+    private final BoundedCache<String, SecretKey> legacyKeys;
+    private final BoundedCache<Long, SecretKey> dataKeys;
+
+    public FieldKeyManager(int pbkdf2Iterations, int masterCacheSize, int legacyCacheSize) {
+        this(pbkdf2Iterations, masterCacheSize, legacyCacheSize, masterCacheSize);
+    }
+
+    public FieldKeyManager(int pbkdf2Iterations, int masterCacheSize, int legacyCacheSize, int dataKeyCacheSize) {
+        this.pbkdf2Iterations = pbkdf2Iterations;
+        this.masterKeys = new BoundedCache<>(masterCacheSize);
+        this.legacyKeys = new BoundedCache<>(legacyCacheSize);
+        this.dataKeys = new BoundedCache<>(dataKeyCacheSize);
+    }
+
+    /**
+     * Per-value AES key for the {@code v3:} format: HKDF(master(keyMaterial), salt).
+     */
+    public SecretKey fieldKey(String keyMaterial, byte[] salt) {
+        byte[] master = masterKeys.computeIfAbsent(fingerprint(keyMaterial), k -> pbkdf2(keyMaterial, MASTER_KEY_SALT));
+        return new SecretKeySpec(hkdf(master, salt, FIELD_KEY_INFO), "AES");
+    }
+
+    /**
+     * AES key for {@code v1:}/{@code v2:} ciphertexts: PBKDF2(keyMaterial, salt), memoised.
+     */
+    public SecretKey legacyKey(String keyMaterial, byte[] salt) {
+        String cacheKey = fingerprint(keyMaterial) + ':' + HexFormat.of().formatHex(salt);
+        return legacyKeys.computeIfAbsent(cacheKey, k -> new SecretKeySpec(pbkdf2(keyMaterial, salt), "AES"));
+    }
+
+    /**
+     * A user's unwrapped data key. The loader may return null (no key, or vault-wrapped), in
+     * which case nothing is cached and the next call retries.
+     */
+    public SecretKey dataKey(long userId, LongFunction<SecretKey> loader) {
+        return dataKeys.computeIfAbsent(userId, loader::apply);
+    }
+
+    public void evictDataKey(long userId) {
+        dataKeys.remove(userId);
+    }
+
+    public byte[] pbkdf2(String passphrase, byte[] salt) {
+        try {
+            SecretKeyFactory factory = SecretKeyFactory.getInstance(PBKDF2_ALGORITHM);
+            PBEKeySpec spec = new PBEKeySpec(passphrase.toCharArray(), salt, pbkdf2Iterations, KEY_LENGTH_BITS);
+            try {
+                return factory.generateSecret(spec).getEncoded();
+            } finally {
+                spec.clearPassword();
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Key derivation failed", e);
+        }
+    }
+
+    public CacheStats masterStats() {
+        return masterKeys.stats();
+    }
+
+    public CacheStats legacyStats() {
+        return legacyKeys.stats();
+    }
+
+    public CacheStats dataKeyStats() {
+        return dataKeys.stats();
+    }
+
+    // RFC 5869 extract-and-expand, single output block (32 bytes).
+    static byte[] hkdf(byte[] ikm, byte[] salt, byte[] info) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(salt.length == 0 ? new byte[KEY_LENGTH_BYTES] : salt, HMAC_ALGORITHM));
+            byte[] prk = mac.doFinal(ikm);
+
+            mac.init(new SecretKeySpec(prk, HMAC_ALGORITHM));
+            mac.update(info);
+            mac.update((byte) 0x01);
+            byte[] okm = mac.doFinal();
+            Arrays.fill(prk, (byte) 0);
+            return okm;
+        } catch (Exception e) {
+            throw new IllegalStateException("Key expansion failed", e);
+        }
+    }
+
+    private static String fingerprint(String keyMaterial) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(keyMaterial.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (Exception e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public record CacheStats(long hits, long misses, long evictions, int size) {
+    }
+
+    /**
+     * Access-ordered LRU with hit/miss/eviction counters. Derivation runs outside the lock so a
+     * slow PBKDF2 miss never blocks hits on other keys; concurrent misses on the same key may
+     * both derive, which is harmless since the result is deterministic.
+     */
+    private static final class BoundedCache<K, V> {
+
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+        private final Map<K, V> entries;
+
+        BoundedCache(int maxSize) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                    if (size() > maxSize) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        V computeIfAbsent(K key, Function<K, V> loader) {
+            synchronized (entries) {
+                V cached = entries.get(key);
+                if (cached != null) {
+                    hits.increment();
+                    return cached;
+                }
+            }
+            misses.increment();
+            V loaded = loader.apply(key);
+            if (loaded != null) {
+                synchronized (entries) {
+                    entries.putIfAbsent(key, loaded);
+                }
+            }
+            return loaded;
+        }
+
+        void remove(K key) {
+            synchronized (entries) {
+                entries.remove(key);
+            }
+        }
+
+        CacheStats stats() {
+            synchronized (entries) {
+                return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), entries.size());
+            }
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.finance_tracker.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable inverted index over scheme names for type-ahead search, built once per AMFI refresh.
+ *
+ * <p>Names are split into lower-case alphanumeric tokens. The distinct tokens are kept sorted,
+ * so every query token, taken as a prefix, maps to one contiguous range of token ids and no name
+ * is scanned that does not contain the rarest query token. A name matches when every query token
+ * prefixes one of its tokens.
+ *
+ * <p>Ranking, best first: more query tokens matching whole words, then the first query token
+ * matching the first word of the name (usually the AMC), then fewer words in the name, then the
+ * name alphabetically. Names are numbered in that tie-break order when the index is built.
+ */
+final class FundNameIndex {
+
+    static final FundNameIndex EMPTY = build(Map.of());
+
+    record Match(String schemeCode, String name) {
+    }
+
+    // Documents ordered by word count, then name
+    private final String[] codes;
+    private final String[] names;
+    // Token ids of each name, in the order they occur
+    private final int[][] docTokens;
+    // Sorted distinct tokens and, per token, the ascending ids of the names containing it
+    private final String[] terms;
+    private final int[][] postings;
+    // Whether the token is the first word of at least one name
+    private final boolean[] leads;
+
+    private FundNameIndex(String[] codes, String[] names, int[][] docTokens, String[] terms, int[][] postings,
+                          boolean[] leads) {
+        this.codes = codes;
+        this.names = names;
+        this.docTokens = docTokens;
+        this.terms = terms;
+        this.postings = postings;
+        this.leads = leads;
+    }
+
+    private record Doc(String code, String name, List<String> tokens) {
+    }
+
+    static FundNameIndex build(Map<String, String> schemeNameByCode) {
+        List<Doc> docs = new ArrayList<>(schemeNameByCode.size());
+        schemeNameByCode.forEach((code, name) -> docs.add(new Doc(code, name, tokenize(name))));
+        return build(docs);
+    }
+
+    /** Indexes every scheme in {@code navs} that has a name. */
+    static FundNameIndex build(NavTable navs) {
+        List<Doc> docs = new ArrayList<>(navs.size());
+        navs.forEach((code, unscaledNav, scale, name) -> {
+            if (name != null) docs.add(new Doc(Integer.toString(code), name, tokenize(name)));
+        });
+        return build(docs);
+    }
+
+    private static FundNameIndex build(List<Doc> docs) {
+        // Doc ids follow the ranking tie-break, so equal scores are decided by the lower id
+        docs.sort(Comparator.<Doc>comparingInt(d -> d.tokens().size())
+                .thenComparing(Doc::name)
+                .thenComparing(Doc::code));
+
+        int docCount = docs.size();
+        String[] codes = new String[docCount];
+        String[] names = new String[docCount];
+        TreeMap<String, int[]> termFrequency = new TreeMap<>();
+        for (int doc = 0; doc < docCount; doc++) {
+            codes[doc] = docs.get(doc).code();
+            names[doc] = docs.get(doc).name();
+            for (String token : docs.get(doc).tokens().stream().distinct().toList()) {
+                termFrequency.computeIfAbsent(token, k -> new int[1])[0]++;
+            }
+        }
+
+        String[] terms = termFrequency.keySet().toArray(String[]::new);
+        int[][] postings = new int[terms.length][];
+        for (int term = 0; term < terms.length; term++) {
+            postings[term] = new int[termFrequency.get(terms[term])[0]];
+        }
+        int[] filled = new int[terms.length];
+        boolean[] leads = new boolean[terms.length];
+        int[][] docTokens = new int[docCount][];
+        for (int doc = 0; doc < docCount; doc++) {
+            List<String> tokens = docs.get(doc).tokens();
+            docTokens[doc] = new int[tokens.size()];
+            for (int i = 0; i < tokens.size(); i++) {
+                int term = Arrays.binarySearch(terms, tokens.get(i));
+                docTokens[doc][i] = term;
+                leads[term] |= i == 0;
+                // Docs are visited in ascending order, so each posting list comes out sorted
+                int last = filled[term] - 1;
+                if (last < 0 || postings[term][last] != doc) {
+                    postings[term][filled[term]++] = doc;
+                }
+            }
+        }
+        return new FundNameIndex(codes, names, docTokens, terms, postings, leads);
+    }
+
+    int size() {
+        return codes.length;
+    }
+
+    /**
+     * The best {@code limit} names matching every token of {@code query}, best first.
+     *
+     * <p>Only names holding the rarest query token are visited, in id order. Each is ranked by a
+     * single long, lower is better, and the scan stops once {@code limit} names reach the best
+     * score the query can get, since every later id would lose the tie-break.
+     */
+    List<Match> search(String query, int limit) {
+        List<String> queryTokens = tokenize(query);
+        if (queryTokens.isEmpty() || limit <= 0) return List.of();
+
+        int n = queryTokens.size();
+        int[] lo = new int[n];
+        int[] hi = new int[n];
+        int[] exact = new int[n];
+        int driver = -1;
+        long driverPostings = Long.MAX_VALUE;
+        for (int i = 0; i < n; i++) {
+            String prefix = queryTokens.get(i);
+            lo[i] = lowerBound(prefix);
+            hi[i] = lowerBound(prefix + Character.MAX_VALUE);
+            if (lo[i] == hi[i]) return List.of();
+            exact[i] = terms[lo[i]].equals(prefix) ? lo[i] : -1;
+            long total = 0;
+            for (int term = lo[i]; term < hi[i]; term++) total += postings[term].length;
+            if (total < driverPostings) {
+                driverPostings = total;
+                driver = i;
+            }
+        }
+        int bestScore = exact[0] >= 0 && leads[exact[0]] ? 1 : 0;
+        for (int i = 0; i < n; i++) bestScore += exact[i] >= 0 ? 2 : 1;
+
+        long[] top = new long[limit];
+        int found = 0;
+        long worstBest = rank(bestScore, Integer.MAX_VALUE);
+        if (hi[driver] - lo[driver] == 1) {
+            for (int doc : postings[lo[driver]]) {
+                found = offer(top, found, doc, score(docTokens[doc], lo, hi, exact));
+                if (found == limit && top[limit - 1] < worstBest) break;
+            }
+        } else {
+            BitSet candidates = new BitSet(codes.length);
+            for (int term = lo[driver]; term < hi[driver]; term++) {
+                for (int doc : postings[term]) candidates.set(doc);
+            }
+            for (int doc = candidates.nextSetBit(0); doc >= 0; doc = candidates.nextSetBit(doc + 1)) {
+                found = offer(top, found, doc, score(docTokens[doc], lo, hi, exact));
+                if (found == limit && top[limit - 1] < worstBest) break;
+            }
+        }
+
+        List<Match> matches = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) {
+            int doc = (int) top[i];
+            matches.add(new Match(codes[doc], names[doc]));
+        }
+        return matches;
+    }
+
+    /** Higher scores first, then lower ids. */
+    private static long rank(int score, int doc) {
+        return ((long) -score << 32) | (doc & 0xFFFFFFFFL);
+    }
+
+    /** Inserts into the ascending {@code top[0, found)} if it ranks among the best; the new size. */
+    private static int offer(long[] top, int found, int doc, int score) {
+        if (score < 0) return found;
+        long rank = rank(score, doc);
+        if (found == top.length && rank >= top[found - 1]) return found;
+        int i = Math.min(found, top.length - 1);
+        while (i > 0 && top[i - 1] > rank) {
+            top[i] = top[i - 1];
+            i--;
+        }
+        top[i] = rank;
+        return Math.min(found + 1, top.length);
+    }
+
+    /**
+     * Two points per query token that is a whole word of the name, one per token that is only a
+     * prefix, one more if the first query token is the first word; -1 if any query token has no
+     * match.
+     */
+    private static int score(int[] tokens, int[] lo, int[] hi, int[] exact) {
+        int score = 0;
+        for (int i = 0; i < lo.length; i++) {
+            int tokenScore = 0;
+            for (int position = 0; position < tokens.length && tokenScore < 2; position++) {
+                int term = tokens[position];
+                if (term == exact[i]) {
+                    tokenScore = 2;
+                    if (i == 0 && position == 0) score++;
+                } else if (term >= lo[i] && term < hi[i]) {
+                    tokenScore = 1;
+                }
+            }
+            if (tokenScore == 0) return -1;
+            score += tokenScore;
+        }
+        return score;
+    }
+
+    /** Index of the first term not less than {@code key}. */
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = terms.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (terms[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                token.append(Character.toLowerCase(c));
+            } else if (!token.isEmpty()) {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+        }
+        return tokens;
+    }
+}
@@ -1,9 +1,7 @@
 package com.finance_tracker.service;
 
 import com.finance_tracker.model.Investment;
-import com.finance_tracker.model.InvestmentType;
 import com.finance_tracker.repository.InvestmentRepository;
-import com.finance_tracker.utils.strategy.PriceProviderService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -22,8 +20,6 @@ public class InvestmentService {
     private static final Logger logger = LoggerFactory.getLogger(InvestmentService.class);
 
     private final InvestmentRepository investmentRepository;
-    private final PriceProviderService priceProviderService;
-    private final AmfiNavService amfiNavService;
     private final LedgerService ledgerService;
 
     private Long resolveUserId() {
@@ -132,79 +128,6 @@ public class InvestmentService {
         return investmentRepository.sumProfitLossByUserIdExcluding(userId, excludeIds);
     }
 
-    @Transactional
-    public void updateCurrentPrices() {
-        logger.info("Starting price update for all investments");
-        List<Investment> investments = investmentRepository.findAll();
-        int updatedCount = 0;
-        int failedCount = 0;
-
-        for (Investment investment : investments) {
-            try {
-                BigDecimal currentPrice;
-
-                if (investment.getType() == InvestmentType.MUTUAL_FUND) {
-                    if (investment.getSymbol() == null || investment.getSymbol().isBlank()) {
-                        logger.debug("Skipping MF price update for '{}' — no scheme code", investment.getName());
-                        failedCount++;
-                        continue;
-                    }
-                    currentPrice = amfiNavService.getNavBySchemeCode(investment.getSymbol()).orElse(null);
-                    if (currentPrice == null) {
-                        String sym = investment.getSymbol().replaceAll("\\.NS$|\\.BO$", "");
-                        currentPrice = amfiNavService.getNavBySchemeCode(sym).orElse(null);
-                        if (currentPrice != null) {
-                            investment.setSymbol(sym);
-                        } else {
-                            String resolved = amfiNavService.lookupSchemeCodeByIsin(sym).orElse(null);
-                            if (resolved == null && investment.getIsin() != null) {
-                                resolved = amfiNavService.lookupSchemeCodeByIsin(
-                                        investment.getIsin().replaceAll("\\.NS$|\\.BO$", "")).orElse(null);
-                            }
-                            if (resolved != null) {
-                                currentPrice = amfiNavService.getNavBySchemeCode(resolved).orElse(null);
-                                if (currentPrice != null) {
-                                    investment.setSymbol(resolved);
-                                }
-                            }
-                        }
-                    }
-                    if (currentPrice == null) {
-                        logger.warn("No AMFI NAV found for MF '{}' (symbol: {})",
-                                investment.getName(), investment.getSymbol());
-                        failedCount++;
-                        continue;
-                    }
-                } else {
-                    currentPrice = priceProviderService.fetchPrice(
-                            investment.getSymbol(), investment.getType());
-                }
-
-                if (currentPrice != null && currentPrice.compareTo(BigDecimal.ZERO) > 0) {
-                    BigDecimal scaledPrice = currentPrice.setScale(6, RoundingMode.HALF_UP);
-                    if (scaledPrice.toBigInteger().toString().length() > 13) {
-                        logger.warn("Price for {} exceeds column precision: {}. Skipping.",
-                                investment.getSymbol(), scaledPrice);
-                        failedCount++;
-                        continue;
-                    }
-                    investment.setCurrentPrice(scaledPrice);
-                    investment.setLastUpdated(LocalDate.now());
-                    investmentRepository.save(investment);
-                    updatedCount++;
-                } else {
-                    failedCount++;
-                    logger.error("No valid price for {} from any provider", investment.getSymbol());
-                }
-            } catch (Exception e) {
-                failedCount++;
-                logger.error("Error updating price for {}: {}", investment.getSymbol(), e.getMessage());
-            }
-        }
-
-        logger.info("Price update completed. Updated: {}, Failed: {}", updatedCount, failedCount);
-    }
-
     @Transactional
     public Investment addUnits(Long id, BigDecimal addQty, BigDecimal addPrice) {
         Long userId = resolveUserId();
@@ -276,15 +199,13 @@ public class InvestmentService {
     @Transactional
     public int bulkDelete(List<Long> ids) {
         Long userId = resolveUserId();
-        int count = 0;
-        for (Long id : ids) {
-            Investment inv = investmentRepository.findById(id).orElse(null);
-            if (inv == null) continue;
-            validateOwnership(inv.getUserId(), userId);
-            investmentRepository.deleteById(id);
-            ledgerService.recordEvent("INVESTMENT", String.valueOf(id), "DELETE", inv, null, String.valueOf(userId));
-            count++;
-        }
-        return count;
+        List<Investment> targets = OwnedRecords.loadOwned(investmentRepository, ids,
+                inv -> validateOwnership(inv.getUserId(), userId));
+        if (targets.isEmpty()) return 0;
+        investmentRepository.deleteAllByIdInBatch(targets.stream().map(Investment::getId).toList());
+        ledgerService.recordEvents(targets.stream()
+                .map(inv -> new LedgerService.LedgerEntry("INVESTMENT", String.valueOf(inv.getId()), "DELETE", inv, null))
+                .toList(), String.valueOf(userId));
+        return targets.size();
     }
 }
\ No newline at end of file
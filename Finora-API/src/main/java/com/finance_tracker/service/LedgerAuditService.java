@@ -0,0 +1,201 @@
+package com.finance_tracker.service;
+
+import com.finance_tracker.dto.LedgerIntegrityResultDTO;
+import com.finance_tracker.exception.BusinessLogicException;
+import com.finance_tracker.model.LedgerAuditResult;
+import com.finance_tracker.repository.LedgerAuditResultRepository;
+import com.finance_tracker.repository.LedgerChainHeadRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Verifies every user's ledger chain in one background run.
+ *
+ * <p>Each user is a virtual-thread task, but only {@code db-concurrency} of them may be inside
+ * {@link LedgerService#verifyIntegrity} at once; a verification holds one pooled connection for
+ * its whole stream, so the cap must stay below the Hikari pool size or request traffic starves.
+ * The latest outcome per user is persisted to {@code ledger_audit_results}; live progress is
+ * served by the {@code ledgeraudit} actuator endpoint.
+ */
+@Service
+public class LedgerAuditService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LedgerAuditService.class);
+
+    private final LedgerService ledgerService;
+    private final LedgerChainHeadRepository chainHeadRepository;
+    private final LedgerAuditResultRepository resultRepository;
+    private final int dbConcurrency;
+
+    private final AtomicReference<AuditRun> currentRun = new AtomicReference<>();
+
+    public LedgerAuditService(LedgerService ledgerService,
+                              LedgerChainHeadRepository chainHeadRepository,
+                              LedgerAuditResultRepository resultRepository,
+                              @Value("${finora.ledger.audit.db-concurrency:3}") int dbConcurrency) {
+        if (dbConcurrency < 1) {
+            throw new IllegalArgumentException("finora.ledger.audit.db-concurrency must be at least 1");
+        }
+        this.ledgerService = ledgerService;
+        this.chainHeadRepository = chainHeadRepository;
+        this.resultRepository = resultRepository;
+        this.dbConcurrency = dbConcurrency;
+    }
+
+    /**
+     * Starts an audit in the background and returns its run id. Only one run at a time.
+     */
+    public String startAudit(boolean full) {
+        AuditRun run = new AuditRun(UUID.randomUUID().toString(), full, OffsetDateTime.now());
+        AuditRun previous = currentRun.get();
+        if ((previous != null && previous.isRunning()) || !currentRun.compareAndSet(previous, run)) {
+            throw new BusinessLogicException("A ledger audit is already running");
+        }
+        Thread.ofVirtual().name("ledger-audit-" + run.runId).start(() -> runAudit(run));
+        return run.runId;
+    }
+
+    void runAudit(AuditRun run) {
+        try {
+            List<String> userIds = chainHeadRepository.findAllUserIds();
+            run.totalUsers.set(userIds.size());
+            logger.info("Ledger audit {} started: {} users, full={}, db concurrency {}",
+                    run.runId, userIds.size(), run.full, dbConcurrency);
+
+            Semaphore dbPermits = new Semaphore(dbConcurrency);
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (String userId : userIds) {
+                    executor.submit(() -> auditUser(run, userId, dbPermits));
+                }
+            }
+        } catch (Exception e) {
+            run.error = e.getMessage();
+            logger.error("Ledger audit {} aborted: {}", run.runId, e.getMessage(), e);
+        } finally {
+            run.finishedAt = OffsetDateTime.now();
+            logger.info("Ledger audit {} finished: {} valid, {} broken, {} failed",
+                    run.runId, run.validUsers.get(), run.brokenUsers.get(), run.failedUsers.get());
+        }
+    }
+
+    private void auditUser(AuditRun run, String userId, Semaphore dbPermits) {
+        try {
+            dbPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        // The permit covers the result write too: that is another connection checkout
+        try {
+            resultRepository.save(verify(run, userId));
+        } catch (Exception e) {
+            logger.error("Ledger audit {} could not store the result for user {}: {}", run.runId, userId, e.getMessage());
+        } finally {
+            dbPermits.release();
+            run.completedUsers.incrementAndGet();
+        }
+    }
+
+    private LedgerAuditResult verify(AuditRun run, String userId) {
+        LedgerAuditResult result = new LedgerAuditResult();
+        result.setUserId(userId);
+        result.setRunId(run.runId);
+        long start = System.nanoTime();
+        try {
+            LedgerIntegrityResultDTO integrity = ledgerService.verifyIntegrity(userId, run.full);
+            result.setValid(integrity.isValid());
+            result.setEventCount(integrity.getEventCount());
+            result.setCheckedCount(integrity.getCheckedCount());
+            result.setBrokenAtEventUuid(integrity.getBrokenAtEventUuid());
+            (integrity.isValid() ? run.validUsers : run.brokenUsers).incrementAndGet();
+            run.eventsChecked.addAndGet(integrity.getCheckedCount());
+        } catch (Exception e) {
+            result.setValid(false);
+            result.setError(e.getMessage());
+            run.failedUsers.incrementAndGet();
+            logger.warn("Ledger audit {} could not verify user {}: {}", run.runId, userId, e.getMessage());
+        }
+        result.setDurationMs(Duration.ofNanos(System.nanoTime() - start).toMillis());
+        result.setAuditedAt(OffsetDateTime.now());
+        return result;
+    }
+
+    public Map<String, Object> getStatus() {
+        AuditRun run = currentRun.get();
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("dbConcurrency", dbConcurrency);
+        if (run == null) {
+            status.put("state", "idle");
+            return status;
+        }
+        OffsetDateTime end = run.finishedAt != null ? run.finishedAt : OffsetDateTime.now();
+        double elapsedSeconds = Math.max(Duration.between(run.startedAt, end).toMillis(), 1) / 1000.0;
+
+        status.put("state", run.isRunning() ? "running" : run.error != null ? "aborted" : "completed");
+        status.put("runId", run.runId);
+        status.put("full", run.full);
+        status.put("startedAt", run.startedAt);
+        status.put("finishedAt", run.finishedAt);
+        status.put("totalUsers", run.totalUsers.get());
+        status.put("completedUsers", run.completedUsers.get());
+        status.put("validUsers", run.validUsers.get());
+        status.put("brokenUsers", run.brokenUsers.get());
+        status.put("failedUsers", run.failedUsers.get());
+        status.put("eventsChecked", run.eventsChecked.get());
+        status.put("usersPerSecond", round(run.completedUsers.get() / elapsedSeconds));
+        status.put("eventsPerSecond", round(run.eventsChecked.get() / elapsedSeconds));
+        if (run.error != null) {
+            status.put("error", run.error);
+        }
+        return status;
+    }
+
+    /**
+     * Users whose chain was broken, or could not be checked, in their latest audit.
+     */
+    public List<LedgerAuditResult> getFailures() {
+        return resultRepository.findByValidFalseOrderByAuditedAtDesc();
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    static final class AuditRun {
+        final String runId;
+        final boolean full;
+        final OffsetDateTime startedAt;
+        final AtomicLong totalUsers = new AtomicLong();
+        final AtomicLong completedUsers = new AtomicLong();
+        final AtomicLong validUsers = new AtomicLong();
+        final AtomicLong brokenUsers = new AtomicLong();
+        final AtomicLong failedUsers = new AtomicLong();
+        final AtomicLong eventsChecked = new AtomicLong();
+        volatile OffsetDateTime finishedAt;
+        volatile String error;
+
+        AuditRun(String runId, boolean full, OffsetDateTime startedAt) {
+            this.runId = runId;
+            this.full = full;
+            this.startedAt = startedAt;
+        }
+
+        boolean isRunning() {
+            return finishedAt == null;
+        }
+    }
+}
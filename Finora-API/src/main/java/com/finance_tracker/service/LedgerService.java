@@ -1,26 +1,71 @@
 package com.finance_tracker.service;
 
 import com.finance_tracker.dto.LedgerIntegrityResultDTO;
+import com.finance_tracker.model.LedgerChainHead;
+import com.finance_tracker.model.LedgerCheckpoint;
 import com.finance_tracker.model.LedgerEvent;
+import com.finance_tracker.model.LedgerOutboxEntry;
+import com.finance_tracker.repository.LedgerChainHeadRepository;
+import com.finance_tracker.repository.LedgerCheckpointRepository;
 import com.finance_tracker.repository.LedgerEventRepository;
+import com.finance_tracker.repository.LedgerOutboxRepository;
+import com.finance_tracker.repository.UserRepository;
 import com.finance_tracker.utils.HashingUtils;
+import com.finance_tracker.utils.security.DataKey;
 import com.finance_tracker.utils.security.VaultKeyContext;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class LedgerService {
 
     private final LedgerEventRepository ledgerEventRepository;
+    private final LedgerCheckpointRepository checkpointRepository;
+    private final LedgerChainHeadRepository chainHeadRepository;
+    private final UserRepository userRepository;
     private final HashingUtils hashingUtils;
     private final FieldEncryptionService encryptionService;
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final LedgerOutboxRepository outboxRepository;
 
+    // Queue appends in ledger_outbox and let LedgerOutboxWriter chain them in the background
+    @Value("${finora.ledger.async-append:false}")
+    private boolean asyncAppend;
+
+    private static final int INSERT_BATCH_SIZE = 500;
+    static final int OUTBOX_BATCH_SIZE = 500;
+
+    private static final String INSERT_EVENT_SQL = """
+            INSERT INTO ledger_events (id, event_uuid, entity_type, entity_id, action_type, before_state,
+                                       after_state, event_timestamp, prev_hash, hash, user_id, event_version)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)""";
+
+    /**
+     * One change to append to the ledger; see {@link #recordEvents(List, String)}.
+     */
+    public record LedgerEntry(String entityType, String entityId, String actionType, Object before, Object after) {
+    }
+
+    /**
+     * Appends one event to the user's chain.
+     *
+     * @return the stored event, or {@code null} when async append queued it to the outbox
+     */
     @Transactional
     public LedgerEvent recordEvent(
             String entityType,
@@ -30,89 +75,345 @@ public class LedgerService {
             Object after,
             String userId
     ) {
-        String beforeJson = hashingUtils.toCanonicalJson(before);
-        String afterJson = hashingUtils.toCanonicalJson(after);
+        // Encrypt the JSON blobs before storing (user data key if bound, else vault key if present).
+        // This has to happen here even in async mode: vault and data keys only live for the request.
+        LedgerOutboxEntry change = prepare(new LedgerEntry(entityType, entityId, actionType, before, after), userId);
 
-        // Encrypt the JSON blobs before storing (uses vault key if present)
-        String vaultKey = VaultKeyContext.get();
-        String encryptedBefore = before == null ? null : encryptionService.encrypt(beforeJson, vaultKey);
-        String encryptedAfter = after == null ? null : encryptionService.encrypt(afterJson, vaultKey);
+        if (asyncAppend) {
+            outboxRepository.save(change);
+            return null;
+        }
 
-        String prevHash = ledgerEventRepository
-                .findTopByUserIdOrderByEventSequenceDesc(userId)
-                .map(LedgerEvent::getHash)
-                .orElse(null);
+        LedgerChainHead head = lockChainHead(userId);
+        LedgerEvent event = buildEvent(change, head.getLastHash());
+
+        LedgerEvent saved = ledgerEventRepository.save(event);
+        advanceChainHead(head, event);
+
+        return saved;
+    }
+
+    /**
+     * Appends several events for one user as a single run of the chain: the head is locked once,
+     * hashes are chained in memory and the rows go out as JDBC batch inserts. Events are chained
+     * in list order.
+     *
+     * @return the stored events, or an empty list when async append queued them to the outbox
+     */
+    @Transactional
+    public List<LedgerEvent> recordEvents(List<LedgerEntry> entries, String userId) {
+        if (entries.isEmpty()) {
+            return List.of();
+        }
+
+        List<LedgerOutboxEntry> changes = new ArrayList<>(entries.size());
+        for (LedgerEntry entry : entries) {
+            changes.add(prepare(entry, userId));
+        }
+
+        if (asyncAppend) {
+            outboxRepository.saveAll(changes);
+            return List.of();
+        }
+
+        return appendChained(lockChainHead(userId), changes);
+    }
 
-        OffsetDateTime eventTimestamp = OffsetDateTime.now();
+    /**
+     * Moves up to {@code limit} queued outbox appends for the user onto the chain, oldest first.
+     * The chain-head lock makes the caller the user's only writer, and the rows leave the outbox
+     * in the same transaction that appends them, so a crash at any point leaves them queued.
+     *
+     * @return how many events were appended
+     */
+    @Transactional
+    public int appendPending(String userId, int limit) {
+        // Cheap probe first so idle users never take the head lock
+        if (outboxRepository.findByUserIdOrderByIdAsc(userId, Limit.of(1)).isEmpty()) {
+            return 0;
+        }
+        LedgerChainHead head = lockChainHead(userId);
+        // Re-read under the lock: a concurrent writer may have drained some or all of them
+        List<LedgerOutboxEntry> pending = outboxRepository.findByUserIdOrderByIdAsc(userId, Limit.of(limit));
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        appendChained(head, pending);
+        outboxRepository.deleteAllByIdInBatch(pending.stream().map(LedgerOutboxEntry::getId).toList());
+        return pending.size();
+    }
+
+    /**
+     * Drains the user's whole outbox; called before anything that reads the full chain. Runs in
+     * its own transaction when called from outside, so read-only callers (backup export) can use it.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int appendAllPending(String userId) {
+        int total = 0;
+        int appended;
+        do {
+            appended = appendPending(userId, OUTBOX_BATCH_SIZE);
+            total += appended;
+        } while (appended == OUTBOX_BATCH_SIZE);
+        return total;
+    }
 
+    /**
+     * Drops the user's queued appends; used when their data and chain are replaced wholesale
+     * (backup restore), which makes the queued changes moot.
+     */
+    @Transactional
+    public void discardPending(String userId) {
+        outboxRepository.deleteByUserId(userId);
+    }
+
+    private LedgerOutboxEntry prepare(LedgerEntry entry, String userId) {
+        LedgerOutboxEntry change = new LedgerOutboxEntry();
+        change.setUserId(userId);
+        change.setEntityType(entry.entityType());
+        change.setEntityId(entry.entityId());
+        change.setActionType(entry.actionType());
+        change.setBeforeState(encryptState(entry.before()));
+        change.setAfterState(encryptState(entry.after()));
+        change.setEventTimestamp(OffsetDateTime.now());
+        return change;
+    }
+
+    private List<LedgerEvent> appendChained(LedgerChainHead head, List<LedgerOutboxEntry> changes) {
+        String prevHash = head.getLastHash();
+        List<LedgerEvent> events = new ArrayList<>(changes.size());
+        for (LedgerOutboxEntry change : changes) {
+            LedgerEvent event = buildEvent(change, prevHash);
+            events.add(event);
+            prevHash = event.getHash();
+        }
+
+        // Pending JPA inserts (earlier single appends) must reach the table first, or their
+        // event_sequence would land after this batch while their hashes come before it.
+        entityManager.flush();
+        jdbcTemplate.batchUpdate(INSERT_EVENT_SQL, events, INSERT_BATCH_SIZE, (ps, event) -> {
+            ps.setObject(1, event.getId());
+            ps.setObject(2, event.getEventUuid());
+            ps.setString(3, event.getEntityType());
+            ps.setString(4, event.getEntityId());
+            ps.setString(5, event.getActionType());
+            ps.setString(6, event.getBeforeState());
+            ps.setString(7, event.getAfterState());
+            ps.setObject(8, event.getEventTimestamp());
+            ps.setString(9, event.getPrevHash());
+            ps.setString(10, event.getHash());
+            ps.setString(11, event.getUserId());
+            ps.setInt(12, event.getEventVersion());
+        });
+
+        advanceChainHead(head, events.get(events.size() - 1));
+        return events;
+    }
+
+    // Hash is computed over encrypted data — chain integrity preserved
+    private LedgerEvent buildEvent(LedgerOutboxEntry change, String prevHash) {
         int eventVersion = 1;
 
-        // Hash is computed over encrypted data — chain integrity preserved
         String hash = hashingUtils.computeHash(
-                entityType,
-                entityId,
-                actionType,
-                encryptedBefore != null ? encryptedBefore : "null",
-                encryptedAfter != null ? encryptedAfter : "null",
-                eventTimestamp.toString(),
+                change.getEntityType(),
+                change.getEntityId(),
+                change.getActionType(),
+                change.getBeforeState() != null ? change.getBeforeState() : "null",
+                change.getAfterState() != null ? change.getAfterState() : "null",
+                change.getEventTimestamp().toString(),
                 prevHash,
-                userId,
+                change.getUserId(),
                 eventVersion
         );
 
         LedgerEvent event = new LedgerEvent();
         event.setId(UUID.randomUUID());
         event.setEventUuid(UUID.randomUUID());
-        event.setEntityType(entityType);
-        event.setEntityId(entityId);
-        event.setActionType(actionType);
-        event.setBeforeState(encryptedBefore);
-        event.setAfterState(encryptedAfter);
-        event.setEventTimestamp(eventTimestamp);
+        event.setEntityType(change.getEntityType());
+        event.setEntityId(change.getEntityId());
+        event.setActionType(change.getActionType());
+        event.setBeforeState(change.getBeforeState());
+        event.setAfterState(change.getAfterState());
+        event.setEventTimestamp(change.getEventTimestamp());
         event.setPrevHash(prevHash);
         event.setHash(hash);
-        event.setUserId(userId);
+        event.setUserId(change.getUserId());
         event.setEventVersion(eventVersion);
+        return event;
+    }
 
-        return ledgerEventRepository.save(event);
+    private void advanceChainHead(LedgerChainHead head, LedgerEvent last) {
+        head.setLastHash(last.getHash());
+        head.setUpdatedAt(last.getEventTimestamp());
+        chainHeadRepository.save(head);
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * Locks the user's chain head until the current transaction ends, creating it on first use.
+     * Every append goes through here, so appends for one user are serialised and each one
+     * chains onto the previous append's hash.
+     */
+    @Transactional
+    public LedgerChainHead lockChainHead(String userId) {
+        return chainHeadRepository.findByUserIdForUpdate(userId)
+                .orElseGet(() -> createChainHead(userId));
+    }
+
+    /**
+     * Points the chain head at {@code lastHash}; used after the chain is replaced wholesale
+     * (backup restore). Callers should already hold the head lock from before the rewrite.
+     */
+    @Transactional
+    public void resetChainHead(String userId, String lastHash) {
+        LedgerChainHead head = lockChainHead(userId);
+        head.setLastHash(lastHash);
+        head.setUpdatedAt(OffsetDateTime.now());
+        chainHeadRepository.save(head);
+    }
+
+    // There is no head row to lock yet, so concurrent first appends serialise on the users row
+    // instead and re-check once they hold it.
+    private LedgerChainHead createChainHead(String userId) {
+        lockUserRow(userId);
+        return chainHeadRepository.findByUserIdForUpdate(userId).orElseGet(() -> {
+            LedgerChainHead head = new LedgerChainHead();
+            head.setUserId(userId);
+            // Seed from the chain itself in case it predates chain heads
+            head.setLastHash(ledgerEventRepository.findTopByUserIdOrderByEventSequenceDesc(userId)
+                    .map(LedgerEvent::getHash)
+                    .orElse(null));
+            head.setUpdatedAt(OffsetDateTime.now());
+            return chainHeadRepository.saveAndFlush(head);
+        });
+    }
+
+    private void lockUserRow(String userId) {
+        try {
+            userRepository.lockById(Long.parseLong(userId));
+        } catch (NumberFormatException e) {
+            // Ledger owners are user ids; nothing to lock for anything else
+        }
+    }
+
+    private String encryptState(Object state) {
+        return state == null ? null : encryptSnapshot(hashingUtils.toCanonicalJson(state));
+    }
+
+    // Same policy as EncryptedStringConverter: no server-key fallback when no data key is bound
+    private String encryptSnapshot(String json) {
+        if (!encryptionService.isEnabled()) {
+            return json;
+        }
+        DataKey dataKey = VaultKeyContext.getDataKey();
+        if (dataKey == null) {
+            throw new IllegalStateException("No data key bound for this write; send the X-Vault-Key header if the vault is enabled");
+        }
+        return encryptionService.encryptWithDataKey(json, dataKey);
+    }
+
+    @Transactional
     public LedgerIntegrityResultDTO verifyIntegrity(String userId) {
-        List<LedgerEvent> events = ledgerEventRepository.findByUserIdOrderByEventSequenceAsc(userId);
-
-        String prevHash = null;
-
-        for (LedgerEvent event : events) {
-            String recomputed = hashingUtils.computeHash(
-                    event.getEntityType(),
-                    event.getEntityId(),
-                    event.getActionType(),
-                    event.getBeforeState() == null ? "null" : event.getBeforeState(),
-                    event.getAfterState() == null ? "null" : event.getAfterState(),
-                    event.getEventTimestamp().toString(),
-                    prevHash,
-                    event.getUserId(),
-                    event.getEventVersion()
-            );
-
-            if (!recomputed.equals(event.getHash())) {
-                return LedgerIntegrityResultDTO.builder()
-                        .valid(false)
-                        .eventCount(events.size())
-                        .brokenAtEventUuid(event.getEventUuid().toString())
-                        .build();
+        return verifyIntegrity(userId, false);
+    }
+
+    /**
+     * Verifies the user's hash chain. Incremental runs resume from the stored checkpoint and
+     * only rehash newer events; {@code full} rehashes from genesis. The checkpoint advances
+     * only over events that verified.
+     *
+     * <p>Events are streamed and detached one by one, so memory stays flat however long the
+     * chain is; before/after states are large encrypted blobs. Queued outbox appends are
+     * chained first so the result covers every committed change.
+     */
+    @Transactional
+    public LedgerIntegrityResultDTO verifyIntegrity(String userId, boolean full) {
+        appendAllPending(userId);
+
+        LedgerCheckpoint checkpoint = full ? null : checkpointRepository.findById(userId)
+                .filter(cp -> checkpointAnchored(userId, cp))
+                .orElse(null);
+
+        long lastSequence = checkpoint == null ? 0L : checkpoint.getLastEventSequence();
+        String prevHash = checkpoint == null ? null : checkpoint.getLastHash();
+        long verifiedCount = checkpoint == null ? 0L : checkpoint.getEventCount();
+        long checked = 0;
+
+        try (Stream<LedgerEvent> events = ledgerEventRepository.streamByUserIdAfterSequence(userId, lastSequence)) {
+            Iterator<LedgerEvent> it = events.iterator();
+            while (it.hasNext()) {
+                LedgerEvent event = it.next();
+                checked++;
+                if (!recomputeHash(event, prevHash).equals(event.getHash())) {
+                    if (full) {
+                        // The checkpointed prefix can no longer be trusted either
+                        checkpointRepository.deleteById(userId);
+                    }
+                    return LedgerIntegrityResultDTO.builder()
+                            .valid(false)
+                            .eventCount(ledgerEventRepository.countByUserId(userId))
+                            .brokenAtEventUuid(event.getEventUuid().toString())
+                            .checkedCount(checked)
+                            .fullVerification(checkpoint == null)
+                            .build();
+                }
+                prevHash = event.getHash();
+                lastSequence = event.getEventSequence();
+                verifiedCount++;
+                entityManager.detach(event);
             }
+        }
 
-            prevHash = event.getHash();
+        if (checked > 0) {
+            saveCheckpoint(userId, lastSequence, prevHash, verifiedCount);
         }
 
         return LedgerIntegrityResultDTO.builder()
                 .valid(true)
-                .eventCount(events.size())
+                .eventCount(verifiedCount)
+                .checkedCount(checked)
+                .fullVerification(checkpoint == null)
                 .build();
     }
 
+    /**
+     * Drops the user's checkpoint; required whenever their chain is rewritten (backup restore).
+     */
+    public void resetCheckpoint(String userId) {
+        checkpointRepository.deleteById(userId);
+    }
+
+    // A checkpoint is only usable while the event it points at still carries the verified hash.
+    // If not, fall back to a full pass so the break is reported at its real position.
+    private boolean checkpointAnchored(String userId, LedgerCheckpoint checkpoint) {
+        return ledgerEventRepository.findByUserIdAndEventSequence(userId, checkpoint.getLastEventSequence())
+                .map(event -> checkpoint.getLastHash().equals(event.getHash()))
+                .orElse(false);
+    }
+
+    private String recomputeHash(LedgerEvent event, String prevHash) {
+        return hashingUtils.computeHash(
+                event.getEntityType(),
+                event.getEntityId(),
+                event.getActionType(),
+                event.getBeforeState() == null ? "null" : event.getBeforeState(),
+                event.getAfterState() == null ? "null" : event.getAfterState(),
+                event.getEventTimestamp().toString(),
+                prevHash,
+                event.getUserId(),
+                event.getEventVersion()
+        );
+    }
+
+    private void saveCheckpoint(String userId, long lastSequence, String lastHash, long eventCount) {
+        LedgerCheckpoint checkpoint = new LedgerCheckpoint();
+        checkpoint.setUserId(userId);
+        checkpoint.setLastEventSequence(lastSequence);
+        checkpoint.setLastHash(lastHash);
+        checkpoint.setEventCount(eventCount);
+        checkpoint.setVerifiedAt(OffsetDateTime.now());
+        checkpointRepository.save(checkpoint);
+    }
+
     @Transactional(readOnly = true)
     public List<LedgerEvent> getTimeline(String entityType, String entityId) {
         return ledgerEventRepository.findByEntityTypeAndEntityIdOrderByEventSequenceAsc(entityType, entityId);
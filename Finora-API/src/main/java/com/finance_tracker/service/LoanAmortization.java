@@ -0,0 +1,122 @@
+package com.finance_tracker.service;
+
+import com.finance_tracker.model.CompoundingFrequency;
+import com.finance_tracker.model.Loan;
+import com.finance_tracker.model.LoanInterestType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Amortisation of a fixed-EMI loan at a constant monthly rate.
+ *
+ * <p>Simple-interest and monthly-compounded loans accrue {@code annualRate / 12} a month. Loans
+ * compounded quarterly or yearly accrue the equivalent monthly rate, {@code (1 + annualRate / m)
+ * ^ (m / 12) - 1}, so a year of monthly accrual matches the stated compounding.
+ *
+ * <p>With growth factor {@code g = (1 + r)^k}, the balance after {@code k} payments of {@code
+ * emi} is {@code balance * g - emi * (g - 1) / r}, so rolling a loan forward costs the same for
+ * one missed month as for ten years. It is evaluated in double through {@code log1p}/{@code
+ * expm1}, accurate to about 1e-15 relative: well inside a paisa for any realistic balance, and
+ * rounded to paise once at the end.
+ */
+public final class LoanAmortization {
+
+    /** One EMI: its split into interest and principal, and the balance left after it. */
+    public record Installment(int number, LocalDate dueDate, BigDecimal payment, BigDecimal interest,
+                              BigDecimal principal, BigDecimal balance) {
+    }
+
+    private final double monthlyRate;
+    // log(1 + r), shared by every growth factor
+    private final double logGrowth;
+
+    LoanAmortization(double monthlyRate) {
+        this.monthlyRate = monthlyRate;
+        this.logGrowth = Math.log1p(monthlyRate);
+    }
+
+    /** The schedule for {@code loan}'s rate, interest type and compounding frequency. */
+    static LoanAmortization of(Loan loan) {
+        return new LoanAmortization(monthlyRate(loan.getInterestRate(), loan.getInterestType(),
+                loan.getCompoundingFrequency()));
+    }
+
+    /** Monthly rate as a fraction, from an annual rate in percent. */
+    static double monthlyRate(BigDecimal annualRatePercent, LoanInterestType interestType,
+                              CompoundingFrequency frequency) {
+        double annualRate = annualRatePercent.doubleValue() / 100;
+        if (interestType == LoanInterestType.SIMPLE || frequency == null || frequency == CompoundingFrequency.MONTHLY) {
+            return annualRate / 12;
+        }
+        int periodsPerYear = frequency == CompoundingFrequency.QUARTERLY ? 4 : 1;
+        return Math.expm1(Math.log1p(annualRate / periodsPerYear) * periodsPerYear / 12.0);
+    }
+
+    double monthlyRate() {
+        return monthlyRate;
+    }
+
+    /**
+     * EMI that repays {@code principal} in {@code tenureMonths}:
+     * {@code principal * r * g / (g - 1)} with {@code g = (1 + r)^tenureMonths}.
+     */
+    BigDecimal emi(BigDecimal principal, int tenureMonths) {
+        if (monthlyRate == 0) {
+            return principal.divide(BigDecimal.valueOf(tenureMonths), 2, RoundingMode.HALF_UP);
+        }
+        double growthMinusOne = Math.expm1(logGrowth * tenureMonths);
+        return toPaise(principal.doubleValue() * monthlyRate * (1 + growthMinusOne) / growthMinusOne);
+    }
+
+    /**
+     * Balance after {@code payments} EMIs, floored at zero once the loan is paid off and rounded
+     * to paise.
+     */
+    BigDecimal balanceAfter(BigDecimal balance, BigDecimal emi, int payments) {
+        if (payments <= 0) {
+            return balance;
+        }
+        if (monthlyRate == 0) {
+            BigDecimal remaining = balance.subtract(emi.multiply(BigDecimal.valueOf(payments)));
+            return remaining.signum() < 0 ? BigDecimal.ZERO : remaining;
+        }
+        double growthMinusOne = Math.expm1(logGrowth * payments);
+        double remaining = balance.doubleValue() * (1 + growthMinusOne)
+                - emi.doubleValue() * (growthMinusOne / monthlyRate);
+        // The balance only falls while the EMI covers the interest, so ending below zero means
+        // it was cleared on the way
+        return remaining < 0 ? BigDecimal.ZERO : toPaise(remaining);
+    }
+
+    /**
+     * Month-by-month schedule repaying {@code principal} from {@code startDate}, one EMI a month
+     * from the month after. Interest is rounded to paise each month; the last installment, at
+     * {@code tenureMonths} or as soon as the EMI would overpay, clears whatever remains.
+     */
+    List<Installment> schedule(BigDecimal principal, BigDecimal emi, int tenureMonths, LocalDate startDate) {
+        List<Installment> installments = new ArrayList<>(tenureMonths);
+        BigDecimal rate = BigDecimal.valueOf(monthlyRate);
+        BigDecimal balance = principal.setScale(2, RoundingMode.HALF_UP);
+        for (int number = 1; number <= tenureMonths && balance.signum() > 0; number++) {
+            BigDecimal interest = balance.multiply(rate).setScale(2, RoundingMode.HALF_UP);
+            BigDecimal principalPortion = emi.subtract(interest);
+            BigDecimal payment = emi;
+            if (number == tenureMonths || principalPortion.compareTo(balance) >= 0) {
+                principalPortion = balance;
+                payment = balance.add(interest);
+            }
+            balance = balance.subtract(principalPortion);
+            installments.add(new Installment(number, startDate != null ? startDate.plusMonths(number) : null,
+                    payment, interest, principalPortion, balance));
+        }
+        return installments;
+    }
+
+    private static BigDecimal toPaise(double amount) {
+        return BigDecimal.valueOf(amount).setScale(2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,206 @@
+package com.finance_tracker.service;
+
+import com.finance_tracker.repository.LoanRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Rolls every loan's balance forward over the EMIs that fell due since it was last updated.
+ *
+ * <p>Only loans with at least one full month elapsed are read, filtered by the query, and they are
+ * paged by id {@code chunk-size} at a time, each chunk committed on its own. Rows are read as a
+ * projection and written with a two-column UPDATE, never as entities, so the encrypted name is
+ * neither decrypted nor re-encrypted without its owner's key. A loan's new balance and its
+ * {@code lastUpdated} are written together, so a sweep that stops part-way is simply picked up by
+ * the next one: the loans it already did no longer match. Progress of the current or last sweep
+ * is served by the admin-only {@code loanbalancesweep} actuator endpoint.
+ */
+@Service
+public class LoanBalanceSweep {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoanBalanceSweep.class);
+
+    // Two columns only: a full entity save would also rewrite the encrypted name with whatever
+    // key is bound, and none is on this thread. The last_updated guard keeps a concurrent sweep
+    // from applying the same months twice.
+    private static final String UPDATE_BALANCE_SQL =
+            "UPDATE loans SET current_balance = ?, last_updated = ? "
+                    + "WHERE id = ? AND (last_updated IS NULL OR last_updated < ?)";
+
+    private final LoanRepository loanRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    private final AtomicReference<SweepRun> currentRun = new AtomicReference<>();
+    // The first sweep after boot is the startup catch-up; readiness waits for it
+    private final AtomicReference<SweepRun> firstRun = new AtomicReference<>();
+
+    public LoanBalanceSweep(LoanRepository loanRepository,
+                            JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${finora.loans.balance-sweep.chunk-size:200}") int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("finora.loans.balance-sweep.chunk-size must be at least 1");
+        }
+        this.loanRepository = loanRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Starts a sweep on a virtual thread and returns at once; false if one is already running.
+     */
+    public boolean startInBackground() {
+        SweepRun run = begin();
+        if (run == null) return false;
+        Thread.ofVirtual().name("loan-balance-sweep").start(() -> sweep(run, LocalDate.now()));
+        return true;
+    }
+
+    /**
+     * Sweeps on the calling thread and returns the number of loans updated, or -1 if a sweep is
+     * already running.
+     */
+    public long run() {
+        SweepRun run = begin();
+        if (run == null) return -1;
+        sweep(run, LocalDate.now());
+        return run.updatedLoans.get();
+    }
+
+    private SweepRun begin() {
+        SweepRun run = new SweepRun(OffsetDateTime.now());
+        SweepRun previous = currentRun.get();
+        if ((previous != null && previous.isRunning()) || !currentRun.compareAndSet(previous, run)) {
+            logger.warn("Loan balance sweep is already running");
+            return null;
+        }
+        firstRun.compareAndSet(null, run);
+        return run;
+    }
+
+    void sweep(SweepRun run, LocalDate today) {
+        LocalDate cutoff = today.minusMonths(1);
+        try {
+            long after = 0;
+            while (true) {
+                long from = after;
+                ChunkResult chunk = transactionTemplate.execute(status -> rollForward(run, from, cutoff, today));
+                if (chunk.checked() == 0) break;
+                run.checkedLoans.addAndGet(chunk.checked());
+                run.updatedLoans.addAndGet(chunk.updated());
+                after = chunk.lastLoanId();
+                run.lastLoanId = after;
+                if (chunk.checked() < chunkSize) break;
+            }
+        } catch (Exception e) {
+            run.error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            logger.error("Loan balance sweep stopped after loan {}: {}", run.lastLoanId, e.getMessage(), e);
+        } finally {
+            run.finishedAt = OffsetDateTime.now();
+            logger.info("Loan balance sweep finished in {} ms: {} loans checked, {} updated, {} failed",
+                    ChronoUnit.MILLIS.between(run.startedAt, run.finishedAt), run.checkedLoans.get(),
+                    run.updatedLoans.get(), run.failedLoans.get());
+        }
+    }
+
+    private ChunkResult rollForward(SweepRun run, long afterId, LocalDate cutoff, LocalDate today) {
+        List<LoanRepository.DueLoan> chunk = loanRepository.findDueForRollForward(cutoff, afterId, Limit.of(chunkSize));
+        List<Object[]> updates = new ArrayList<>(chunk.size());
+        for (LoanRepository.DueLoan loan : chunk) {
+            try {
+                LocalDate lastUpdated = loan.getLastUpdated() != null ? loan.getLastUpdated() : loan.getStartDate();
+                long monthsPassed = lastUpdated.until(today, ChronoUnit.MONTHS);
+                if (monthsPassed > 0) {
+                    // Closed form over all missed months at once
+                    LoanAmortization amortization = new LoanAmortization(LoanAmortization.monthlyRate(
+                            loan.getInterestRate(), loan.getInterestType(), loan.getCompoundingFrequency()));
+                    BigDecimal balance = amortization.balanceAfter(loan.getCurrentBalance(), loan.getEmiAmount(),
+                            Math.toIntExact(monthsPassed));
+                    updates.add(new Object[]{balance, today, loan.getId(), today});
+                }
+            } catch (Exception e) {
+                run.failedLoans.incrementAndGet();
+                logger.error("Error rolling forward balance of loan {}: {}", loan.getId(), e.getMessage());
+            }
+        }
+        int updated = 0;
+        if (!updates.isEmpty()) {
+            for (int count : jdbcTemplate.batchUpdate(UPDATE_BALANCE_SQL, updates)) {
+                // Drivers may report SUCCESS_NO_INFO (-2) for a batched statement
+                updated += count == Statement.SUCCESS_NO_INFO ? 1 : count;
+            }
+        }
+        return new ChunkResult(chunk.isEmpty() ? afterId : chunk.get(chunk.size() - 1).getId(),
+                chunk.size(), updated);
+    }
+
+    /**
+     * True while the first sweep since boot is still running. False before it starts and after it
+     * finishes, whether it completed or stopped early.
+     */
+    public boolean isFirstSweepRunning() {
+        SweepRun run = firstRun.get();
+        return run != null && run.isRunning();
+    }
+
+    public Map<String, Object> getStatus() {
+        SweepRun run = currentRun.get();
+        Map<String, Object> status = new LinkedHashMap<>();
+        if (run == null) {
+            status.put("state", "idle");
+            return status;
+        }
+        status.put("state", run.isRunning() ? "running" : run.error != null ? "aborted" : "completed");
+        status.put("startedAt", run.startedAt);
+        status.put("finishedAt", run.finishedAt);
+        status.put("checkedLoans", run.checkedLoans.get());
+        status.put("updatedLoans", run.updatedLoans.get());
+        status.put("failedLoans", run.failedLoans.get());
+        if (run.error != null) {
+            status.put("error", run.error);
+        }
+        return status;
+    }
+
+    private record ChunkResult(long lastLoanId, int checked, int updated) {
+    }
+
+    static final class SweepRun {
+        final OffsetDateTime startedAt;
+        final AtomicLong checkedLoans = new AtomicLong();
+        final AtomicLong updatedLoans = new AtomicLong();
+        final AtomicLong failedLoans = new AtomicLong();
+        volatile long lastLoanId;
+        volatile OffsetDateTime finishedAt;
+        volatile String error;
+
+        SweepRun(OffsetDateTime startedAt) {
+            this.startedAt = startedAt;
+        }
+
+        boolean isRunning() {
+            return finishedAt == null;
+        }
+    }
+}
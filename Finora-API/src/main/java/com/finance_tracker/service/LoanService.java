@@ -1,5 +1,6 @@
 package com.finance_tracker.service;
 
+import com.finance_tracker.exception.BusinessLogicException;
 import com.finance_tracker.model.Loan;
 import com.finance_tracker.repository.LoanRepository;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -8,10 +9,7 @@ import org.springframework.transaction.annotation.Transactional;
 import lombok.RequiredArgsConstructor;
 
 import java.math.BigDecimal;
-import java.math.MathContext;
-import java.math.RoundingMode;
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,6 +18,7 @@ import java.util.Optional;
 public class LoanService {
     private final LoanRepository loanRepository;
     private final LedgerService ledgerService;
+    private final LoanBalanceSweep loanBalanceSweep;
 
     private Long resolveUserId() {
         var auth = SecurityContextHolder.getContext().getAuthentication();
@@ -101,102 +100,43 @@ public class LoanService {
 
     // Calculate EMI using the formula: P * r * (1+r)^n / ((1+r)^n - 1)
     private BigDecimal calculateEmi(Loan loan) {
-        BigDecimal principal = loan.getPrincipalAmount();
-        BigDecimal annualRate = loan.getInterestRate().divide(new BigDecimal("100"), 10, RoundingMode.HALF_UP);
-        BigDecimal monthlyRate = annualRate.divide(new BigDecimal("12"), 10, RoundingMode.HALF_UP);
-        int tenure = loan.getTenureMonths();
-
-        BigDecimal onePlusR = BigDecimal.ONE.add(monthlyRate);
-        BigDecimal powValue = onePlusR.pow(tenure, new MathContext(10));
-
-        BigDecimal numerator = principal.multiply(monthlyRate).multiply(powValue);
-        BigDecimal denominator = powValue.subtract(BigDecimal.ONE);
-
-        return numerator.divide(denominator, 2, RoundingMode.HALF_UP);
+        return LoanAmortization.of(loan).emi(loan.getPrincipalAmount(), loan.getTenureMonths());
     }
 
-    @Transactional
-    public void updateLoanBalances() {
-        LocalDate today = LocalDate.now();
-        List<Loan> loans = loanRepository.findAll(); // system-level: all users
-
-        for (Loan loan : loans) {
-
-            if (loan.getLastUpdated() != null && loan.getLastUpdated().equals(today)) {
-                continue;
-            }
-
-            LocalDate lastUpdated = loan.getLastUpdated() != null ? loan.getLastUpdated() : loan.getStartDate();
-            if (lastUpdated == null) {
-                continue;
-            }
-
-            long monthsPassed = lastUpdated.until(today, ChronoUnit.MONTHS);
-            if (monthsPassed > 0) {
-
-                BigDecimal currentBalance = loan.getCurrentBalance();
-                BigDecimal emiAmount = loan.getEmiAmount();
-
-                for (int i = 0; i < monthsPassed; i++) {
-                    BigDecimal monthlyInterest = calculateMonthlyInterest(loan, currentBalance);
-                    BigDecimal principalPortion = emiAmount.subtract(monthlyInterest);
-                    currentBalance = currentBalance.subtract(principalPortion);
-
-                    if (currentBalance.compareTo(BigDecimal.ZERO) < 0) {
-                        currentBalance = BigDecimal.ZERO;
-                        break;
-                    }
-                }
-
-                // Update loan with new balance
-                loan.setCurrentBalance(currentBalance);
-                loan.setLastUpdated(today);
-                loanRepository.save(loan);
-            }
+    /**
+     * Full repayment schedule of the loan from its start date, one row per EMI.
+     */
+    public List<LoanAmortization.Installment> getAmortizationSchedule(Long id) {
+        Loan loan = getLoanById(id);
+        if (loan.getPrincipalAmount() == null || loan.getInterestRate() == null
+                || loan.getTenureMonths() == null || loan.getTenureMonths() <= 0) {
+            throw new BusinessLogicException("Loan needs a principal, interest rate and tenure for a repayment schedule");
         }
+        LoanAmortization amortization = LoanAmortization.of(loan);
+        BigDecimal emi = loan.getEmiAmount() != null
+                ? loan.getEmiAmount()
+                : amortization.emi(loan.getPrincipalAmount(), loan.getTenureMonths());
+        return amortization.schedule(loan.getPrincipalAmount(), emi, loan.getTenureMonths(), loan.getStartDate());
     }
 
-    private BigDecimal calculateMonthlyInterest(Loan loan, BigDecimal currentBalance) {
-        BigDecimal annualRate = loan.getInterestRate().divide(new BigDecimal("100"), 10, RoundingMode.HALF_UP);
-        BigDecimal monthlyRate;
-
-        if (com.finance_tracker.model.LoanInterestType.SIMPLE.equals(loan.getInterestType())) {
-            monthlyRate = annualRate.divide(new BigDecimal("12"), 10, RoundingMode.HALF_UP);
-        } else {
-            switch (loan.getCompoundingFrequency()) {
-                case QUARTERLY:
-                    BigDecimal quarterlyRate = annualRate.divide(new BigDecimal("4"), 10, RoundingMode.HALF_UP);
-                    BigDecimal effectiveQuarterlyRate = BigDecimal.ONE.add(quarterlyRate);
-                    monthlyRate = effectiveQuarterlyRate.pow(1, new MathContext(10))
-                            .subtract(BigDecimal.ONE);
-                    break;
-                case YEARLY:
-                    BigDecimal effectiveYearlyRate = BigDecimal.ONE.add(annualRate);
-                    BigDecimal effectiveMonthlyRate2 = effectiveYearlyRate.pow(1, new MathContext(10))
-                            .subtract(BigDecimal.ONE);
-                    monthlyRate = effectiveMonthlyRate2.divide(new BigDecimal("12"), 10, RoundingMode.HALF_UP);
-                    break;
-                default:
-                    monthlyRate = annualRate.divide(new BigDecimal("12"), 10, RoundingMode.HALF_UP);
-            }
-        }
-
-        return currentBalance.multiply(monthlyRate).setScale(2, RoundingMode.HALF_UP);
+    /**
+     * Rolls every user's loan balances forward to today, in committed chunks.
+     */
+    public void updateLoanBalances() {
+        loanBalanceSweep.run();
     }
 
     @Transactional
     public int bulkDelete(List<Long> ids) {
         Long userId = resolveUserId();
-        int count = 0;
-        for (Long id : ids) {
-            Loan loan = loanRepository.findById(id).orElse(null);
-            if (loan == null) continue;
-            validateOwnership(loan.getUserId(), userId);
-            loanRepository.deleteById(id);
-            ledgerService.recordEvent("LOAN", String.valueOf(id), "DELETE", loan, null, String.valueOf(userId));
-            count++;
-        }
-        return count;
+        List<Loan> targets = OwnedRecords.loadOwned(loanRepository, ids,
+                loan -> validateOwnership(loan.getUserId(), userId));
+        if (targets.isEmpty()) return 0;
+        loanRepository.deleteAllByIdInBatch(targets.stream().map(Loan::getId).toList());
+        ledgerService.recordEvents(targets.stream()
+                .map(loan -> new LedgerService.LedgerEntry("LOAN", String.valueOf(loan.getId()), "DELETE", loan, null))
+                .toList(), String.valueOf(userId));
+        return targets.size();
     }
 }
 
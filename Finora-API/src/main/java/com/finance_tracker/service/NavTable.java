@@ -0,0 +1,234 @@
+package com.finance_tracker.service;
+
+import java.math.BigDecimal;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Immutable NAV and name per AMFI scheme code, held in parallel arrays.
+ *
+ * <p>Scheme codes are positive ints used directly as keys of an open-addressing table with
+ * linear probing, at most half full; slot 0 marks an empty slot. A NAV is its unscaled long plus
+ * a byte scale, so neither the key nor the value is boxed and a ~15k-scheme file costs a few
+ * hundred kilobytes of arrays plus the names. {@link BigDecimal}s are only created on lookup.
+ */
+final class NavTable {
+
+    static final NavTable EMPTY = new Builder(0).build();
+
+    @FunctionalInterface
+    interface Visitor {
+        void visit(int schemeCode, long unscaledNav, int scale, String name);
+    }
+
+    private final int[] codes;
+    private final long[] unscaledNavs;
+    private final byte[] scales;
+    private final String[] names;
+    private final int size;
+
+    private NavTable(int[] codes, long[] unscaledNavs, byte[] scales, String[] names, int size) {
+        this.codes = codes;
+        this.unscaledNavs = unscaledNavs;
+        this.scales = scales;
+        this.names = names;
+        this.size = size;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** The NAV of {@code schemeCode}, or null. */
+    BigDecimal nav(int schemeCode) {
+        int slot = slotOf(schemeCode);
+        return slot < 0 ? null : BigDecimal.valueOf(unscaledNavs[slot], scales[slot]);
+    }
+
+    /** The scheme name of {@code schemeCode}, or null. */
+    String name(int schemeCode) {
+        int slot = slotOf(schemeCode);
+        return slot < 0 ? null : names[slot];
+    }
+
+    void forEach(Visitor visitor) {
+        for (int slot = 0; slot < codes.length; slot++) {
+            if (codes[slot] != 0) {
+                visitor.visit(codes[slot], unscaledNavs[slot], scales[slot], names[slot]);
+            }
+        }
+    }
+
+    /**
+     * Read-only view keyed by the scheme code as text, for callers that work with maps.
+     */
+    Map<String, BigDecimal> asMap() {
+        return new AbstractMap<>() {
+            @Override
+            public BigDecimal get(Object key) {
+                return key instanceof String code ? nav(parseCode(code, 0, code.length())) : null;
+            }
+
+            @Override
+            public boolean containsKey(Object key) {
+                return key instanceof String code && slotOf(parseCode(code, 0, code.length())) >= 0;
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public Set<Entry<String, BigDecimal>> entrySet() {
+                return new AbstractSet<>() {
+                    @Override
+                    public int size() {
+                        return size;
+                    }
+
+                    @Override
+                    public Iterator<Entry<String, BigDecimal>> iterator() {
+                        return new Iterator<>() {
+                            private int slot = advance(0);
+
+                            private int advance(int from) {
+                                while (from < codes.length && codes[from] == 0) from++;
+                                return from;
+                            }
+
+                            @Override
+                            public boolean hasNext() {
+                                return slot < codes.length;
+                            }
+
+                            @Override
+                            public Entry<String, BigDecimal> next() {
+                                if (!hasNext()) throw new NoSuchElementException();
+                                Entry<String, BigDecimal> entry = new SimpleImmutableEntry<>(
+                                        Integer.toString(codes[slot]), BigDecimal.valueOf(unscaledNavs[slot], scales[slot]));
+                                slot = advance(slot + 1);
+                                return entry;
+                            }
+                        };
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * The scheme code in {@code text[from, to)} with surrounding whitespace ignored, or -1 unless
+     * it is 1 to 9 digits and not zero.
+     */
+    static int parseCode(CharSequence text, int from, int to) {
+        while (from < to && text.charAt(from) <= ' ') from++;
+        while (to > from && text.charAt(to - 1) <= ' ') to--;
+        if (from == to || to - from > 9) return -1;
+        int code = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            code = code * 10 + (c - '0');
+        }
+        return code == 0 ? -1 : code;
+    }
+
+    private int slotOf(int schemeCode) {
+        if (schemeCode <= 0) return -1;
+        int mask = codes.length - 1;
+        for (int slot = hash(schemeCode) & mask; ; slot = (slot + 1) & mask) {
+            int code = codes[slot];
+            if (code == schemeCode) return slot;
+            if (code == 0) return -1;
+        }
+    }
+
+    /** Scheme codes are dense and sequential, so they are spread before masking. */
+    private static int hash(int schemeCode) {
+        int h = schemeCode * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Single-use: {@link #build()} hands the arrays over without copying.
+     */
+    static final class Builder {
+
+        private int[] codes;
+        private long[] unscaledNavs;
+        private byte[] scales;
+        private String[] names;
+        private int size;
+
+        Builder(int expectedSchemes) {
+            allocate(Math.max(2, Integer.highestOneBit(Math.max(1, expectedSchemes) * 2 - 1) << 1));
+        }
+
+        /** Adds or replaces {@code schemeCode}, which must be positive. */
+        Builder put(int schemeCode, long unscaledNav, int scale, String name) {
+            if (schemeCode <= 0) {
+                throw new IllegalArgumentException("Scheme code must be positive: " + schemeCode);
+            }
+            if (scale < Byte.MIN_VALUE || scale > Byte.MAX_VALUE) {
+                throw new IllegalArgumentException("NAV scale out of range: " + scale);
+            }
+            if ((size + 1) * 2 > codes.length) {
+                grow();
+            }
+            int mask = codes.length - 1;
+            int slot = hash(schemeCode) & mask;
+            while (codes[slot] != 0 && codes[slot] != schemeCode) {
+                slot = (slot + 1) & mask;
+            }
+            if (codes[slot] == 0) {
+                codes[slot] = schemeCode;
+                size++;
+            }
+            unscaledNavs[slot] = unscaledNav;
+            scales[slot] = (byte) scale;
+            names[slot] = name;
+            return this;
+        }
+
+        /** {@code nav} must fit a long when unscaled, as every AMFI NAV does. */
+        Builder put(int schemeCode, BigDecimal nav, String name) {
+            return put(schemeCode, nav.unscaledValue().longValueExact(), nav.scale(), name);
+        }
+
+        NavTable build() {
+            NavTable table = new NavTable(codes, unscaledNavs, scales, names, size);
+            codes = null;
+            return table;
+        }
+
+        private void allocate(int capacity) {
+            codes = new int[capacity];
+            unscaledNavs = new long[capacity];
+            scales = new byte[capacity];
+            names = new String[capacity];
+        }
+
+        private void grow() {
+            int[] oldCodes = codes;
+            long[] oldNavs = unscaledNavs;
+            byte[] oldScales = scales;
+            String[] oldNames = names;
+            allocate(oldCodes.length * 2);
+            size = 0;
+            for (int slot = 0; slot < oldCodes.length; slot++) {
+                if (oldCodes[slot] != 0) {
+                    put(oldCodes[slot], oldNavs[slot], oldScales[slot], oldNames[slot]);
+                }
+            }
+        }
+    }
+}
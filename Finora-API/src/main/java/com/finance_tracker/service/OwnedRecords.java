@@ -0,0 +1,25 @@
+package com.finance_tracker.service;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Loads the targets of a bulk operation in one query and checks each belongs to the caller.
+ */
+final class OwnedRecords {
+
+    private OwnedRecords() {
+    }
+
+    /**
+     * Missing ids are skipped; a row {@code checkOwner} rejects fails the whole batch.
+     */
+    static <T> List<T> loadOwned(JpaRepository<T, Long> repository, List<Long> ids, Consumer<T> checkOwner) {
+        if (ids.isEmpty()) return List.of();
+        List<T> targets = repository.findAllById(ids);
+        targets.forEach(checkOwner);
+        return targets;
+    }
+}
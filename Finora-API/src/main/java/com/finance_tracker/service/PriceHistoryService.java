@@ -0,0 +1,149 @@
+package com.finance_tracker.service;
+
+import com.finance_tracker.dto.PricePointDTO;
+import com.finance_tracker.exception.ValidationException;
+import com.finance_tracker.model.PriceHistory;
+import com.finance_tracker.repository.PriceHistoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Daily closes per market symbol or AMFI scheme code, so charts and returns can be computed from
+ * our own data instead of asking the providers again.
+ *
+ * <p>The price and NAV refreshes {@link #record} what they fetched; a second refresh on the same
+ * day overwrites that day's close. Reads load a symbol's whole series once through the primary
+ * key index and keep it in an LRU of hot series, so later ranges for the same symbol are sliced
+ * in memory. A write drops the written symbols from the LRU.
+ *
+ * <p>Writes run in a transaction of their own: on PostgreSQL a failed statement aborts the whole
+ * transaction it is in, so sharing the caller's would roll back the refresh's own updates.
+ */
+@Service
+public class PriceHistoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriceHistoryService.class);
+    private static final int WRITE_BATCH_SIZE = 500;
+    private static final String UPSERT_SQL =
+            "INSERT INTO price_history (symbol, price_date, close) VALUES (?, ?, ?) "
+                    + "ON CONFLICT (symbol, price_date) DO UPDATE SET close = EXCLUDED.close";
+
+    private final PriceHistoryRepository priceHistoryRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate writeTransaction;
+    private final Map<String, NavigableMap<LocalDate, BigDecimal>> hotSeries;
+
+    // Bumped after every write; a series loaded across a write is served but not cached
+    private final AtomicLong writeVersion = new AtomicLong();
+
+    public PriceHistoryService(PriceHistoryRepository priceHistoryRepository,
+                               JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${finora.prices.history.max-series:256}") int maxSeries) {
+        this.priceHistoryRepository = priceHistoryRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.hotSeries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, NavigableMap<LocalDate, BigDecimal>> eldest) {
+                return size() > maxSeries;
+            }
+        };
+    }
+
+    /**
+     * Stores {@code date}'s close for each symbol. Best effort: a failed write is logged, rolls
+     * back only its own transaction, and the refresh that called it carries on.
+     */
+    public void record(Map<String, BigDecimal> closes, LocalDate date) {
+        Map<String, BigDecimal> rows = new LinkedHashMap<>();
+        closes.forEach((symbol, close) -> {
+            if (symbol != null && !symbol.isBlank() && close != null) {
+                rows.put(normalize(symbol), close);
+            }
+        });
+        if (rows.isEmpty()) {
+            return;
+        }
+        Date priceDate = Date.valueOf(date);
+        try {
+            writeTransaction.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(UPSERT_SQL, new ArrayList<>(rows.entrySet()), WRITE_BATCH_SIZE, (ps, row) -> {
+                        ps.setString(1, row.getKey());
+                        ps.setDate(2, priceDate);
+                        ps.setBigDecimal(3, row.getValue());
+                    }));
+        } catch (DataAccessException | TransactionException e) {
+            logger.warn("Could not record {} closes for {}: {}", rows.size(), date, e.getMessage());
+        } finally {
+            writeVersion.incrementAndGet();
+            synchronized (hotSeries) {
+                rows.keySet().forEach(hotSeries::remove);
+            }
+        }
+    }
+
+    /**
+     * Closes for {@code symbol} between {@code from} and {@code to} inclusive, oldest first.
+     * Defaults to the last year up to today.
+     */
+    public List<PricePointDTO> getHistory(String symbol, LocalDate from, LocalDate to) {
+        if (symbol == null || symbol.isBlank()) {
+            throw new ValidationException("symbol is required");
+        }
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusYears(1);
+        if (start.isAfter(end)) {
+            throw new ValidationException("from must not be after to");
+        }
+        return series(normalize(symbol)).subMap(start, true, end, true).entrySet().stream()
+                .map(point -> new PricePointDTO(point.getKey(), point.getValue()))
+                .toList();
+    }
+
+    private NavigableMap<LocalDate, BigDecimal> series(String symbol) {
+        synchronized (hotSeries) {
+            NavigableMap<LocalDate, BigDecimal> cached = hotSeries.get(symbol);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        long version = writeVersion.get();
+        TreeMap<LocalDate, BigDecimal> loaded = new TreeMap<>();
+        for (PriceHistory point : priceHistoryRepository.findBySymbolOrderByPriceDateAsc(symbol)) {
+            loaded.put(point.getPriceDate(), point.getClose());
+        }
+        NavigableMap<LocalDate, BigDecimal> series = Collections.unmodifiableNavigableMap(loaded);
+        synchronized (hotSeries) {
+            if (writeVersion.get() == version) {
+                hotSeries.put(symbol, series);
+            }
+        }
+        return series;
+    }
+
+    private static String normalize(String symbol) {
+        return symbol.trim().toUpperCase();
+    }
+}
@@ -0,0 +1,425 @@
+package com.finance_tracker.service;
+
+import com.finance_tracker.model.InvestmentType;
+import com.finance_tracker.repository.InvestmentRepository;
+import com.finance_tracker.repository.InvestmentRepository.PricedHolding;
+import com.finance_tracker.utils.strategy.PriceProviderService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Refreshes the current price of every investment.
+ *
+ * <p>Holdings are grouped by symbol. Funds are resolved one per virtual thread; other symbols are
+ * priced in batches of the providers' batch size, one batch per virtual thread, and
+ * {@link PriceProviderService} caps how many requests each provider sees at once. Fetches still
+ * running when the deadline passes are interrupted and counted as timed out. Resolved prices are written back with one set-based
+ * {@code UPDATE} per symbol, batched after the fan-out so no connection is held while waiting on
+ * the network. Each day's closes are also appended to {@link PriceHistoryService}.
+ */
+@Service
+public class PriceRefreshService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriceRefreshService.class);
+    private static final int UPDATE_BATCH_SIZE = 500;
+    private static final String UPDATE_BY_SYMBOL_SQL =
+            "UPDATE investments SET current_price = ?, last_updated = ?, symbol = COALESCE(?, symbol) "
+                    + "WHERE symbol = ? AND type = ?";
+    private static final String UPDATE_BY_ID_SQL =
+            "UPDATE investments SET current_price = ?, last_updated = ?, symbol = ? WHERE id = ?";
+
+    private final InvestmentRepository investmentRepository;
+    private final PriceProviderService priceProviderService;
+    private final AmfiNavService amfiNavService;
+    private final JdbcTemplate jdbcTemplate;
+    private final PriceHistoryService priceHistoryService;
+    private final Duration deadline;
+
+    private final AtomicReference<RefreshRun> currentRun = new AtomicReference<>();
+
+    public PriceRefreshService(InvestmentRepository investmentRepository,
+                               PriceProviderService priceProviderService,
+                               AmfiNavService amfiNavService,
+                               JdbcTemplate jdbcTemplate,
+                               PriceHistoryService priceHistoryService,
+                               @Value("${finora.prices.refresh.deadline:5m}") Duration deadline) {
+        this.investmentRepository = investmentRepository;
+        this.priceProviderService = priceProviderService;
+        this.amfiNavService = amfiNavService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.priceHistoryService = priceHistoryService;
+        this.deadline = deadline;
+    }
+
+    /**
+     * Runs a refresh on the calling thread. Returns false without doing anything if another
+     * refresh is already in progress.
+     */
+    public boolean refreshAll() {
+        RefreshRun run = new RefreshRun(UUID.randomUUID().toString(), OffsetDateTime.now());
+        RefreshRun previous = currentRun.get();
+        if ((previous != null && previous.isRunning()) || !currentRun.compareAndSet(previous, run)) {
+            logger.info("Price refresh already running, not starting another");
+            return false;
+        }
+        try {
+            // A projection, not entities: no user's data key is bound here to decrypt names
+            List<PricedHolding> investments = investmentRepository.findAllForPriceRefresh();
+            run.totalInvestments.set(investments.size());
+            Collection<SymbolGroup> groups = group(run, investments);
+            run.totalSymbols.set(groups.size());
+            logger.info("Price refresh {} started: {} investments over {} symbols, deadline {}",
+                    run.runId, investments.size(), groups.size(), deadline);
+
+            Queue<SymbolUpdate> symbolUpdates = new ConcurrentLinkedQueue<>();
+            Queue<HoldingUpdate> holdingUpdates = new ConcurrentLinkedQueue<>();
+            fetchAll(run, groups, symbolUpdates, holdingUpdates);
+            // Late finishers may still append; write only what had landed by the deadline
+            writeBack(run, List.copyOf(symbolUpdates), List.copyOf(holdingUpdates));
+        } catch (Exception e) {
+            run.error = e.getMessage();
+            logger.error("Price refresh {} aborted: {}", run.runId, e.getMessage(), e);
+        } finally {
+            run.finishedAt = OffsetDateTime.now();
+            logger.info("Price refresh {} finished in {} ms. Symbols priced: {}, failed: {}, timed out: {}; investments updated: {}",
+                    run.runId, Duration.between(run.startedAt, run.finishedAt).toMillis(),
+                    run.pricedSymbols.get(), run.failedSymbols.get(), run.timedOutSymbols.get(),
+                    run.updatedInvestments.get());
+        }
+        return true;
+    }
+
+    /**
+     * Many users hold the same tickers, so holdings are grouped by normalised symbol and type and
+     * each group is priced once. Type is part of the key because a numeric BSE code and an AMFI
+     * scheme code can look alike.
+     */
+    private Collection<SymbolGroup> group(RefreshRun run, List<PricedHolding> investments) {
+        Map<SymbolKey, SymbolGroup> groups = new LinkedHashMap<>();
+        for (PricedHolding investment : investments) {
+            String symbol = investment.getSymbol();
+            if (symbol == null || symbol.isBlank() || investment.getType() == null) {
+                logger.debug("Skipping price update for investment {} — no symbol", investment.getId());
+                run.skippedInvestments.incrementAndGet();
+                continue;
+            }
+            SymbolKey key = new SymbolKey(symbol.trim().toUpperCase(), investment.getType());
+            SymbolGroup group = groups.computeIfAbsent(key, SymbolGroup::new);
+            group.storedSymbols.add(symbol);
+            group.holdings.add(investment);
+        }
+        return groups.values();
+    }
+
+    private void fetchAll(RefreshRun run, Collection<SymbolGroup> groups,
+                          Queue<SymbolUpdate> symbolUpdates, Queue<HoldingUpdate> holdingUpdates)
+            throws InterruptedException {
+        // Funds resolve one by one against in-memory AMFI data; everything else is priced in
+        // provider-sized batches of one type
+        List<SymbolGroup> funds = new ArrayList<>();
+        Map<InvestmentType, List<SymbolGroup>> quoted = new LinkedHashMap<>();
+        for (SymbolGroup group : groups) {
+            if (group.key.type() == InvestmentType.MUTUAL_FUND) {
+                funds.add(group);
+            } else {
+                quoted.computeIfAbsent(group.key.type(), t -> new ArrayList<>()).add(group);
+            }
+        }
+        int batchSize = Math.max(1, priceProviderService.getMaxBatchSize());
+
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            for (SymbolGroup fund : funds) {
+                executor.submit(() -> settle(run, List.of(fund), () -> {
+                    SymbolUpdate symbolUpdate = resolveFund(fund);
+                    if (symbolUpdate != null) {
+                        symbolUpdates.add(symbolUpdate);
+                        return 1;
+                    }
+                    List<HoldingUpdate> fallbacks = resolveByIsin(fund);
+                    holdingUpdates.addAll(fallbacks);
+                    return fallbacks.isEmpty() ? 0 : 1;
+                }));
+            }
+            for (Map.Entry<InvestmentType, List<SymbolGroup>> byType : quoted.entrySet()) {
+                List<SymbolGroup> ofType = byType.getValue();
+                for (int from = 0; from < ofType.size(); from += batchSize) {
+                    List<SymbolGroup> chunk = ofType.subList(from, Math.min(from + batchSize, ofType.size()));
+                    executor.submit(() -> settle(run, chunk, () -> {
+                        List<SymbolUpdate> updates = resolveQuoted(byType.getKey(), chunk);
+                        symbolUpdates.addAll(updates);
+                        return updates.size();
+                    }));
+                }
+            }
+            executor.shutdown();
+            if (!executor.awaitTermination(deadline.toMillis(), TimeUnit.MILLISECONDS)) {
+                // Interrupted fetches mostly fail fast; they count as timed out, not failed
+                run.deadlinePassed = true;
+                run.timedOutSymbols.set(run.totalSymbols.get() - run.pricedSymbols.get() - run.failedSymbols.get());
+                logger.warn("Price refresh {} hit its {} deadline, abandoning {} outstanding symbols",
+                        run.runId, deadline, run.timedOutSymbols.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs one unit of work for {@code groups}; {@code work} queues its own updates and returns
+     * how many of the groups it priced. Nothing is counted once the deadline has passed.
+     */
+    private void settle(RefreshRun run, List<SymbolGroup> groups, Callable<Integer> work) {
+        int priced;
+        try {
+            priced = work.call();
+        } catch (Exception e) {
+            priced = 0;
+            if (!run.deadlinePassed) {
+                logger.error("Error updating price for {}: {}",
+                        groups.stream().map(g -> g.key.symbol()).toList(), e.getMessage());
+            }
+        }
+        if (run.deadlinePassed) {
+            return;
+        }
+        run.pricedSymbols.addAndGet(priced);
+        run.failedSymbols.addAndGet(groups.size() - priced);
+    }
+
+    private List<SymbolUpdate> resolveQuoted(InvestmentType type, List<SymbolGroup> chunk) {
+        Map<String, BigDecimal> prices = priceProviderService.fetchPrices(
+                chunk.stream().map(g -> g.key.symbol()).toList(), type);
+        List<SymbolUpdate> updates = new ArrayList<>();
+        for (SymbolGroup group : chunk) {
+            BigDecimal price = validPrice(group.key.symbol(), prices.get(group.key.symbol()));
+            if (price != null) {
+                updates.add(new SymbolUpdate(group.storedSymbols, type, price, null));
+            }
+        }
+        return updates;
+    }
+
+    private SymbolUpdate resolveFund(SymbolGroup group) {
+        String symbol = group.key.symbol();
+        String resolvedSymbol = null;
+
+        BigDecimal currentPrice = amfiNavService.getNavBySchemeCode(symbol).orElse(null);
+        if (currentPrice == null) {
+            String sym = symbol.replaceAll("\\.NS$|\\.BO$", "");
+            currentPrice = amfiNavService.getNavBySchemeCode(sym).orElse(null);
+            if (currentPrice != null) {
+                resolvedSymbol = sym;
+            } else {
+                String resolved = amfiNavService.lookupSchemeCodeByIsin(sym).orElse(null);
+                if (resolved != null) {
+                    currentPrice = amfiNavService.getNavBySchemeCode(resolved).orElse(null);
+                    if (currentPrice != null) {
+                        resolvedSymbol = resolved;
+                    }
+                }
+            }
+        }
+        if (currentPrice == null) {
+            return null;
+        }
+
+        BigDecimal price = validPrice(symbol, currentPrice);
+        return price != null ? new SymbolUpdate(group.storedSymbols, InvestmentType.MUTUAL_FUND, price, resolvedSymbol) : null;
+    }
+
+    /**
+     * Last resort for a fund whose symbol is not a known scheme code: each holding's own ISIN.
+     * AMFI data is in memory, so this costs no outbound calls.
+     */
+    private List<HoldingUpdate> resolveByIsin(SymbolGroup group) {
+        List<HoldingUpdate> updates = new ArrayList<>();
+        for (PricedHolding investment : group.holdings) {
+            if (investment.getIsin() == null) {
+                continue;
+            }
+            String schemeCode = amfiNavService.lookupSchemeCodeByIsin(
+                    investment.getIsin().replaceAll("\\.NS$|\\.BO$", "")).orElse(null);
+            if (schemeCode == null) {
+                continue;
+            }
+            BigDecimal price = validPrice(schemeCode, amfiNavService.getNavBySchemeCode(schemeCode).orElse(null));
+            if (price != null) {
+                updates.add(new HoldingUpdate(investment.getId(), price, schemeCode));
+            }
+        }
+        if (updates.isEmpty()) {
+            logger.warn("No AMFI NAV found for MF symbol {} ({} holdings)", group.key.symbol(), group.holdings.size());
+        }
+        return updates;
+    }
+
+    private BigDecimal validPrice(String symbol, BigDecimal currentPrice) {
+        if (currentPrice == null || currentPrice.compareTo(BigDecimal.ZERO) <= 0) {
+            logger.error("No valid price for {} from any provider", symbol);
+            return null;
+        }
+        BigDecimal scaledPrice = currentPrice.setScale(6, RoundingMode.HALF_UP);
+        if (scaledPrice.toBigInteger().toString().length() > 13) {
+            logger.warn("Price for {} exceeds column precision: {}. Skipping.", symbol, scaledPrice);
+            return null;
+        }
+        return scaledPrice;
+    }
+
+    private void writeBack(RefreshRun run, List<SymbolUpdate> symbolUpdates, List<HoldingUpdate> holdingUpdates) {
+        LocalDate date = LocalDate.now();
+        Date today = Date.valueOf(date);
+        // One row per stored spelling of the symbol; almost always exactly one
+        List<SymbolUpdate> perStoredSymbol = symbolUpdates.stream()
+                .flatMap(update -> update.storedSymbols().stream()
+                        .map(stored -> new SymbolUpdate(Set.of(stored), update.type(), update.price(), update.resolvedSymbol())))
+                .toList();
+        if (!perStoredSymbol.isEmpty()) {
+            run.updatedInvestments.addAndGet(sum(jdbcTemplate.batchUpdate(UPDATE_BY_SYMBOL_SQL, perStoredSymbol,
+                    UPDATE_BATCH_SIZE, (ps, update) -> {
+                        ps.setBigDecimal(1, update.price());
+                        ps.setDate(2, today);
+                        ps.setString(3, update.resolvedSymbol());
+                        ps.setString(4, update.storedSymbols().iterator().next());
+                        ps.setString(5, update.type().name());
+                    })));
+        }
+        if (!holdingUpdates.isEmpty()) {
+            run.updatedInvestments.addAndGet(sum(jdbcTemplate.batchUpdate(UPDATE_BY_ID_SQL, holdingUpdates,
+                    UPDATE_BATCH_SIZE, (ps, update) -> {
+                        ps.setBigDecimal(1, update.price());
+                        ps.setDate(2, today);
+                        ps.setString(3, update.symbol());
+                        ps.setLong(4, update.investmentId());
+                    })));
+        }
+
+        // Keyed the way holdings were grouped, or by the scheme code a fund resolved to
+        Map<String, BigDecimal> closes = new LinkedHashMap<>();
+        for (SymbolUpdate update : symbolUpdates) {
+            String symbol = update.resolvedSymbol() != null
+                    ? update.resolvedSymbol()
+                    : update.storedSymbols().iterator().next();
+            closes.put(symbol, update.price());
+        }
+        for (HoldingUpdate update : holdingUpdates) {
+            closes.put(update.symbol(), update.price());
+        }
+        priceHistoryService.record(closes, date);
+    }
+
+    private static long sum(int[][] batchCounts) {
+        long total = 0;
+        for (int[] batch : batchCounts) {
+            for (int count : batch) {
+                total += Math.max(count, 0);
+            }
+        }
+        return total;
+    }
+
+    public Map<String, Object> getStatus() {
+        RefreshRun run = currentRun.get();
+        Map<String, Object> status = new LinkedHashMap<>();
+        if (run == null) {
+            status.put("state", "idle");
+            status.put("providers", priceProviderService.getProviderHealth());
+            return status;
+        }
+        OffsetDateTime end = run.finishedAt != null ? run.finishedAt : OffsetDateTime.now();
+        double elapsedSeconds = Math.max(Duration.between(run.startedAt, end).toMillis(), 1) / 1000.0;
+        long settled = run.pricedSymbols.get() + run.failedSymbols.get();
+
+        status.put("state", run.isRunning() ? "running" : run.error != null ? "aborted" : "completed");
+        status.put("runId", run.runId);
+        status.put("startedAt", run.startedAt);
+        status.put("finishedAt", run.finishedAt);
+        status.put("totalInvestments", run.totalInvestments.get());
+        status.put("skippedInvestments", run.skippedInvestments.get());
+        status.put("totalSymbols", run.totalSymbols.get());
+        status.put("pricedSymbols", run.pricedSymbols.get());
+        status.put("failedSymbols", run.failedSymbols.get());
+        status.put("timedOutSymbols", run.timedOutSymbols.get());
+        status.put("updatedInvestments", run.updatedInvestments.get());
+        status.put("symbolsPerSecond", Math.round(settled / elapsedSeconds * 100) / 100.0);
+        if (run.error != null) {
+            status.put("error", run.error);
+        }
+        status.put("providers", priceProviderService.getProviderHealth());
+        return status;
+    }
+
+    record SymbolKey(String symbol, InvestmentType type) {
+    }
+
+    static final class SymbolGroup {
+        final SymbolKey key;
+        final Set<String> storedSymbols = new LinkedHashSet<>();
+        final List<PricedHolding> holdings = new ArrayList<>();
+
+        SymbolGroup(SymbolKey key) {
+            this.key = key;
+        }
+    }
+
+    /**
+     * Price for every holding stored under one of {@code storedSymbols}; {@code resolvedSymbol}
+     * replaces the stored symbol when a fund was found under a corrected scheme code.
+     */
+    record SymbolUpdate(Set<String> storedSymbols, InvestmentType type, BigDecimal price, String resolvedSymbol) {
+    }
+
+    record HoldingUpdate(Long investmentId, BigDecimal price, String symbol) {
+    }
+
+    static final class RefreshRun {
+        final String runId;
+        final OffsetDateTime startedAt;
+        final AtomicLong totalInvestments = new AtomicLong();
+        final AtomicLong skippedInvestments = new AtomicLong();
+        final AtomicLong updatedInvestments = new AtomicLong();
+        final AtomicLong totalSymbols = new AtomicLong();
+        final AtomicLong pricedSymbols = new AtomicLong();
+        final AtomicLong failedSymbols = new AtomicLong();
+        final AtomicLong timedOutSymbols = new AtomicLong();
+        volatile boolean deadlinePassed;
+        volatile OffsetDateTime finishedAt;
+        volatile String error;
+
+        RefreshRun(String runId, OffsetDateTime startedAt) {
+            this.runId = runId;
+            this.startedAt = startedAt;
+        }
+
+        boolean isRunning() {
+            return finishedAt == null;
+        }
+    }
+}
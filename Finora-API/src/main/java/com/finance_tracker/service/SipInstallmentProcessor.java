@@ -0,0 +1,337 @@
+package com.finance_tracker.service;
+
+import com.finance_tracker.model.SipInstallmentRun;
+import com.finance_tracker.repository.SipInstallmentRunRepository;
+import com.finance_tracker.repository.SipRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Invests each due SIP's monthly amount at the current AMFI NAV, in committed chunks that survive
+ * a crash.
+ *
+ * <p>SIP ids are paged by keyset, {@code chunk-size} at a time. Each chunk is loaded, invested and
+ * committed in its own transaction on a virtual thread, with at most {@code db-concurrency} chunks
+ * in flight so the Hikari pool keeps room for request traffic. Chunks can finish out of order, so
+ * the month's cursor in {@code sip_installment_runs} only moves over the contiguous prefix of
+ * committed chunks. SIPs are read as a projection and written with a column UPDATE, never as
+ * entities: no user's data key is bound here, so the encrypted name must not be touched.
+ *
+ * <p>A run left RUNNING by a crash, or FAILED by a chunk that could not commit, resumes from that
+ * cursor on the next start or on the daily {@link #resumeUnfinished()} check, whichever month it
+ * belongs to. SIPs past the cursor that were already invested that month are skipped by the
+ * last-investment-date check, in the query and again in the UPDATE, so nothing is invested twice.
+ */
+@Service
+public class SipInstallmentProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(SipInstallmentProcessor.class);
+
+    // Units are added in SQL, and a SIP already invested in the installment's month is left alone
+    private static final String INVEST_SQL =
+            "UPDATE sips SET total_units = COALESCE(total_units, 0) + ?, current_nav = ?, "
+                    + "last_investment_date = ?, last_updated = ? "
+                    + "WHERE id = ? AND (last_investment_date IS NULL OR last_investment_date < ?)";
+
+    private final SipRepository sipRepository;
+    private final SipInstallmentRunRepository runRepository;
+    private final AmfiNavService amfiNavService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int dbConcurrency;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private volatile Duration lastRunDuration = Duration.ZERO;
+
+    @Autowired
+    public SipInstallmentProcessor(SipRepository sipRepository,
+                                   SipInstallmentRunRepository runRepository,
+                                   AmfiNavService amfiNavService,
+                                   JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${finora.sip.installments.chunk-size:200}") int chunkSize,
+                                   @Value("${finora.sip.installments.db-concurrency:2}") int dbConcurrency) {
+        if (chunkSize < 1 || dbConcurrency < 1) {
+            throw new IllegalArgumentException("finora.sip.installments chunk-size and db-concurrency must be at least 1");
+        }
+        this.sipRepository = sipRepository;
+        this.runRepository = runRepository;
+        this.amfiNavService = amfiNavService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.dbConcurrency = dbConcurrency;
+    }
+
+    /**
+     * Picks up unfinished runs in the background if the last process stopped before finishing them.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        if (!runRepository.findByStatusNotOrderByPeriodAsc(SipInstallmentRun.Status.COMPLETED).isEmpty()) {
+            Thread.ofVirtual().name("sip-installments").start(this::resumeUnfinished);
+        }
+    }
+
+    /**
+     * Resumes every run left RUNNING or FAILED, oldest month first, on the calling thread. A past
+     * month's remaining SIPs are invested at today's NAV but dated that month's last day, so the
+     * current month's installment still falls due. Returns the resumed runs; empty if there were
+     * none or a run is already in progress.
+     */
+    public List<SipInstallmentRun> resumeUnfinished() {
+        if (!running.compareAndSet(false, true)) {
+            logger.warn("Monthly SIP installments are already running");
+            return List.of();
+        }
+        try {
+            LocalDate today = LocalDate.now();
+            List<SipInstallmentRun> resumed = new ArrayList<>();
+            for (SipInstallmentRun unfinished : runRepository.findByStatusNotOrderByPeriodAsc(SipInstallmentRun.Status.COMPLETED)) {
+                YearMonth period = YearMonth.parse(unfinished.getPeriod());
+                LocalDate installmentDate = period.equals(YearMonth.from(today)) ? today : period.atEndOfMonth();
+                resumed.add(process(period, installmentDate));
+            }
+            return resumed;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Runs or resumes this month's installments on the calling thread and returns the run row.
+     * A month that already completed is left alone; null if a run is already in progress.
+     */
+    public SipInstallmentRun run() {
+        if (!running.compareAndSet(false, true)) {
+            logger.warn("Monthly SIP installments are already running");
+            return null;
+        }
+        try {
+            return process(YearMonth.now(), LocalDate.now());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    SipInstallmentRun process(YearMonth period, LocalDate installmentDate) {
+        SipInstallmentRun run = runRepository.findById(period.toString()).orElse(null);
+        if (run != null && run.getStatus() == SipInstallmentRun.Status.COMPLETED) {
+            logger.info("SIP installments for {} already completed in run {}", period, run.getRunId());
+            return run;
+        }
+        OffsetDateTime now = OffsetDateTime.now();
+        if (run == null) {
+            run = new SipInstallmentRun();
+            run.setPeriod(period.toString());
+            run.setRunId(UUID.randomUUID().toString());
+            run.setStartedAt(now);
+            logger.info("Processing {} SIP installments in run {}: chunks of {}, db concurrency {}",
+                    period, run.getRunId(), chunkSize, dbConcurrency);
+        } else {
+            logger.info("Resuming {} SIP installments in run {} after SIP {}",
+                    period, run.getRunId(), run.getLastSipId());
+        }
+        run.setStatus(SipInstallmentRun.Status.RUNNING);
+        run.setUpdatedAt(now);
+        run.setFinishedAt(null);
+        run.setError(null);
+        Progress progress = new Progress(runRepository.save(run));
+
+        long start = System.nanoTime();
+        Semaphore dbPermits = new Semaphore(dbConcurrency);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            long after = progress.run.getLastSipId();
+            long sequence = 0;
+            while (!progress.hasFailed()) {
+                List<Long> ids = sipRepository.findIdsAfter(after, Limit.of(chunkSize));
+                if (ids.isEmpty()) break;
+                dbPermits.acquire();
+                if (progress.hasFailed()) {
+                    dbPermits.release();
+                    break;
+                }
+                long chunk = sequence++;
+                executor.submit(() -> {
+                    try {
+                        progress.committed(chunk, processChunk(ids, installmentDate));
+                    } catch (Exception e) {
+                        progress.failed(ids, e);
+                    } finally {
+                        dbPermits.release();
+                    }
+                });
+                after = ids.get(ids.size() - 1);
+                if (ids.size() < chunkSize) break;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            progress.failed(List.of(), e);
+        } catch (Exception e) {
+            progress.failed(List.of(), e);
+        }
+
+        lastRunDuration = Duration.ofNanos(System.nanoTime() - start);
+        return progress.finish();
+    }
+
+    private ChunkResult processChunk(List<Long> ids, LocalDate installmentDate) {
+        LocalDate monthStart = installmentDate.withDayOfMonth(1);
+        LocalDate today = LocalDate.now();
+        return transactionTemplate.execute(status -> {
+            int notDue = 0;
+            int errors = 0;
+            List<Object[]> investments = new ArrayList<>(ids.size());
+            for (SipRepository.InstallmentSip sip : sipRepository.findInstallmentFieldsByIdIn(ids)) {
+                try {
+                    if (!isDue(sip.getStartDate(), sip.getLastInvestmentDate(), installmentDate)) {
+                        notDue++;
+                        continue;
+                    }
+                    BigDecimal currentNav = amfiNavService.getNavBySchemeCode(sip.getSchemeCode()).orElse(null);
+                    if (currentNav == null || currentNav.compareTo(BigDecimal.ZERO) <= 0) {
+                        notDue++;
+                        logger.warn("Invalid NAV for scheme {}, skipping", sip.getSchemeCode());
+                        continue;
+                    }
+                    BigDecimal newUnits = sip.getMonthlyAmount().divide(currentNav, 4, RoundingMode.HALF_UP);
+                    investments.add(new Object[]{newUnits, currentNav, installmentDate, today, sip.getId(), monthStart});
+                    logger.debug("SIP installment for SIP {}: amount={}, units={}, nav={}",
+                            sip.getId(), sip.getMonthlyAmount(), newUnits, currentNav);
+                } catch (Exception e) {
+                    errors++;
+                    logger.error("Error processing installment for SIP {}: {}", sip.getId(), e.getMessage());
+                }
+            }
+            int invested = 0;
+            if (!investments.isEmpty()) {
+                int[] counts = jdbcTemplate.batchUpdate(INVEST_SQL, investments);
+                for (int count : counts) {
+                    // Drivers may report SUCCESS_NO_INFO (-2) for a batched statement
+                    invested += count == Statement.SUCCESS_NO_INFO ? 1 : count;
+                }
+                // Invested meanwhile by another run
+                notDue += investments.size() - invested;
+            }
+            return new ChunkResult(ids.get(ids.size() - 1), invested, notDue, errors);
+        });
+    }
+
+    static boolean isDue(LocalDate startDate, LocalDate lastInvestmentDate, LocalDate installmentDate) {
+        if (lastInvestmentDate == null) {
+            return startDate == null || !installmentDate.isBefore(startDate);
+        }
+        return YearMonth.from(lastInvestmentDate).isBefore(YearMonth.from(installmentDate));
+    }
+
+    public long getProcessedCount() {
+        return processed.sum();
+    }
+
+    public long getSkippedCount() {
+        return skipped.sum();
+    }
+
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    public Duration getLastRunDuration() {
+        return lastRunDuration;
+    }
+
+    private record ChunkResult(long lastSipId, int processed, int skipped, int failed) {
+    }
+
+    /**
+     * Commits chunk results to the run row in chunk order. Results that arrive ahead of an
+     * unfinished chunk wait here, so the persisted cursor never skips one.
+     */
+    private final class Progress {
+
+        private final SipInstallmentRun run;
+        private final Map<Long, ChunkResult> ahead = new HashMap<>();
+        private long nextChunk;
+        private volatile String error;
+
+        Progress(SipInstallmentRun run) {
+            this.run = run;
+        }
+
+        boolean hasFailed() {
+            return error != null;
+        }
+
+        synchronized void committed(long chunk, ChunkResult result) {
+            processed.add(result.processed());
+            skipped.add(result.skipped());
+            failed.add(result.failed());
+            ahead.put(chunk, result);
+            ChunkResult next;
+            boolean advanced = false;
+            while (error == null && (next = ahead.remove(nextChunk)) != null) {
+                run.setLastSipId(next.lastSipId());
+                run.setProcessedCount(run.getProcessedCount() + next.processed());
+                run.setSkippedCount(run.getSkippedCount() + next.skipped());
+                run.setFailedCount(run.getFailedCount() + next.failed());
+                nextChunk++;
+                advanced = true;
+            }
+            if (advanced) {
+                run.setUpdatedAt(OffsetDateTime.now());
+                runRepository.save(run);
+            }
+        }
+
+        synchronized void failed(List<Long> ids, Exception e) {
+            if (error == null) {
+                error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            }
+            logger.error("SIP installment run {} stopped at chunk starting with SIP {}: {}",
+                    run.getRunId(), ids.isEmpty() ? "-" : ids.get(0), e.getMessage(), e);
+        }
+
+        synchronized SipInstallmentRun finish() {
+            run.setStatus(error == null ? SipInstallmentRun.Status.COMPLETED : SipInstallmentRun.Status.FAILED);
+            run.setError(error);
+            run.setUpdatedAt(OffsetDateTime.now());
+            run.setFinishedAt(run.getUpdatedAt());
+            SipInstallmentRun saved = runRepository.save(run);
+            logger.info("SIP installment run {} {} in {} ms: processed {}, skipped {}, failed {}, cursor at SIP {}",
+                    run.getRunId(), run.getStatus(), lastRunDuration.toMillis(), run.getProcessedCount(),
+                    run.getSkippedCount(), run.getFailedCount(), run.getLastSipId());
+            return saved;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import com.finance_tracker.repository.InvestmentRepository;
 import com.finance_tracker.repository.SipRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -12,7 +13,11 @@ import lombok.RequiredArgsConstructor;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.sql.Date;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -20,11 +25,23 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class SipService {
     private static final Logger logger = LoggerFactory.getLogger(SipService.class);
+    // Scheme codes per UPDATE ... FROM (VALUES ...), well under PostgreSQL's bind parameter limit
+    private static final int NAV_VALUES_CHUNK = 1000;
+    private static final String HELD_SCHEME_CODES_SQL =
+            "SELECT DISTINCT scheme_code FROM sips WHERE scheme_code IS NOT NULL AND scheme_code <> ''";
+    private static final String UNRESOLVED_ISINS_SQL =
+            "SELECT DISTINCT isin FROM sips WHERE (scheme_code IS NULL OR scheme_code = '') "
+                    + "AND isin IS NOT NULL AND isin <> ''";
+    private static final String BACKFILL_SCHEME_CODE_SQL =
+            "UPDATE sips SET scheme_code = ? WHERE isin = ? AND (scheme_code IS NULL OR scheme_code = '')";
 
     private final SipRepository sipRepository;
     private final InvestmentRepository investmentRepository;
     private final LedgerService ledgerService;
     private final AmfiNavService amfiNavService;
+    private final PriceHistoryService priceHistoryService;
+    private final JdbcTemplate jdbcTemplate;
+    private final SipInstallmentProcessor sipInstallmentProcessor;
 
     private Long resolveUserId() {
         var auth = SecurityContextHolder.getContext().getAuthentication();
@@ -121,7 +138,16 @@ public class SipService {
         return sipRepository.findLinkedInvestmentIdsByUserId(userId);
     }
 
-    @Transactional
+    /**
+     * Copies today's AMFI NAV onto every SIP holding the scheme, set-based: SIPs without a scheme
+     * code are first backfilled from their ISIN in one batch, then the NAVs of the scheme codes
+     * actually held are joined onto {@code sips} with one {@code UPDATE ... FROM (VALUES ...)} per
+     * {@value #NAV_VALUES_CHUNK} schemes. No SIP entity is loaded.
+     *
+     * <p>Not transactional: each statement commits on its own and every one is safe to re-run on
+     * the next refresh. The closes are then handed to {@link PriceHistoryService}, whose own
+     * transaction would otherwise take a second pooled connection while this one was held.
+     */
     public void updateCurrentNavs() {
         logger.info("Starting NAV update for all SIPs");
         try {
@@ -131,103 +157,79 @@ public class SipService {
                 return;
             }
 
-            List<Sip> sips = sipRepository.findAll();
-            int updatedCount = 0;
-            int failedCount = 0;
-
-            for (Sip sip : sips) {
-                try {
-                    String schemeCode = sip.getSchemeCode();
-
-                    // If scheme code is missing, try to resolve it from the SIP's stored ISIN.
-                    if (schemeCode == null || schemeCode.isBlank()) {
-                        if (sip.getIsin() != null && !sip.getIsin().isBlank()) {
-                            schemeCode = amfiNavService.lookupSchemeCodeByIsin(sip.getIsin()).orElse(null);
-                            if (schemeCode != null) {
-                                // Persist the resolved scheme code so future runs skip this step.
-                                sip.setSchemeCode(schemeCode);
-                                logger.info("Resolved scheme code {} for SIP '{}' via ISIN {}",
-                                        schemeCode, sip.getName(), sip.getIsin());
-                            }
-                        }
-                        if (schemeCode == null) {
-                            logger.debug("Skipping NAV update for SIP '{}' — no scheme code or ISIN", sip.getName());
-                            continue;
-                        }
-                    }
-
-                    BigDecimal nav = navData.get(schemeCode);
-                    if (nav != null && nav.compareTo(BigDecimal.ZERO) > 0) {
-                        sip.setCurrentNav(nav);
-                        sip.setLastUpdated(LocalDate.now());
-                        sipRepository.save(sip);
-                        updatedCount++;
-                    } else {
-                        failedCount++;
-                        logger.warn("No NAV found for scheme code: {}", sip.getSchemeCode());
-                    }
-                } catch (Exception e) {
-                    failedCount++;
-                    logger.error("Error updating NAV for scheme {}: {}", sip.getSchemeCode(), e.getMessage());
+            backfillSchemeCodes();
+
+            Map<String, BigDecimal> closes = new LinkedHashMap<>();
+            List<String> missing = new ArrayList<>();
+            for (String schemeCode : jdbcTemplate.queryForList(HELD_SCHEME_CODES_SQL, String.class)) {
+                BigDecimal nav = navData.get(schemeCode);
+                if (nav != null && nav.compareTo(BigDecimal.ZERO) > 0) {
+                    closes.put(schemeCode, nav);
+                } else {
+                    missing.add(schemeCode);
                 }
             }
+            if (!missing.isEmpty()) {
+                logger.warn("No NAV found for {} scheme codes: {}", missing.size(), missing);
+            }
 
-            logger.info("NAV update completed. Updated: {}, Failed: {}", updatedCount, failedCount);
+            LocalDate today = LocalDate.now();
+            int updatedCount = 0;
+            List<Map.Entry<String, BigDecimal>> rows = new ArrayList<>(closes.entrySet());
+            for (int from = 0; from < rows.size(); from += NAV_VALUES_CHUNK) {
+                updatedCount += updateNavs(rows.subList(from, Math.min(from + NAV_VALUES_CHUNK, rows.size())), today);
+            }
+
+            priceHistoryService.record(closes, today);
+            logger.info("NAV update completed. Updated: {} SIPs across {} schemes, {} schemes without NAV",
+                    updatedCount, closes.size(), missing.size());
         } catch (Exception e) {
             logger.error("Error in updateCurrentNavs: {}", e.getMessage(), e);
         }
     }
 
-    @Transactional
-    public void processMonthlyInvestments() {
-        logger.info("Processing monthly SIP investments");
-        LocalDate today = LocalDate.now();
-        List<Sip> sips = sipRepository.findAll();
-        int processedCount = 0;
-        int skippedCount = 0;
-
-        for (Sip sip : sips) {
-            try {
-                if (shouldProcessMonthlyInvestment(sip, today)) {
-                    BigDecimal currentNav = amfiNavService.getNavBySchemeCode(sip.getSchemeCode()).orElse(null);
-
-                    if (currentNav != null && currentNav.compareTo(BigDecimal.ZERO) > 0) {
-                        BigDecimal newUnits = sip.getMonthlyAmount()
-                                .divide(currentNav, 4, RoundingMode.HALF_UP);
-
-                        BigDecimal totalUnits = sip.getTotalUnits() != null ? sip.getTotalUnits() : BigDecimal.ZERO;
-                        sip.setTotalUnits(totalUnits.add(newUnits));
-                        sip.setCurrentNav(currentNav);
-                        sip.setLastInvestmentDate(today);
-                        sip.setLastUpdated(today);
-
-                        sipRepository.save(sip);
-                        processedCount++;
-                        logger.info("SIP installment for {}: amount={}, units={}, nav={}",
-                                sip.getName(), sip.getMonthlyAmount(), newUnits, currentNav);
-                    } else {
-                        skippedCount++;
-                        logger.warn("Invalid NAV for scheme {}, skipping", sip.getSchemeCode());
-                    }
-                } else {
-                    skippedCount++;
-                }
-            } catch (Exception e) {
-                skippedCount++;
-                logger.error("Error processing SIP for {}: {}", sip.getName(), e.getMessage(), e);
-            }
+    /**
+     * Resolves a scheme code for every distinct ISIN held without one and writes them back in one
+     * batch, so the NAV update below can match those SIPs too.
+     */
+    private void backfillSchemeCodes() {
+        List<String[]> resolved = new ArrayList<>();
+        for (String isin : jdbcTemplate.queryForList(UNRESOLVED_ISINS_SQL, String.class)) {
+            amfiNavService.lookupSchemeCodeByIsin(isin)
+                    .ifPresent(schemeCode -> resolved.add(new String[]{schemeCode, isin}));
         }
-
-        logger.info("Monthly SIP processing done. Processed: {}, Skipped: {}", processedCount, skippedCount);
+        if (resolved.isEmpty()) return;
+        int[][] counts = jdbcTemplate.batchUpdate(BACKFILL_SCHEME_CODE_SQL, resolved, NAV_VALUES_CHUNK, (ps, row) -> {
+            ps.setString(1, row[0]);
+            ps.setString(2, row[1]);
+        });
+        logger.info("Resolved scheme codes via ISIN for {} SIPs ({} ISINs)",
+                Arrays.stream(counts).flatMapToInt(Arrays::stream).sum(), resolved.size());
     }
 
-    private boolean shouldProcessMonthlyInvestment(Sip sip, LocalDate today) {
-        if (sip.getLastInvestmentDate() == null) {
-            return sip.getStartDate() == null || !today.isBefore(sip.getStartDate());
+    private int updateNavs(List<Map.Entry<String, BigDecimal>> navs, LocalDate today) {
+        StringBuilder sql = new StringBuilder("UPDATE sips AS s SET current_nav = v.nav, last_updated = ? FROM (VALUES ");
+        Object[] args = new Object[1 + navs.size() * 2];
+        args[0] = Date.valueOf(today);
+        for (int i = 0; i < navs.size(); i++) {
+            sql.append(i == 0 ? "(?, CAST(? AS NUMERIC))" : ", (?, CAST(? AS NUMERIC))");
+            args[1 + i * 2] = navs.get(i).getKey();
+            args[2 + i * 2] = navs.get(i).getValue();
         }
-        LocalDate lastInvestment = sip.getLastInvestmentDate();
-        return lastInvestment.getMonth() != today.getMonth()
-                || lastInvestment.getYear() != today.getYear();
+        sql.append(") AS v(scheme_code, nav) WHERE s.scheme_code = v.scheme_code");
+        return jdbcTemplate.update(sql.toString(), args);
+    }
+
+    /**
+     * This month's installments for every due SIP; see {@link SipInstallmentProcessor}.
+     */
+    public void processMonthlyInvestments() {
+        sipInstallmentProcessor.run();
+    }
+
+    /** Finishes any month whose installment run crashed or failed part-way. */
+    public void resumeUnfinishedInvestments() {
+        sipInstallmentProcessor.resumeUnfinished();
     }
 
     @Transactional
@@ -264,16 +266,14 @@ public class SipService {
     @Transactional
     public int bulkDelete(List<Long> ids) {
         Long userId = resolveUserId();
-        int count = 0;
-        for (Long id : ids) {
-            Sip sip = sipRepository.findById(id).orElse(null);
-            if (sip == null) continue;
-            validateOwnership(sip.getUserId(), userId);
-            sipRepository.deleteById(id);
-            ledgerService.recordEvent("SIP", String.valueOf(id), "DELETE", sip, null, String.valueOf(userId));
-            count++;
-        }
-        return count;
+        List<Sip> targets = OwnedRecords.loadOwned(sipRepository, ids,
+                sip -> validateOwnership(sip.getUserId(), userId));
+        if (targets.isEmpty()) return 0;
+        sipRepository.deleteAllByIdInBatch(targets.stream().map(Sip::getId).toList());
+        ledgerService.recordEvents(targets.stream()
+                .map(sip -> new LedgerService.LedgerEntry("SIP", String.valueOf(sip.getId()), "DELETE", sip, null))
+                .toList(), String.valueOf(userId));
+        return targets.size();
     }
 
 }
\ No newline at end of file
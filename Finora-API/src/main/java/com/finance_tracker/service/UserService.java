@@ -13,8 +13,11 @@ import com.finance_tracker.exception.ValidationException;
 import com.finance_tracker.model.Role;
 import com.finance_tracker.model.User;
 import com.finance_tracker.repository.UserRepository;
+import com.finance_tracker.utils.security.DataKey;
 import com.finance_tracker.utils.security.JwtService;
+import com.finance_tracker.utils.security.VaultKeyContext;
 import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -32,6 +35,7 @@ public class UserService {
     private final JwtService jwtService;
     private final BCryptPasswordEncoder passwordEncoder;
     private final FieldEncryptionService encryptionService;
+    private final DataKeyService dataKeyService;
 
     private static final String VAULT_CONFIRM_TEXT = "I understand I will permanently lose all data if I lose this passphrase";
 
@@ -132,6 +136,19 @@ public class UserService {
         return getUserById(id);
     }
 
+    /**
+     * Throws unless the user has the ADMIN role; for operations that span all users.
+     */
+    @Transactional(readOnly = true)
+    public void requireAdmin(Long userId) {
+        boolean admin = userRepository.findById(userId)
+                .map(user -> user.getRole() == Role.ADMIN)
+                .orElse(false);
+        if (!admin) {
+            throw new AccessDeniedException("Admin role required");
+        }
+    }
+
     @Transactional
     public UserResponseDTO updateRole(Long id, Role role) {
         User user = userRepository.findById(id)
@@ -191,6 +208,8 @@ public class UserService {
         user.setVaultSalt(saltBase64);
         userRepository.save(user);
 
+        // The data key is rewrapped under the vault key on the first request that carries it
+
         return VaultStatusDTO.builder()
                 .vaultEnabled(true)
                 .vaultSalt(saltBase64)
@@ -206,15 +225,25 @@ public class UserService {
             throw new ValidationException("Vault is not enabled");
         }
 
-        // Note: Actual re-encryption of v2: data to v1: requires the vault key
-        // to be provided in the X-Vault-Key header. This endpoint just marks
-        // vault as disabled. A separate background process or client-side
-        // re-encryption would be needed to downgrade existing v2: ciphertext.
+        // Envelope-encrypted data only needs its data key rewrapped, which requires the
+        // vault key in the X-Vault-Key header. Clients stop sending it once the vault is off,
+        // so a key left vault-wrapped could never be unwrapped again: refuse instead. Legacy
+        // v2: values still need the vault key to be migrated (POST /api/users/vault/migrate)
+        // before it is forgotten.
+        DataKey dataKey = VaultKeyContext.getDataKey();
+        boolean keyBound = dataKey != null && dataKey.userId() == userId;
+        if (encryptionService.isEnabled() && !keyBound) {
+            throw new ValidationException("Vault key required to disable the vault — send the X-Vault-Key header");
+        }
 
         user.setVaultEnabled(false);
         user.setVaultSalt(null);
         userRepository.save(user);
 
+        if (keyBound) {
+            dataKeyService.rewrap(dataKey, null);
+        }
+
         return VaultStatusDTO.builder()
                 .vaultEnabled(false)
                 .vaultSalt(null)
@@ -10,11 +10,12 @@ import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
@@ -36,47 +37,65 @@ public class ExpenseImportService {
         return parser.parse(bytes, fileName);
     }
 
-    @Transactional
+    /**
+     * Saves the valid entries as one batch. The batch commits or rolls back on its own, so when
+     * it fails the entries are retried one at a time and only the rows that fail again are
+     * skipped.
+     */
     public ExpenseImportResultDTO confirmImport(ExpenseImportRequest request) {
-        int imported = 0;
+        List<Expense> valid = new ArrayList<>();
         int skipped = 0;
 
         for (ExpenseImportRequest.ExpenseEntry entry : request.getExpenses()) {
-            try {
-                if (entry.getAmount() == null || entry.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
-                    skipped++;
-                    continue;
-                }
-                if (entry.getDescription() == null || entry.getDescription().isBlank()) {
-                    skipped++;
-                    continue;
-                }
-                if (entry.getCategory() == null || entry.getCategory().isBlank()) {
-                    skipped++;
-                    continue;
-                }
+            if (entry.getAmount() == null || entry.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+                skipped++;
+                continue;
+            }
+            if (entry.getDescription() == null || entry.getDescription().isBlank()) {
+                skipped++;
+                continue;
+            }
+            if (entry.getCategory() == null || entry.getCategory().isBlank()) {
+                skipped++;
+                continue;
+            }
 
-                Expense expense = new Expense();
-                expense.setDescription(entry.getDescription());
-                expense.setAmount(entry.getAmount());
-                expense.setCategory(entry.getCategory());
-                expense.setPaymentMethod(
-                        entry.getPaymentMethod() != null && !entry.getPaymentMethod().isBlank()
-                                ? entry.getPaymentMethod() : "Net Banking");
+            Expense expense = new Expense();
+            expense.setDescription(entry.getDescription());
+            expense.setAmount(entry.getAmount());
+            expense.setCategory(entry.getCategory());
+            expense.setPaymentMethod(
+                    entry.getPaymentMethod() != null && !entry.getPaymentMethod().isBlank()
+                            ? entry.getPaymentMethod() : "Net Banking");
 
-                LocalDate date = null;
-                if (entry.getDate() != null && !entry.getDate().isBlank()) {
-                    try {
-                        date = LocalDate.parse(entry.getDate());
-                    } catch (Exception ignored) {}
-                }
-                expense.setDate(date != null ? date : LocalDate.now());
+            LocalDate date = null;
+            if (entry.getDate() != null && !entry.getDate().isBlank()) {
+                try {
+                    date = LocalDate.parse(entry.getDate());
+                } catch (Exception ignored) {}
+            }
+            expense.setDate(date != null ? date : LocalDate.now());
+
+            valid.add(expense);
+        }
 
-                expenseService.saveExpense(expense);
-                imported++;
+        int imported = 0;
+        if (!valid.isEmpty()) {
+            try {
+                imported = expenseService.saveExpenses(valid).size();
             } catch (Exception e) {
-                log.warn("Failed to import expense: {}", e.getMessage());
-                skipped++;
+                log.warn("Batch expense import failed, saving rows one at a time: {}", e.getMessage());
+                for (Expense expense : valid) {
+                    // The rolled-back batch may have assigned ids that were never committed
+                    expense.setId(null);
+                    try {
+                        expenseService.saveExpense(expense);
+                        imported++;
+                    } catch (Exception rowFailure) {
+                        log.warn("Failed to import expense: {}", rowFailure.getMessage());
+                        skipped++;
+                    }
+                }
             }
         }
 
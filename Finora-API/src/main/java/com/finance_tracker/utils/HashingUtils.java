@@ -1,10 +1,18 @@
 package com.finance_tracker.utils;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -15,11 +23,34 @@ public class HashingUtils {
 
     private final ObjectMapper mapper;
 
+    /**
+     * Canonical JSON is written in one pass. It must stay byte-identical to the original
+     * {@code valueToTree -> treeToValue(Object.class) -> writeValueAsString} round trip, or stored
+     * ledger hashes stop verifying. The round trip's effects are reproduced directly:
+     * <ul>
+     *   <li>bean properties in alphabetical order (Jackson computes this once per class), map
+     *       entries sorted by key; map keys must be strings, as they are for every snapshot;</li>
+     *   <li>BigDecimals normalised the way {@code JsonNodeFactory} does it: trailing zeros
+     *       stripped, any zero becomes {@code 0}, written in {@code toString()} notation.</li>
+     * </ul>
+     */
     public HashingUtils() {
-        this.mapper = new ObjectMapper();
-        this.mapper.registerModule(new JavaTimeModule());
-        this.mapper.configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
-        this.mapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+        SimpleModule canonicalNumbers = new SimpleModule("canonical-numbers");
+        canonicalNumbers.addSerializer(BigDecimal.class, new StdSerializer<>(BigDecimal.class) {
+            @Override
+            public void serialize(BigDecimal value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+                gen.writeNumber(value.signum() == 0 ? BigDecimal.ZERO : value.stripTrailingZeros());
+            }
+        });
+
+        this.mapper = JsonMapper.builder()
+                .addModule(new JavaTimeModule())
+                .addModule(canonicalNumbers)
+                .enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+                .disable(MapperFeature.SORT_CREATOR_PROPERTIES_FIRST)
+                .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
     }
 
     public String toCanonicalJson(Object value) {
@@ -27,8 +58,7 @@ public class HashingUtils {
             return "null";
         }
         try {
-            Object sorted = mapper.treeToValue(mapper.valueToTree(value), Object.class);
-            return mapper.writeValueAsString(sorted);
+            return mapper.writeValueAsString(value);
         } catch (Exception e) {
             throw new IllegalStateException("Failed to serialize value to canonical JSON", e);
         }
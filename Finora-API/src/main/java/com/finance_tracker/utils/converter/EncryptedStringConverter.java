@@ -1,6 +1,7 @@
 package com.finance_tracker.utils.converter;
 
 import com.finance_tracker.service.FieldEncryptionService;
+import com.finance_tracker.utils.security.DataKey;
 import com.finance_tracker.utils.security.VaultKeyContext;
 import jakarta.persistence.AttributeConverter;
 import jakarta.persistence.Converter;
@@ -16,13 +17,22 @@ public class EncryptedStringConverter implements AttributeConverter<String, Stri
         this.encryptionService = encryptionService;
     }
 
+    /**
+     * Encrypts under the data key bound to the current request. With encryption on and no key
+     * bound (a vault user without the vault key, or a background job) the write is refused
+     * rather than falling back to server-key ciphertext, which would quietly undo the envelope
+     * migration for that row. Background writers update columns over JDBC instead.
+     */
     @Override
     public String convertToDatabaseColumn(String attribute) {
-        if (attribute == null) {
-            return null;
+        if (attribute == null || !encryptionService.isEnabled()) {
+            return attribute;
         }
-        String vaultKey = VaultKeyContext.get();
-        return encryptionService.encrypt(attribute, vaultKey);
+        DataKey dataKey = VaultKeyContext.getDataKey();
+        if (dataKey == null) {
+            throw new IllegalStateException("No data key bound for this write; send the X-Vault-Key header if the vault is enabled");
+        }
+        return encryptionService.encryptWithDataKey(attribute, dataKey);
     }
 
     @Override
@@ -1,5 +1,6 @@
 package com.finance_tracker.utils.scheduler;
 
+import com.finance_tracker.service.EncryptionMigrationService;
 import com.finance_tracker.service.LoanService;
 import com.finance_tracker.service.SipService;
 import lombok.RequiredArgsConstructor;
@@ -18,6 +19,7 @@ public class FinanceDataUpdateScheduler {
 
     private final SipService sipService;
     private final LoanService loanService;
+    private final EncryptionMigrationService encryptionMigrationService;
 
     @Scheduled(cron = "0 0 9 1 * *")
     public void processMonthlySipInvestments() {
@@ -28,6 +30,16 @@ public class FinanceDataUpdateScheduler {
         }
     }
 
+    // A month's run that failed part-way would otherwise wait for a restart within that month
+    @Scheduled(cron = "0 0 10 * * *")
+    public void resumeUnfinishedSipInvestments() {
+        try {
+            sipService.resumeUnfinishedInvestments();
+        } catch (Exception e) {
+            logger.error("Failed to resume unfinished SIP investments: {}", e.getMessage());
+        }
+    }
+
     @Scheduled(cron = "0 0 0 * * *")
     public void updateLoanBalances() {
         try {
@@ -36,4 +48,13 @@ public class FinanceDataUpdateScheduler {
             logger.error("Failed to update loan balances: {}", e.getMessage());
         }
     }
+
+    @Scheduled(cron = "0 30 2 * * *")
+    public void migrateLegacyEncryption() {
+        try {
+            encryptionMigrationService.migrateAll();
+        } catch (Exception e) {
+            logger.error("Failed to migrate legacy encrypted fields: {}", e.getMessage());
+        }
+    }
 }
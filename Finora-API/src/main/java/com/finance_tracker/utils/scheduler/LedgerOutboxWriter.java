@@ -0,0 +1,66 @@
+package com.finance_tracker.utils.scheduler;
+
+import com.finance_tracker.repository.LedgerOutboxRepository;
+import com.finance_tracker.service.LedgerService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Background half of async ledger append: chains whatever is queued in {@code ledger_outbox}.
+ *
+ * <p>Runs on the single scheduler thread, one user at a time, so there is one writer per user
+ * within an instance; across instances the chain-head row lock in
+ * {@link LedgerService#appendPending} keeps it that way. Polling continues even with async append
+ * switched off, so anything queued before a switch-back still drains. Leftovers from a crash are
+ * picked up by the first run after startup.
+ */
+@Component
+@RequiredArgsConstructor
+public class LedgerOutboxWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(LedgerOutboxWriter.class);
+    private static final int BATCH_SIZE = 200;
+
+    private final LedgerService ledgerService;
+    private final LedgerOutboxRepository outboxRepository;
+
+    private final LongAdder appended = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void drainOnStartup() {
+        drain();
+    }
+
+    @Scheduled(fixedDelayString = "${finora.ledger.outbox.poll-interval-ms:1000}")
+    public void drain() {
+        for (String userId : outboxRepository.findPendingUserIds()) {
+            try {
+                int batch;
+                do {
+                    batch = ledgerService.appendPending(userId, BATCH_SIZE);
+                    appended.add(batch);
+                } while (batch == BATCH_SIZE);
+            } catch (Exception e) {
+                // Rows stay queued; the next run retries
+                failures.increment();
+                logger.error("Failed to append queued ledger events for user {}: {}", userId, e.getMessage());
+            }
+        }
+    }
+
+    public long getAppendedCount() {
+        return appended.sum();
+    }
+
+    public long getFailureCount() {
+        return failures.sum();
+    }
+}
@@ -0,0 +1,55 @@
+package com.finance_tracker.utils.security;
+
+import com.finance_tracker.model.Role;
+import com.finance_tracker.repository.UserRepository;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Grants a request only to a logged-in user with the ADMIN role. JWTs carry no authorities, so the
+ * role is read from the user row, as {@code UserService.requireAdmin} does for the admin APIs.
+ */
+@Component
+public class AdminAuthorizationManager implements AuthorizationManager<RequestAuthorizationContext> {
+
+    private final UserRepository userRepository;
+
+    public AdminAuthorizationManager(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public AuthorizationResult authorize(Supplier<Authentication> authentication, RequestAuthorizationContext context) {
+        return decide(authentication.get());
+    }
+
+    /**
+     * @deprecated still abstract on {@link AuthorizationManager}; use {@link #authorize}
+     */
+    @Deprecated
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, RequestAuthorizationContext context) {
+        return decide(authentication.get());
+    }
+
+    private AuthorizationDecision decide(Authentication auth) {
+        if (auth == null || !auth.isAuthenticated() || auth instanceof AnonymousAuthenticationToken) {
+            return new AuthorizationDecision(false);
+        }
+        try {
+            long userId = Long.parseLong(auth.getName());
+            return new AuthorizationDecision(userRepository.findById(userId)
+                    .map(user -> user.getRole() == Role.ADMIN)
+                    .orElse(false));
+        } catch (NumberFormatException e) {
+            return new AuthorizationDecision(false);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.finance_tracker.utils.security;
+
+import javax.crypto.SecretKey;
+
+/**
+ * A user's unwrapped data-encryption key, bound to the owning user id so a ciphertext can be
+ * checked against the key that is in scope before it is used.
+ */
+public record DataKey(long userId, SecretKey key) {
+}
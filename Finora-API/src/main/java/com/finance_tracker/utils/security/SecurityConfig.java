@@ -19,13 +19,16 @@ public class SecurityConfig {
 
     private final JwtAuthFilter jwtAuthFilter;
     private final VaultKeyFilter vaultKeyFilter;
+    private final AdminAuthorizationManager adminAuthorizationManager;
 
     @Value("${cors.allowed.origins:http://localhost,http://localhost:5173}")
     private String allowedOriginsRaw;
 
-    public SecurityConfig(JwtAuthFilter jwtAuthFilter, VaultKeyFilter vaultKeyFilter) {
+    public SecurityConfig(JwtAuthFilter jwtAuthFilter, VaultKeyFilter vaultKeyFilter,
+                          AdminAuthorizationManager adminAuthorizationManager) {
         this.jwtAuthFilter = jwtAuthFilter;
         this.vaultKeyFilter = vaultKeyFilter;
+        this.adminAuthorizationManager = adminAuthorizationManager;
     }
 
     @Bean
@@ -36,7 +39,9 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/auth/token").permitAll()
                         .requestMatchers("/api/auth/**").permitAll()
-                        .requestMatchers("/actuator/**").permitAll()
+                        // Probes need health without a token; metrics and the rest are admin-only
+                        .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                        .requestMatchers("/actuator/**").access(adminAuthorizationManager)
                         .requestMatchers("/swagger-ui/**", "/v3/api-docs/**", "/swagger-ui.html").permitAll()
                         .anyRequest().authenticated()
                 )
@@ -1,10 +1,16 @@
 package com.finance_tracker.utils.security;
 
+import com.finance_tracker.service.DataKeyService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.core.annotation.Order;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
@@ -14,8 +20,15 @@ import java.io.IOException;
 @Order(2)
 public class VaultKeyFilter extends OncePerRequestFilter {
 
+    private static final Logger logger = LoggerFactory.getLogger(VaultKeyFilter.class);
     private static final String VAULT_KEY_HEADER = "X-Vault-Key";
 
+    private final ObjectProvider<DataKeyService> dataKeyService;
+
+    public VaultKeyFilter(ObjectProvider<DataKeyService> dataKeyService) {
+        this.dataKeyService = dataKeyService;
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
             throws ServletException, IOException {
@@ -24,9 +37,28 @@ public class VaultKeyFilter extends OncePerRequestFilter {
             if (vaultKeyHeader != null && !vaultKeyHeader.isBlank()) {
                 VaultKeyContext.set(vaultKeyHeader);
             }
+            bindDataKey();
             chain.doFilter(request, response);
         } finally {
             VaultKeyContext.clear();
         }
     }
+
+    // Unwrap the caller's data key once per request. Without one, values the server key can open
+    // still read, but encrypted writes are refused rather than falling back to server-key ciphertext.
+    private void bindDataKey() {
+        DataKeyService service = dataKeyService.getIfAvailable();
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (service == null || auth == null || !auth.isAuthenticated()) {
+            return;
+        }
+        try {
+            long userId = Long.parseLong(auth.getName());
+            VaultKeyContext.setDataKey(service.resolveForRequest(userId, VaultKeyContext.get()));
+        } catch (NumberFormatException e) {
+            // non-numeric principal (e.g. anonymous) — nothing to bind
+        } catch (Exception e) {
+            logger.warn("Could not bind data key for request: {}", e.getMessage());
+        }
+    }
 }
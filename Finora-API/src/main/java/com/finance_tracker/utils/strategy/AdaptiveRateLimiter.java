@@ -0,0 +1,86 @@
+package com.finance_tracker.utils.strategy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket for one provider whose refill rate adapts to the provider's answers: each
+ * rate-limit response halves the rate (down to a sixteenth of the configured one) and pauses the
+ * bucket, each success adds back a twentieth. {@link #tryAcquire()} never waits; a caller that
+ * gets no token should try another provider.
+ */
+public final class AdaptiveRateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveRateLimiter.class);
+
+    /**
+     * Steady-state request rate and how many requests may go out back to back.
+     */
+    public record RateLimit(double permitsPerSecond, int burst) {
+    }
+
+    private final String name;
+    private final double maxRate;
+    private final double minRate;
+    private final int burst;
+    private final LongSupplier ticker;
+
+    private double rate;
+    private double tokens;
+    private long lastRefill;
+    private long pausedUntil;
+
+    public AdaptiveRateLimiter(String name, RateLimit limit, LongSupplier ticker) {
+        this.name = name;
+        this.maxRate = limit.permitsPerSecond();
+        this.minRate = maxRate / 16;
+        this.burst = Math.max(1, limit.burst());
+        this.ticker = ticker;
+        this.rate = maxRate;
+        this.tokens = burst;
+        this.lastRefill = ticker.getAsLong();
+        this.pausedUntil = lastRefill;
+    }
+
+    public synchronized boolean tryAcquire() {
+        long now = ticker.getAsLong();
+        if (now - pausedUntil < 0) {
+            return false;
+        }
+        tokens = Math.min(burst, tokens + (now - lastRefill) * rate / 1e9);
+        lastRefill = now;
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        rate = Math.min(maxRate, rate + maxRate / 20);
+    }
+
+    /**
+     * Slows the bucket down and pauses it; when the pause ends a single request may go out before
+     * the slower refill takes over. Without a Retry-After hint the pause is the time the slower
+     * bucket needs to refill completely.
+     */
+    public synchronized void onRateLimited(Duration retryAfter) {
+        rate = Math.max(minRate, rate / 2);
+        tokens = 1;
+        long pause = retryAfter != null && !retryAfter.isNegative()
+                ? retryAfter.toNanos()
+                : (long) (burst / rate * 1e9);
+        pausedUntil = ticker.getAsLong() + pause;
+        lastRefill = pausedUntil;
+        logger.warn("{} rate limited; pausing {} ms, then {} requests/s", name, pause / 1_000_000,
+                String.format("%.3f", rate));
+    }
+
+    public synchronized double getRate() {
+        return rate;
+    }
+}
@@ -8,21 +8,44 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.net.URI;
+import java.net.URLEncoder;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 @Component
 public class AlphaVantagePriceProvider implements PriceProviderStrategy {
 
     private static final Logger logger = LoggerFactory.getLogger(AlphaVantagePriceProvider.class);
+    private static final int MAX_BULK_SYMBOLS = 100;
 
     @Value("${alphavantage.api.key:}")
     private String apiKey;
 
+    // Free tier allows 5 calls a minute; parallel calls only burn the quota faster
+    @Value("${finora.prices.alphavantage.max-concurrency:1}")
+    private int maxConcurrentRequests = 1;
+
+    // Free keys get 5 calls a minute (and 25 a day); premium plans can raise this
+    @Value("${finora.prices.alphavantage.requests-per-minute:5}")
+    private double requestsPerMinute = 5;
+
+    // REALTIME_BULK_QUOTES needs a premium key; free keys keep one GLOBAL_QUOTE call per symbol
+    @Value("${finora.prices.alphavantage.bulk-quotes:false}")
+    private boolean bulkQuotes;
+
     private final HttpClient httpClient = HttpClient.newBuilder()
             .connectTimeout(Duration.ofSeconds(10))
             .build();
@@ -60,8 +83,7 @@ public class AlphaVantagePriceProvider implements PriceProviderStrategy {
             JsonNode root = objectMapper.readTree(response.body());
 
             if (root.has("Information")) {
-                logger.warn("Alpha Vantage rate limit hit: {}", root.get("Information").asText());
-                return null;
+                throw new RateLimitedException("Alpha Vantage rate limit hit: " + root.get("Information").asText(), null);
             }
 
             if (root.has("Error Message")) {
@@ -79,12 +101,94 @@ public class AlphaVantagePriceProvider implements PriceProviderStrategy {
 
             return new BigDecimal(priceNode.asText());
 
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Alpha Vantage request failed for " + symbol, e);
+        } catch (RateLimitedException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error fetching price from Alpha Vantage for {}: {}", symbol, e.getMessage(), e);
             return null;
         }
     }
 
+    /**
+     * One REALTIME_BULK_QUOTES call for up to {@link #MAX_BULK_SYMBOLS} symbols when bulk quotes
+     * are enabled; otherwise one GLOBAL_QUOTE call per symbol.
+     */
+    @Override
+    public Map<String, BigDecimal> fetchPrices(Collection<String> symbols, InvestmentType type) {
+        if (!bulkQuotes || symbols.size() == 1) {
+            return PriceProviderStrategy.super.fetchPrices(symbols, type);
+        }
+        if (!isAvailable()) {
+            logger.error("Alpha Vantage API key is not configured");
+            return Map.of();
+        }
+
+        Map<String, List<String>> originalByAv = new LinkedHashMap<>();
+        for (String symbol : symbols) {
+            originalByAv.computeIfAbsent(buildAvSymbol(symbol), k -> new ArrayList<>()).add(symbol);
+        }
+        String joined = String.join(",", originalByAv.keySet());
+        try {
+            String url = "https://www.alphavantage.co/query" +
+                    "?function=REALTIME_BULK_QUOTES" +
+                    "&symbol=" + URLEncoder.encode(joined, StandardCharsets.UTF_8) +
+                    "&apikey=" + apiKey;
+
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(url))
+                    .timeout(Duration.ofSeconds(15))
+                    .GET()
+                    .build();
+
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+
+            if (response.statusCode() != 200) {
+                logger.error("Alpha Vantage API returned HTTP {}: {}", response.statusCode(), response.body());
+                return Map.of();
+            }
+
+            JsonNode root = objectMapper.readTree(response.body());
+
+            if (root.has("Information")) {
+                throw new RateLimitedException("Alpha Vantage rate limit hit: " + root.get("Information").asText(), null);
+            }
+
+            return parseBulkQuotes(root, originalByAv);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Map.of();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Alpha Vantage bulk request failed for " + joined, e);
+        } catch (RateLimitedException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error fetching bulk quotes from Alpha Vantage for {}: {}", joined, e.getMessage(), e);
+            return Map.of();
+        }
+    }
+
+    static Map<String, BigDecimal> parseBulkQuotes(JsonNode root, Map<String, List<String>> originalByAv) {
+        Map<String, BigDecimal> prices = new HashMap<>();
+        for (JsonNode quote : root.path("data")) {
+            List<String> originals = originalByAv.get(quote.path("symbol").asText());
+            String close = quote.path("close").asText();
+            if (originals == null || close.isBlank()) continue;
+            try {
+                BigDecimal price = new BigDecimal(close);
+                originals.forEach(original -> prices.put(original, price));
+            } catch (NumberFormatException e) {
+                logger.warn("Alpha Vantage returned a non-numeric close for {}: {}", originals, close);
+            }
+        }
+        return prices;
+    }
+
     private String buildAvSymbol(String symbol) {
         if (symbol.endsWith(".NS")) {
             return symbol.replace(".NS", "") + ".BSE";
@@ -103,6 +207,21 @@ public class AlphaVantagePriceProvider implements PriceProviderStrategy {
         return "Alpha Vantage";
     }
 
+    @Override
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    @Override
+    public int getMaxBatchSize() {
+        return bulkQuotes ? MAX_BULK_SYMBOLS : 1;
+    }
+
+    @Override
+    public AdaptiveRateLimiter.RateLimit getRateLimit() {
+        return new AdaptiveRateLimiter.RateLimit(requestsPerMinute / 60, 1);
+    }
+
     @Override
     public boolean isAvailable() {
         return apiKey != null && !apiKey.isBlank();
@@ -0,0 +1,67 @@
+package com.finance_tracker.utils.strategy;
+
+import java.time.Duration;
+
+/**
+ * Response-time distribution for one provider. Buckets grow by a factor of 2^(1/4) (about 19%)
+ * from 1 ms to roughly a minute, so a percentile is accurate to within one bucket. Once
+ * {@code decayAfter} samples have been recorded every count is halved, which keeps the shape
+ * weighted towards recent calls without a background task.
+ */
+public final class LatencyHistogram {
+
+    private static final int BUCKETS = 64;
+
+    private final long[] counts = new long[BUCKETS];
+    private final int decayAfter;
+    private long total;
+
+    public LatencyHistogram(int decayAfter) {
+        this.decayAfter = Math.max(2, decayAfter);
+    }
+
+    public synchronized void record(Duration latency) {
+        counts[bucketFor(latency.toMillis())]++;
+        if (++total >= decayAfter) {
+            total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] /= 2;
+                total += counts[i];
+            }
+        }
+    }
+
+    public synchronized long count() {
+        return total;
+    }
+
+    /**
+     * Upper bound of the bucket holding the given percentile (0 to 1), or null with no samples.
+     */
+    public synchronized Duration percentile(double percentile) {
+        if (total == 0) {
+            return null;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Duration.ofMillis(upperBoundMillis(i));
+            }
+        }
+        return Duration.ofMillis(upperBoundMillis(BUCKETS - 1));
+    }
+
+    static int bucketFor(long millis) {
+        if (millis <= 1) {
+            return 0;
+        }
+        int bucket = (int) Math.ceil(4 * Math.log(millis) / Math.log(2) - 1e-9);
+        return Math.min(bucket, BUCKETS - 1);
+    }
+
+    static long upperBoundMillis(int bucket) {
+        return Math.round(Math.pow(2, bucket / 4.0));
+    }
+}
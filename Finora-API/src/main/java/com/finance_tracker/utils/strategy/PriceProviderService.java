@@ -3,37 +3,393 @@ package com.finance_tracker.utils.strategy;
 import com.finance_tracker.model.InvestmentType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 @Service
 public class PriceProviderService {
-    
+
     private static final Logger logger = LoggerFactory.getLogger(PriceProviderService.class);
-    
+
+    private static final AdaptiveRateLimiter.RateLimit DEFAULT_RATE_LIMIT = new AdaptiveRateLimiter.RateLimit(5, 10);
+    // Below this many samples a provider's percentile is noise; the default hedge delay is used
+    private static final int MIN_LATENCY_SAMPLES = 20;
+    private static final int LATENCY_DECAY_AFTER = 1000;
+
     private final List<PriceProviderStrategy> priceProviders;
-    
-    public PriceProviderService(List<PriceProviderStrategy> priceProviders) {
+    private final QuoteCache quoteCache;
+
+    // Callers fan out on virtual threads, so each provider's own limits are enforced here
+    private final Map<PriceProviderStrategy, ProviderGuard> guards = new IdentityHashMap<>();
+
+    // (provider|symbol) pairs with a background revalidation already running
+    private final Set<String> revalidating = ConcurrentHashMap.newKeySet();
+
+    // Hedging: if the first provider has not answered within its latency percentile, the rest
+    // of the chain is asked in parallel and whichever prices the symbols first wins
+    private final boolean hedgingEnabled;
+    private final double hedgePercentile;
+    private final Duration minHedgeDelay;
+    private final Duration defaultHedgeDelay;
+    private final ExecutorService hedgeExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private record ProviderGuard(Semaphore inFlightPermits, AdaptiveRateLimiter rateLimiter,
+                                 CircuitBreaker circuitBreaker, LatencyHistogram latency,
+                                 LongAdder hedged, LongAdder hedgesLost) {
+    }
+
+    public PriceProviderService(List<PriceProviderStrategy> priceProviders, QuoteCache quoteCache,
+                                @Value("${finora.prices.circuit.failure-threshold:5}") int failureThreshold,
+                                @Value("${finora.prices.circuit.open-duration:30s}") Duration openDuration,
+                                @Value("${finora.prices.hedging.enabled:false}") boolean hedgingEnabled,
+                                @Value("${finora.prices.hedging.percentile:0.95}") double hedgePercentile,
+                                @Value("${finora.prices.hedging.min-delay:250ms}") Duration minHedgeDelay,
+                                @Value("${finora.prices.hedging.default-delay:2s}") Duration defaultHedgeDelay) {
         this.priceProviders = priceProviders;
+        this.quoteCache = quoteCache;
+        this.hedgingEnabled = hedgingEnabled;
+        this.hedgePercentile = hedgePercentile;
+        this.minHedgeDelay = minHedgeDelay;
+        this.defaultHedgeDelay = defaultHedgeDelay;
+        for (PriceProviderStrategy provider : priceProviders) {
+            String name = provider.getProviderName();
+            guards.put(provider, new ProviderGuard(
+                    new Semaphore(Math.max(1, provider.getMaxConcurrentRequests())),
+                    new AdaptiveRateLimiter(name,
+                            Objects.requireNonNullElse(provider.getRateLimit(), DEFAULT_RATE_LIMIT), System::nanoTime),
+                    new CircuitBreaker(name, failureThreshold, openDuration, System::nanoTime),
+                    new LatencyHistogram(LATENCY_DECAY_AFTER), new LongAdder(), new LongAdder()));
+        }
         logger.info("Initialized PriceProviderService with {} providers", priceProviders.size());
     }
 
+    /**
+     * Current price from the first provider that has one. A fresh cached quote is returned as is;
+     * a stale one is returned immediately and refreshed in the background, so callers only wait
+     * on the network when nothing recent is cached.
+     */
     public BigDecimal fetchPrice(String symbol, InvestmentType type) {
+        return fetchPrices(List.of(symbol), type).get(symbol);
+    }
+
+    /**
+     * Prices for many symbols of one type, keyed by symbol; symbols no provider could price are
+     * left out. Cache misses go to each provider in order, split into chunks of that provider's
+     * {@link PriceProviderStrategy#getMaxBatchSize() batch size}; whatever a provider could not
+     * price falls through to the next one. With hedging on, a slow first provider does not hold
+     * up the others; see {@link #fetchHedged}.
+     */
+    public Map<String, BigDecimal> fetchPrices(Collection<String> symbols, InvestmentType type) {
+        Map<String, BigDecimal> prices = new HashMap<>();
+        List<String> pending = new ArrayList<>();
+        for (String symbol : new LinkedHashSet<>(symbols)) {
+            BigDecimal cached = cachedPrice(symbol, type);
+            if (cached != null) {
+                prices.put(symbol, cached);
+            } else {
+                pending.add(symbol);
+            }
+        }
+        if (pending.isEmpty()) {
+            return prices;
+        }
+
+        List<PriceProviderStrategy> available = priceProviders.stream()
+                .filter(PriceProviderStrategy::isAvailable)
+                .toList();
+        if (hedgingEnabled && available.size() > 1) {
+            fetchHedged(available, pending, type, prices);
+        } else {
+            prices.putAll(fetchInOrder(available, pending, type));
+        }
+        if (Thread.currentThread().isInterrupted()) {
+            return prices;
+        }
+        for (String symbol : pending) {
+            if (!prices.containsKey(symbol)) {
+                logger.error("No valid price for {} from any provider", symbol);
+            }
+        }
+        return prices;
+    }
+
+    private Map<String, BigDecimal> fetchInOrder(List<PriceProviderStrategy> providers, List<String> symbols,
+                                                 InvestmentType type) {
+        Map<String, BigDecimal> prices = new HashMap<>();
+        List<String> pending = symbols;
+        for (PriceProviderStrategy provider : providers) {
+            if (pending.isEmpty()) break;
+            int batchSize = Math.max(1, provider.getMaxBatchSize());
+            List<String> unpriced = new ArrayList<>();
+            for (int from = 0; from < pending.size(); from += batchSize) {
+                List<String> chunk = pending.subList(from, Math.min(from + batchSize, pending.size()));
+                Map<String, BigDecimal> fetched = fetchChunk(provider, chunk, type);
+                if (fetched == null) {
+                    return prices;
+                }
+                for (String symbol : chunk) {
+                    BigDecimal price = fetched.get(symbol);
+                    if (price != null && price.compareTo(BigDecimal.ZERO) > 0) {
+                        quoteCache.put(symbol, provider.getProviderName(), type, price);
+                        prices.put(symbol, price);
+                    } else {
+                        unpriced.add(symbol);
+                    }
+                }
+            }
+            pending = unpriced;
+        }
+        return prices;
+    }
+
+    /**
+     * Splits the symbols into the first provider's batches and races each batch on its own: the
+     * hedge delay is a percentile of single requests, so it is only comparable to one. The first
+     * provider is asked alone and, if it has not answered within that delay, the rest of the chain
+     * is started on the same batch in parallel. The first answer that priced anything is taken;
+     * the other call is cancelled if that answer priced the whole batch and otherwise awaited to
+     * fill the gaps, with the first answer winning any overlap. Batches the first provider
+     * answered in time send their leftovers down the chain together afterwards, exactly as
+     * without hedging.
+     */
+    private void fetchHedged(List<PriceProviderStrategy> providers, List<String> pending, InvestmentType type,
+                             Map<String, BigDecimal> prices) {
+        PriceProviderStrategy primary = providers.get(0);
+        List<PriceProviderStrategy> fallbacks = providers.subList(1, providers.size());
+        int batchSize = Math.max(1, primary.getMaxBatchSize());
+        List<String> leftovers = new ArrayList<>();
+        for (int from = 0; from < pending.size(); from += batchSize) {
+            List<String> chunk = pending.subList(from, Math.min(from + batchSize, pending.size()));
+            boolean hedged = fetchChunkHedged(primary, fallbacks, chunk, type, prices);
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            if (!hedged) {
+                chunk.stream().filter(symbol -> !prices.containsKey(symbol)).forEach(leftovers::add);
+            }
+        }
+        if (!leftovers.isEmpty()) {
+            prices.putAll(fetchInOrder(fallbacks, leftovers, type));
+        }
+    }
+
+    /** One batch's race; true if the fallbacks were started on it, false if they still need asking. */
+    private boolean fetchChunkHedged(PriceProviderStrategy primary, List<PriceProviderStrategy> fallbacks,
+                                     List<String> chunk, InvestmentType type, Map<String, BigDecimal> prices) {
+        CompletionService<Map<String, BigDecimal>> race = new ExecutorCompletionService<>(hedgeExecutor);
+        Future<Map<String, BigDecimal>> primaryCall = race.submit(() -> fetchInOrder(List.of(primary), chunk, type));
+        Future<Map<String, BigDecimal>> hedgeCall = null;
+        try {
+            Future<Map<String, BigDecimal>> first = race.poll(hedgeDelay(primary).toNanos(), TimeUnit.NANOSECONDS);
+            if (first == null) {
+                logger.debug("{} slow for {}; hedging with the next provider", primary.getProviderName(), chunk);
+                guards.get(primary).hedged().increment();
+                hedgeCall = race.submit(() -> fetchInOrder(fallbacks, chunk, type));
+                first = race.take();
+            }
+            Map<String, BigDecimal> firstPrices = first.get();
+            prices.putAll(firstPrices);
+            if (hedgeCall == null) {
+                return false;
+            }
+            // A hedge that came back empty only handed the race back to the first provider
+            if (first == hedgeCall && !firstPrices.isEmpty()) {
+                guards.get(primary).hedgesLost().increment();
+            }
+            Future<Map<String, BigDecimal>> other = first == primaryCall ? hedgeCall : primaryCall;
+            if (prices.keySet().containsAll(chunk)) {
+                other.cancel(true);
+                return true;
+            }
+            other.get().forEach(prices::putIfAbsent);
+        } catch (InterruptedException e) {
+            primaryCall.cancel(true);
+            if (hedgeCall != null) {
+                hedgeCall.cancel(true);
+            }
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.warn("Hedged price fetch failed for {}: {}", chunk, e.getCause().getMessage());
+        }
+        return hedgeCall != null;
+    }
+
+    /**
+     * The configured percentile of the provider's recent response times, floored at min-delay;
+     * the default delay until enough calls have been timed.
+     */
+    Duration hedgeDelay(PriceProviderStrategy provider) {
+        LatencyHistogram latency = guards.get(provider).latency();
+        if (latency.count() < MIN_LATENCY_SAMPLES) {
+            return defaultHedgeDelay;
+        }
+        Duration percentile = latency.percentile(hedgePercentile);
+        return percentile.compareTo(minHedgeDelay) > 0 ? percentile : minHedgeDelay;
+    }
+
+    /**
+     * Largest batch any available provider accepts; callers use it to size their own chunks.
+     */
+    public int getMaxBatchSize() {
+        return priceProviders.stream()
+                .filter(PriceProviderStrategy::isAvailable)
+                .mapToInt(PriceProviderStrategy::getMaxBatchSize)
+                .max()
+                .orElse(1);
+    }
+
+    private BigDecimal cachedPrice(String symbol, InvestmentType type) {
+        PriceProviderStrategy staleProvider = null;
+        QuoteCache.Quote staleQuote = null;
         for (PriceProviderStrategy provider : priceProviders) {
             if (!provider.isAvailable()) continue;
+            QuoteCache.Quote cached = quoteCache.get(symbol, provider.getProviderName());
+            if (cached == null) continue;
+            QuoteCache.Freshness freshness = quoteCache.freshness(cached);
+            if (freshness == QuoteCache.Freshness.FRESH) {
+                quoteCache.recordLookup(freshness);
+                return cached.price();
+            }
+            if (freshness == QuoteCache.Freshness.STALE && staleQuote == null) {
+                staleProvider = provider;
+                staleQuote = cached;
+            }
+        }
+        if (staleQuote != null) {
+            quoteCache.recordLookup(QuoteCache.Freshness.STALE);
+            revalidate(staleProvider, symbol, type);
+            return staleQuote.price();
+        }
+        quoteCache.recordLookup(QuoteCache.Freshness.EXPIRED);
+        return null;
+    }
+
+    /**
+     * One request to one provider under its in-flight cap, rate limiter and circuit breaker. A
+     * provider that is out of tokens or has an open breaker is skipped without waiting, so its
+     * symbols move straight on to the next provider. Returns null only if interrupted while
+     * waiting for an in-flight permit; every other miss comes back as an empty map.
+     */
+    private Map<String, BigDecimal> fetchChunk(PriceProviderStrategy provider, List<String> chunk, InvestmentType type) {
+        ProviderGuard guard = guards.get(provider);
+        if (!guard.circuitBreaker().tryAcquire()) {
+            logger.debug("Skipping {} for {}: circuit open", provider.getProviderName(), chunk);
+            return Map.of();
+        }
+        if (!guard.rateLimiter().tryAcquire()) {
+            guard.circuitBreaker().release();
+            logger.debug("Skipping {} for {}: rate limited", provider.getProviderName(), chunk);
+            return Map.of();
+        }
+        try {
+            guard.inFlightPermits().acquire();
+        } catch (InterruptedException e) {
+            guard.circuitBreaker().release();
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        long started = System.nanoTime();
+        try {
+            Map<String, BigDecimal> prices;
+            if (chunk.size() == 1) {
+                BigDecimal price = provider.fetchPrice(chunk.get(0), type);
+                prices = price != null ? Map.of(chunk.get(0), price) : Map.of();
+            } else {
+                prices = provider.fetchPrices(chunk, type);
+            }
+            recordLatency(guard, started);
+            guard.circuitBreaker().onSuccess();
+            guard.rateLimiter().onSuccess();
+            return prices;
+        } catch (RateLimitedException e) {
+            // Throttling says nothing about the provider's health, only about our pace
+            guard.circuitBreaker().release();
+            guard.rateLimiter().onRateLimited(e.getRetryAfter());
+            return Map.of();
+        } catch (Exception e) {
+            recordLatency(guard, started);
+            guard.circuitBreaker().onFailure();
+            logger.warn("Price fetch failed for {} via {}: {}", chunk, provider.getProviderName(), e.getMessage());
+            return Map.of();
+        } finally {
+            guard.inFlightPermits().release();
+        }
+    }
+
+    private static void recordLatency(ProviderGuard guard, long startedNanos) {
+        // A call cut short by a lost hedge race says nothing about how fast the provider is
+        if (!Thread.currentThread().isInterrupted()) {
+            guard.latency().record(Duration.ofNanos(System.nanoTime() - startedNanos));
+        }
+    }
+
+    private void revalidate(PriceProviderStrategy provider, String symbol, InvestmentType type) {
+        String key = provider.getProviderName() + '|' + symbol;
+        if (!revalidating.add(key)) {
+            return;
+        }
+        // The stale quote stays until max-stale; the next miss tries every provider again
+        Thread.ofVirtual().name("quote-revalidate-" + symbol).start(() -> {
             try {
-                BigDecimal price = provider.fetchPrice(symbol, type);
+                Map<String, BigDecimal> fetched = fetchChunk(provider, List.of(symbol), type);
+                BigDecimal price = fetched != null ? fetched.get(symbol) : null;
                 if (price != null && price.compareTo(BigDecimal.ZERO) > 0) {
-                    return price;
+                    quoteCache.put(symbol, provider.getProviderName(), type, price);
                 }
-            } catch (Exception e) {
-                logger.warn("Price fetch failed for {} via {}: {}", symbol, provider.getProviderName(), e.getMessage());
+            } finally {
+                revalidating.remove(key);
             }
+        });
+    }
+
+    /**
+     * Circuit state, current adaptive request rate, recent latency and hedging counts per
+     * provider, in provider order.
+     */
+    public Map<String, Map<String, Object>> getProviderHealth() {
+        Map<String, Map<String, Object>> health = new LinkedHashMap<>();
+        for (PriceProviderStrategy provider : priceProviders) {
+            ProviderGuard guard = guards.get(provider);
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("circuit", guard.circuitBreaker().getState().name());
+            entry.put("requestsPerSecond", guard.rateLimiter().getRate());
+            entry.put("p50LatencyMs", toMillis(guard.latency().percentile(0.5)));
+            entry.put("p95LatencyMs", toMillis(guard.latency().percentile(0.95)));
+            entry.put("hedged", guard.hedged().sum());
+            entry.put("hedgesLost", guard.hedgesLost().sum());
+            health.put(provider.getProviderName(), entry);
         }
-        logger.error("No valid price for {} from any provider", symbol);
-        return null;
+        return health;
     }
-}
 
+    private static Long toMillis(Duration duration) {
+        return duration != null ? duration.toMillis() : null;
+    }
+
+    public QuoteCache.CacheStats getQuoteCacheStats() {
+        return quoteCache.stats();
+    }
+}
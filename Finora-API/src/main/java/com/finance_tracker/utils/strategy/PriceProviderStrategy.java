@@ -3,13 +3,58 @@ package com.finance_tracker.utils.strategy;
 import com.finance_tracker.model.InvestmentType;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 public interface PriceProviderStrategy {
 
+    /**
+     * Current price, or null if the provider has none for this symbol. Throw
+     * {@link RateLimitedException} when the API refuses the call for quota reasons; any other
+     * exception counts as a failed call towards the provider's circuit breaker.
+     */
     BigDecimal fetchPrice(String symbol, InvestmentType type);
 
+    /**
+     * Prices for up to {@link #getMaxBatchSize()} symbols, keyed by the symbol as passed in.
+     * Symbols without a price are left out. The default makes one {@link #fetchPrice} call per
+     * symbol.
+     */
+    default Map<String, BigDecimal> fetchPrices(Collection<String> symbols, InvestmentType type) {
+        Map<String, BigDecimal> prices = new LinkedHashMap<>();
+        for (String symbol : symbols) {
+            BigDecimal price = fetchPrice(symbol, type);
+            if (price != null) {
+                prices.put(symbol, price);
+            }
+        }
+        return prices;
+    }
+
     String getProviderName();
 
     boolean isAvailable();
-}
 
+    /**
+     * Upper bound on requests this provider may have in flight at once during a refresh.
+     */
+    default int getMaxConcurrentRequests() {
+        return 4;
+    }
+
+    /**
+     * Most symbols one {@link #fetchPrices} call can price in a single request.
+     */
+    default int getMaxBatchSize() {
+        return 1;
+    }
+
+    /**
+     * Starting request budget for this provider. It is lowered while the provider answers with
+     * rate-limit errors and climbs back on success, but never above this.
+     */
+    default AdaptiveRateLimiter.RateLimit getRateLimit() {
+        return new AdaptiveRateLimiter.RateLimit(5, 10);
+    }
+}
@@ -0,0 +1,154 @@
+package com.finance_tracker.utils.strategy;
+
+import com.finance_tracker.model.InvestmentType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Last known quote per (symbol, provider), shared by every caller of {@link PriceProviderService}.
+ *
+ * <p>Expiry is fixed when a quote is stored. STOCK and ETF quotes taken while NSE is open live for
+ * {@code market-hours-ttl}; quotes taken after the close live for {@code off-hours-ttl} but never
+ * past the next open, so the first read of a trading day always goes to the provider. Other types
+ * always use {@code off-hours-ttl}. Exchange holidays are treated as trading days, which only
+ * costs an extra fetch.
+ *
+ * <p>An expired quote can still be served for {@code max-stale} while it is refreshed in the
+ * background; past that it is a miss.
+ */
+@Component
+public class QuoteCache {
+
+    private static final ZoneId MARKET_ZONE = ZoneId.of("Asia/Kolkata");
+    private static final LocalTime MARKET_OPEN = LocalTime.of(9, 15);
+    private static final LocalTime MARKET_CLOSE = LocalTime.of(15, 30);
+
+    public enum Freshness { FRESH, STALE, EXPIRED }
+
+    public record Quote(BigDecimal price, Instant fetchedAt, Instant expiresAt) {
+    }
+
+    public record CacheStats(long hits, long staleHits, long misses, long evictions, int size) {
+    }
+
+    private final Duration marketHoursTtl;
+    private final Duration offHoursTtl;
+    private final Duration maxStale;
+    private final Clock clock;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final Map<String, Quote> entries;
+
+    @Autowired
+    public QuoteCache(@Value("${finora.prices.cache.max-entries:5000}") int maxEntries,
+                      @Value("${finora.prices.cache.market-hours-ttl:1m}") Duration marketHoursTtl,
+                      @Value("${finora.prices.cache.off-hours-ttl:12h}") Duration offHoursTtl,
+                      @Value("${finora.prices.cache.max-stale:6h}") Duration maxStale) {
+        this(maxEntries, marketHoursTtl, offHoursTtl, maxStale, Clock.systemUTC());
+    }
+
+    public QuoteCache(int maxEntries, Duration marketHoursTtl, Duration offHoursTtl, Duration maxStale, Clock clock) {
+        this.marketHoursTtl = marketHoursTtl;
+        this.offHoursTtl = offHoursTtl;
+        this.maxStale = maxStale;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Quote> eldest) {
+                if (size() > maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * The cached quote, or null. Does not count towards hit/miss statistics; callers record the
+     * outcome once per lookup with {@link #recordLookup}.
+     */
+    public Quote get(String symbol, String provider) {
+        synchronized (entries) {
+            return entries.get(key(symbol, provider));
+        }
+    }
+
+    public Quote put(String symbol, String provider, InvestmentType type, BigDecimal price) {
+        Instant now = clock.instant();
+        Quote quote = new Quote(price, now, expiryFor(type, now));
+        synchronized (entries) {
+            entries.put(key(symbol, provider), quote);
+        }
+        return quote;
+    }
+
+    public Freshness freshness(Quote quote) {
+        Instant now = clock.instant();
+        if (now.isBefore(quote.expiresAt())) {
+            return Freshness.FRESH;
+        }
+        return now.isBefore(quote.expiresAt().plus(maxStale)) ? Freshness.STALE : Freshness.EXPIRED;
+    }
+
+    public void recordLookup(Freshness outcome) {
+        switch (outcome) {
+            case FRESH -> hits.increment();
+            case STALE -> staleHits.increment();
+            case EXPIRED -> misses.increment();
+        }
+    }
+
+    public CacheStats stats() {
+        synchronized (entries) {
+            return new CacheStats(hits.sum(), staleHits.sum(), misses.sum(), evictions.sum(), entries.size());
+        }
+    }
+
+    Instant expiryFor(InvestmentType type, Instant fetchedAt) {
+        if (type != InvestmentType.STOCK && type != InvestmentType.ETF) {
+            return fetchedAt.plus(offHoursTtl);
+        }
+        ZonedDateTime at = fetchedAt.atZone(MARKET_ZONE);
+        LocalTime time = at.toLocalTime();
+        if (isTradingDay(at.toLocalDate()) && !time.isBefore(MARKET_OPEN) && time.isBefore(MARKET_CLOSE)) {
+            return fetchedAt.plus(marketHoursTtl);
+        }
+        Instant offHoursExpiry = fetchedAt.plus(offHoursTtl);
+        Instant nextOpen = nextOpen(at);
+        return offHoursExpiry.isBefore(nextOpen) ? offHoursExpiry : nextOpen;
+    }
+
+    private static Instant nextOpen(ZonedDateTime at) {
+        LocalDate day = at.toLocalTime().isBefore(MARKET_OPEN) ? at.toLocalDate() : at.toLocalDate().plusDays(1);
+        while (!isTradingDay(day)) {
+            day = day.plusDays(1);
+        }
+        return day.atTime(MARKET_OPEN).atZone(MARKET_ZONE).toInstant();
+    }
+
+    private static boolean isTradingDay(LocalDate day) {
+        return day.getDayOfWeek() != DayOfWeek.SATURDAY && day.getDayOfWeek() != DayOfWeek.SUNDAY;
+    }
+
+    private static String key(String symbol, String provider) {
+        return provider + '|' + symbol;
+    }
+}
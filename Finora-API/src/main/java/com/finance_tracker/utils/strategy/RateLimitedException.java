@@ -0,0 +1,25 @@
+package com.finance_tracker.utils.strategy;
+
+import java.time.Duration;
+
+/**
+ * Thrown by a provider when the upstream API says it is being called too often (HTTP 429 or an
+ * in-band quota message). {@link PriceProviderService} slows that provider down and moves on to
+ * the next one instead of waiting.
+ */
+public class RateLimitedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public RateLimitedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * How long the provider asked us to back off, or null if it did not say.
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -5,91 +5,176 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.finance_tracker.model.InvestmentType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.net.URI;
+import java.net.URLEncoder;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 @Component
 public class YahooFinancePriceProvider implements PriceProviderStrategy {
-    
+
     private static final Logger logger = LoggerFactory.getLogger(YahooFinancePriceProvider.class);
-    private static final int MAX_RETRIES = 3;
-    
+    // The spark endpoint rejects more than 20 symbols per call
+    private static final int MAX_BATCH_SIZE = 20;
+
+    @Value("${finora.prices.yahoo.max-concurrency:8}")
+    private int maxConcurrentRequests = 8;
+
+    @Value("${finora.prices.yahoo.requests-per-second:2}")
+    private double requestsPerSecond = 2;
+
+    @Value("${finora.prices.yahoo.burst:10}")
+    private int burst = 10;
+
     private final HttpClient httpClient = HttpClient.newBuilder()
             .connectTimeout(Duration.ofSeconds(10))
             .build();
-    
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @Override
     public BigDecimal fetchPrice(String symbol, InvestmentType type) {
-        int attempt = 0;
-        long backoff = 3000;
-
-        while (attempt < MAX_RETRIES) {
-            try {
-                String yahooSymbol = symbol.endsWith(".NS") || symbol.endsWith(".BO") ? symbol : symbol + ".NS";
-                String url = "https://query1.finance.yahoo.com/v8/finance/chart/" + yahooSymbol + "?interval=1d";
-
-                HttpRequest request = HttpRequest.newBuilder()
-                        .uri(URI.create(url))
-                        .timeout(Duration.ofSeconds(15))
-                        .header("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64)")
-                        .GET()
-                        .build();
-
-                HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-
-                if (response.statusCode() == 429) {
-                    logger.warn("429 Too Many Requests for {}. Retrying in {} ms", yahooSymbol, backoff);
-                    Thread.sleep(backoff);
-                    backoff *= 2; // exponential backoff
-                    attempt++;
-                    continue;
-                }
-
-                if (response.statusCode() != 200) {
-                    logger.error("Yahoo Finance API returned error: {} - {}", response.statusCode(), response.body());
-                    return null;
-                }
-
-                JsonNode rootNode = objectMapper.readTree(response.body());
-                JsonNode resultNode = rootNode.at("/chart/result/0");
-                JsonNode closePrices = resultNode.at("/indicators/quote/0/close");
-
-                if (closePrices.isArray() && !closePrices.isEmpty()) {
-                    JsonNode lastCloseNode = closePrices.get(closePrices.size() - 1);
-                    if (!lastCloseNode.isNull()) {
-                        double lastClose = lastCloseNode.asDouble();
-                        return BigDecimal.valueOf(lastClose);
-                    }
-                }
-
+        String yahooSymbol = toYahooSymbol(symbol);
+        String body = get("https://query1.finance.yahoo.com/v8/finance/chart/" + yahooSymbol + "?interval=1d", yahooSymbol);
+        if (body == null) {
+            return null;
+        }
+        try {
+            JsonNode rootNode = objectMapper.readTree(body);
+            BigDecimal price = chartPrice(rootNode.at("/chart/result/0"));
+            if (price == null) {
                 logger.warn("No valid close price found for {} in Yahoo Finance", yahooSymbol);
-                return null;
-
-            } catch (Exception e) {
-                logger.error("Error fetching price from Yahoo Finance for {}: {}", symbol, e.getMessage());
-                attempt++;
-                if (attempt < MAX_RETRIES) {
-                    try {
-                        Thread.sleep(backoff);
-                        backoff *= 2;
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        return null;
-                    }
-                }
+            }
+            return price;
+        } catch (Exception e) {
+            logger.error("Error parsing Yahoo Finance response for {}: {}", symbol, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * One spark request for up to {@link #MAX_BATCH_SIZE} symbols. Symbols Yahoo does not know
+     * are simply absent from the result.
+     */
+    @Override
+    public Map<String, BigDecimal> fetchPrices(Collection<String> symbols, InvestmentType type) {
+        Map<String, List<String>> originalByYahoo = new LinkedHashMap<>();
+        for (String symbol : symbols) {
+            originalByYahoo.computeIfAbsent(toYahooSymbol(symbol), k -> new ArrayList<>()).add(symbol);
+        }
+        String joined = String.join(",", originalByYahoo.keySet());
+        String body = get("https://query1.finance.yahoo.com/v7/finance/spark?symbols="
+                + URLEncoder.encode(joined, StandardCharsets.UTF_8) + "&range=1d&interval=1d", joined);
+        if (body == null) {
+            return Map.of();
+        }
+        try {
+            return parseSparkPrices(objectMapper.readTree(body), originalByYahoo);
+        } catch (Exception e) {
+            logger.error("Error parsing Yahoo Finance spark response for {}: {}", joined, e.getMessage());
+            return Map.of();
+        }
+    }
+
+    static Map<String, BigDecimal> parseSparkPrices(JsonNode root, Map<String, List<String>> originalByYahoo) {
+        Map<String, BigDecimal> prices = new HashMap<>();
+        for (JsonNode result : root.path("spark").path("result")) {
+            List<String> originals = originalByYahoo.get(result.path("symbol").asText());
+            if (originals == null) continue;
+            BigDecimal price = chartPrice(result.path("response").path(0));
+            if (price != null) {
+                originals.forEach(original -> prices.put(original, price));
+            }
+        }
+        return prices;
+    }
+
+    /**
+     * Price from one chart result, as returned by both the chart and the spark endpoint: the last
+     * daily close, or {@code meta.regularMarketPrice} when the series has none. Reading the same
+     * fields for both keeps a symbol's price independent of whether it was fetched alone or in a
+     * batch.
+     */
+    static BigDecimal chartPrice(JsonNode chart) {
+        JsonNode closePrices = chart.at("/indicators/quote/0/close");
+        if (closePrices.isArray() && !closePrices.isEmpty()) {
+            JsonNode lastCloseNode = closePrices.get(closePrices.size() - 1);
+            if (!lastCloseNode.isNull()) {
+                return BigDecimal.valueOf(lastCloseNode.asDouble());
             }
         }
+        JsonNode marketPrice = chart.path("meta").path("regularMarketPrice");
+        return marketPrice.isNumber() ? BigDecimal.valueOf(marketPrice.asDouble()) : null;
+    }
+
+    private static String toYahooSymbol(String symbol) {
+        return symbol.endsWith(".NS") || symbol.endsWith(".BO") ? symbol : symbol + ".NS";
+    }
 
-        logger.error("Exceeded max retries for Yahoo Finance API for {}", symbol);
-        return null;
+    /**
+     * One attempt, no retries: a 429 is handed back as {@link RateLimitedException} and server or
+     * network errors are thrown, so {@link PriceProviderService} can back off this provider and
+     * try the next one instead of parking the calling thread.
+     */
+    private String get(String url, String label) {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .timeout(Duration.ofSeconds(15))
+                .header("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64)")
+                .GET()
+                .build();
+
+        HttpResponse<String> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Yahoo Finance request failed for " + label, e);
+        }
+
+        if (response.statusCode() == 429) {
+            throw new RateLimitedException("Yahoo Finance returned 429 for " + label,
+                    retryAfter(response.headers().firstValue("Retry-After").orElse(null)));
+        }
+        if (response.statusCode() >= 500) {
+            throw new IllegalStateException("Yahoo Finance returned HTTP " + response.statusCode() + " for " + label);
+        }
+        if (response.statusCode() != 200) {
+            logger.error("Yahoo Finance API returned error: {} - {}", response.statusCode(), response.body());
+            return null;
+        }
+        return response.body();
+    }
+
+    /**
+     * Retry-After in its delay-seconds form; the HTTP-date form and garbage give null.
+     */
+    static Duration retryAfter(String header) {
+        if (header == null) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Long.parseLong(header.trim()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
     }
 
     @Override
@@ -97,9 +182,23 @@ public class YahooFinancePriceProvider implements PriceProviderStrategy {
         return "Yahoo Finance";
     }
 
+    @Override
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    @Override
+    public int getMaxBatchSize() {
+        return MAX_BATCH_SIZE;
+    }
+
+    @Override
+    public AdaptiveRateLimiter.RateLimit getRateLimit() {
+        return new AdaptiveRateLimiter.RateLimit(requestsPerSecond, burst);
+    }
+
     @Override
     public boolean isAvailable() {
         return true;
     }
 }
-
@@ -0,0 +1,7 @@
+-- =============================================================================
+-- V2 - Per-user envelope keys for encrypted columns
+-- =============================================================================
+
+-- Data-encryption key, wrapped under the server key (and the vault key while
+-- the vault is enabled). Created lazily on the user's first authenticated request.
+ALTER TABLE public.users ADD COLUMN IF NOT EXISTS wrapped_data_key TEXT;
@@ -0,0 +1,13 @@
+-- =============================================================================
+-- V3 - Ledger verification checkpoints
+-- =============================================================================
+
+-- Last chain position that verified cleanly, per user. /api/ledger/verify
+-- resumes from here; ?full=true ignores it and rehashes from genesis.
+CREATE TABLE IF NOT EXISTS public.ledger_checkpoints (
+    user_id             VARCHAR     PRIMARY KEY,
+    last_event_sequence BIGINT      NOT NULL,
+    last_hash           VARCHAR     NOT NULL,
+    event_count         BIGINT      NOT NULL,
+    verified_at         TIMESTAMPTZ NOT NULL
+);
@@ -0,0 +1,19 @@
+-- =============================================================================
+-- V4 - Ledger chain heads
+-- =============================================================================
+
+-- Newest hash per user's chain. Appends lock this row (SELECT ... FOR UPDATE)
+-- instead of reading the latest ledger event, so concurrent writes for one
+-- user are serialised and can never fork the chain.
+CREATE TABLE IF NOT EXISTS public.ledger_chain_heads (
+    user_id    VARCHAR     PRIMARY KEY,
+    last_hash  VARCHAR,
+    updated_at TIMESTAMPTZ NOT NULL
+);
+
+-- Backfill from existing chains
+INSERT INTO public.ledger_chain_heads (user_id, last_hash, updated_at)
+SELECT DISTINCT ON (user_id) user_id, hash, now()
+FROM public.ledger_events
+ORDER BY user_id, event_sequence DESC
+ON CONFLICT (user_id) DO NOTHING;
@@ -0,0 +1,19 @@
+-- =============================================================================
+-- V5 - Ledger outbox
+-- =============================================================================
+
+-- Ledger appends written in the same transaction as the business change when
+-- finora.ledger.async-append is on. A background writer chains them into
+-- ledger_events (in id order per user) and deletes them in one transaction.
+CREATE TABLE IF NOT EXISTS public.ledger_outbox (
+    id              BIGSERIAL   PRIMARY KEY,
+    user_id         VARCHAR     NOT NULL,
+    entity_type     VARCHAR     NOT NULL,
+    entity_id       VARCHAR     NOT NULL,
+    action_type     VARCHAR     NOT NULL,
+    before_state    TEXT,
+    after_state     TEXT,
+    event_timestamp TIMESTAMPTZ NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_ledger_outbox_user_id ON public.ledger_outbox(user_id, id);
@@ -0,0 +1,19 @@
+-- =============================================================================
+-- V6 - Ledger audit results
+-- =============================================================================
+
+-- Latest audit outcome per user, written by the admin-triggered all-users
+-- ledger audit. error is set when a chain could not be checked at all.
+CREATE TABLE IF NOT EXISTS public.ledger_audit_results (
+    user_id              VARCHAR     PRIMARY KEY,
+    run_id               VARCHAR     NOT NULL,
+    valid                BOOLEAN     NOT NULL,
+    event_count          BIGINT      NOT NULL,
+    checked_count        BIGINT      NOT NULL,
+    broken_at_event_uuid VARCHAR,
+    error                TEXT,
+    duration_ms          BIGINT      NOT NULL,
+    audited_at           TIMESTAMPTZ NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_ledger_audit_results_valid ON public.ledger_audit_results(valid);
@@ -0,0 +1,13 @@
+-- =============================================================================
+-- V7 - Price history
+-- =============================================================================
+
+-- One daily close per market symbol or AMFI scheme code, written by the price
+-- and NAV refreshes. The primary key doubles as the index behind range reads
+-- (symbol = ? AND price_date BETWEEN ? AND ?).
+CREATE TABLE IF NOT EXISTS public.price_history (
+    symbol      VARCHAR        NOT NULL,
+    price_date  DATE           NOT NULL,
+    close       NUMERIC(19, 6) NOT NULL,
+    PRIMARY KEY (symbol, price_date)
+);
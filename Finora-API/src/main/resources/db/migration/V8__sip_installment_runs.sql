@@ -0,0 +1,20 @@
+-- =============================================================================
+-- V8 - Monthly SIP installment runs
+-- =============================================================================
+
+-- One row per month's installment run. last_sip_id is the resume cursor: every
+-- SIP with id <= last_sip_id has been handled, and the counts cover exactly
+-- those SIPs. A run left RUNNING or FAILED resumes from here.
+CREATE TABLE IF NOT EXISTS public.sip_installment_runs (
+    period          VARCHAR     PRIMARY KEY,
+    run_id          VARCHAR     NOT NULL,
+    status          VARCHAR     NOT NULL,
+    last_sip_id     BIGINT      NOT NULL,
+    processed_count BIGINT      NOT NULL,
+    skipped_count   BIGINT      NOT NULL,
+    failed_count    BIGINT      NOT NULL,
+    started_at      TIMESTAMPTZ NOT NULL,
+    updated_at      TIMESTAMPTZ NOT NULL,
+    finished_at     TIMESTAMPTZ,
+    error           TEXT
+);
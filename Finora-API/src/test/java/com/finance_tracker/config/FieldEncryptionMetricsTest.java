@@ -0,0 +1,28 @@
+package com.finance_tracker.config;
+
+import com.finance_tracker.service.FieldEncryptionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FieldEncryptionMetricsTest {
+
+    @Test
+    void bindTo_exposesHitAndMissCounters() {
+        FieldEncryptionService svc = new FieldEncryptionService("a".repeat(32));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new FieldEncryptionMetrics(svc).bindTo(registry);
+
+        svc.decrypt(svc.encrypt("value"));
+
+        assertThat(registry.get("finora.crypto.key.cache.requests")
+                .tags("cache", "master", "result", "miss").functionCounter().count()).isEqualTo(1.0);
+        assertThat(registry.get("finora.crypto.key.cache.requests")
+                .tags("cache", "master", "result", "hit").functionCounter().count()).isEqualTo(1.0);
+        assertThat(registry.get("finora.crypto.key.cache.size")
+                .tags("cache", "master").gauge().value()).isEqualTo(1.0);
+        assertThat(registry.get("finora.crypto.key.cache.evictions")
+                .tags("cache", "legacy").functionCounter().count()).isZero();
+    }
+}
@@ -9,6 +9,7 @@ import com.finance_tracker.exception.ValidationException;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
@@ -47,6 +48,13 @@ class GlobalExceptionHandlerTest {
         assertThat(resp.getBody().getErrorCode()).isEqualTo("BUSINESS_LOGIC_ERROR");
     }
 
+    @Test
+    void handleAccessDeniedException_returns403() {
+        var resp = handler.handleAccessDeniedException(new AccessDeniedException("Admin role required"));
+        assertThat(resp.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(resp.getBody().getErrorCode()).isEqualTo("ACCESS_DENIED");
+    }
+
     @Test
     void handleExternalApiException_returns503() {
         var resp = handler.handleExternalApiException(new ExternalApiException("BSE down"));
@@ -0,0 +1,25 @@
+package com.finance_tracker.config;
+
+import com.finance_tracker.utils.scheduler.LedgerOutboxWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LedgerOutboxMetricsTest {
+
+    @Test
+    void bindTo_exposesWriterCounters() {
+        LedgerOutboxWriter writer = mock(LedgerOutboxWriter.class);
+        when(writer.getAppendedCount()).thenReturn(42L);
+        when(writer.getFailureCount()).thenReturn(1L);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        new LedgerOutboxMetrics(writer).bindTo(registry);
+
+        assertThat(registry.get("finora.ledger.outbox.appended").functionCounter().count()).isEqualTo(42.0);
+        assertThat(registry.get("finora.ledger.outbox.failures").functionCounter().count()).isEqualTo(1.0);
+    }
+}
@@ -0,0 +1,40 @@
+package com.finance_tracker.config;
+
+import com.finance_tracker.service.LoanBalanceSweep;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LoanBalanceSweepHealthIndicatorTest {
+
+    @Test
+    void health_outOfServiceWhileStartupSweepRuns() {
+        LoanBalanceSweep sweep = mock(LoanBalanceSweep.class);
+        when(sweep.isFirstSweepRunning()).thenReturn(true);
+        when(sweep.getStatus()).thenReturn(Map.of("state", "running", "updatedLoans", 12L));
+
+        Health health = new LoanBalanceSweepHealthIndicator(sweep).health();
+
+        assertThat(health.getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+        assertThat(health.getDetails()).containsEntry("state", "running");
+    }
+
+    @Test
+    void health_upOnceStartupSweepStopsEvenIfAborted() {
+        LoanBalanceSweep sweep = mock(LoanBalanceSweep.class);
+        when(sweep.getStatus()).thenReturn(Map.of("state", "aborted", "updatedLoans", 40L, "error", "connection lost"));
+
+        Health health = new LoanBalanceSweepHealthIndicator(sweep).health();
+
+        assertThat(health.getStatus()).isEqualTo(Status.UP);
+        assertThat(health.getDetails())
+                .containsEntry("state", "aborted")
+                .containsEntry("updatedLoans", 40L);
+    }
+}
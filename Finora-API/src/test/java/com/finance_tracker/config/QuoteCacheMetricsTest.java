@@ -0,0 +1,28 @@
+package com.finance_tracker.config;
+
+import com.finance_tracker.utils.strategy.PriceProviderService;
+import com.finance_tracker.utils.strategy.QuoteCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class QuoteCacheMetricsTest {
+
+    @Test
+    void bindTo_exposesQuoteCacheCounters() {
+        PriceProviderService service = mock(PriceProviderService.class);
+        when(service.getQuoteCacheStats()).thenReturn(new QuoteCache.CacheStats(10, 3, 4, 2, 7));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        new QuoteCacheMetrics(service).bindTo(registry);
+
+        assertThat(registry.get("finora.prices.quote.cache.requests").tag("result", "hit").functionCounter().count()).isEqualTo(10.0);
+        assertThat(registry.get("finora.prices.quote.cache.requests").tag("result", "stale").functionCounter().count()).isEqualTo(3.0);
+        assertThat(registry.get("finora.prices.quote.cache.requests").tag("result", "miss").functionCounter().count()).isEqualTo(4.0);
+        assertThat(registry.get("finora.prices.quote.cache.evictions").functionCounter().count()).isEqualTo(2.0);
+        assertThat(registry.get("finora.prices.quote.cache.size").gauge().value()).isEqualTo(7.0);
+    }
+}
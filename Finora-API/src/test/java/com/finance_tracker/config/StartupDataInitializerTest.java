@@ -1,6 +1,6 @@
 package com.finance_tracker.config;
 
-import com.finance_tracker.service.LoanService;
+import com.finance_tracker.service.LoanBalanceSweep;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -8,27 +8,32 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.boot.DefaultApplicationArguments;
 
-import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class StartupDataInitializerTest {
 
     @Mock
-    private LoanService loanService;
+    private LoanBalanceSweep loanBalanceSweep;
 
     @InjectMocks
     private StartupDataInitializer initializer;
 
     @Test
-    void run_callsUpdateLoanBalances() throws Exception {
+    void run_startsLoanBalanceSweepInBackground() {
+        when(loanBalanceSweep.startInBackground()).thenReturn(true);
+
         initializer.run(new DefaultApplicationArguments());
-        verify(loanService).updateLoanBalances();
+
+        verify(loanBalanceSweep).startInBackground();
+        verify(loanBalanceSweep, never()).run();
     }
 
     @Test
-    void run_swallowsExceptionFromLoanService() throws Exception {
-        doThrow(new RuntimeException("DB unavailable")).when(loanService).updateLoanBalances();
+    void run_swallowsExceptionFromSweep() {
+        when(loanBalanceSweep.startInBackground()).thenThrow(new RuntimeException("thread start failed"));
         initializer.run(new DefaultApplicationArguments()); // must not throw
     }
 }
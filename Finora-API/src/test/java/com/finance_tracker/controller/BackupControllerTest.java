@@ -3,6 +3,7 @@ package com.finance_tracker.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.finance_tracker.dto.BackupExportRequestDTO;
 import com.finance_tracker.dto.BackupMetadataDTO;
+import com.finance_tracker.exception.BusinessLogicException;
 import com.finance_tracker.service.BackupService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,9 +17,12 @@ import com.finance_tracker.utils.security.JwtService;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.OutputStream;
 import java.util.Collections;
 
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -46,15 +50,36 @@ class BackupControllerTest {
     @Test
     void exportBackup_validRequest_returnsOctetStream() throws Exception {
         setAuth();
-        when(backupService.exportBackup(eq(42L), anyString())).thenReturn(new byte[]{1, 2, 3});
+        doAnswer(inv -> {
+            OutputStream out = inv.getArgument(2);
+            out.write(new byte[]{1, 2, 3});
+            out.close();
+            return null;
+        }).when(backupService).exportBackup(eq(42L), anyString(), any(OutputStream.class));
 
         mockMvc.perform(post("/api/backup/export")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(new BackupExportRequestDTO("password123"))))
                 .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_OCTET_STREAM))
+                .andExpect(content().bytes(new byte[]{1, 2, 3}))
                 .andExpect(header().string("Content-Disposition", org.hamcrest.Matchers.containsString("finora-backup-")));
     }
 
+    @Test
+    void exportBackup_failureBeforeStreaming_returnsJsonError() throws Exception {
+        setAuth();
+        doThrow(new BusinessLogicException("User not found"))
+                .when(backupService).exportBackup(eq(42L), anyString(), any(OutputStream.class));
+
+        mockMvc.perform(post("/api/backup/export")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BackupExportRequestDTO("password123"))))
+                .andExpect(status().is4xxClientError())
+                .andExpect(header().doesNotExist("Content-Disposition"))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
     @Test
     void importBackup_emptyFile_returnsBadRequest() throws Exception {
         setAuth();
@@ -5,29 +5,39 @@ import com.finance_tracker.dto.InvestmentRequestDTO;
 import com.finance_tracker.dto.InvestmentResponseDTO;
 import com.finance_tracker.dto.InvestmentSummaryDTO;
 import com.finance_tracker.dto.InvestmentTradeRequestDTO;
+import com.finance_tracker.dto.PricePointDTO;
 import com.finance_tracker.mapper.InvestmentMapper;
 import com.finance_tracker.model.Investment;
 import com.finance_tracker.model.InvestmentType;
 import com.finance_tracker.service.AmfiNavService;
 import com.finance_tracker.service.InvestmentService;
+import com.finance_tracker.service.PriceHistoryService;
+import com.finance_tracker.service.PriceRefreshService;
 import com.finance_tracker.service.SipService;
+import com.finance_tracker.service.UserService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.http.MediaType;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
 import com.finance_tracker.utils.security.JwtService;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -56,6 +66,20 @@ class InvestmentControllerTest {
     @MockitoBean
     private AmfiNavService amfiNavService;
 
+    @MockitoBean
+    private PriceRefreshService priceRefreshService;
+
+    @MockitoBean
+    private PriceHistoryService priceHistoryService;
+
+    @MockitoBean
+    private UserService userService;
+
+    private void setAuth(String userId) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(userId, null, Collections.emptyList()));
+    }
+
     private Investment investment(Long id) {
         Investment inv = new Investment();
         inv.setId(id);
@@ -142,6 +166,42 @@ class InvestmentControllerTest {
                 .andExpect(jsonPath("$.status").value("refresh_started"));
     }
 
+    @Test
+    void getRefreshStatus_returnsServiceStatus() throws Exception {
+        setAuth("1");
+        when(priceRefreshService.getStatus()).thenReturn(Map.of("state", "running", "totalInvestments", 40));
+
+        mockMvc.perform(get("/api/investments/refresh-prices/status"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state").value("running"))
+                .andExpect(jsonPath("$.totalInvestments").value(40));
+        verify(userService).requireAdmin(1L);
+    }
+
+    @Test
+    void getRefreshStatus_nonAdmin_returns403() throws Exception {
+        setAuth("2");
+        doThrow(new AccessDeniedException("Admin role required")).when(userService).requireAdmin(2L);
+
+        mockMvc.perform(get("/api/investments/refresh-prices/status"))
+                .andExpect(status().isForbidden());
+        verifyNoInteractions(priceRefreshService);
+    }
+
+    @Test
+    void getPriceHistory_passesParsedRange() throws Exception {
+        when(priceHistoryService.getHistory("RELIANCE.NS", LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 31)))
+                .thenReturn(List.of(new PricePointDTO(LocalDate.of(2026, 1, 2), new BigDecimal("2450.50"))));
+
+        mockMvc.perform(get("/api/investments/price-history")
+                        .param("symbol", "RELIANCE.NS")
+                        .param("from", "2026-01-01")
+                        .param("to", "2026-01-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].date").value("2026-01-02"))
+                .andExpect(jsonPath("$[0].close").value(2450.50));
+    }
+
     @Test
     void searchMf_delegatesToAmfiNavService() throws Exception {
         when(amfiNavService.searchByName("HDFC")).thenReturn(
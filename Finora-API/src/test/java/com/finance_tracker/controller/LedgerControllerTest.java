@@ -1,12 +1,16 @@
 package com.finance_tracker.controller;
 
 import com.finance_tracker.dto.LedgerIntegrityResultDTO;
+import com.finance_tracker.model.LedgerAuditResult;
 import com.finance_tracker.model.LedgerEvent;
+import com.finance_tracker.service.LedgerAuditService;
 import com.finance_tracker.service.LedgerService;
+import com.finance_tracker.service.UserService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import com.finance_tracker.utils.security.JwtService;
@@ -16,8 +20,12 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.util.Collections;
 import java.util.List;
 
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(controllers = LedgerController.class, excludeAutoConfiguration = {SecurityAutoConfiguration.class, org.springframework.boot.autoconfigure.security.servlet.SecurityFilterAutoConfiguration.class})
@@ -32,6 +40,12 @@ class LedgerControllerTest {
     @MockitoBean
     private LedgerService ledgerService;
 
+    @MockitoBean
+    private LedgerAuditService ledgerAuditService;
+
+    @MockitoBean
+    private UserService userService;
+
     private void setAuth(String userId) {
         SecurityContextHolder.getContext().setAuthentication(
                 new UsernamePasswordAuthenticationToken(userId, null, Collections.emptyList()));
@@ -42,7 +56,7 @@ class LedgerControllerTest {
         setAuth("1");
         LedgerIntegrityResultDTO result = LedgerIntegrityResultDTO.builder()
                 .valid(true).eventCount(42).build();
-        when(ledgerService.verifyIntegrity("1")).thenReturn(result);
+        when(ledgerService.verifyIntegrity("1", false)).thenReturn(result);
 
         mockMvc.perform(get("/api/ledger/verify"))
                 .andExpect(status().isOk())
@@ -50,6 +64,19 @@ class LedgerControllerTest {
                 .andExpect(jsonPath("$.data.eventCount").value(42));
     }
 
+    @Test
+    void verifyIntegrity_fullParam_requestsFullVerification() throws Exception {
+        setAuth("1");
+        LedgerIntegrityResultDTO result = LedgerIntegrityResultDTO.builder()
+                .valid(true).eventCount(42).checkedCount(42).fullVerification(true).build();
+        when(ledgerService.verifyIntegrity("1", true)).thenReturn(result);
+
+        mockMvc.perform(get("/api/ledger/verify").param("full", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.fullVerification").value(true))
+                .andExpect(jsonPath("$.data.checkedCount").value(42));
+    }
+
     @Test
     void getTimeline_returnsEvents() throws Exception {
         when(ledgerService.getTimeline("EXPENSE", "5")).thenReturn(List.of(new LedgerEvent()));
@@ -58,4 +85,38 @@ class LedgerControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.data").isArray());
     }
+
+    @Test
+    void startAudit_admin_returnsAcceptedWithRunId() throws Exception {
+        setAuth("1");
+        when(ledgerAuditService.startAudit(true)).thenReturn("run-1");
+
+        mockMvc.perform(post("/api/ledger/audit").param("full", "true"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.status").value("audit_started"))
+                .andExpect(jsonPath("$.runId").value("run-1"));
+        verify(userService).requireAdmin(1L);
+    }
+
+    @Test
+    void startAudit_nonAdmin_returns403() throws Exception {
+        setAuth("2");
+        doThrow(new AccessDeniedException("Admin role required")).when(userService).requireAdmin(2L);
+
+        mockMvc.perform(post("/api/ledger/audit"))
+                .andExpect(status().isForbidden());
+        verifyNoInteractions(ledgerAuditService);
+    }
+
+    @Test
+    void getAuditFailures_returnsBrokenChains() throws Exception {
+        setAuth("1");
+        LedgerAuditResult broken = new LedgerAuditResult();
+        broken.setUserId("7");
+        when(ledgerAuditService.getFailures()).thenReturn(List.of(broken));
+
+        mockMvc.perform(get("/api/ledger/audit/failures"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].userId").value("7"));
+    }
 }
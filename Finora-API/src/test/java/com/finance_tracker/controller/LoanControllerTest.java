@@ -1,6 +1,7 @@
 package com.finance_tracker.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finance_tracker.dto.LoanInstallmentDTO;
 import com.finance_tracker.dto.LoanRequestDTO;
 import com.finance_tracker.dto.LoanResponseDTO;
 import com.finance_tracker.dto.LoanSummaryDTO;
@@ -88,6 +89,21 @@ class LoanControllerTest {
                 .andExpect(jsonPath("$.name").value("Home Loan"));
     }
 
+    @Test
+    void getAmortizationSchedule_returnsInstallments() throws Exception {
+        when(loanService.getAmortizationSchedule(1L)).thenReturn(List.of());
+        when(loanMapper.toInstallmentDTOList(anyList())).thenReturn(List.of(LoanInstallmentDTO.builder()
+                .installmentNumber(1).dueDate(LocalDate.of(2023, 2, 1))
+                .payment(new BigDecimal("4339.12")).interest(new BigDecimal("3541.67"))
+                .principal(new BigDecimal("797.45")).balance(new BigDecimal("499202.55"))
+                .build()));
+
+        mockMvc.perform(get("/api/loans/1/schedule"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].installmentNumber").value(1))
+                .andExpect(jsonPath("$[0].balance").value(499202.55));
+    }
+
     @Test
     void createLoan_validRequest_returnsLoan() throws Exception {
         LoanRequestDTO req = new LoanRequestDTO();
@@ -6,7 +6,9 @@ import com.finance_tracker.dto.UserResponseDTO;
 import com.finance_tracker.dto.VaultDisableRequestDTO;
 import com.finance_tracker.dto.VaultEnableRequestDTO;
 import com.finance_tracker.dto.VaultStatusDTO;
+import com.finance_tracker.exception.BusinessLogicException;
 import com.finance_tracker.model.Role;
+import com.finance_tracker.service.EncryptionMigrationService;
 import com.finance_tracker.service.UserService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,15 +17,22 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import com.finance_tracker.utils.security.DataKey;
 import com.finance_tracker.utils.security.JwtService;
+import com.finance_tracker.utils.security.VaultKeyContext;
+import org.junit.jupiter.api.AfterEach;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import javax.crypto.spec.SecretKeySpec;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -43,6 +52,14 @@ class UserControllerTest {
     @MockitoBean
     private UserService userService;
 
+    @MockitoBean
+    private EncryptionMigrationService encryptionMigrationService;
+
+    @AfterEach
+    void clearVaultContext() {
+        VaultKeyContext.clear();
+    }
+
     private void setAuth(String userId) {
         SecurityContextHolder.getContext().setAuthentication(
                 new UsernamePasswordAuthenticationToken(userId, null, Collections.emptyList()));
@@ -155,4 +172,52 @@ class UserControllerTest {
                         .content(objectMapper.writeValueAsString(req)))
                 .andExpect(status().isOk());
     }
+
+    @Test
+    void migrateEncryption_noDataKey_returnsBadRequest() throws Exception {
+        setAuth("1");
+
+        mockMvc.perform(post("/api/users/vault/migrate"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value("VALIDATION_ERROR"));
+
+        verifyNoInteractions(encryptionMigrationService);
+    }
+
+    @Test
+    void migrateEncryption_startsOneRunForTheUser() throws Exception {
+        setAuth("1");
+        DataKey dataKey = new DataKey(1L, new SecretKeySpec(new byte[32], "AES"));
+        VaultKeyContext.setDataKey(dataKey);
+
+        mockMvc.perform(post("/api/users/vault/migrate"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.status").value("migration_started"));
+
+        verify(encryptionMigrationService).startUserMigration(1L, dataKey, null);
+    }
+
+    @Test
+    void migrateEncryption_alreadyRunning_returnsBadRequest() throws Exception {
+        setAuth("1");
+        DataKey dataKey = new DataKey(1L, new SecretKeySpec(new byte[32], "AES"));
+        VaultKeyContext.setDataKey(dataKey);
+        doThrow(new BusinessLogicException("An encryption migration is already running for this account"))
+                .when(encryptionMigrationService).startUserMigration(eq(1L), any(), any());
+
+        mockMvc.perform(post("/api/users/vault/migrate"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getMigrationStatus_returnsTheUsersRun() throws Exception {
+        setAuth("1");
+        when(encryptionMigrationService.getUserMigrationStatus(1L))
+                .thenReturn(Map.of("state", "running", "valuesMigrated", 120));
+
+        mockMvc.perform(get("/api/users/vault/migrate/status"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state").value("running"))
+                .andExpect(jsonPath("$.valuesMigrated").value(120));
+    }
 }
@@ -1,10 +1,12 @@
 package com.finance_tracker.mapper;
 
+import com.finance_tracker.dto.LoanInstallmentDTO;
 import com.finance_tracker.dto.LoanRequestDTO;
 import com.finance_tracker.dto.LoanResponseDTO;
 import com.finance_tracker.model.CompoundingFrequency;
 import com.finance_tracker.model.Loan;
 import com.finance_tracker.model.LoanInterestType;
+import com.finance_tracker.service.LoanAmortization;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
@@ -72,4 +74,17 @@ class LoanMapperTest {
         assertThat(list).hasSize(2);
         assertThat(list.get(0).getId()).isEqualTo(1L);
     }
+
+    @Test
+    void toInstallmentDTOList_mapsEachInstallment() {
+        List<LoanInstallmentDTO> list = mapper.toInstallmentDTOList(List.of(new LoanAmortization.Installment(
+                1, LocalDate.of(2022, 7, 1), new BigDecimal("6227.51"), new BigDecimal("2250.00"),
+                new BigDecimal("3977.51"), new BigDecimal("296022.49"))));
+
+        assertThat(list).hasSize(1);
+        assertThat(list.get(0).getInstallmentNumber()).isEqualTo(1);
+        assertThat(list.get(0).getDueDate()).isEqualTo(LocalDate.of(2022, 7, 1));
+        assertThat(list.get(0).getInterest()).isEqualByComparingTo("2250.00");
+        assertThat(list.get(0).getBalance()).isEqualByComparingTo("296022.49");
+    }
 }
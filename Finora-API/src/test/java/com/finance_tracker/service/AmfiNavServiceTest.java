@@ -2,15 +2,24 @@ package com.finance_tracker.service;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class AmfiNavServiceTest {
 
@@ -32,10 +41,9 @@ class AmfiNavServiceTest {
         nameMap.put("118989", "HDFC Flexi Cap Fund");
         nameMap.put("120503", "Axis Bluechip Fund");
 
-        ReflectionTestUtils.setField(service, "navsBySchemeCode", navs);
-        ReflectionTestUtils.setField(service, "schemeCodeByIsin", isinMap);
-        ReflectionTestUtils.setField(service, "schemeNameByCode", nameMap);
-        ReflectionTestUtils.setField(service, "cacheDate", java.time.LocalDate.now());
+        ReflectionTestUtils.setField(service, "state", AmfiNavService.NavState.of(
+                new AmfiNavSnapshot(navIndex(navs, isinMap, nameMap), null, null, Instant.now())));
+        ReflectionTestUtils.setField(service, "lastChecked", Instant.now());
     }
 
     @Test
@@ -82,6 +90,16 @@ class AmfiNavServiceTest {
         assertThat(results.get(0).get("schemeCode")).isEqualTo("118989");
     }
 
+    @Test
+    void searchByName_matchesEveryWordAsPrefix() {
+        List<Map<String, Object>> results = service.searchByName("flexi hd");
+        assertThat(results).singleElement().satisfies(item -> {
+            assertThat(item.get("schemeCode")).isEqualTo("118989");
+            assertThat(item.get("nav")).isEqualTo(new BigDecimal("120.50"));
+        });
+        assertThat(service.searchByName("flexi axis")).isEmpty();
+    }
+
     @Test
     void searchByName_nullQueryReturnsEmpty() {
         assertThat(service.searchByName(null)).isEmpty();
@@ -102,4 +120,152 @@ class AmfiNavServiceTest {
         Map<String, BigDecimal> all = service.getAllNavs();
         assertThat(all).containsKey("118989").containsKey("120503");
     }
+
+    @Test
+    void parseNavAll_indexesSchemesAndSkipsHeaderLines() throws Exception {
+        String body = """
+                Scheme Code;ISIN Div Payout/ ISIN Growth;ISIN Div Reinvestment;Scheme Name;Net Asset Value;Date
+
+                Open Ended Schemes(Equity Scheme - Flexi Cap Fund)
+
+                HDFC Mutual Fund
+
+                118955;INF179K01UT0;INF179K01UU8;HDFC Flexi Cap Fund - Growth;1650.12;14-Oct-2026
+                118956;INF179K01UV6;-;HDFC Flexi Cap Fund - IDCW;N.A.;14-Oct-2026
+                """;
+
+        AmfiNavService.NavIndex index = AmfiNavService.parseNavAll(new BufferedReader(new StringReader(body)));
+
+        assertThat(index.navs().asMap()).containsOnlyKeys("118955");
+        assertThat(index.navs().nav(118955)).isEqualTo(new BigDecimal("1650.12"));
+        assertThat(index.schemeCodeByIsin()).containsEntry("INF179K01UT0", 118955)
+                .containsEntry("INF179K01UU8", 118955);
+        assertThat(index.navs().name(118955)).isEqualTo("HDFC Flexi Cap Fund - Growth");
+    }
+
+    @Test
+    void parseNavAll_trimsFieldsUppercasesIsinsAndSkipsMalformedRows() throws Exception {
+        String body = """
+                118955 ; inf179k01ut0 ;INF179K01UT0; HDFC Flexi Cap Fund - Growth ; 1650.12 ;14-Oct-2026\r
+                118957;INF179K01XX;-;Short ISIN Fund;10.5;14-Oct-2026
+                118958;INF179K01UW4;INF179K01UW4;Only Five Fields;12.00
+                118959;INF179K01UX2;;Bad NAV Fund;1.2.3;14-Oct-2026
+                ;INF179K01UY0;;No Code Fund;9.99;14-Oct-2026
+                ABC123;INF179K01UZ7;;Text Code Fund;9.99;14-Oct-2026
+                118960;INF179K01VA0;;Exponent Fund;1E+3;14-Oct-2026
+                """;
+
+        AmfiNavService.NavIndex index = AmfiNavService.parseNavAll(new BufferedReader(new StringReader(body)), 4);
+
+        assertThat(index.navs().asMap()).containsOnlyKeys("118955", "118957");
+        assertThat(index.navs().nav(118955)).isEqualTo(new BigDecimal("1650.12"));
+        assertThat(index.navs().nav(118957)).isEqualTo(new BigDecimal("10.5"));
+        assertThat(index.navs().name(118955)).isEqualTo("HDFC Flexi Cap Fund - Growth");
+        assertThat(index.schemeCodeByIsin()).containsOnly(Map.entry("INF179K01UT0", 118955));
+    }
+
+    @Test
+    void isin_checksShapeWithoutRegex() {
+        assertThat(AmfiNavService.isin(" INF179K01VV4 ", 0, 14)).isEqualTo("INF179K01VV4");
+        assertThat(AmfiNavService.isin("inf179k01vv4", 0, 12)).isEqualTo("INF179K01VV4");
+        assertThat(AmfiNavService.isin("INF179K01VVX", 0, 12)).isNull();
+        assertThat(AmfiNavService.isin("US0378331005", 0, 12)).isNull();
+        assertThat(AmfiNavService.isin("INF179-01VV4", 0, 12)).isNull();
+        assertThat(AmfiNavService.isin("-", 0, 1)).isNull();
+    }
+
+    @Test
+    void snapshot_roundTripsIndexAndValidators(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("nested/amfi.snapshot");
+        AmfiNavService.NavIndex index = navIndex(
+                Map.of("118989", new BigDecimal("120.5012"), "120503", new BigDecimal("45")),
+                Map.of("INF179K01VV4", "118989"),
+                Map.of("118989", "HDFC Flexi Cap Fund – Growth"));
+        Instant fetchedAt = Instant.parse("2026-10-14T18:30:00Z");
+
+        new AmfiNavSnapshot(index, "\"abc\"", null, fetchedAt).writeTo(file);
+        AmfiNavSnapshot loaded = AmfiNavSnapshot.readFrom(file);
+
+        assertThat(loaded.index().navs().asMap()).isEqualTo(index.navs().asMap());
+        assertThat(loaded.index().navs().name(118989)).isEqualTo("HDFC Flexi Cap Fund – Growth");
+        assertThat(loaded.index().navs().name(120503)).isNull();
+        assertThat(loaded.index().schemeCodeByIsin()).isEqualTo(index.schemeCodeByIsin());
+        assertThat(loaded.etag()).isEqualTo("\"abc\"");
+        assertThat(loaded.lastModified()).isNull();
+        assertThat(loaded.fetchedAt()).isEqualTo(fetchedAt);
+        assertThat(dir.resolve("nested")).isDirectoryNotContaining("glob:**.tmp");
+    }
+
+    @Test
+    void loadSnapshot_warmsCacheWithoutFetching(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("amfi.snapshot");
+        new AmfiNavSnapshot(navIndex(
+                Map.of("100001", new BigDecimal("10.25")), Map.of("INF000A01AA1", "100001"), Map.of("100001", "Warm Fund")),
+                null, "Tue, 14 Oct 2026 18:30:00 GMT", Instant.now()).writeTo(file);
+
+        AmfiNavService warm = new AmfiNavService();
+        ReflectionTestUtils.setField(warm, "snapshotPath", file.toString());
+        ReflectionTestUtils.setField(warm, "backgroundRefresh", false);
+        warm.loadSnapshot();
+
+        assertThat(warm.getNavBySchemeCode("100001")).contains(new BigDecimal("10.25"));
+        assertThat(warm.lookupSchemeCodeByIsin("inf000a01aa1")).contains("100001");
+        assertThat(warm.searchByName("warm")).singleElement().satisfies(item -> assertThat(item.get("schemeCode")).isEqualTo("100001"));
+        AmfiNavService.NavState state = (AmfiNavService.NavState) ReflectionTestUtils.getField(warm, "state");
+        assertThat(state.snapshot().lastModified()).isEqualTo("Tue, 14 Oct 2026 18:30:00 GMT");
+    }
+
+    @Test
+    void loadSnapshot_corruptFileIsIgnored(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("amfi.snapshot");
+        Files.write(file, new byte[]{0x41, 0x4D, 0x46, 0x49, 0, 0, 0, 2, 0});
+
+        AmfiNavService cold = new AmfiNavService();
+        ReflectionTestUtils.setField(cold, "snapshotPath", file.toString());
+        ReflectionTestUtils.setField(cold, "backgroundRefresh", false);
+        cold.loadSnapshot();
+
+        assertThat(cold.getAllNavs()).isEmpty();
+    }
+
+    @Test
+    void snapshot_hugeCountOrLengthIsRejectedBeforeAllocating(@TempDir Path dir) throws Exception {
+        Path hugeCount = dir.resolve("count.snapshot");
+        Files.write(hugeCount, ByteBuffer.allocate(32)
+                .putInt(0x414D4649).putInt(2).putLong(0).putInt(-1).putInt(-1)
+                .putInt(Integer.MAX_VALUE).array());
+        Path hugeString = dir.resolve("string.snapshot");
+        Files.write(hugeString, ByteBuffer.allocate(24)
+                .putInt(0x414D4649).putInt(2).putLong(0).putInt(Integer.MAX_VALUE).array());
+
+        assertThatThrownBy(() -> AmfiNavSnapshot.readFrom(hugeCount))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("entry count");
+        assertThatThrownBy(() -> AmfiNavSnapshot.readFrom(hugeString))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("string length");
+    }
+
+    @Test
+    void loadSnapshot_previousFormatIsIgnored(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("amfi.snapshot");
+        // Version 1 keyed NAVs by scheme code text
+        Files.write(file, new byte[]{0x41, 0x4D, 0x46, 0x49, 0, 0, 0, 1, 0, 0, 0, 0, 0, 0, 0, 0});
+
+        AmfiNavService cold = new AmfiNavService();
+        ReflectionTestUtils.setField(cold, "snapshotPath", file.toString());
+        ReflectionTestUtils.setField(cold, "backgroundRefresh", false);
+        cold.loadSnapshot();
+
+        assertThat(cold.getNavBySchemeCode("118989")).isEmpty();
+    }
+
+    private static AmfiNavService.NavIndex navIndex(Map<String, BigDecimal> navs, Map<String, String> isins,
+                                                    Map<String, String> names) {
+        NavTable.Builder table = new NavTable.Builder(navs.size());
+        navs.forEach((code, nav) -> table.put(Integer.parseInt(code), nav, names.get(code)));
+        Map<String, Integer> codeByIsin = new HashMap<>();
+        isins.forEach((isin, code) -> codeByIsin.put(isin, Integer.parseInt(code)));
+        return new AmfiNavService.NavIndex(table.build(), codeByIsin);
+    }
 }
@@ -10,23 +10,37 @@ import com.finance_tracker.exception.BusinessLogicException;
 import com.finance_tracker.model.LedgerEvent;
 import com.finance_tracker.model.User;
 import com.finance_tracker.repository.*;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -41,6 +55,8 @@ class BackupServiceTest {
     @Mock private SipRepository sipRepository;
     @Mock private LedgerEventRepository ledgerEventRepository;
     @Mock private UserRepository userRepository;
+    @Mock private EntityManager entityManager;
+    @Mock private PlatformTransactionManager transactionManager;
 
     @InjectMocks
     private BackupService backupService;
@@ -86,27 +102,73 @@ class BackupServiceTest {
     // -------------------------------------------------------------------------
 
     @Test
-    void exportBackup_success() {
+    void exportBackup_success() throws Exception {
         when(userRepository.findById(USER_ID)).thenReturn(Optional.of(makeUser()));
         when(expenseRepository.findByUserId(USER_ID)).thenReturn(List.of());
         when(investmentRepository.findByUserId(USER_ID)).thenReturn(List.of());
         when(loanRepository.findByUserId(USER_ID)).thenReturn(List.of());
         when(sipRepository.findByUserId(USER_ID)).thenReturn(List.of());
-        when(ledgerEventRepository.findByUserIdOrderByEventSequenceAsc(String.valueOf(USER_ID)))
-                .thenReturn(List.of());
-        byte[] fakeEncrypted = new byte[]{10, 20, 30};
-        when(cryptoService.encrypt(any(), eq(PASSWORD))).thenReturn(fakeEncrypted);
+        when(ledgerEventRepository.streamByUserIdAfterSequence(String.valueOf(USER_ID), 0L))
+                .thenReturn(Stream.of());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        OutputStream encrypting = mock(OutputStream.class);
+        when(cryptoService.encryptingStream(out, PASSWORD)).thenReturn(encrypting);
+
+        backupService.exportBackup(USER_ID, PASSWORD, out);
+
+        // Everything goes through the encrypting stream, which is closed to finish the file
+        verify(encrypting, atLeastOnce()).write(any(byte[].class), anyInt(), anyInt());
+        verify(encrypting).close();
+        assertThat(out.size()).isZero();
+    }
 
-        byte[] result = backupService.exportBackup(USER_ID, PASSWORD);
+    @Test
+    void exportBackup_streamsLedgerAndDerivesMetadataFromIt() throws Exception {
+        LedgerEvent first = makeLedgerEvent("hash-1", null);
+        LedgerEvent second = makeLedgerEvent("hash-2", "hash-1");
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(makeUser()));
+        when(expenseRepository.findByUserId(USER_ID)).thenReturn(List.of());
+        when(investmentRepository.findByUserId(USER_ID)).thenReturn(List.of());
+        when(loanRepository.findByUserId(USER_ID)).thenReturn(List.of());
+        when(sipRepository.findByUserId(USER_ID)).thenReturn(List.of());
+        when(ledgerEventRepository.streamByUserIdAfterSequence(String.valueOf(USER_ID), 0L))
+                .thenReturn(Stream.of(first, second));
+        when(cryptoService.encryptingStream(any(), eq(PASSWORD))).thenAnswer(inv -> inv.getArgument(0));
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+
+        backupService.exportBackup(USER_ID, PASSWORD, json);
+
+        BackupPayloadDTO payload = TEST_MAPPER.readValue(json.toByteArray(), BackupPayloadDTO.class);
+        assertThat(payload.getLedgerEvents()).extracting(LedgerEvent::getHash).containsExactly("hash-1", "hash-2");
+        assertThat(payload.getMetadata().getLedgerRootHash()).isEqualTo("hash-2");
+        assertThat(payload.getMetadata().getLedgerEventCount()).isEqualTo(2);
+        assertThat(payload.getMetadata().getUsername()).isEqualTo("testuser");
+        verify(entityManager).detach(first);
+        verify(entityManager).detach(second);
+        verify(ledgerService).appendAllPending(String.valueOf(USER_ID));
+    }
+
+    @Test
+    void exportBackup_drainsOutboxBeforeOpeningReadOnlyTransaction() {
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(makeUser()));
+        when(ledgerEventRepository.streamByUserIdAfterSequence(String.valueOf(USER_ID), 0L))
+                .thenReturn(Stream.of());
+        when(cryptoService.encryptingStream(any(), eq(PASSWORD))).thenAnswer(inv -> inv.getArgument(0));
 
-        assertThat(result).isNotNull().isEqualTo(fakeEncrypted);
+        backupService.exportBackup(USER_ID, PASSWORD, new ByteArrayOutputStream());
+
+        InOrder order = inOrder(ledgerService, transactionManager, userRepository);
+        order.verify(ledgerService).appendAllPending(String.valueOf(USER_ID));
+        order.verify(transactionManager).getTransaction(argThat(TransactionDefinition::isReadOnly));
+        order.verify(userRepository).findById(USER_ID);
+        order.verify(transactionManager).commit(any());
     }
 
     @Test
     void exportBackup_userNotFound() {
         when(userRepository.findById(USER_ID)).thenReturn(Optional.empty());
 
-        assertThatThrownBy(() -> backupService.exportBackup(USER_ID, PASSWORD))
+        assertThatThrownBy(() -> backupService.exportBackup(USER_ID, PASSWORD, new ByteArrayOutputStream()))
                 .isInstanceOf(BusinessLogicException.class)
                 .hasMessageContaining("User not found");
     }
@@ -118,13 +180,32 @@ class BackupServiceTest {
         when(investmentRepository.findByUserId(USER_ID)).thenReturn(List.of());
         when(loanRepository.findByUserId(USER_ID)).thenReturn(List.of());
         when(sipRepository.findByUserId(USER_ID)).thenReturn(List.of());
-        when(ledgerEventRepository.findByUserIdOrderByEventSequenceAsc(String.valueOf(USER_ID)))
-                .thenReturn(List.of());
-        when(cryptoService.encrypt(any(), eq(PASSWORD)))
+        when(ledgerEventRepository.streamByUserIdAfterSequence(String.valueOf(USER_ID), 0L))
+                .thenReturn(Stream.of());
+        when(cryptoService.encryptingStream(any(), eq(PASSWORD)))
                 .thenThrow(new RuntimeException("Crypto failure"));
 
-        assertThatThrownBy(() -> backupService.exportBackup(USER_ID, PASSWORD))
+        assertThatThrownBy(() -> backupService.exportBackup(USER_ID, PASSWORD, new ByteArrayOutputStream()))
+                .isInstanceOf(BackupException.class);
+    }
+
+    @Test
+    void exportBackup_failureMidStream_neverFinishesTheEncryptedFile() throws Exception {
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(makeUser()));
+        when(expenseRepository.findByUserId(USER_ID)).thenReturn(List.of());
+        when(investmentRepository.findByUserId(USER_ID)).thenReturn(List.of());
+        when(loanRepository.findByUserId(USER_ID)).thenReturn(List.of());
+        when(sipRepository.findByUserId(USER_ID)).thenReturn(List.of());
+        when(ledgerEventRepository.streamByUserIdAfterSequence(String.valueOf(USER_ID), 0L))
+                .thenReturn(Stream.generate(() -> {
+                    throw new IllegalStateException("cursor lost");
+                }));
+        OutputStream encrypting = mock(OutputStream.class);
+        when(cryptoService.encryptingStream(any(), eq(PASSWORD))).thenReturn(encrypting);
+
+        assertThatThrownBy(() -> backupService.exportBackup(USER_ID, PASSWORD, new ByteArrayOutputStream()))
                 .isInstanceOf(BackupException.class);
+        verify(encrypting, never()).close();
     }
 
     // -------------------------------------------------------------------------
@@ -170,6 +251,10 @@ class BackupServiceTest {
         assertThat(result).isNotNull();
         assertThat(result.getVersion()).isEqualTo("1.0");
         assertThat(result.getUserId()).isEqualTo(USER_ID);
+        verify(ledgerService).resetCheckpoint(String.valueOf(USER_ID));
+        verify(ledgerService).lockChainHead(String.valueOf(USER_ID));
+        verify(ledgerService).discardPending(String.valueOf(USER_ID));
+        verify(ledgerService).resetChainHead(String.valueOf(USER_ID), null);
     }
 
     @Test
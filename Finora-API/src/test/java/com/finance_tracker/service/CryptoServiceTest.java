@@ -3,6 +3,10 @@ package com.finance_tracker.service;
 import com.finance_tracker.exception.BackupException;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
@@ -21,6 +25,32 @@ class CryptoServiceTest {
         assertThat(decrypted).isEqualTo(original);
     }
 
+    @Test
+    void encryptingStream_writesTheSameFormatDecryptReads() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream encrypted = cryptoService.encryptingStream(out, "StrongPassword123!")) {
+            for (int i = 0; i < 1000; i++) {
+                encrypted.write(("line " + i + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        byte[] decrypted = cryptoService.decrypt(out.toByteArray(), "StrongPassword123!");
+
+        assertThat(new String(decrypted, StandardCharsets.UTF_8)).startsWith("line 0\n").endsWith("line 999\n");
+    }
+
+    @Test
+    void encryptingStream_notClosed_doesNotDecrypt() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        OutputStream encrypted = cryptoService.encryptingStream(out, "password");
+        encrypted.write(new byte[4096]);
+        encrypted.flush();
+
+        // A stream cut short never gets its GCM tag
+        assertThatThrownBy(() -> cryptoService.decrypt(out.toByteArray(), "password"))
+                .isInstanceOf(BackupException.class);
+    }
+
     @Test
     void encrypt_producesDifferentCiphertextEachTime() {
         byte[] data = "same data".getBytes();
@@ -0,0 +1,132 @@
+package com.finance_tracker.service;
+
+import com.finance_tracker.utils.security.DataKey;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DataKeyServiceTest {
+
+    private static final String VAULT_KEY = "vault-key-32chars-padding-here!";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private FieldEncryptionService encryptionService;
+    private DataKeyService dataKeyService;
+
+    @BeforeEach
+    void setUp() {
+        encryptionService = new FieldEncryptionService("a".repeat(32));
+        dataKeyService = new DataKeyService(encryptionService, jdbcTemplate);
+    }
+
+    private void givenUser(boolean vaultEnabled, String wrapped) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("vault_enabled", vaultEnabled);
+        row.put("wrapped_data_key", wrapped);
+        when(jdbcTemplate.queryForList(anyString(), eq(1L))).thenReturn(List.of(row));
+    }
+
+    @Test
+    void resolveForRequest_encryptionDisabled_returnsNull() {
+        DataKeyService disabled = new DataKeyService(new FieldEncryptionService(""), jdbcTemplate);
+        assertThat(disabled.resolveForRequest(1L, null)).isNull();
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void resolveForRequest_unknownUser_returnsNull() {
+        when(jdbcTemplate.queryForList(anyString(), eq(1L))).thenReturn(List.of());
+        assertThat(dataKeyService.resolveForRequest(1L, null)).isNull();
+    }
+
+    @Test
+    void resolveForRequest_noKey_createsServerWrappedKey() {
+        givenUser(false, null);
+        when(jdbcTemplate.update(contains("wrapped_data_key IS NULL"), anyString(), eq(1L))).thenReturn(1);
+
+        DataKey dataKey = dataKeyService.resolveForRequest(1L, null);
+
+        ArgumentCaptor<String> wrapped = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).update(contains("wrapped_data_key IS NULL"), wrapped.capture(), eq(1L));
+        assertThat(dataKey.userId()).isEqualTo(1L);
+        assertThat(encryptionService.isVaultWrapped(wrapped.getValue())).isFalse();
+        assertThat(encryptionService.unwrapDataKey(wrapped.getValue(), null)).isEqualTo(dataKey.key().getEncoded());
+    }
+
+    @Test
+    void resolveForRequest_lostCreationRace_usesWinningKey() {
+        byte[] winner = encryptionService.generateDataKey();
+        givenUser(false, null);
+        when(jdbcTemplate.update(contains("wrapped_data_key IS NULL"), anyString(), eq(1L))).thenReturn(0);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq(1L)))
+                .thenReturn(List.of(encryptionService.wrapDataKey(winner, null)));
+
+        assertThat(dataKeyService.resolveForRequest(1L, null).key().getEncoded()).isEqualTo(winner);
+    }
+
+    @Test
+    void resolveForRequest_vaultWrappedWithoutVaultKey_returnsNull() {
+        givenUser(true, encryptionService.wrapDataKey(encryptionService.generateDataKey(), VAULT_KEY));
+        assertThat(dataKeyService.resolveForRequest(1L, null)).isNull();
+    }
+
+    @Test
+    void resolveForRequest_wrongVaultKey_returnsNull() {
+        givenUser(true, encryptionService.wrapDataKey(encryptionService.generateDataKey(), VAULT_KEY));
+        assertThat(dataKeyService.resolveForRequest(1L, "wrong-vault-key-32chars-padding")).isNull();
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void resolveForRequest_vaultEnabledButServerWrapped_rewrapsUnderVault() {
+        byte[] raw = encryptionService.generateDataKey();
+        givenUser(true, encryptionService.wrapDataKey(raw, null));
+
+        DataKey dataKey = dataKeyService.resolveForRequest(1L, VAULT_KEY);
+
+        ArgumentCaptor<String> wrapped = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).update(eq("UPDATE users SET wrapped_data_key = ? WHERE id = ?"), wrapped.capture(), eq(1L));
+        assertThat(dataKey.key().getEncoded()).isEqualTo(raw);
+        assertThat(encryptionService.isVaultWrapped(wrapped.getValue())).isTrue();
+    }
+
+    @Test
+    void resolveForRequest_matchingWrap_doesNotWrite() {
+        byte[] raw = encryptionService.generateDataKey();
+        givenUser(false, encryptionService.wrapDataKey(raw, null));
+
+        assertThat(dataKeyService.resolveForRequest(1L, null).key().getEncoded()).isEqualTo(raw);
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void registerLoader_serverWrappedKeyServesBackgroundDecrypts() {
+        byte[] raw = encryptionService.generateDataKey();
+        String ciphertext = encryptionService.encryptWithDataKey("nightly",
+                new DataKey(1L, new javax.crypto.spec.SecretKeySpec(raw, "AES")));
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq(1L)))
+                .thenReturn(List.of(encryptionService.wrapDataKey(raw, null)));
+
+        dataKeyService.registerLoader();
+
+        assertThat(encryptionService.decrypt(ciphertext)).isEqualTo("nightly");
+    }
+}
@@ -0,0 +1,165 @@
+package com.finance_tracker.service;
+
+import com.finance_tracker.exception.BusinessLogicException;
+import com.finance_tracker.utils.security.DataKey;
+import com.finance_tracker.utils.security.VaultKeyContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EncryptionMigrationServiceTest {
+
+    @Mock
+    private DataKeyService dataKeyService;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private FieldEncryptionService encryptionService;
+    private EncryptionMigrationService migrationService;
+    private DataKey dataKey;
+
+    @BeforeEach
+    void setUp() {
+        encryptionService = new FieldEncryptionService("a".repeat(32));
+        migrationService = new EncryptionMigrationService(encryptionService, dataKeyService, jdbcTemplate);
+        dataKey = new DataKey(1L, new SecretKeySpec(encryptionService.generateDataKey(), "AES"));
+    }
+
+    @AfterEach
+    void clearContext() {
+        VaultKeyContext.clear();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void migrateUser_reencryptsLegacyValuesWithCompareAndSet() {
+        String legacy = encryptionService.encryptDeterministic("Groceries");
+        when(jdbcTemplate.queryForList(contains("FROM expenses"), eq(1L), anyLong()))
+                .thenReturn(List.of(Map.of("id", 10L, "val", legacy)));
+        when(jdbcTemplate.queryForList(contains("FROM investments"), eq(1L), anyLong())).thenReturn(List.of());
+        when(jdbcTemplate.queryForList(contains("FROM loans"), eq(1L), anyLong())).thenReturn(List.of());
+        when(jdbcTemplate.queryForList(contains("FROM sips"), eq(1L), anyLong())).thenReturn(List.of());
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{1});
+
+        int migrated = migrationService.migrateUser(1L, dataKey, null);
+
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(contains("UPDATE expenses"), batch.capture());
+        Object[] args = batch.getValue().get(0);
+        assertThat(migrated).isEqualTo(1);
+        assertThat((String) args[0]).startsWith("v3:");
+        assertThat(args[1]).isEqualTo(10L);
+        assertThat(args[2]).isEqualTo(legacy);
+
+        VaultKeyContext.setDataKey(dataKey);
+        assertThat(encryptionService.decrypt((String) args[0])).isEqualTo("Groceries");
+    }
+
+    @Test
+    void migrateUser_undecryptableValue_isSkipped() {
+        when(jdbcTemplate.queryForList(contains("FROM expenses"), eq(1L), anyLong()))
+                .thenReturn(List.of(Map.of("id", 10L, "val", "v2:not-decryptable")));
+        when(jdbcTemplate.queryForList(contains("FROM investments"), eq(1L), anyLong())).thenReturn(List.of());
+        when(jdbcTemplate.queryForList(contains("FROM loans"), eq(1L), anyLong())).thenReturn(List.of());
+        when(jdbcTemplate.queryForList(contains("FROM sips"), eq(1L), anyLong())).thenReturn(List.of());
+
+        assertThat(migrationService.migrateUser(1L, dataKey, null)).isZero();
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void migrateAll_onlyNonVaultUsers_andContinuesPastFailures() {
+        when(jdbcTemplate.queryForList(contains("vault_enabled = FALSE"), eq(Long.class))).thenReturn(List.of(1L, 2L));
+        when(dataKeyService.resolveForRequest(1L, null)).thenThrow(new RuntimeException("db down"));
+        when(dataKeyService.resolveForRequest(2L, null)).thenReturn(null);
+
+        assertThat(migrationService.migrateAll()).isZero();
+        verify(dataKeyService).resolveForRequest(2L, null);
+    }
+
+    @Test
+    void migrateAll_encryptionDisabled_doesNothing() {
+        EncryptionMigrationService disabled =
+                new EncryptionMigrationService(new FieldEncryptionService(""), dataKeyService, jdbcTemplate);
+        assertThat(disabled.migrateAll()).isZero();
+        verifyNoInteractions(jdbcTemplate, dataKeyService);
+    }
+
+    @Test
+    void startUserMigration_secondRequestWhileRunning_isRejected() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(jdbcTemplate.queryForList(anyString(), eq(1L), anyLong())).thenAnswer(inv -> {
+            entered.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of();
+        });
+
+        migrationService.startUserMigration(1L, dataKey, null);
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(migrationService.getUserMigrationStatus(1L)).containsEntry("state", "running");
+        assertThatThrownBy(() -> migrationService.startUserMigration(1L, dataKey, null))
+                .isInstanceOf(BusinessLogicException.class);
+
+        release.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while ("running".equals(migrationService.getUserMigrationStatus(1L).get("state"))
+                && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(migrationService.getUserMigrationStatus(1L))
+                .containsEntry("state", "completed")
+                .containsEntry("completedColumns", 4);
+        migrationService.startUserMigration(1L, dataKey, null);
+    }
+
+    @Test
+    void migrateAll_skipsUserWithMigrationInProgress() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(jdbcTemplate.queryForList(anyString(), eq(1L), anyLong())).thenAnswer(inv -> {
+            entered.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of();
+        });
+        when(jdbcTemplate.queryForList(contains("vault_enabled = FALSE"), eq(Long.class))).thenReturn(List.of(1L));
+        when(dataKeyService.resolveForRequest(1L, null)).thenReturn(dataKey);
+
+        migrationService.startUserMigration(1L, dataKey, null);
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+        try {
+            assertThat(migrationService.migrateAll()).isZero();
+            verify(jdbcTemplate, times(1)).queryForList(contains("FROM expenses"), eq(1L), anyLong());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void getUserMigrationStatus_idleBeforeAnyRun() {
+        assertThat(migrationService.getUserMigrationStatus(7L)).containsEntry("state", "idle");
+    }
+}
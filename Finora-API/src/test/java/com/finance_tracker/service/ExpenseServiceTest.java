@@ -347,23 +347,25 @@ class ExpenseServiceTest {
     @Test
     void bulkDelete_skipsNotFound_countsOnlyDeleted() {
         Expense e = buildExpense(2L, USER_ID);
-        when(expenseRepository.findById(1L)).thenReturn(Optional.empty());
-        when(expenseRepository.findById(2L)).thenReturn(Optional.of(e));
+        when(expenseRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(e));
 
         int count = expenseService.bulkDelete(List.of(1L, 2L));
 
         assertThat(count).isEqualTo(1);
-        verify(expenseRepository, never()).deleteById(1L);
-        verify(expenseRepository).deleteById(2L);
+        verify(expenseRepository).deleteAllByIdInBatch(List.of(2L));
+        verify(ledgerService).recordEvents(argThat(entries -> entries.size() == 1
+                && entries.get(0).entityId().equals("2") && entries.get(0).actionType().equals("DELETE")), eq(String.valueOf(USER_ID)));
+        verify(expenseRepository, never()).deleteById(any());
     }
 
     @Test
     void bulkDelete_differentOwner_throws() {
         Expense e = buildExpense(1L, 999L);
-        when(expenseRepository.findById(1L)).thenReturn(Optional.of(e));
+        when(expenseRepository.findAllById(List.of(1L))).thenReturn(List.of(e));
 
         assertThatThrownBy(() -> expenseService.bulkDelete(List.of(1L)))
                 .isInstanceOf(ResourceNotFoundException.class);
+        verify(expenseRepository, never()).deleteAllByIdInBatch(any());
     }
 
     @Test
@@ -376,14 +378,20 @@ class ExpenseServiceTest {
     @Test
     void bulkUpdate_appliesCategoryAndPaymentMethod() {
         Expense e = buildExpense(1L, USER_ID);
-        when(expenseRepository.findById(1L)).thenReturn(Optional.of(e));
-        when(expenseRepository.save(any())).thenReturn(e);
+        e.setCategory("Food");
+        when(expenseRepository.findAllById(List.of(1L))).thenReturn(List.of(e));
 
         int count = expenseService.bulkUpdate(List.of(1L), "Travel", "Card");
 
         assertThat(count).isEqualTo(1);
-        assertThat(e.getCategory()).isEqualTo("Travel");
-        assertThat(e.getPaymentMethod()).isEqualTo("Card");
+        verify(expenseRepository).updateCategoryAndPaymentMethod(List.of(1L), "Travel", "Card");
+        verify(expenseRepository, never()).save(any());
+        verify(ledgerService).recordEvents(argThat(entries -> {
+            Expense before = (Expense) entries.get(0).before();
+            Expense after = (Expense) entries.get(0).after();
+            return before.getCategory().equals("Food")
+                    && after.getCategory().equals("Travel") && after.getPaymentMethod().equals("Card");
+        }), eq("1"));
     }
 
     @Test
@@ -391,40 +399,67 @@ class ExpenseServiceTest {
         Expense e = buildExpense(1L, USER_ID);
         e.setCategory("Food");
         e.setPaymentMethod("Cash");
-        when(expenseRepository.findById(1L)).thenReturn(Optional.of(e));
-        when(expenseRepository.save(any())).thenReturn(e);
+        when(expenseRepository.findAllById(List.of(1L))).thenReturn(List.of(e));
 
         expenseService.bulkUpdate(List.of(1L), "  ", "  ");
 
-        assertThat(e.getCategory()).isEqualTo("Food");
-        assertThat(e.getPaymentMethod()).isEqualTo("Cash");
+        verify(expenseRepository).updateCategoryAndPaymentMethod(List.of(1L), null, null);
+        verify(ledgerService).recordEvents(argThat(entries -> {
+            Expense after = (Expense) entries.get(0).after();
+            return after.getCategory().equals("Food") && after.getPaymentMethod().equals("Cash");
+        }), eq("1"));
     }
 
     @Test
     void bulkUpdate_nullValues_keepsOriginal() {
         Expense e = buildExpense(1L, USER_ID);
         e.setCategory("Food");
-        when(expenseRepository.findById(1L)).thenReturn(Optional.of(e));
-        when(expenseRepository.save(any())).thenReturn(e);
+        when(expenseRepository.findAllById(List.of(1L))).thenReturn(List.of(e));
 
         expenseService.bulkUpdate(List.of(1L), null, null);
 
+        verify(expenseRepository).updateCategoryAndPaymentMethod(List.of(1L), null, null);
         assertThat(e.getCategory()).isEqualTo("Food");
     }
 
     @Test
     void bulkUpdate_skipsNotFound() {
-        when(expenseRepository.findById(99L)).thenReturn(Optional.empty());
+        when(expenseRepository.findAllById(List.of(99L))).thenReturn(List.of());
 
         assertThat(expenseService.bulkUpdate(List.of(99L), "Travel", "Card")).isEqualTo(0);
+        verifyNoInteractions(ledgerService);
     }
 
     @Test
     void bulkUpdate_differentOwner_throws() {
         Expense e = buildExpense(1L, 999L);
-        when(expenseRepository.findById(1L)).thenReturn(Optional.of(e));
+        when(expenseRepository.findAllById(List.of(1L))).thenReturn(List.of(e));
 
         assertThatThrownBy(() -> expenseService.bulkUpdate(List.of(1L), "Travel", "Card"))
                 .isInstanceOf(ResourceNotFoundException.class);
+        verify(expenseRepository, never()).updateCategoryAndPaymentMethod(any(), any(), any());
+    }
+
+    // ── saveExpenses ──────────────────────────────────────────────────────────
+
+    @Test
+    void saveExpenses_savesAllAndRecordsOneLedgerBatch() {
+        Expense a = buildExpense(null, null);
+        a.setDate(null);
+        Expense b = buildExpense(null, null);
+        when(expenseRepository.saveAll(anyList())).thenAnswer(inv -> {
+            List<Expense> list = inv.getArgument(0);
+            for (int i = 0; i < list.size(); i++) list.get(i).setId(10L + i);
+            return list;
+        });
+
+        List<Expense> saved = expenseService.saveExpenses(List.of(a, b));
+
+        assertThat(saved).extracting(Expense::getUserId).containsOnly(USER_ID);
+        assertThat(a.getDate()).isEqualTo(LocalDate.now());
+        verify(ledgerService).recordEvents(argThat(entries -> entries.size() == 2
+                && entries.get(0).entityId().equals("10") && entries.get(1).entityId().equals("11")
+                && entries.stream().allMatch(en -> en.actionType().equals("CREATE") && en.before() == null)), eq("1"));
+        verify(expenseRepository, never()).save(any());
     }
 }
@@ -1,7 +1,18 @@
 package com.finance_tracker.service;
 
+import com.finance_tracker.utils.security.DataKey;
+import com.finance_tracker.utils.security.VaultKeyContext;
 import org.junit.jupiter.api.Test;
 
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
@@ -42,6 +53,11 @@ class FieldEncryptionServiceTest {
         assertThat(service(VALID_KEY).isEncrypted("v2:somedata")).isTrue();
     }
 
+    @Test
+    void isEncrypted_v3Prefix_returnsTrue() {
+        assertThat(service(VALID_KEY).isEncrypted("v3:somedata")).isTrue();
+    }
+
     @Test
     void isEncrypted_plaintext_returnsFalse() {
         assertThat(service(VALID_KEY).isEncrypted("plaintext")).isFalse();
@@ -81,10 +97,184 @@ class FieldEncryptionServiceTest {
         FieldEncryptionService svc = service(VALID_KEY);
         String ciphertext = svc.encrypt("secret-value");
 
-        assertThat(ciphertext).startsWith("v1:");
+        assertThat(ciphertext).startsWith("v3:");
         assertThat(svc.decrypt(ciphertext)).isEqualTo("secret-value");
     }
 
+    @Test
+    void encrypt_sameInputTwice_producesDifferentCiphertext() {
+        FieldEncryptionService svc = service(VALID_KEY);
+
+        assertThat(svc.encrypt("same")).isNotEqualTo(svc.encrypt("same"));
+    }
+
+    @Test
+    void encrypt_manyValues_derivesMasterKeyOnce() {
+        FieldEncryptionService svc = service(VALID_KEY);
+        for (int i = 0; i < 20; i++) {
+            assertThat(svc.decrypt(svc.encrypt("value-" + i))).isEqualTo("value-" + i);
+        }
+
+        assertThat(svc.getMasterKeyCacheStats().misses()).isEqualTo(1);
+        assertThat(svc.getMasterKeyCacheStats().hits()).isEqualTo(39);
+    }
+
+    @Test
+    void decrypt_tamperedV3_throws() {
+        FieldEncryptionService svc = service(VALID_KEY);
+        byte[] raw = Base64.getDecoder().decode(svc.encrypt("secret").substring(3));
+        raw[raw.length - 1] ^= 1;
+        String tampered = "v3:" + Base64.getEncoder().encodeToString(raw);
+
+        assertThatThrownBy(() -> svc.decrypt(tampered)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void decrypt_v3WrongServerKey_throws() {
+        String ciphertext = service(VALID_KEY).encrypt("secret");
+
+        assertThatThrownBy(() -> service("b".repeat(32)).decrypt(ciphertext))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    // ── envelope (data key) mode ──────────────────────────────────────────────
+
+    @Test
+    void encryptWithDataKey_decryptsWithBoundKey() {
+        FieldEncryptionService svc = service(VALID_KEY);
+        DataKey dataKey = dataKey(svc, 5L);
+        String ciphertext = svc.encryptWithDataKey("envelope-secret", dataKey);
+
+        VaultKeyContext.setDataKey(dataKey);
+        try {
+            assertThat(ciphertext).startsWith("v3:");
+            assertThat(svc.decrypt(ciphertext)).isEqualTo("envelope-secret");
+        } finally {
+            VaultKeyContext.clear();
+        }
+    }
+
+    @Test
+    void encryptWithDataKey_outsideRequest_loadsServerWrappedKeyOnce() {
+        FieldEncryptionService svc = service(VALID_KEY);
+        byte[] raw = svc.generateDataKey();
+        String wrapped = svc.wrapDataKey(raw, null);
+        String ciphertext = svc.encryptWithDataKey("background", new DataKey(5L, new SecretKeySpec(raw, "AES")));
+        AtomicInteger loads = new AtomicInteger();
+        svc.setWrappedDataKeyLoader(userId -> {
+            loads.incrementAndGet();
+            return userId == 5L ? wrapped : null;
+        });
+
+        assertThat(svc.decrypt(ciphertext)).isEqualTo("background");
+        assertThat(svc.decrypt(ciphertext)).isEqualTo("background");
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(svc.getDataKeyCacheStats().hits()).isEqualTo(1);
+    }
+
+    @Test
+    void encryptWithDataKey_vaultWrappedKeyWithoutVault_throws() {
+        FieldEncryptionService svc = service(VALID_KEY);
+        byte[] raw = svc.generateDataKey();
+        String wrapped = svc.wrapDataKey(raw, "vault-key-32chars-padding-here!");
+        String ciphertext = svc.encryptWithDataKey("vaulted", new DataKey(5L, new SecretKeySpec(raw, "AES")));
+        svc.setWrappedDataKeyLoader(userId -> wrapped);
+
+        assertThatThrownBy(() -> svc.decrypt(ciphertext)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void encryptWithDataKey_boundKeyOfOtherUser_isNotUsed() {
+        FieldEncryptionService svc = service(VALID_KEY);
+        String ciphertext = svc.encryptWithDataKey("mine", dataKey(svc, 5L));
+
+        VaultKeyContext.setDataKey(dataKey(svc, 6L));
+        try {
+            assertThatThrownBy(() -> svc.decrypt(ciphertext)).isInstanceOf(IllegalStateException.class);
+        } finally {
+            VaultKeyContext.clear();
+        }
+    }
+
+    @Test
+    void encryptWithDataKey_disabled_returnsPlaintext() {
+        FieldEncryptionService svc = service("");
+        assertThat(svc.encryptWithDataKey("hello", new DataKey(1L, new SecretKeySpec(new byte[32], "AES"))))
+                .isEqualTo("hello");
+    }
+
+    @Test
+    void wrapDataKey_roundtrip_andReportsVaultLayer() {
+        FieldEncryptionService svc = service(VALID_KEY);
+        byte[] raw = svc.generateDataKey();
+        String serverWrapped = svc.wrapDataKey(raw, null);
+        String vaultWrapped = svc.wrapDataKey(raw, "vault-key-32chars-padding-here!");
+
+        assertThat(svc.unwrapDataKey(serverWrapped, null)).isEqualTo(raw);
+        assertThat(svc.unwrapDataKey(vaultWrapped, "vault-key-32chars-padding-here!")).isEqualTo(raw);
+        assertThat(svc.isVaultWrapped(serverWrapped)).isFalse();
+        assertThat(svc.isVaultWrapped(vaultWrapped)).isTrue();
+        assertThat(svc.isVaultWrapped(null)).isFalse();
+    }
+
+    @Test
+    void isLegacyFormat_onlyV1AndV2() {
+        FieldEncryptionService svc = service(VALID_KEY);
+        assertThat(svc.isLegacyFormat("v1:x")).isTrue();
+        assertThat(svc.isLegacyFormat("v2:x")).isTrue();
+        assertThat(svc.isLegacyFormat("v3:x")).isFalse();
+        assertThat(svc.isLegacyFormat(null)).isFalse();
+    }
+
+    private static DataKey dataKey(FieldEncryptionService svc, long userId) {
+        return new DataKey(userId, new SecretKeySpec(svc.generateDataKey(), "AES"));
+    }
+
+    // ── legacy formats ────────────────────────────────────────────────────────
+
+    @Test
+    void decrypt_legacyV1_roundtrip() throws Exception {
+        FieldEncryptionService svc = service(VALID_KEY);
+        String v1 = legacyEncrypt(svc, "legacy-value", VALID_KEY);
+
+        assertThat(svc.decrypt(v1)).isEqualTo("legacy-value");
+    }
+
+    @Test
+    void decrypt_legacyV2_roundtrip() throws Exception {
+        FieldEncryptionService svc = service(VALID_KEY);
+        String vaultKey = "vault-key-32chars-padding-here!";
+        String inner = legacyEncrypt(svc, "legacy-vault", VALID_KEY);
+        String v2 = "v2:" + legacyEncrypt(svc, inner, vaultKey).substring(3);
+
+        assertThat(svc.decrypt(v2, vaultKey)).isEqualTo("legacy-vault");
+    }
+
+    @Test
+    void decrypt_legacyV1_repeatedRead_hitsKeyCache() throws Exception {
+        FieldEncryptionService svc = service(VALID_KEY);
+        String v1 = legacyEncrypt(svc, "cached", VALID_KEY);
+
+        svc.decrypt(v1);
+        svc.decrypt(v1);
+
+        assertThat(svc.getLegacyKeyCacheStats().misses()).isEqualTo(1);
+        assertThat(svc.getLegacyKeyCacheStats().hits()).isEqualTo(1);
+    }
+
+    // Builds a v1: ciphertext the way pre-v3 releases wrote it: salt ‖ iv ‖ AES-GCM(PBKDF2(key, salt))
+    private static String legacyEncrypt(FieldEncryptionService svc, String plaintext, String keyMaterial) throws Exception {
+        byte[] salt = svc.generateSalt();
+        byte[] iv = new byte[12];
+        new SecureRandom().nextBytes(iv);
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(svc.deriveKey(keyMaterial, salt), "AES"),
+                new GCMParameterSpec(128, iv));
+        byte[] ct = cipher.doFinal(plaintext.getBytes(StandardCharsets.UTF_8));
+        byte[] packed = ByteBuffer.allocate(salt.length + iv.length + ct.length).put(salt).put(iv).put(ct).array();
+        return "v1:" + Base64.getEncoder().encodeToString(packed);
+    }
+
     @Test
     void decrypt_disabled_returnsAsIs() {
         assertThat(service("").decrypt("v1:somedata")).isEqualTo("v1:somedata");
@@ -108,11 +298,20 @@ class FieldEncryptionServiceTest {
     // ── encrypt with vault key ────────────────────────────────────────────────
 
     @Test
-    void encrypt_withVaultKey_producesV2Ciphertext() {
+    void encrypt_withVaultKey_producesV3Ciphertext() {
         FieldEncryptionService svc = service(VALID_KEY);
         String result = svc.encrypt("vault-secret", "vault-key-32chars-padding-here!");
 
-        assertThat(result).startsWith("v2:");
+        assertThat(result).startsWith("v3:");
+    }
+
+    @Test
+    void decrypt_vaultLayer_wrongVaultKey_throws() {
+        FieldEncryptionService svc = service(VALID_KEY);
+        String ciphertext = svc.encrypt("vault-secret", "vault-key-32chars-padding-here!");
+
+        assertThatThrownBy(() -> svc.decrypt(ciphertext, "some-other-vault-key"))
+                .isInstanceOf(IllegalStateException.class);
     }
 
     @Test
@@ -125,7 +324,7 @@ class FieldEncryptionServiceTest {
     }
 
     @Test
-    void decrypt_v2WithoutVaultKey_throws() {
+    void decrypt_vaultLayerWithoutVaultKey_throws() {
         FieldEncryptionService svc = service(VALID_KEY);
         String ciphertext = svc.encrypt("test", "vault-key-32chars-padding-here!");
 
@@ -144,6 +343,11 @@ class FieldEncryptionServiceTest {
         assertThat(c1).isEqualTo(c2);
     }
 
+    @Test
+    void encryptDeterministic_keepsV1FormatForLookups() {
+        assertThat(service(VALID_KEY).encryptDeterministic("user@example.com")).startsWith("v1:");
+    }
+
     @Test
     void encryptDeterministic_differentPlaintext_producesDifferentCiphertext() {
         FieldEncryptionService svc = service(VALID_KEY);
@@ -0,0 +1,109 @@
+package com.finance_tracker.service;
+
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FieldKeyManagerTest {
+
+    private static final byte[] SALT_A = "salt-aaaaaaaaaaa".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SALT_B = "salt-bbbbbbbbbbb".getBytes(StandardCharsets.UTF_8);
+
+    private FieldKeyManager manager(int legacyCacheSize) {
+        return new FieldKeyManager(1_000, 4, legacyCacheSize);
+    }
+
+    // ── fieldKey ──────────────────────────────────────────────────────────────
+
+    @Test
+    void fieldKey_sameInputs_sameKey() {
+        FieldKeyManager km = manager(8);
+
+        assertThat(km.fieldKey("server", SALT_A).getEncoded()).isEqualTo(km.fieldKey("server", SALT_A).getEncoded());
+    }
+
+    @Test
+    void fieldKey_differentSalt_differentKey() {
+        FieldKeyManager km = manager(8);
+
+        assertThat(km.fieldKey("server", SALT_A).getEncoded()).isNotEqualTo(km.fieldKey("server", SALT_B).getEncoded());
+    }
+
+    @Test
+    void fieldKey_differentMaterial_differentKey() {
+        FieldKeyManager km = manager(8);
+
+        assertThat(km.fieldKey("server", SALT_A).getEncoded()).isNotEqualTo(km.fieldKey("vault", SALT_A).getEncoded());
+    }
+
+    @Test
+    void fieldKey_derivesMasterOncePerMaterial() {
+        FieldKeyManager km = manager(8);
+        km.fieldKey("server", SALT_A);
+        km.fieldKey("server", SALT_B);
+        km.fieldKey("vault", SALT_A);
+
+        FieldKeyManager.CacheStats stats = km.masterStats();
+        assertThat(stats.misses()).isEqualTo(2);
+        assertThat(stats.hits()).isEqualTo(1);
+        assertThat(stats.size()).isEqualTo(2);
+    }
+
+    @Test
+    void fieldKey_is256BitAes() {
+        SecretKey key = manager(8).fieldKey("server", SALT_A);
+
+        assertThat(key.getAlgorithm()).isEqualTo("AES");
+        assertThat(key.getEncoded()).hasSize(32);
+    }
+
+    // ── legacyKey ─────────────────────────────────────────────────────────────
+
+    @Test
+    void legacyKey_matchesPlainPbkdf2() {
+        FieldKeyManager km = manager(8);
+
+        assertThat(km.legacyKey("server", SALT_A).getEncoded()).isEqualTo(km.pbkdf2("server", SALT_A));
+    }
+
+    @Test
+    void legacyKey_repeatedLookup_hitsCache() {
+        FieldKeyManager km = manager(8);
+        km.legacyKey("server", SALT_A);
+        km.legacyKey("server", SALT_A);
+
+        assertThat(km.legacyStats().hits()).isEqualTo(1);
+        assertThat(km.legacyStats().misses()).isEqualTo(1);
+    }
+
+    @Test
+    void legacyKey_overCapacity_evictsLeastRecentlyUsed() {
+        FieldKeyManager km = manager(1);
+        km.legacyKey("server", SALT_A);
+        km.legacyKey("server", SALT_B);
+        km.legacyKey("server", SALT_A);
+
+        FieldKeyManager.CacheStats stats = km.legacyStats();
+        assertThat(stats.size()).isEqualTo(1);
+        assertThat(stats.evictions()).isEqualTo(2);
+        assertThat(stats.misses()).isEqualTo(3);
+    }
+
+    // ── hkdf ──────────────────────────────────────────────────────────────────
+
+    @Test
+    void hkdf_matchesRfc5869TestCase1() {
+        HexFormat hex = HexFormat.of();
+        byte[] ikm = hex.parseHex("0b0b0b0b0b0b0b0b0b0b0b0b0b0b0b0b0b0b0b0b0b0b");
+        byte[] salt = hex.parseHex("000102030405060708090a0b0c");
+        byte[] info = hex.parseHex("f0f1f2f3f4f5f6f7f8f9");
+
+        // First 32 bytes of the RFC 5869 A.1 OKM
+        assertThat(hex.formatHex(FieldKeyManager.hkdf(ikm, salt, info)))
+                .isEqualTo("3cb25f25faacd57a90434f64d0362f2a2d2d0a90cf1a5a4c5db02d56ecc4c5bf");
+    }
+}
@@ -0,0 +1,70 @@
+package com.finance_tracker.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FundNameIndexTest {
+
+    private final FundNameIndex index = FundNameIndex.build(Map.of(
+            "1", "HDFC Flexi Cap Fund - Growth Option",
+            "2", "HDFC Flexi Cap Fund - IDCW",
+            "3", "Parag Parikh Flexi Cap Fund - Direct Plan - Growth",
+            "4", "Axis Bluechip Fund - Growth",
+            "5", "ICICI Prudential Bluechip Fund",
+            "6", "Aditya Birla Sun Life Flexicap Fund"));
+
+    @Test
+    void search_requiresEveryTokenAsPrefix() {
+        assertThat(codes(index.search("flexi cap", 10))).containsExactlyInAnyOrder("1", "2", "3");
+        assertThat(codes(index.search("blue axis", 10))).containsExactly("4");
+        assertThat(index.search("flexi bluechip", 10)).isEmpty();
+        assertThat(index.search("nippon", 10)).isEmpty();
+    }
+
+    @Test
+    void search_ranksWholeWordsAboveBarePrefixes() {
+        // "flexi" is a whole word in 1-3 but only a prefix of "flexicap" in 6
+        assertThat(codes(index.search("flexi", 10))).containsExactly("2", "1", "3", "6");
+    }
+
+    @Test
+    void search_ranksLeadingAmcAndShorterNamesFirst() {
+        assertThat(codes(index.search("hdfc growth", 10))).containsExactly("1");
+        assertThat(codes(index.search("growth", 10))).containsExactly("4", "1", "3");
+        assertThat(codes(index.search("icici blue", 10))).containsExactly("5");
+    }
+
+    @Test
+    void search_isCaseAndPunctuationInsensitive() {
+        assertThat(codes(index.search("  PARAG-parikh ", 10))).containsExactly("3");
+    }
+
+    @Test
+    void search_returnsBestLimitResults() {
+        Map<String, String> names = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            names.put("x" + i, "Index Fund Series " + i + " Plan Growth");
+        }
+        names.put("best", "Index Fund");
+
+        List<FundNameIndex.Match> top = FundNameIndex.build(names).search("index fund", 5);
+
+        assertThat(top).hasSize(5);
+        assertThat(top.get(0).schemeCode()).isEqualTo("best");
+    }
+
+    @Test
+    void search_emptyIndexAndBlankQueryReturnNothing() {
+        assertThat(FundNameIndex.EMPTY.search("hdfc", 10)).isEmpty();
+        assertThat(index.search(" - ", 10)).isEmpty();
+    }
+
+    private static List<String> codes(List<FundNameIndex.Match> matches) {
+        return matches.stream().map(FundNameIndex.Match::schemeCode).toList();
+    }
+}
@@ -5,7 +5,6 @@ import com.finance_tracker.exception.ResourceNotFoundException;
 import com.finance_tracker.model.Investment;
 import com.finance_tracker.model.InvestmentType;
 import com.finance_tracker.repository.InvestmentRepository;
-import com.finance_tracker.utils.strategy.PriceProviderService;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -36,12 +35,6 @@ class InvestmentServiceTest {
     @Mock
     private InvestmentRepository investmentRepository;
 
-    @Mock
-    private PriceProviderService priceProviderService;
-
-    @Mock
-    private AmfiNavService amfiNavService;
-
     @Mock
     private LedgerService ledgerService;
 
@@ -416,81 +409,29 @@ class InvestmentServiceTest {
     @Test
     void bulkDelete_skipsNotFound_countsDeleted() {
         Investment inv = buildInvestment(2L, USER_ID, "TCS.NS");
-        when(investmentRepository.findById(1L)).thenReturn(Optional.empty());
-        when(investmentRepository.findById(2L)).thenReturn(Optional.of(inv));
+        when(investmentRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(inv));
 
         int count = investmentService.bulkDelete(List.of(1L, 2L));
 
         assertThat(count).isEqualTo(1);
-        verify(investmentRepository, never()).deleteById(1L);
-        verify(investmentRepository).deleteById(2L);
+        verify(investmentRepository).deleteAllByIdInBatch(List.of(2L));
+        verify(ledgerService).recordEvents(argThat(entries -> entries.size() == 1
+                && entries.get(0).entityId().equals("2") && entries.get(0).actionType().equals("DELETE")), eq(String.valueOf(USER_ID)));
+        verify(investmentRepository, never()).deleteById(any());
     }
 
     @Test
     void bulkDelete_differentOwner_throws() {
         Investment inv = buildInvestment(1L, 999L, "TCS.NS");
-        when(investmentRepository.findById(1L)).thenReturn(Optional.of(inv));
+        when(investmentRepository.findAllById(List.of(1L))).thenReturn(List.of(inv));
 
         assertThatThrownBy(() -> investmentService.bulkDelete(List.of(1L)))
                 .isInstanceOf(ResourceNotFoundException.class);
+        verify(investmentRepository, never()).deleteAllByIdInBatch(any());
     }
 
     @Test
     void bulkDelete_emptyList_returnsZero() {
         assertThat(investmentService.bulkDelete(List.of())).isEqualTo(0);
     }
-
-    // ── updateCurrentPrices ───────────────────────────────────────────────────
-
-    @Test
-    void updateCurrentPrices_stock_fetchesPriceAndSaves() {
-        Investment inv = buildInvestment(1L, USER_ID, "RELIANCE.NS");
-        inv.setType(InvestmentType.STOCK);
-        when(investmentRepository.findAll()).thenReturn(List.of(inv));
-        when(priceProviderService.fetchPrice("RELIANCE.NS", InvestmentType.STOCK))
-                .thenReturn(new BigDecimal("3000.00"));
-        when(investmentRepository.save(any())).thenReturn(inv);
-
-        investmentService.updateCurrentPrices();
-
-        assertThat(inv.getCurrentPrice()).isEqualByComparingTo("3000.000000");
-        verify(investmentRepository).save(inv);
-    }
-
-    @Test
-    void updateCurrentPrices_priceIsZero_skipsInvestment() {
-        Investment inv = buildInvestment(1L, USER_ID, "RELIANCE.NS");
-        inv.setType(InvestmentType.STOCK);
-        when(investmentRepository.findAll()).thenReturn(List.of(inv));
-        when(priceProviderService.fetchPrice(anyString(), any())).thenReturn(BigDecimal.ZERO);
-
-        investmentService.updateCurrentPrices();
-
-        verify(investmentRepository, never()).save(any());
-    }
-
-    @Test
-    void updateCurrentPrices_mutualFund_noSymbol_skips() {
-        Investment inv = buildInvestment(1L, USER_ID, null);
-        inv.setType(InvestmentType.MUTUAL_FUND);
-        inv.setSymbol(null);
-        when(investmentRepository.findAll()).thenReturn(List.of(inv));
-
-        investmentService.updateCurrentPrices();
-
-        verify(investmentRepository, never()).save(any());
-    }
-
-    @Test
-    void updateCurrentPrices_mutualFund_navFound_saves() {
-        Investment inv = buildInvestment(1L, USER_ID, "119060");
-        inv.setType(InvestmentType.MUTUAL_FUND);
-        when(investmentRepository.findAll()).thenReturn(List.of(inv));
-        when(amfiNavService.getNavBySchemeCode("119060")).thenReturn(Optional.of(new BigDecimal("50.00")));
-        when(investmentRepository.save(any())).thenReturn(inv);
-
-        investmentService.updateCurrentPrices();
-
-        verify(investmentRepository).save(inv);
-    }
 }
@@ -0,0 +1,142 @@
+package com.finance_tracker.service;
+
+import com.finance_tracker.dto.LedgerIntegrityResultDTO;
+import com.finance_tracker.exception.BusinessLogicException;
+import com.finance_tracker.model.LedgerAuditResult;
+import com.finance_tracker.repository.LedgerAuditResultRepository;
+import com.finance_tracker.repository.LedgerChainHeadRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerAuditServiceTest {
+
+    @Mock
+    private LedgerService ledgerService;
+
+    @Mock
+    private LedgerChainHeadRepository chainHeadRepository;
+
+    @Mock
+    private LedgerAuditResultRepository resultRepository;
+
+    private LedgerAuditService service(int dbConcurrency) {
+        return new LedgerAuditService(ledgerService, chainHeadRepository, resultRepository, dbConcurrency);
+    }
+
+    private static LedgerAuditService.AuditRun run(boolean full) {
+        return new LedgerAuditService.AuditRun("run-1", full, OffsetDateTime.now());
+    }
+
+    private static LedgerIntegrityResultDTO valid(long events) {
+        return LedgerIntegrityResultDTO.builder().valid(true).eventCount(events).checkedCount(events).build();
+    }
+
+    @Test
+    void runAudit_persistsOutcomePerUserAndCountsThem() {
+        when(chainHeadRepository.findAllUserIds()).thenReturn(List.of("1", "2", "3"));
+        when(ledgerService.verifyIntegrity("1", false)).thenReturn(valid(10));
+        when(ledgerService.verifyIntegrity("2", false)).thenReturn(LedgerIntegrityResultDTO.builder()
+                .valid(false).eventCount(5).checkedCount(3).brokenAtEventUuid("uuid-3").build());
+        when(ledgerService.verifyIntegrity("3", false)).thenThrow(new IllegalStateException("decrypt failed"));
+        LedgerAuditService service = service(2);
+        LedgerAuditService.AuditRun run = run(false);
+
+        service.runAudit(run);
+
+        ArgumentCaptor<LedgerAuditResult> saved = ArgumentCaptor.forClass(LedgerAuditResult.class);
+        verify(resultRepository, times(3)).save(saved.capture());
+        Map<String, LedgerAuditResult> byUser = new HashMap<>();
+        saved.getAllValues().forEach(r -> byUser.put(r.getUserId(), r));
+        assertThat(byUser.get("1").isValid()).isTrue();
+        assertThat(byUser.get("2").getBrokenAtEventUuid()).isEqualTo("uuid-3");
+        assertThat(byUser.get("3").isValid()).isFalse();
+        assertThat(byUser.get("3").getError()).isEqualTo("decrypt failed");
+        assertThat(saved.getAllValues()).allMatch(r -> "run-1".equals(r.getRunId()) && r.getAuditedAt() != null);
+
+        assertThat(run.completedUsers.get()).isEqualTo(3);
+        assertThat(run.validUsers.get()).isEqualTo(1);
+        assertThat(run.brokenUsers.get()).isEqualTo(1);
+        assertThat(run.failedUsers.get()).isEqualTo(1);
+        assertThat(run.eventsChecked.get()).isEqualTo(13);
+        assertThat(run.isRunning()).isFalse();
+    }
+
+    @Test
+    void runAudit_neverExceedsDbConcurrencyCap() {
+        List<String> users = IntStream.range(0, 40).mapToObj(String::valueOf).toList();
+        when(chainHeadRepository.findAllUserIds()).thenReturn(users);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(ledgerService.verifyIntegrity(anyString(), eq(true))).thenAnswer(inv -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(5);
+            inFlight.decrementAndGet();
+            return valid(1);
+        });
+
+        service(3).runAudit(run(true));
+
+        assertThat(maxInFlight.get()).isBetween(1, 3);
+        verify(resultRepository, times(40)).save(any());
+    }
+
+    @Test
+    void runAudit_userListFails_marksRunAborted() {
+        when(chainHeadRepository.findAllUserIds()).thenThrow(new RuntimeException("db down"));
+        LedgerAuditService service = service(1);
+        LedgerAuditService.AuditRun run = run(false);
+
+        service.runAudit(run);
+
+        assertThat(run.error).isEqualTo("db down");
+        assertThat(run.isRunning()).isFalse();
+    }
+
+    @Test
+    void startAudit_whileRunning_isRejected() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(chainHeadRepository.findAllUserIds()).thenAnswer(inv -> {
+            entered.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of();
+        });
+        LedgerAuditService service = service(1);
+
+        String runId = service.startAudit(false);
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(service.getStatus()).containsEntry("state", "running").containsEntry("runId", runId);
+        assertThatThrownBy(() -> service.startAudit(false)).isInstanceOf(BusinessLogicException.class);
+        release.countDown();
+    }
+
+    @Test
+    void getStatus_beforeAnyRun_isIdle() {
+        assertThat(service(3).getStatus()).containsEntry("state", "idle").containsEntry("dbConcurrency", 3);
+    }
+
+    @Test
+    void constructor_rejectsNonPositiveConcurrency() {
+        assertThatThrownBy(() -> service(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
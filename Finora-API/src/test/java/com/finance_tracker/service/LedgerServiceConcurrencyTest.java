@@ -0,0 +1,205 @@
+package com.finance_tracker.service;
+
+import com.finance_tracker.model.LedgerChainHead;
+import com.finance_tracker.model.LedgerEvent;
+import com.finance_tracker.model.User;
+import com.finance_tracker.repository.LedgerChainHeadRepository;
+import com.finance_tracker.repository.LedgerEventRepository;
+import com.finance_tracker.repository.LedgerOutboxRepository;
+import com.finance_tracker.repository.UserRepository;
+import com.finance_tracker.utils.scheduler.LedgerOutboxWriter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Parallel appends for one user against a real database: the chain-head row lock must keep the
+ * chain linear (exactly one successor per event), including the race on the very first append,
+ * batched appends and outbox drains racing each other.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class LedgerServiceConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int EVENTS_PER_THREAD = 25;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private LedgerEventRepository ledgerEventRepository;
+
+    @Autowired
+    private LedgerChainHeadRepository chainHeadRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LedgerOutboxRepository outboxRepository;
+
+    @Autowired
+    private LedgerOutboxWriter outboxWriter;
+
+    @Test
+    void recordEvent_parallelWritesForOneUser_neverForkTheChain() throws Exception {
+        String userId = String.valueOf(createUser().getId());
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < EVENTS_PER_THREAD; i++) {
+                        ledgerService.recordEvent("EXPENSE", thread + "-" + i, "CREATE",
+                                null, Map.of("n", i), userId);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertLinearChain(userId, THREADS * EVENTS_PER_THREAD);
+    }
+
+    @Test
+    void recordEvents_batchesInterleavedWithSingleAppends_keepOneChain() throws Exception {
+        String userId = String.valueOf(createUser().getId());
+        int batchSize = 5;
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < EVENTS_PER_THREAD; i += batchSize) {
+                        if (thread % 2 == 0) {
+                            List<LedgerService.LedgerEntry> batch = new ArrayList<>();
+                            for (int j = i; j < i + batchSize; j++) {
+                                batch.add(new LedgerService.LedgerEntry("EXPENSE", thread + "-" + j, "DELETE",
+                                        Map.of("n", j), null));
+                            }
+                            ledgerService.recordEvents(batch, userId);
+                        } else {
+                            for (int j = i; j < i + batchSize; j++) {
+                                ledgerService.recordEvent("EXPENSE", thread + "-" + j, "CREATE",
+                                        null, Map.of("n", j), userId);
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertLinearChain(userId, THREADS * EVENTS_PER_THREAD);
+    }
+
+    @Test
+    void recordEvent_asyncAppend_drainsIntoOneChainAndEmptiesOutbox() throws Exception {
+        String userId = String.valueOf(createUser().getId());
+        LedgerService target = AopTestUtils.getTargetObject(ledgerService);
+        ReflectionTestUtils.setField(target, "asyncAppend", true);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < THREADS; t++) {
+                    int thread = t;
+                    futures.add(pool.submit(() -> {
+                        start.await();
+                        for (int i = 0; i < EVENTS_PER_THREAD; i++) {
+                            ledgerService.recordEvent("EXPENSE", thread + "-" + i, "CREATE",
+                                    null, Map.of("n", i), userId);
+                            if (i % 10 == 0) {
+                                // Drain while writes are still landing, as the scheduler would
+                                outboxWriter.drain();
+                            }
+                        }
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                pool.shutdownNow();
+            }
+        } finally {
+            ReflectionTestUtils.setField(target, "asyncAppend", false);
+        }
+
+        outboxWriter.drain();
+
+        assertThat(outboxRepository.findByUserIdOrderByIdAsc(userId, Limit.unlimited())).isEmpty();
+        assertLinearChain(userId, THREADS * EVENTS_PER_THREAD);
+    }
+
+    private void assertLinearChain(String userId, int expectedEvents) {
+        List<LedgerEvent> events = ledgerEventRepository.findAll().stream()
+                .filter(e -> userId.equals(e.getUserId()))
+                .toList();
+        assertThat(events).hasSize(expectedEvents);
+
+        // Walk from genesis: a fork would show up as two events sharing a prevHash
+        Map<String, LedgerEvent> byPrevHash = new HashMap<>();
+        for (LedgerEvent event : events) {
+            assertThat(byPrevHash.put(Objects.toString(event.getPrevHash(), "genesis"), event))
+                    .as("second successor of %s", event.getPrevHash())
+                    .isNull();
+        }
+        String cursor = "genesis";
+        int walked = 0;
+        while (byPrevHash.containsKey(cursor)) {
+            cursor = byPrevHash.get(cursor).getHash();
+            walked++;
+        }
+        assertThat(walked).isEqualTo(events.size());
+        assertThat(chainHeadRepository.findById(userId).map(LedgerChainHead::getLastHash)).contains(cursor);
+    }
+
+    private User createUser() {
+        User user = new User();
+        user.setUsername("ledger-stress-" + System.nanoTime() % 1_000_000);
+        user.setEmail(user.getUsername() + "@example.com");
+        user.setPasswordHash("x");
+        return userRepository.save(user);
+    }
+}
@@ -1,25 +1,42 @@
 package com.finance_tracker.service;
 
 import com.finance_tracker.dto.LedgerIntegrityResultDTO;
+import com.finance_tracker.model.LedgerChainHead;
+import com.finance_tracker.model.LedgerCheckpoint;
 import com.finance_tracker.model.LedgerEvent;
+import com.finance_tracker.model.LedgerOutboxEntry;
+import com.finance_tracker.repository.LedgerChainHeadRepository;
+import com.finance_tracker.repository.LedgerCheckpointRepository;
 import com.finance_tracker.repository.LedgerEventRepository;
+import com.finance_tracker.repository.LedgerOutboxRepository;
+import com.finance_tracker.repository.UserRepository;
 import com.finance_tracker.utils.HashingUtils;
+import com.finance_tracker.utils.security.DataKey;
 import com.finance_tracker.utils.security.VaultKeyContext;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
 
+import javax.crypto.spec.SecretKeySpec;
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -29,12 +46,30 @@ class LedgerServiceTest {
     @Mock
     private LedgerEventRepository ledgerEventRepository;
 
+    @Mock
+    private LedgerCheckpointRepository checkpointRepository;
+
+    @Mock
+    private LedgerChainHeadRepository chainHeadRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
     @Mock
     private HashingUtils hashingUtils;
 
     @Mock
     private FieldEncryptionService encryptionService;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private LedgerOutboxRepository outboxRepository;
+
     @InjectMocks
     private LedgerService ledgerService;
 
@@ -48,9 +83,18 @@ class LedgerServiceTest {
         VaultKeyContext.clear();
     }
 
+    // Writes encrypt snapshots under the request's data key; this binds one for user 1
+    private void bindDataKey() {
+        DataKey dataKey = new DataKey(1L, new SecretKeySpec(new byte[32], "AES"));
+        VaultKeyContext.setDataKey(dataKey);
+        when(encryptionService.isEnabled()).thenReturn(true);
+        when(encryptionService.encryptWithDataKey(anyString(), eq(dataKey))).thenReturn("encrypted");
+    }
+
     private LedgerEvent buildEvent(String userId, Long sequence, String hash, String prevHash) {
         LedgerEvent e = new LedgerEvent();
         e.setId(UUID.randomUUID());
+        e.setEventSequence(sequence);
         e.setEventUuid(UUID.randomUUID());
         e.setEntityType("EXPENSE");
         e.setEntityId("1");
@@ -69,11 +113,9 @@ class LedgerServiceTest {
 
     @Test
     void recordEvent_firstEvent_noPrevHash() {
-        when(hashingUtils.toCanonicalJson(any())).thenReturn("null");
-        when(hashingUtils.toCanonicalJson(isNull())).thenReturn("null");
-        when(encryptionService.encrypt(anyString(), any())).thenReturn("encrypted");
-        when(ledgerEventRepository.findTopByUserIdOrderByEventSequenceDesc("1"))
-                .thenReturn(Optional.empty());
+        when(hashingUtils.toCanonicalJson(any())).thenReturn("json");
+        bindDataKey();
+        when(chainHeadRepository.findByUserIdForUpdate("1")).thenReturn(Optional.of(chainHead(null)));
         when(hashingUtils.computeHash(any(), any(), any(), any(), any(), any(), isNull(), any(), anyInt()))
                 .thenReturn("hash-abc");
 
@@ -92,9 +134,8 @@ class LedgerServiceTest {
     void recordEvent_subsequentEvent_chainsPrevHash() {
         LedgerEvent prev = buildEvent("1", 1L, "prev-hash", null);
         when(hashingUtils.toCanonicalJson(any())).thenReturn("json");
-        when(encryptionService.encrypt(anyString(), any())).thenReturn("encrypted");
-        when(ledgerEventRepository.findTopByUserIdOrderByEventSequenceDesc("1"))
-                .thenReturn(Optional.of(prev));
+        bindDataKey();
+        when(chainHeadRepository.findByUserIdForUpdate("1")).thenReturn(Optional.of(chainHead(prev.getHash())));
         when(hashingUtils.computeHash(any(), any(), any(), any(), any(), any(), eq("prev-hash"), any(), anyInt()))
                 .thenReturn("hash-xyz");
 
@@ -109,28 +150,119 @@ class LedgerServiceTest {
     }
 
     @Test
-    void recordEvent_withVaultKey_encryptsWithVaultKey() {
+    void recordEvent_advancesChainHeadToNewHash() {
+        LedgerChainHead head = chainHead("prev-hash");
+        when(hashingUtils.toCanonicalJson(any())).thenReturn("json");
+        bindDataKey();
+        when(chainHeadRepository.findByUserIdForUpdate("1")).thenReturn(Optional.of(head));
+        when(hashingUtils.computeHash(any(), any(), any(), any(), any(), any(), eq("prev-hash"), any(), anyInt()))
+                .thenReturn("new-hash");
+        when(ledgerEventRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        ledgerService.recordEvent("EXPENSE", "2", "UPDATE", new Object(), new Object(), "1");
+
+        assertThat(head.getLastHash()).isEqualTo("new-hash");
+        verify(chainHeadRepository).save(head);
+        verify(ledgerEventRepository, never()).findTopByUserIdOrderByEventSequenceDesc(any());
+    }
+
+    @Test
+    void lockChainHead_missing_createsHeadUnderUserLockSeededFromChain() {
+        when(chainHeadRepository.findByUserIdForUpdate("1")).thenReturn(Optional.empty());
+        when(ledgerEventRepository.findTopByUserIdOrderByEventSequenceDesc("1"))
+                .thenReturn(Optional.of(buildEvent("1", 9L, "legacy-tail", "x")));
+        when(chainHeadRepository.saveAndFlush(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        LedgerChainHead head = ledgerService.lockChainHead("1");
+
+        assertThat(head.getUserId()).isEqualTo("1");
+        assertThat(head.getLastHash()).isEqualTo("legacy-tail");
+        var order = inOrder(userRepository, chainHeadRepository);
+        order.verify(userRepository).lockById(1L);
+        order.verify(chainHeadRepository).saveAndFlush(head);
+    }
+
+    @Test
+    void lockChainHead_createdConcurrently_usesExistingHead() {
+        LedgerChainHead existing = chainHead("other-writer");
+        when(chainHeadRepository.findByUserIdForUpdate("1"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(existing));
+
+        assertThat(ledgerService.lockChainHead("1")).isSameAs(existing);
+        verify(chainHeadRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void lockChainHead_nonNumericOwner_skipsUserLock() {
+        when(chainHeadRepository.findByUserIdForUpdate("system")).thenReturn(Optional.empty());
+        when(chainHeadRepository.saveAndFlush(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        assertThat(ledgerService.lockChainHead("system").getLastHash()).isNull();
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void resetChainHead_pointsHeadAtGivenHash() {
+        LedgerChainHead head = chainHead("old");
+        when(chainHeadRepository.findByUserIdForUpdate("1")).thenReturn(Optional.of(head));
+
+        ledgerService.resetChainHead("1", "restored-tail");
+
+        assertThat(head.getLastHash()).isEqualTo("restored-tail");
+        verify(chainHeadRepository).save(head);
+    }
+
+    @Test
+    void recordEvent_withoutDataKey_refusesServerKeyFallback() {
         VaultKeyContext.set("my-vault-key");
+        when(encryptionService.isEnabled()).thenReturn(true);
+        when(hashingUtils.toCanonicalJson(any())).thenReturn("json");
+
+        assertThatThrownBy(() -> ledgerService.recordEvent("EXPENSE", "1", "CREATE", null, new Object(), "1"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("No data key");
 
+        verify(encryptionService, never()).encrypt(anyString(), any());
+        verifyNoInteractions(chainHeadRepository, ledgerEventRepository);
+    }
+
+    @Test
+    void recordEvent_encryptionDisabled_storesSnapshotAsIs() {
         when(hashingUtils.toCanonicalJson(any())).thenReturn("json");
-        when(encryptionService.encrypt(anyString(), eq("my-vault-key"))).thenReturn("vault-encrypted");
-        when(ledgerEventRepository.findTopByUserIdOrderByEventSequenceDesc("1"))
-                .thenReturn(Optional.empty());
+        when(chainHeadRepository.findByUserIdForUpdate("1")).thenReturn(Optional.of(chainHead(null)));
         when(hashingUtils.computeHash(any(), any(), any(), any(), any(), any(), any(), any(), anyInt()))
                 .thenReturn("hash");
-        LedgerEvent saved = buildEvent("1", 1L, "hash", null);
-        when(ledgerEventRepository.save(any())).thenReturn(saved);
+        when(ledgerEventRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        LedgerEvent result = ledgerService.recordEvent("EXPENSE", "1", "CREATE", null, new Object(), "1");
+
+        assertThat(result.getAfterState()).isEqualTo("json");
+        verify(encryptionService, never()).encryptWithDataKey(anyString(), any());
+    }
+
+    @Test
+    void recordEvent_withDataKey_usesEnvelopeEncryption() {
+        DataKey dataKey = new DataKey(1L, new SecretKeySpec(new byte[32], "AES"));
+        VaultKeyContext.setDataKey(dataKey);
+        when(encryptionService.isEnabled()).thenReturn(true);
+
+        when(hashingUtils.toCanonicalJson(any())).thenReturn("json");
+        when(encryptionService.encryptWithDataKey("json", dataKey)).thenReturn("v3:envelope");
+        when(chainHeadRepository.findByUserIdForUpdate("1")).thenReturn(Optional.of(chainHead(null)));
+        when(hashingUtils.computeHash(any(), any(), any(), any(), any(), any(), any(), any(), anyInt()))
+                .thenReturn("hash");
+        when(ledgerEventRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
 
-        ledgerService.recordEvent("EXPENSE", "1", "CREATE", null, new Object(), "1");
+        LedgerEvent result = ledgerService.recordEvent("EXPENSE", "1", "CREATE", null, new Object(), "1");
 
-        verify(encryptionService).encrypt(anyString(), eq("my-vault-key"));
+        assertThat(result.getAfterState()).isEqualTo("v3:envelope");
+        verify(encryptionService, never()).encrypt(anyString(), any());
     }
 
     @Test
     void recordEvent_nullBeforeAndAfter_storesNullStates() {
-        when(hashingUtils.toCanonicalJson(isNull())).thenReturn("null");
-        when(ledgerEventRepository.findTopByUserIdOrderByEventSequenceDesc("1"))
-                .thenReturn(Optional.empty());
+        when(chainHeadRepository.findByUserIdForUpdate("1")).thenReturn(Optional.of(chainHead(null)));
         when(hashingUtils.computeHash(any(), any(), any(), any(), any(), any(), any(), any(), anyInt()))
                 .thenReturn("hash");
         LedgerEvent saved = buildEvent("1", 1L, "hash", null);
@@ -142,13 +274,139 @@ class LedgerServiceTest {
         verify(ledgerEventRepository).save(cap.capture());
         assertThat(cap.getValue().getBeforeState()).isNull();
         assertThat(cap.getValue().getAfterState()).isNull();
+        verify(hashingUtils, never()).toCanonicalJson(any());
+    }
+
+    // ── recordEvents ──────────────────────────────────────────────────────────
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void recordEvents_chainsInMemoryAndBatchInsertsUnderOneHeadLock() {
+        LedgerChainHead head = chainHead("tail");
+        when(hashingUtils.toCanonicalJson(any())).thenReturn("json");
+        bindDataKey();
+        when(chainHeadRepository.findByUserIdForUpdate("1")).thenReturn(Optional.of(head));
+        when(hashingUtils.computeHash(any(), any(), any(), any(), any(), any(), any(), any(), anyInt()))
+                .thenReturn("h1", "h2", "h3");
+
+        List<LedgerEvent> events = ledgerService.recordEvents(List.of(
+                new LedgerService.LedgerEntry("EXPENSE", "1", "DELETE", new Object(), null),
+                new LedgerService.LedgerEntry("EXPENSE", "2", "DELETE", new Object(), null),
+                new LedgerService.LedgerEntry("EXPENSE", "3", "DELETE", new Object(), null)), "1");
+
+        assertThat(events).extracting(LedgerEvent::getPrevHash).containsExactly("tail", "h1", "h2");
+        assertThat(events).extracting(LedgerEvent::getAfterState).containsOnlyNulls();
+        assertThat(head.getLastHash()).isEqualTo("h3");
+        verify(chainHeadRepository, times(1)).findByUserIdForUpdate("1");
+        verify(chainHeadRepository).save(head);
+        var order = inOrder(entityManager, jdbcTemplate);
+        order.verify(entityManager).flush();
+        order.verify(jdbcTemplate).batchUpdate(anyString(), eq(events), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        verify(ledgerEventRepository, never()).save(any());
+    }
+
+    @Test
+    void recordEvents_emptyList_touchesNothing() {
+        assertThat(ledgerService.recordEvents(List.of(), "1")).isEmpty();
+        verifyNoInteractions(chainHeadRepository, jdbcTemplate);
+    }
+
+    // ── async append / outbox ─────────────────────────────────────────────────
+
+    private LedgerOutboxEntry queued(long id, String entityId) {
+        LedgerOutboxEntry entry = new LedgerOutboxEntry();
+        entry.setId(id);
+        entry.setUserId("1");
+        entry.setEntityType("EXPENSE");
+        entry.setEntityId(entityId);
+        entry.setActionType("CREATE");
+        entry.setAfterState("encrypted");
+        entry.setEventTimestamp(OffsetDateTime.now());
+        return entry;
+    }
+
+    @Test
+    void recordEvent_asyncAppend_queuesEncryptedChangeWithoutTouchingChain() {
+        ReflectionTestUtils.setField(ledgerService, "asyncAppend", true);
+        when(hashingUtils.toCanonicalJson(any())).thenReturn("json");
+        bindDataKey();
+
+        LedgerEvent result = ledgerService.recordEvent("EXPENSE", "7", "CREATE", null, new Object(), "1");
+
+        assertThat(result).isNull();
+        ArgumentCaptor<LedgerOutboxEntry> cap = ArgumentCaptor.forClass(LedgerOutboxEntry.class);
+        verify(outboxRepository).save(cap.capture());
+        assertThat(cap.getValue().getAfterState()).isEqualTo("encrypted");
+        assertThat(cap.getValue().getBeforeState()).isNull();
+        assertThat(cap.getValue().getEventTimestamp()).isNotNull();
+        verifyNoInteractions(chainHeadRepository, ledgerEventRepository);
+        verify(hashingUtils, never()).computeHash(any(), any(), any(), any(), any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void recordEvents_asyncAppend_queuesWholeBatch() {
+        ReflectionTestUtils.setField(ledgerService, "asyncAppend", true);
+        when(hashingUtils.toCanonicalJson(any())).thenReturn("json");
+        bindDataKey();
+
+        ledgerService.recordEvents(List.of(
+                new LedgerService.LedgerEntry("EXPENSE", "1", "DELETE", new Object(), null),
+                new LedgerService.LedgerEntry("EXPENSE", "2", "DELETE", new Object(), null)), "1");
+
+        verify(outboxRepository).saveAll(argThat(entries -> ((List<?>) entries).size() == 2));
+        verifyNoInteractions(chainHeadRepository, jdbcTemplate);
+    }
+
+    @Test
+    void appendPending_nothingQueued_skipsHeadLock() {
+        when(outboxRepository.findByUserIdOrderByIdAsc("1", Limit.of(1))).thenReturn(List.of());
+
+        assertThat(ledgerService.appendPending("1", 100)).isZero();
+        verifyNoInteractions(chainHeadRepository);
+    }
+
+    @Test
+    void appendPending_chainsQueuedInIdOrderAndRemovesThem() {
+        LedgerChainHead head = chainHead("tail");
+        List<LedgerOutboxEntry> pending = List.of(queued(5L, "a"), queued(6L, "b"));
+        when(outboxRepository.findByUserIdOrderByIdAsc("1", Limit.of(1))).thenReturn(pending.subList(0, 1));
+        when(outboxRepository.findByUserIdOrderByIdAsc("1", Limit.of(100))).thenReturn(pending);
+        when(chainHeadRepository.findByUserIdForUpdate("1")).thenReturn(Optional.of(head));
+        when(hashingUtils.computeHash(any(), any(), any(), any(), any(), any(), any(), any(), anyInt()))
+                .thenReturn("h1", "h2");
+
+        assertThat(ledgerService.appendPending("1", 100)).isEqualTo(2);
+
+        verify(hashingUtils).computeHash(eq("EXPENSE"), eq("a"), eq("CREATE"), eq("null"), eq("encrypted"),
+                eq(pending.get(0).getEventTimestamp().toString()), eq("tail"), eq("1"), eq(1));
+        verify(hashingUtils).computeHash(any(), eq("b"), any(), any(), any(), any(), eq("h1"), any(), anyInt());
+        verify(outboxRepository).deleteAllByIdInBatch(List.of(5L, 6L));
+        assertThat(head.getLastHash()).isEqualTo("h2");
+        verify(jdbcTemplate).batchUpdate(anyString(), ArgumentMatchers.<List<LedgerEvent>>any(), anyInt(),
+                ArgumentMatchers.<ParameterizedPreparedStatementSetter<LedgerEvent>>any());
+    }
+
+    @Test
+    void appendAllPending_loopsUntilShortBatch() {
+        LedgerService spy = spy(ledgerService);
+        doReturn(LedgerService.OUTBOX_BATCH_SIZE, 3).when(spy).appendPending("1", LedgerService.OUTBOX_BATCH_SIZE);
+
+        assertThat(spy.appendAllPending("1")).isEqualTo(LedgerService.OUTBOX_BATCH_SIZE + 3);
+        verify(spy, times(2)).appendPending("1", LedgerService.OUTBOX_BATCH_SIZE);
+    }
+
+    @Test
+    void discardPending_deletesUsersQueue() {
+        ledgerService.discardPending("1");
+
+        verify(outboxRepository).deleteByUserId("1");
     }
 
     // ── verifyIntegrity ───────────────────────────────────────────────────────
 
     @Test
     void verifyIntegrity_emptyChain_returnsValidWithZeroCount() {
-        when(ledgerEventRepository.findByUserIdOrderByEventSequenceAsc("1")).thenReturn(List.of());
+        when(ledgerEventRepository.streamByUserIdAfterSequence("1", 0L)).thenReturn(Stream.of());
 
         LedgerIntegrityResultDTO result = ledgerService.verifyIntegrity("1");
 
@@ -162,7 +420,7 @@ class LedgerServiceTest {
         e.setBeforeState(null);
         e.setAfterState("encrypted-after");
 
-        when(ledgerEventRepository.findByUserIdOrderByEventSequenceAsc("1")).thenReturn(List.of(e));
+        when(ledgerEventRepository.streamByUserIdAfterSequence("1", 0L)).thenReturn(Stream.of(e));
         when(hashingUtils.computeHash(
                 eq(e.getEntityType()), eq(e.getEntityId()), eq(e.getActionType()),
                 eq("null"), eq("encrypted-after"),
@@ -182,7 +440,7 @@ class LedgerServiceTest {
         e.setBeforeState("before");
         e.setAfterState("after");
 
-        when(ledgerEventRepository.findByUserIdOrderByEventSequenceAsc("1")).thenReturn(List.of(e));
+        when(ledgerEventRepository.streamByUserIdAfterSequence("1", 0L)).thenReturn(Stream.of(e));
         when(hashingUtils.computeHash(any(), any(), any(), any(), any(), any(), any(), any(), anyInt()))
                 .thenReturn("different-hash");
 
@@ -202,8 +460,8 @@ class LedgerServiceTest {
         e2.setBeforeState("before-2");
         e2.setAfterState("after-2");
 
-        when(ledgerEventRepository.findByUserIdOrderByEventSequenceAsc("1"))
-                .thenReturn(List.of(e1, e2));
+        when(ledgerEventRepository.streamByUserIdAfterSequence("1", 0L))
+                .thenReturn(Stream.of(e1, e2));
 
         when(hashingUtils.computeHash(eq("EXPENSE"), eq("1"), eq("CREATE"),
                 eq("null"), eq("after-1"), any(), isNull(), eq("1"), eq(1)))
@@ -218,6 +476,127 @@ class LedgerServiceTest {
         assertThat(result.getEventCount()).isEqualTo(2);
     }
 
+    @Test
+    void verifyIntegrity_validChain_savesCheckpointAtLastEvent() {
+        LedgerEvent e = buildEvent("1", 7L, "hash-7", null);
+        when(ledgerEventRepository.streamByUserIdAfterSequence("1", 0L))
+                .thenReturn(Stream.of(e));
+        when(hashingUtils.computeHash(any(), any(), any(), any(), any(), any(), any(), any(), anyInt()))
+                .thenReturn("hash-7");
+
+        ledgerService.verifyIntegrity("1");
+
+        ArgumentCaptor<LedgerCheckpoint> cap = ArgumentCaptor.forClass(LedgerCheckpoint.class);
+        verify(checkpointRepository).save(cap.capture());
+        assertThat(cap.getValue().getUserId()).isEqualTo("1");
+        assertThat(cap.getValue().getLastEventSequence()).isEqualTo(7L);
+        assertThat(cap.getValue().getLastHash()).isEqualTo("hash-7");
+        assertThat(cap.getValue().getEventCount()).isEqualTo(1L);
+    }
+
+    @Test
+    void verifyIntegrity_withCheckpoint_onlyRehashesNewEvents() {
+        LedgerCheckpoint checkpoint = checkpoint(5L, "hash-5", 5L);
+        LedgerEvent anchor = buildEvent("1", 5L, "hash-5", "hash-4");
+        LedgerEvent next = buildEvent("1", 6L, "hash-6", "hash-5");
+        when(checkpointRepository.findById("1")).thenReturn(Optional.of(checkpoint));
+        when(ledgerEventRepository.findByUserIdAndEventSequence("1", 5L)).thenReturn(Optional.of(anchor));
+        when(ledgerEventRepository.streamByUserIdAfterSequence("1", 5L))
+                .thenReturn(Stream.of(next));
+        when(hashingUtils.computeHash(any(), any(), any(), any(), any(), any(), eq("hash-5"), any(), anyInt()))
+                .thenReturn("hash-6");
+
+        LedgerIntegrityResultDTO result = ledgerService.verifyIntegrity("1");
+
+        assertThat(result.isValid()).isTrue();
+        assertThat(result.getEventCount()).isEqualTo(6);
+        assertThat(result.getCheckedCount()).isEqualTo(1);
+        assertThat(result.isFullVerification()).isFalse();
+        verify(hashingUtils, times(1)).computeHash(any(), any(), any(), any(), any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void verifyIntegrity_checkpointUpToDate_doesNotRewriteIt() {
+        LedgerCheckpoint checkpoint = checkpoint(5L, "hash-5", 5L);
+        when(checkpointRepository.findById("1")).thenReturn(Optional.of(checkpoint));
+        when(ledgerEventRepository.findByUserIdAndEventSequence("1", 5L))
+                .thenReturn(Optional.of(buildEvent("1", 5L, "hash-5", "hash-4")));
+
+        LedgerIntegrityResultDTO result = ledgerService.verifyIntegrity("1");
+
+        assertThat(result.isValid()).isTrue();
+        assertThat(result.getEventCount()).isEqualTo(5);
+        verify(checkpointRepository, never()).save(any());
+    }
+
+    @Test
+    void verifyIntegrity_checkpointAnchorChanged_fallsBackToFullVerification() {
+        when(checkpointRepository.findById("1")).thenReturn(Optional.of(checkpoint(5L, "hash-5", 5L)));
+        when(ledgerEventRepository.findByUserIdAndEventSequence("1", 5L))
+                .thenReturn(Optional.of(buildEvent("1", 5L, "rewritten", "hash-4")));
+
+        LedgerIntegrityResultDTO result = ledgerService.verifyIntegrity("1");
+
+        assertThat(result.isFullVerification()).isTrue();
+        verify(ledgerEventRepository).streamByUserIdAfterSequence("1", 0L);
+    }
+
+    @Test
+    void verifyIntegrity_full_ignoresCheckpointAndDropsItOnBreak() {
+        LedgerEvent e = buildEvent("1", 1L, "stored-hash", null);
+        when(ledgerEventRepository.streamByUserIdAfterSequence("1", 0L))
+                .thenReturn(Stream.of(e));
+        when(hashingUtils.computeHash(any(), any(), any(), any(), any(), any(), any(), any(), anyInt()))
+                .thenReturn("different-hash");
+        when(ledgerEventRepository.countByUserId("1")).thenReturn(40L);
+
+        LedgerIntegrityResultDTO result = ledgerService.verifyIntegrity("1", true);
+
+        assertThat(result.isValid()).isFalse();
+        assertThat(result.getEventCount()).isEqualTo(40);
+        verify(checkpointRepository, never()).findById(any());
+        verify(checkpointRepository).deleteById("1");
+    }
+
+    @Test
+    void verifyIntegrity_detachesEachStreamedEvent() {
+        LedgerEvent e1 = buildEvent("1", 1L, "h", null);
+        LedgerEvent e2 = buildEvent("1", 2L, "h", "h");
+        when(ledgerEventRepository.streamByUserIdAfterSequence("1", 0L)).thenReturn(Stream.of(e1, e2));
+        when(hashingUtils.computeHash(any(), any(), any(), any(), any(), any(), any(), any(), anyInt()))
+                .thenReturn("h");
+
+        LedgerIntegrityResultDTO result = ledgerService.verifyIntegrity("1");
+
+        assertThat(result.getEventCount()).isEqualTo(2);
+        verify(entityManager).detach(e1);
+        verify(entityManager).detach(e2);
+    }
+
+    @Test
+    void resetCheckpoint_deletesRow() {
+        ledgerService.resetCheckpoint("1");
+        verify(checkpointRepository).deleteById("1");
+    }
+
+    private static LedgerChainHead chainHead(String lastHash) {
+        LedgerChainHead head = new LedgerChainHead();
+        head.setUserId("1");
+        head.setLastHash(lastHash);
+        head.setUpdatedAt(OffsetDateTime.now());
+        return head;
+    }
+
+    private static LedgerCheckpoint checkpoint(long sequence, String hash, long count) {
+        LedgerCheckpoint checkpoint = new LedgerCheckpoint();
+        checkpoint.setUserId("1");
+        checkpoint.setLastEventSequence(sequence);
+        checkpoint.setLastHash(hash);
+        checkpoint.setEventCount(count);
+        checkpoint.setVerifiedAt(OffsetDateTime.now());
+        return checkpoint;
+    }
+
     // ── getTimeline ───────────────────────────────────────────────────────────
 
     @Test
@@ -0,0 +1,138 @@
+package com.finance_tracker.service;
+
+import com.finance_tracker.model.CompoundingFrequency;
+import com.finance_tracker.model.LoanInterestType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LoanAmortizationTest {
+
+    private static LoanAmortization amortization(String annualRatePercent, LoanInterestType type,
+                                                 CompoundingFrequency frequency) {
+        return new LoanAmortization(LoanAmortization.monthlyRate(new BigDecimal(annualRatePercent), type, frequency));
+    }
+
+    /** Month-by-month roll-forward with interest rounded to paise, as the balance job used to run it. */
+    private static BigDecimal iterate(LoanAmortization amortization, BigDecimal balance, BigDecimal emi, int months) {
+        for (int i = 0; i < months; i++) {
+            BigDecimal interest = balance.multiply(BigDecimal.valueOf(amortization.monthlyRate()))
+                    .setScale(2, RoundingMode.HALF_UP);
+            balance = balance.subtract(emi.subtract(interest));
+            if (balance.signum() < 0) return BigDecimal.ZERO;
+        }
+        return balance;
+    }
+
+    @Test
+    void monthlyRate_perCompoundingFrequency() {
+        assertThat(LoanAmortization.monthlyRate(new BigDecimal("12"), LoanInterestType.SIMPLE, CompoundingFrequency.YEARLY))
+                .isEqualTo(0.01);
+        assertThat(LoanAmortization.monthlyRate(new BigDecimal("12"), LoanInterestType.COMPOUND, CompoundingFrequency.MONTHLY))
+                .isEqualTo(0.01);
+        // (1.02)^(1/3) - 1 and (1.12)^(1/12) - 1
+        assertThat(LoanAmortization.monthlyRate(new BigDecimal("8"), LoanInterestType.COMPOUND, CompoundingFrequency.QUARTERLY))
+                .isCloseTo(0.0066227096, within(1e-10));
+        assertThat(LoanAmortization.monthlyRate(new BigDecimal("12"), LoanInterestType.COMPOUND, CompoundingFrequency.YEARLY))
+                .isCloseTo(0.0094887929, within(1e-10));
+    }
+
+    @Test
+    void compoundedMonthlyRate_matchesStatedAnnualCompounding() {
+        LoanAmortization quarterly = amortization("8", LoanInterestType.COMPOUND, CompoundingFrequency.QUARTERLY);
+        // Three months of accrual equal one quarter at 2%
+        assertThat(Math.pow(1 + quarterly.monthlyRate(), 3)).isCloseTo(1.02, within(1e-12));
+    }
+
+    @Test
+    void balanceAfter_matchesMonthByMonthRollForward() {
+        for (CompoundingFrequency frequency : CompoundingFrequency.values()) {
+            LoanAmortization amortization = amortization("8.75", LoanInterestType.COMPOUND, frequency);
+            BigDecimal principal = new BigDecimal("2500000.00");
+            BigDecimal emi = amortization.emi(principal, 240);
+            for (int months : new int[]{1, 3, 12, 60, 239}) {
+                BigDecimal closedForm = amortization.balanceAfter(principal, emi, months);
+                BigDecimal iterated = iterate(amortization, principal, emi, months);
+                // Only the per-month rounding of interest separates the two
+                assertThat(closedForm.subtract(iterated).abs())
+                        .as("%s after %d months", frequency, months)
+                        .isLessThanOrEqualTo(new BigDecimal("0.01").multiply(BigDecimal.valueOf(months)));
+            }
+        }
+    }
+
+    @Test
+    void balanceAfter_exactForShortSpan() {
+        LoanAmortization amortization = amortization("12", LoanInterestType.SIMPLE, CompoundingFrequency.MONTHLY);
+
+        assertThat(amortization.balanceAfter(new BigDecimal("100000.00"), new BigDecimal("9000.00"), 3))
+                .isEqualByComparingTo("75759.20");
+    }
+
+    @Test
+    void balanceAfter_paidOffLoanFloorsAtZero() {
+        LoanAmortization amortization = amortization("10", LoanInterestType.COMPOUND, CompoundingFrequency.MONTHLY);
+
+        assertThat(amortization.balanceAfter(new BigDecimal("10000.00"), new BigDecimal("1000.00"), 120))
+                .isEqualByComparingTo("0");
+    }
+
+    @Test
+    void balanceAfter_zeroRateAndZeroPayments() {
+        LoanAmortization free = amortization("0", LoanInterestType.SIMPLE, CompoundingFrequency.MONTHLY);
+        BigDecimal balance = new BigDecimal("1200.00");
+
+        assertThat(free.balanceAfter(balance, new BigDecimal("100.00"), 5)).isEqualByComparingTo("700.00");
+        assertThat(free.balanceAfter(balance, new BigDecimal("100.00"), 0)).isSameAs(balance);
+        assertThat(free.emi(balance, 12)).isEqualByComparingTo("100.00");
+    }
+
+    @Test
+    void emi_standardAnnuity() {
+        // 10 lakh over 20 years at 9% a year
+        assertThat(amortization("9", LoanInterestType.COMPOUND, CompoundingFrequency.MONTHLY)
+                .emi(new BigDecimal("1000000"), 240)).isEqualByComparingTo("8997.26");
+    }
+
+    @Test
+    void schedule_repaysPrincipalExactlyByTenure() {
+        LoanAmortization amortization = amortization("9", LoanInterestType.COMPOUND, CompoundingFrequency.MONTHLY);
+        BigDecimal principal = new BigDecimal("1000000.00");
+        BigDecimal emi = amortization.emi(principal, 240);
+
+        List<LoanAmortization.Installment> schedule =
+                amortization.schedule(principal, emi, 240, LocalDate.of(2024, 1, 15));
+
+        assertThat(schedule).hasSize(240);
+        LoanAmortization.Installment first = schedule.get(0);
+        assertThat(first.dueDate()).isEqualTo(LocalDate.of(2024, 2, 15));
+        assertThat(first.interest()).isEqualByComparingTo("7500.00");
+        assertThat(first.principal()).isEqualByComparingTo("1497.26");
+        assertThat(first.balance()).isEqualByComparingTo("998502.74");
+        assertThat(schedule.get(239).balance()).isEqualByComparingTo("0");
+        assertThat(schedule.stream().map(LoanAmortization.Installment::principal).reduce(BigDecimal.ZERO, BigDecimal::add))
+                .isEqualByComparingTo(principal);
+        // Every row's balance agrees with the closed form to within accumulated rounding
+        assertThat(schedule.get(119).balance().subtract(amortization.balanceAfter(principal, emi, 120)).abs())
+                .isLessThan(new BigDecimal("1.20"));
+    }
+
+    @Test
+    void schedule_stopsEarlyWhenEmiClearsBalance() {
+        LoanAmortization amortization = amortization("12", LoanInterestType.SIMPLE, CompoundingFrequency.MONTHLY);
+
+        List<LoanAmortization.Installment> schedule =
+                amortization.schedule(new BigDecimal("1000.00"), new BigDecimal("600.00"), 12, null);
+
+        assertThat(schedule).hasSize(2);
+        assertThat(schedule.get(1).payment()).isEqualByComparingTo("414.10");
+        assertThat(schedule.get(1).balance()).isEqualByComparingTo("0");
+        assertThat(schedule.get(1).dueDate()).isNull();
+    }
+}
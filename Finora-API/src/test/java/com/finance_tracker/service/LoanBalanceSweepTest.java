@@ -0,0 +1,284 @@
+package com.finance_tracker.service;
+
+import com.finance_tracker.model.CompoundingFrequency;
+import com.finance_tracker.model.Loan;
+import com.finance_tracker.model.LoanInterestType;
+import com.finance_tracker.repository.LoanRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class LoanBalanceSweepTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 10, 17);
+
+    @Mock
+    private LoanRepository loanRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final Map<Long, Loan> loans = new TreeMap<>();
+
+    @BeforeEach
+    void setUp() {
+        // Stands in for the WHERE clause, so tests see what the database would return
+        when(loanRepository.findDueForRollForward(any(LocalDate.class), anyLong(), any(Limit.class))).thenAnswer(inv -> {
+            LocalDate cutoff = inv.getArgument(0);
+            long after = inv.getArgument(1);
+            int max = ((Limit) inv.getArgument(2)).max();
+            return loans.values().stream()
+                    .filter(l -> l.getId() > after)
+                    .filter(l -> !(l.getLastUpdated() != null ? l.getLastUpdated() : l.getStartDate()).isAfter(cutoff))
+                    .limit(max)
+                    .<LoanRepository.DueLoan>map(DueRow::new)
+                    .toList();
+        });
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(inv -> applyBalanceUpdates(inv.getArgument(1)));
+    }
+
+    // Applies the sweep's UPDATE rows to the in-memory loans, WHERE clause included
+    private int[] applyBalanceUpdates(List<Object[]> rows) {
+        int[] counts = new int[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            Object[] row = rows.get(i);
+            Loan loan = loans.get((Long) row[2]);
+            LocalDate today = (LocalDate) row[3];
+            if (loan != null && (loan.getLastUpdated() == null || loan.getLastUpdated().isBefore(today))) {
+                loan.setCurrentBalance((BigDecimal) row[0]);
+                loan.setLastUpdated((LocalDate) row[1]);
+                counts[i] = 1;
+            }
+        }
+        return counts;
+    }
+
+    private record DueRow(Loan loan) implements LoanRepository.DueLoan {
+        public Long getId() { return loan.getId(); }
+        public BigDecimal getCurrentBalance() { return loan.getCurrentBalance(); }
+        public BigDecimal getEmiAmount() { return loan.getEmiAmount(); }
+        public BigDecimal getInterestRate() { return loan.getInterestRate(); }
+        public LoanInterestType getInterestType() { return loan.getInterestType(); }
+        public CompoundingFrequency getCompoundingFrequency() { return loan.getCompoundingFrequency(); }
+        public LocalDate getStartDate() { return loan.getStartDate(); }
+        public LocalDate getLastUpdated() { return loan.getLastUpdated(); }
+    }
+
+    private LoanBalanceSweep sweep(int chunkSize) {
+        return new LoanBalanceSweep(loanRepository, jdbcTemplate, transactionManager, chunkSize);
+    }
+
+    private Loan loan(long id, LocalDate lastUpdated) {
+        Loan l = new Loan();
+        l.setId(id);
+        l.setInterestRate(new BigDecimal("12.00"));
+        l.setInterestType(LoanInterestType.SIMPLE);
+        l.setCompoundingFrequency(CompoundingFrequency.MONTHLY);
+        l.setEmiAmount(new BigDecimal("9000.00"));
+        l.setCurrentBalance(new BigDecimal("100000.00"));
+        l.setStartDate(LocalDate.of(2025, 1, 1));
+        l.setLastUpdated(lastUpdated);
+        loans.put(id, l);
+        return l;
+    }
+
+    private LoanBalanceSweep.SweepRun sweepOn(LoanBalanceSweep sweep, LocalDate today) {
+        LoanBalanceSweep.SweepRun run = new LoanBalanceSweep.SweepRun(OffsetDateTime.now());
+        sweep.sweep(run, today);
+        return run;
+    }
+
+    @Test
+    void sweep_rollsDueLoansForwardInClosedForm() {
+        Loan due = loan(1, TODAY.minusMonths(3));
+
+        LoanBalanceSweep.SweepRun run = sweepOn(sweep(200), TODAY);
+
+        assertThat(due.getCurrentBalance()).isEqualByComparingTo("75759.20");
+        assertThat(due.getLastUpdated()).isEqualTo(TODAY);
+        assertThat(run.updatedLoans.get()).isEqualTo(1);
+        assertThat(run.isRunning()).isFalse();
+        // Only the balance columns are written; the entity, and its encrypted name, never is
+        verify(jdbcTemplate).batchUpdate(contains("SET current_balance = ?, last_updated = ?"), anyList());
+        verify(loanRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void sweep_queriesOnlyLoansAFullMonthBehind() {
+        Loan updatedToday = loan(1, TODAY);
+        Loan updatedLastWeek = loan(2, TODAY.minusDays(7));
+        Loan neverUpdated = loan(3, null);
+
+        sweepOn(sweep(200), TODAY);
+
+        verify(loanRepository).findDueForRollForward(eq(TODAY.minusMonths(1)), eq(0L), any(Limit.class));
+        assertThat(updatedToday.getCurrentBalance()).isEqualByComparingTo("100000.00");
+        assertThat(updatedLastWeek.getLastUpdated()).isEqualTo(TODAY.minusDays(7));
+        // Falls back to the start date, 21 months back
+        assertThat(neverUpdated.getLastUpdated()).isEqualTo(TODAY);
+        assertThat(neverUpdated.getCurrentBalance()).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void sweep_pagesByIdAndCommitsEachChunk() {
+        for (long id = 1; id <= 5; id++) {
+            loan(id, TODAY.minusMonths(1));
+        }
+
+        LoanBalanceSweep.SweepRun run = sweepOn(sweep(2), TODAY);
+
+        verify(loanRepository).findDueForRollForward(any(), eq(0L), any(Limit.class));
+        verify(loanRepository).findDueForRollForward(any(), eq(2L), any(Limit.class));
+        verify(loanRepository).findDueForRollForward(any(), eq(4L), any(Limit.class));
+        verify(transactionManager, times(3)).commit(any());
+        assertThat(run.checkedLoans.get()).isEqualTo(5);
+        assertThat(run.updatedLoans.get()).isEqualTo(5);
+    }
+
+    @Test
+    void sweep_rerunAfterFailurePicksUpRemainingLoans() {
+        for (long id = 1; id <= 4; id++) {
+            loan(id, TODAY.minusMonths(2));
+        }
+        LoanBalanceSweep sweep = sweep(2);
+        doAnswer(inv -> applyBalanceUpdates(inv.getArgument(1)))
+                .doThrow(new DataAccessResourceFailureException("connection lost"))
+                .when(jdbcTemplate).batchUpdate(anyString(), anyList());
+
+        LoanBalanceSweep.SweepRun failed = sweepOn(sweep, TODAY);
+
+        assertThat(failed.error).contains("connection lost");
+        assertThat(failed.updatedLoans.get()).isEqualTo(2);
+
+        // The failed chunk's rollback is simulated by resetting those loans
+        loan(3, TODAY.minusMonths(2));
+        loan(4, TODAY.minusMonths(2));
+        doAnswer(inv -> applyBalanceUpdates(inv.getArgument(1)))
+                .when(jdbcTemplate).batchUpdate(anyString(), anyList());
+
+        LoanBalanceSweep.SweepRun retried = sweepOn(sweep, TODAY);
+
+        assertThat(retried.error).isNull();
+        assertThat(retried.checkedLoans.get()).isEqualTo(2);
+        assertThat(retried.updatedLoans.get()).isEqualTo(2);
+        assertThat(loans.values()).allSatisfy(l -> assertThat(l.getLastUpdated()).isEqualTo(TODAY));
+    }
+
+    @Test
+    void sweep_loanAlreadyUpdatedConcurrentlyIsNotCounted() {
+        loan(1, TODAY.minusMonths(2));
+        // Another sweep gets there between this one's read and its UPDATE
+        when(loanRepository.findDueForRollForward(any(LocalDate.class), eq(0L), any(Limit.class)))
+                .thenAnswer(inv -> {
+                    List<LoanRepository.DueLoan> due = List.of(new DueRow(copyOf(loans.get(1L))));
+                    loans.get(1L).setLastUpdated(TODAY);
+                    return due;
+                });
+
+        LoanBalanceSweep.SweepRun run = sweepOn(sweep(200), TODAY);
+
+        assertThat(run.checkedLoans.get()).isEqualTo(1);
+        assertThat(run.updatedLoans.get()).isZero();
+        assertThat(loans.get(1L).getCurrentBalance()).isEqualByComparingTo("100000.00");
+    }
+
+    private static Loan copyOf(Loan source) {
+        Loan copy = new Loan();
+        copy.setId(source.getId());
+        copy.setInterestRate(source.getInterestRate());
+        copy.setInterestType(source.getInterestType());
+        copy.setCompoundingFrequency(source.getCompoundingFrequency());
+        copy.setEmiAmount(source.getEmiAmount());
+        copy.setCurrentBalance(source.getCurrentBalance());
+        copy.setStartDate(source.getStartDate());
+        copy.setLastUpdated(source.getLastUpdated());
+        return copy;
+    }
+
+    @Test
+    void sweep_loanErrorIsCountedWithoutFailingTheChunk() {
+        loan(1, TODAY.minusMonths(1)).setInterestType(LoanInterestType.COMPOUND);
+        loans.get(1L).setInterestRate(null);
+        loan(2, TODAY.minusMonths(1));
+
+        LoanBalanceSweep.SweepRun run = sweepOn(sweep(200), TODAY);
+
+        assertThat(run.failedLoans.get()).isEqualTo(1);
+        assertThat(run.updatedLoans.get()).isEqualTo(1);
+        assertThat(run.error).isNull();
+        assertThat(loans.get(2L).getLastUpdated()).isEqualTo(TODAY);
+        assertThat(loans.get(1L).getLastUpdated()).isEqualTo(TODAY.minusMonths(1));
+    }
+
+    @Test
+    void startInBackground_returnsImmediatelyAndReportsCompletion() throws InterruptedException {
+        loan(1, LocalDate.now().minusMonths(2));
+        LoanBalanceSweep sweep = sweep(200);
+        assertThat(sweep.getStatus()).containsEntry("state", "idle");
+
+        assertThat(sweep.startInBackground()).isTrue();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!"completed".equals(sweep.getStatus().get("state")) && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(sweep.getStatus())
+                .containsEntry("updatedLoans", 1L)
+                .containsKey("finishedAt");
+    }
+
+    @Test
+    void run_returnsUpdatedCount() {
+        loan(1, LocalDate.now().minusMonths(2));
+        loan(2, LocalDate.now());
+
+        assertThat(sweep(200).run()).isEqualTo(1);
+    }
+
+    @Test
+    void isFirstSweepRunning_onlyWhileTheFirstSweepSinceBootRuns() {
+        loan(1, LocalDate.now().minusMonths(2));
+        LoanBalanceSweep sweep = sweep(200);
+        List<Boolean> seenDuringSweep = new ArrayList<>();
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(inv -> {
+            seenDuringSweep.add(sweep.isFirstSweepRunning());
+            return applyBalanceUpdates(inv.getArgument(1));
+        });
+        assertThat(sweep.isFirstSweepRunning()).isFalse();
+
+        sweep.run();
+        assertThat(sweep.isFirstSweepRunning()).isFalse();
+
+        // A later sweep is not the startup catch-up
+        loan(2, LocalDate.now().minusMonths(2));
+        sweep.run();
+
+        assertThat(seenDuringSweep).containsExactly(true, false);
+    }
+}
@@ -1,5 +1,6 @@
 package com.finance_tracker.service;
 
+import com.finance_tracker.exception.BusinessLogicException;
 import com.finance_tracker.exception.ResourceNotFoundException;
 import com.finance_tracker.model.CompoundingFrequency;
 import com.finance_tracker.model.Loan;
@@ -38,6 +39,9 @@ class LoanServiceTest {
     @Mock
     private LedgerService ledgerService;
 
+    @Mock
+    private LoanBalanceSweep loanBalanceSweep;
+
     @InjectMocks
     private LoanService loanService;
 
@@ -257,127 +261,48 @@ class LoanServiceTest {
     // ── updateLoanBalances ────────────────────────────────────────────────────
 
     @Test
-    void updateLoanBalances_skipsIfUpdatedToday() {
-        Loan l = buildLoan(1L, USER_ID);
-        l.setLastUpdated(LocalDate.now());
-        when(loanRepository.findAll()).thenReturn(List.of(l));
-
+    void updateLoanBalances_delegatesToSweep() {
         loanService.updateLoanBalances();
 
-        verify(loanRepository, never()).save(any());
+        verify(loanBalanceSweep).run();
+        verify(loanRepository, never()).findAll();
     }
 
-    @Test
-    void updateLoanBalances_skipsIfNoLastUpdatedAndNoStartDate() {
-        Loan l = buildLoan(1L, USER_ID);
-        l.setLastUpdated(null);
-        l.setStartDate(null);
-        when(loanRepository.findAll()).thenReturn(List.of(l));
-
-        loanService.updateLoanBalances();
-
-        verify(loanRepository, never()).save(any());
-    }
+    // ── getAmortizationSchedule ───────────────────────────────────────────────
 
     @Test
-    void updateLoanBalances_simpleInterest_updatesBalance() {
+    void getAmortizationSchedule_usesStoredEmi() {
         Loan l = buildLoan(1L, USER_ID);
-        l.setInterestType(LoanInterestType.SIMPLE);
-        l.setCompoundingFrequency(CompoundingFrequency.MONTHLY);
         l.setInterestRate(new BigDecimal("12.00"));
-        l.setEmiAmount(new BigDecimal("9000.00"));
-        l.setCurrentBalance(new BigDecimal("100000.00"));
-        l.setLastUpdated(LocalDate.now().minusMonths(3));
-
-        when(loanRepository.findAll()).thenReturn(List.of(l));
-        when(loanRepository.save(any())).thenReturn(l);
-
-        loanService.updateLoanBalances();
-
-        verify(loanRepository).save(l);
-        assertThat(l.getLastUpdated()).isEqualTo(LocalDate.now());
-    }
-
-    @Test
-    void updateLoanBalances_compoundQuarterly_updatesBalance() {
-        Loan l = buildLoan(1L, USER_ID);
-        l.setInterestType(LoanInterestType.COMPOUND);
-        l.setCompoundingFrequency(CompoundingFrequency.QUARTERLY);
-        l.setInterestRate(new BigDecimal("8.00"));
-        l.setEmiAmount(new BigDecimal("5000.00"));
-        l.setCurrentBalance(new BigDecimal("50000.00"));
-        l.setLastUpdated(LocalDate.now().minusMonths(2));
-
-        when(loanRepository.findAll()).thenReturn(List.of(l));
-        when(loanRepository.save(any())).thenReturn(l);
-
-        loanService.updateLoanBalances();
-
-        verify(loanRepository).save(l);
-    }
-
-    @Test
-    void updateLoanBalances_compoundYearly_updatesBalance() {
-        Loan l = buildLoan(1L, USER_ID);
-        l.setInterestType(LoanInterestType.COMPOUND);
-        l.setCompoundingFrequency(CompoundingFrequency.YEARLY);
-        l.setInterestRate(new BigDecimal("10.00"));
-        l.setEmiAmount(new BigDecimal("4500.00"));
-        l.setCurrentBalance(new BigDecimal("40000.00"));
-        l.setLastUpdated(LocalDate.now().minusMonths(2));
+        l.setTenureMonths(12);
+        l.setEmiAmount(new BigDecimal("8884.88"));
+        when(loanRepository.findById(1L)).thenReturn(Optional.of(l));
 
-        when(loanRepository.findAll()).thenReturn(List.of(l));
-        when(loanRepository.save(any())).thenReturn(l);
+        List<LoanAmortization.Installment> schedule = loanService.getAmortizationSchedule(1L);
 
-        loanService.updateLoanBalances();
-
-        verify(loanRepository).save(l);
+        assertThat(schedule).hasSize(12);
+        assertThat(schedule.get(0).interest()).isEqualByComparingTo("1000.00");
+        assertThat(schedule.get(0).payment()).isEqualByComparingTo("8884.88");
+        assertThat(schedule.get(0).dueDate()).isEqualTo(LocalDate.of(2023, 2, 1));
+        assertThat(schedule.get(11).balance()).isEqualByComparingTo("0");
     }
 
     @Test
-    void updateLoanBalances_balanceDropsToZero_stops() {
+    void getAmortizationSchedule_missingTenure_throws() {
         Loan l = buildLoan(1L, USER_ID);
-        l.setInterestType(LoanInterestType.SIMPLE);
-        l.setCompoundingFrequency(CompoundingFrequency.MONTHLY);
-        l.setEmiAmount(new BigDecimal("200000.00"));
-        l.setCurrentBalance(new BigDecimal("100.00"));
-        l.setLastUpdated(LocalDate.now().minusMonths(1));
-
-        when(loanRepository.findAll()).thenReturn(List.of(l));
-        when(loanRepository.save(any())).thenReturn(l);
-
-        loanService.updateLoanBalances();
-
-        assertThat(l.getCurrentBalance()).isEqualByComparingTo(BigDecimal.ZERO);
-    }
-
-    @Test
-    void updateLoanBalances_zeroMonthsPassed_doesNotSave() {
-        Loan l = buildLoan(1L, USER_ID);
-        l.setLastUpdated(LocalDate.now().minusDays(15));
-        when(loanRepository.findAll()).thenReturn(List.of(l));
-
-        loanService.updateLoanBalances();
+        l.setTenureMonths(null);
+        when(loanRepository.findById(1L)).thenReturn(Optional.of(l));
 
-        verify(loanRepository, never()).save(any());
+        assertThatThrownBy(() -> loanService.getAmortizationSchedule(1L))
+                .isInstanceOf(BusinessLogicException.class);
     }
 
     @Test
-    void updateLoanBalances_usesStartDateWhenLastUpdatedNull() {
-        Loan l = buildLoan(1L, USER_ID);
-        l.setLastUpdated(null);
-        l.setStartDate(LocalDate.now().minusMonths(2));
-        l.setInterestType(LoanInterestType.SIMPLE);
-        l.setCompoundingFrequency(CompoundingFrequency.MONTHLY);
-        l.setEmiAmount(new BigDecimal("5000.00"));
-        l.setCurrentBalance(new BigDecimal("50000.00"));
-
-        when(loanRepository.findAll()).thenReturn(List.of(l));
-        when(loanRepository.save(any())).thenReturn(l);
-
-        loanService.updateLoanBalances();
+    void getAmortizationSchedule_differentOwner_throws() {
+        when(loanRepository.findById(1L)).thenReturn(Optional.of(buildLoan(1L, 999L)));
 
-        verify(loanRepository).save(l);
+        assertThatThrownBy(() -> loanService.getAmortizationSchedule(1L))
+                .isInstanceOf(ResourceNotFoundException.class);
     }
 
     // ── bulkDelete ────────────────────────────────────────────────────────────
@@ -385,23 +310,25 @@ class LoanServiceTest {
     @Test
     void bulkDelete_skipsNotFound_countsDeleted() {
         Loan l = buildLoan(2L, USER_ID);
-        when(loanRepository.findById(1L)).thenReturn(Optional.empty());
-        when(loanRepository.findById(2L)).thenReturn(Optional.of(l));
+        when(loanRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(l));
 
         int count = loanService.bulkDelete(List.of(1L, 2L));
 
         assertThat(count).isEqualTo(1);
-        verify(loanRepository, never()).deleteById(1L);
-        verify(loanRepository).deleteById(2L);
+        verify(loanRepository).deleteAllByIdInBatch(List.of(2L));
+        verify(ledgerService).recordEvents(argThat(entries -> entries.size() == 1
+                && entries.get(0).entityId().equals("2") && entries.get(0).actionType().equals("DELETE")), eq(String.valueOf(USER_ID)));
+        verify(loanRepository, never()).deleteById(any());
     }
 
     @Test
     void bulkDelete_differentOwner_throws() {
         Loan l = buildLoan(1L, 999L);
-        when(loanRepository.findById(1L)).thenReturn(Optional.of(l));
+        when(loanRepository.findAllById(List.of(1L))).thenReturn(List.of(l));
 
         assertThatThrownBy(() -> loanService.bulkDelete(List.of(1L)))
                 .isInstanceOf(ResourceNotFoundException.class);
+        verify(loanRepository, never()).deleteAllByIdInBatch(any());
     }
 
     @Test
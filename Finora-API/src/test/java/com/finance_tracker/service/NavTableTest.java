@@ -0,0 +1,76 @@
+package com.finance_tracker.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class NavTableTest {
+
+    @Test
+    void lookups_keepNavScaleAndName() {
+        NavTable table = new NavTable.Builder(4)
+                .put(118989, new BigDecimal("120.5000"), "HDFC Flexi Cap Fund")
+                .put(120503, new BigDecimal("45"), null)
+                .build();
+
+        assertThat(table.size()).isEqualTo(2);
+        assertThat(table.nav(118989)).isEqualTo(new BigDecimal("120.5000"));
+        assertThat(table.name(118989)).isEqualTo("HDFC Flexi Cap Fund");
+        assertThat(table.nav(120503)).isEqualTo(new BigDecimal("45"));
+        assertThat(table.name(120503)).isNull();
+        assertThat(table.nav(999999)).isNull();
+        assertThat(table.nav(-1)).isNull();
+    }
+
+    @Test
+    void builder_growsAndLaterPutsReplace() {
+        NavTable.Builder builder = new NavTable.Builder(1);
+        Map<String, BigDecimal> expected = new HashMap<>();
+        for (int code = 100_000; code < 115_000; code++) {
+            BigDecimal nav = BigDecimal.valueOf(code, 2);
+            builder.put(code, nav, "Fund " + code);
+            expected.put(Integer.toString(code), nav);
+        }
+        builder.put(100_000, new BigDecimal("1.0001"), "Renamed");
+        expected.put("100000", new BigDecimal("1.0001"));
+
+        NavTable table = builder.build();
+
+        assertThat(table.size()).isEqualTo(15_000);
+        assertThat(table.name(100_000)).isEqualTo("Renamed");
+        assertThat(table.asMap()).isEqualTo(expected);
+    }
+
+    @Test
+    void asMap_isReadOnlyViewKeyedByCodeText() {
+        Map<String, BigDecimal> navs = new NavTable.Builder(2).put(118989, new BigDecimal("12.34"), null).build().asMap();
+
+        assertThat(navs).containsOnlyKeys("118989");
+        assertThat(navs.get(" 118989 ")).isEqualTo(new BigDecimal("12.34"));
+        assertThat(navs.get("ABC")).isNull();
+        assertThat(navs.containsKey(118989)).isFalse();
+        assertThatThrownBy(() -> navs.put("1", BigDecimal.ONE)).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void parseCode_acceptsPositiveIntsOnly() {
+        assertThat(NavTable.parseCode(" 118989 ", 0, 8)).isEqualTo(118989);
+        assertThat(NavTable.parseCode("x;120503;", 2, 8)).isEqualTo(120503);
+        assertThat(NavTable.parseCode("0", 0, 1)).isEqualTo(-1);
+        assertThat(NavTable.parseCode("", 0, 0)).isEqualTo(-1);
+        assertThat(NavTable.parseCode("12a", 0, 3)).isEqualTo(-1);
+        assertThat(NavTable.parseCode("9999999999", 0, 10)).isEqualTo(-1);
+    }
+
+    @Test
+    void empty_hasNothing() {
+        assertThat(NavTable.EMPTY.isEmpty()).isTrue();
+        assertThat(NavTable.EMPTY.nav(1)).isNull();
+        assertThat(NavTable.EMPTY.asMap()).isEmpty();
+    }
+}
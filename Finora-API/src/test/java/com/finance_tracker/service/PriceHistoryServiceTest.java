@@ -0,0 +1,163 @@
+package com.finance_tracker.service;
+
+import com.finance_tracker.dto.PricePointDTO;
+import com.finance_tracker.exception.ValidationException;
+import com.finance_tracker.model.PriceHistory;
+import com.finance_tracker.repository.PriceHistoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionSystemException;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class PriceHistoryServiceTest {
+
+    private static final LocalDate JAN_2 = LocalDate.of(2026, 1, 2);
+    private static final LocalDate JAN_5 = LocalDate.of(2026, 1, 5);
+    private static final LocalDate JAN_6 = LocalDate.of(2026, 1, 6);
+
+    @Mock
+    private PriceHistoryRepository priceHistoryRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PriceHistoryService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new PriceHistoryService(priceHistoryRepository, jdbcTemplate, transactionManager, 2);
+        when(priceHistoryRepository.findBySymbolOrderByPriceDateAsc("RELIANCE.NS")).thenReturn(List.of(
+                point("RELIANCE.NS", JAN_2, "2400"), point("RELIANCE.NS", JAN_5, "2450"),
+                point("RELIANCE.NS", JAN_6, "2500")));
+    }
+
+    private static PriceHistory point(String symbol, LocalDate date, String close) {
+        PriceHistory point = new PriceHistory();
+        point.setSymbol(symbol);
+        point.setPriceDate(date);
+        point.setClose(new BigDecimal(close));
+        return point;
+    }
+
+    // Typed, so the batchUpdate stubs and verifies compile without unchecked warnings
+    private static <T> ParameterizedPreparedStatementSetter<T> anySetter() {
+        return any();
+    }
+
+    @Test
+    void getHistory_returnsInclusiveRangeOldestFirst() {
+        List<PricePointDTO> history = service.getHistory(" reliance.ns ", JAN_5, JAN_6);
+
+        assertThat(history).containsExactly(
+                new PricePointDTO(JAN_5, new BigDecimal("2450")),
+                new PricePointDTO(JAN_6, new BigDecimal("2500")));
+    }
+
+    @Test
+    void getHistory_hotSeriesIsServedFromMemory() {
+        service.getHistory("RELIANCE.NS", JAN_2, JAN_2);
+        service.getHistory("RELIANCE.NS", JAN_5, JAN_6);
+
+        verify(priceHistoryRepository, times(1)).findBySymbolOrderByPriceDateAsc("RELIANCE.NS");
+    }
+
+    @Test
+    void getHistory_leastRecentlyUsedSeriesIsEvicted() {
+        service.getHistory("RELIANCE.NS", JAN_2, JAN_6);
+        service.getHistory("TCS.NS", JAN_2, JAN_6);
+        service.getHistory("119551", JAN_2, JAN_6);
+
+        service.getHistory("RELIANCE.NS", JAN_2, JAN_6);
+
+        verify(priceHistoryRepository, times(2)).findBySymbolOrderByPriceDateAsc("RELIANCE.NS");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void record_upsertsNormalisedSymbolsAndDropsThemFromCache() {
+        service.getHistory("RELIANCE.NS", JAN_2, JAN_6);
+
+        service.record(Map.of("reliance.ns", new BigDecimal("2550")), JAN_6);
+
+        ArgumentCaptor<Collection<Map.Entry<String, BigDecimal>>> rows = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(contains("ON CONFLICT (symbol, price_date)"), rows.capture(), anyInt(),
+                anySetter());
+        assertThat(rows.getValue()).containsExactly(Map.entry("RELIANCE.NS", new BigDecimal("2550")));
+        // Its own transaction, so a failed upsert cannot abort the caller's
+        verify(transactionManager).getTransaction(argThat(definition ->
+                definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+
+        service.getHistory("RELIANCE.NS", JAN_2, JAN_6);
+        verify(priceHistoryRepository, times(2)).findBySymbolOrderByPriceDateAsc("RELIANCE.NS");
+    }
+
+    @Test
+    void record_nothingToWrite_skipsDatabase() {
+        service.record(Map.of(), JAN_6);
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void record_writeFailure_isSwallowed() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), anySetter()))
+                .thenThrow(new DataAccessResourceFailureException("db down"));
+
+        service.record(Map.of("TCS.NS", BigDecimal.TEN), JAN_6);
+
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+    }
+
+    @Test
+    void record_commitFailure_isSwallowed() {
+        doThrow(new TransactionSystemException("commit failed")).when(transactionManager).commit(any());
+
+        service.record(Map.of("TCS.NS", BigDecimal.TEN), JAN_6);
+    }
+
+    @Test
+    void getHistory_rejectsInvertedRangeAndBlankSymbol() {
+        assertThatThrownBy(() -> service.getHistory("RELIANCE.NS", JAN_6, JAN_2))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> service.getHistory(" ", null, null))
+                .isInstanceOf(ValidationException.class);
+        verify(priceHistoryRepository, never()).findBySymbolOrderByPriceDateAsc(anyString());
+    }
+}
@@ -0,0 +1,307 @@
+package com.finance_tracker.service;
+
+import com.finance_tracker.model.Investment;
+import com.finance_tracker.model.InvestmentType;
+import com.finance_tracker.repository.InvestmentRepository;
+import com.finance_tracker.utils.strategy.PriceProviderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class PriceRefreshServiceTest {
+
+    @Mock
+    private InvestmentRepository investmentRepository;
+
+    @Mock
+    private PriceProviderService priceProviderService;
+
+    @Mock
+    private AmfiNavService amfiNavService;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PriceHistoryService priceHistoryService;
+
+    @BeforeEach
+    void setUp() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), anySetter()))
+                .thenAnswer(inv -> new int[][]{IntStream.generate(() -> 1)
+                        .limit(((Collection<?>) inv.getArgument(1)).size()).toArray()});
+    }
+
+    private PriceRefreshService service(Duration deadline) {
+        return new PriceRefreshService(investmentRepository, priceProviderService, amfiNavService, jdbcTemplate,
+                priceHistoryService, deadline);
+    }
+
+    private Investment investment(Long id, String symbol, InvestmentType type) {
+        Investment inv = new Investment();
+        inv.setId(id);
+        inv.setName("Holding " + id);
+        inv.setSymbol(symbol);
+        inv.setType(type);
+        inv.setQuantity(new BigDecimal("10.000000"));
+        inv.setPurchasePrice(new BigDecimal("100.000000"));
+        return inv;
+    }
+
+    private static List<InvestmentRepository.PricedHolding> holdings(Investment... investments) {
+        return Arrays.stream(investments).<InvestmentRepository.PricedHolding>map(HoldingRow::new).toList();
+    }
+
+    private record HoldingRow(Investment investment) implements InvestmentRepository.PricedHolding {
+        public Long getId() { return investment.getId(); }
+        public String getSymbol() { return investment.getSymbol(); }
+        public InvestmentType getType() { return investment.getType(); }
+        public String getIsin() { return investment.getIsin(); }
+    }
+
+    private interface QuoteSource {
+        BigDecimal priceOf(String symbol) throws Exception;
+    }
+
+    private void stubQuotes(QuoteSource source) {
+        when(priceProviderService.fetchPrices(anyCollection(), any())).thenAnswer(inv -> {
+            Map<String, BigDecimal> prices = new HashMap<>();
+            for (String symbol : inv.<Collection<String>>getArgument(0)) {
+                BigDecimal price = source.priceOf(symbol);
+                if (price != null) {
+                    prices.put(symbol, price);
+                }
+            }
+            return prices;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> List<T> written(String sqlFragment) {
+        ArgumentCaptor<Collection<T>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(contains(sqlFragment), captor.capture(), anyInt(),
+                anySetter());
+        return new ArrayList<>(captor.getValue());
+    }
+
+    private List<PriceRefreshService.SymbolUpdate> writtenBySymbol() {
+        return written("WHERE symbol = ?");
+    }
+
+    // Typed, so the batchUpdate stubs and verifies compile without unchecked warnings
+    private static <T> ParameterizedPreparedStatementSetter<T> anySetter() {
+        return any();
+    }
+
+    @Test
+    void refreshAll_stock_fetchesPriceAndWritesBySymbol() {
+        when(investmentRepository.findAllForPriceRefresh()).thenReturn(holdings(investment(1L, "RELIANCE.NS", InvestmentType.STOCK)));
+        stubQuotes(symbol -> "RELIANCE.NS".equals(symbol) ? new BigDecimal("3000.00") : null);
+
+        assertThat(service(Duration.ofSeconds(5)).refreshAll()).isTrue();
+
+        assertThat(writtenBySymbol()).containsExactly(new PriceRefreshService.SymbolUpdate(
+                Set.of("RELIANCE.NS"), InvestmentType.STOCK, new BigDecimal("3000.000000"), null));
+        verify(priceHistoryService).record(Map.of("RELIANCE.NS", new BigDecimal("3000.000000")), LocalDate.now());
+    }
+
+    @Test
+    void refreshAll_sameSymbolAcrossUsers_fetchesOnceAndUpdatesEveryStoredSpelling() {
+        Investment mine = investment(1L, "RELIANCE.NS", InvestmentType.STOCK);
+        Investment theirs = investment(2L, "RELIANCE.NS", InvestmentType.STOCK);
+        theirs.setUserId(2L);
+        Investment legacy = investment(3L, "reliance.ns", InvestmentType.STOCK);
+        when(investmentRepository.findAllForPriceRefresh()).thenReturn(holdings(mine, theirs, legacy,
+                investment(4L, "TCS.NS", InvestmentType.STOCK)));
+        when(priceProviderService.getMaxBatchSize()).thenReturn(20);
+        stubQuotes(symbol -> new BigDecimal("100"));
+
+        PriceRefreshService service = service(Duration.ofSeconds(5));
+        service.refreshAll();
+
+        // Both distinct symbols in a single batch request
+        verify(priceProviderService, times(1)).fetchPrices(
+                argThat(symbols -> symbols.size() == 2 && symbols.containsAll(List.of("RELIANCE.NS", "TCS.NS"))),
+                eq(InvestmentType.STOCK));
+        // One statement per stored spelling, not per holding
+        assertThat(writtenBySymbol())
+                .flatExtracting(PriceRefreshService.SymbolUpdate::storedSymbols)
+                .containsExactlyInAnyOrder("RELIANCE.NS", "reliance.ns", "TCS.NS");
+        assertThat(service.getStatus())
+                .containsEntry("totalInvestments", 4L)
+                .containsEntry("totalSymbols", 2L)
+                .containsEntry("pricedSymbols", 2L);
+    }
+
+    @Test
+    void refreshAll_sameSymbolDifferentType_pricedSeparately() {
+        when(investmentRepository.findAllForPriceRefresh()).thenReturn(holdings(
+                investment(1L, "500325", InvestmentType.STOCK),
+                investment(2L, "500325", InvestmentType.MUTUAL_FUND)));
+        stubQuotes(symbol -> "500325".equals(symbol) ? new BigDecimal("2500") : null);
+        when(amfiNavService.getNavBySchemeCode("500325")).thenReturn(Optional.of(new BigDecimal("12.5")));
+
+        service(Duration.ofSeconds(5)).refreshAll();
+
+        assertThat(writtenBySymbol())
+                .extracting(PriceRefreshService.SymbolUpdate::type, PriceRefreshService.SymbolUpdate::price)
+                .containsExactlyInAnyOrder(
+                        tuple(InvestmentType.STOCK, new BigDecimal("2500.000000")),
+                        tuple(InvestmentType.MUTUAL_FUND, new BigDecimal("12.500000")));
+    }
+
+    @Test
+    void refreshAll_priceIsZero_writesNothing() {
+        when(investmentRepository.findAllForPriceRefresh()).thenReturn(holdings(investment(1L, "RELIANCE.NS", InvestmentType.STOCK)));
+        stubQuotes(symbol -> BigDecimal.ZERO);
+
+        PriceRefreshService service = service(Duration.ofSeconds(5));
+        service.refreshAll();
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyCollection(), anyInt(), anySetter());
+        assertThat(service.getStatus()).containsEntry("failedSymbols", 1L);
+    }
+
+    @Test
+    void refreshAll_mutualFundWithoutSymbol_skips() {
+        when(investmentRepository.findAllForPriceRefresh()).thenReturn(holdings(investment(1L, null, InvestmentType.MUTUAL_FUND)));
+
+        PriceRefreshService service = service(Duration.ofSeconds(5));
+        service.refreshAll();
+
+        verifyNoInteractions(amfiNavService);
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyCollection(), anyInt(), anySetter());
+        assertThat(service.getStatus()).containsEntry("skippedInvestments", 1L);
+    }
+
+    @Test
+    void refreshAll_mutualFundSymbolIsIsin_writesResolvedSchemeCode() {
+        when(investmentRepository.findAllForPriceRefresh()).thenReturn(holdings(investment(1L, "INF179K01BE2", InvestmentType.MUTUAL_FUND)));
+        when(amfiNavService.getNavBySchemeCode(anyString())).thenReturn(Optional.empty());
+        when(amfiNavService.lookupSchemeCodeByIsin("INF179K01BE2")).thenReturn(Optional.of("118989"));
+        when(amfiNavService.getNavBySchemeCode("118989")).thenReturn(Optional.of(new BigDecimal("50.1234")));
+
+        service(Duration.ofSeconds(5)).refreshAll();
+
+        assertThat(writtenBySymbol()).containsExactly(new PriceRefreshService.SymbolUpdate(
+                Set.of("INF179K01BE2"), InvestmentType.MUTUAL_FUND, new BigDecimal("50.123400"), "118989"));
+        verify(priceProviderService, never()).fetchPrices(anyCollection(), any());
+        verify(priceHistoryService).record(Map.of("118989", new BigDecimal("50.123400")), LocalDate.now());
+    }
+
+    @Test
+    void refreshAll_mutualFundUnknownSymbol_fallsBackToEachHoldingsIsin() {
+        Investment fund = investment(7L, "STALE", InvestmentType.MUTUAL_FUND);
+        fund.setIsin("INF179K01BE2");
+        when(investmentRepository.findAllForPriceRefresh()).thenReturn(holdings(fund));
+        when(amfiNavService.getNavBySchemeCode(anyString())).thenReturn(Optional.empty());
+        when(amfiNavService.lookupSchemeCodeByIsin(anyString())).thenReturn(Optional.empty());
+        when(amfiNavService.lookupSchemeCodeByIsin("INF179K01BE2")).thenReturn(Optional.of("118989"));
+        when(amfiNavService.getNavBySchemeCode("118989")).thenReturn(Optional.of(new BigDecimal("50")));
+
+        PriceRefreshService service = service(Duration.ofSeconds(5));
+        service.refreshAll();
+
+        List<PriceRefreshService.HoldingUpdate> byId = written("WHERE id = ?");
+        assertThat(byId).containsExactly(new PriceRefreshService.HoldingUpdate(7L, new BigDecimal("50.000000"), "118989"));
+        assertThat(service.getStatus()).containsEntry("pricedSymbols", 1L).containsEntry("updatedInvestments", 1L);
+    }
+
+    @Test
+    void refreshAll_fetchesInParallel() {
+        int holdings = 4;
+        List<Investment> investments = new ArrayList<>();
+        for (long i = 1; i <= holdings; i++) {
+            investments.add(investment(i, "SYM" + i + ".NS", InvestmentType.STOCK));
+        }
+        when(investmentRepository.findAllForPriceRefresh()).thenReturn(holdings(investments.toArray(Investment[]::new)));
+        // Every fetch waits until all of them are in flight; a sequential refresh would never get there
+        CountDownLatch allInFlight = new CountDownLatch(holdings);
+        stubQuotes(symbol -> {
+            allInFlight.countDown();
+            return allInFlight.await(5, TimeUnit.SECONDS) ? new BigDecimal("10") : null;
+        });
+
+        service(Duration.ofSeconds(10)).refreshAll();
+
+        assertThat(writtenBySymbol()).hasSize(holdings);
+    }
+
+    @Test
+    void refreshAll_deadlinePassed_writesFinishedPricesAndCountsTheRest() {
+        when(investmentRepository.findAllForPriceRefresh()).thenReturn(holdings(
+                investment(1L, "FAST.NS", InvestmentType.STOCK),
+                investment(2L, "SLOW.NS", InvestmentType.STOCK)));
+        stubQuotes(symbol -> {
+            if ("SLOW.NS".equals(symbol)) {
+                Thread.sleep(30_000);
+            }
+            return new BigDecimal("10");
+        });
+
+        PriceRefreshService service = service(Duration.ofMillis(300));
+        service.refreshAll();
+
+        assertThat(writtenBySymbol()).flatExtracting(PriceRefreshService.SymbolUpdate::storedSymbols)
+                .containsExactly("FAST.NS");
+        assertThat(service.getStatus())
+                .containsEntry("state", "completed")
+                .containsEntry("updatedInvestments", 1L)
+                .containsEntry("timedOutSymbols", 1L);
+    }
+
+    @Test
+    void refreshAll_whileRunning_returnsFalse() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(investmentRepository.findAllForPriceRefresh()).thenAnswer(inv -> {
+            entered.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of();
+        });
+        PriceRefreshService service = service(Duration.ofSeconds(5));
+
+        Thread first = Thread.ofVirtual().start(service::refreshAll);
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(service.getStatus()).containsEntry("state", "running");
+        assertThat(service.refreshAll()).isFalse();
+        release.countDown();
+        first.join();
+        verify(investmentRepository, times(1)).findAllForPriceRefresh();
+    }
+
+    @Test
+    void getStatus_beforeAnyRun_isIdle() {
+        assertThat(service(Duration.ofSeconds(5)).getStatus()).containsEntry("state", "idle");
+    }
+}
@@ -0,0 +1,84 @@
+package com.finance_tracker.service;
+
+import com.finance_tracker.model.InvestmentType;
+import com.finance_tracker.model.User;
+import com.finance_tracker.repository.InvestmentRepository;
+import com.finance_tracker.repository.UserRepository;
+import com.finance_tracker.utils.security.DataKey;
+import com.finance_tracker.utils.strategy.PriceProviderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+/**
+ * A refresh runs with no user's data key bound, so it must price a vault user's holdings
+ * without decrypting their envelope-encrypted names.
+ */
+@SpringBootTest(properties = "field.encryption.key=price-refresh-vault-test-key-0123456789")
+@ActiveProfiles("test")
+class PriceRefreshServiceVaultTest {
+
+    @Autowired
+    private PriceRefreshService priceRefreshService;
+
+    @Autowired
+    private InvestmentRepository investmentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FieldEncryptionService encryptionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private PriceProviderService priceProviderService;
+
+    @Test
+    void refreshAll_pricesVaultUsersHoldingsWithoutDecryptingNames() {
+        long userId = createVaultUser();
+        byte[] rawKey = encryptionService.generateDataKey();
+        jdbcTemplate.update("UPDATE users SET vault_enabled = TRUE, wrapped_data_key = ? WHERE id = ?",
+                encryptionService.wrapDataKey(rawKey, "vault-passphrase"), userId);
+        String name = encryptionService.encryptWithDataKey("Reliance",
+                new DataKey(userId, new SecretKeySpec(rawKey, "AES")));
+        jdbcTemplate.update("INSERT INTO investments (name, symbol, type, quantity, purchase_price, user_id) "
+                + "VALUES (?, 'VAULTCO.NS', 'STOCK', 10, 100, ?)", name, userId);
+        when(priceProviderService.getMaxBatchSize()).thenReturn(20);
+        when(priceProviderService.fetchPrices(anyCollection(), eq(InvestmentType.STOCK)))
+                .thenReturn(Map.of("VAULTCO.NS", new BigDecimal("2450.50")));
+
+        // Loading entities would have to decrypt the name, which needs the vault key
+        assertThatThrownBy(() -> investmentRepository.findAll()).isInstanceOf(RuntimeException.class);
+
+        assertThat(priceRefreshService.refreshAll()).isTrue();
+
+        assertThat(priceRefreshService.getStatus()).containsEntry("state", "completed");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT current_price FROM investments WHERE user_id = ?", BigDecimal.class, userId))
+                .isEqualByComparingTo("2450.50");
+    }
+
+    private long createVaultUser() {
+        User user = new User();
+        user.setUsername("vault-refresh-" + System.nanoTime() % 1_000_000);
+        user.setEmail(user.getUsername() + "@example.com");
+        user.setPasswordHash("x");
+        return userRepository.save(user).getId();
+    }
+}
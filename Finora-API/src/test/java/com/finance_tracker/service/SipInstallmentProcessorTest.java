@@ -0,0 +1,302 @@
+package com.finance_tracker.service;
+
+import com.finance_tracker.model.Sip;
+import com.finance_tracker.model.SipInstallmentRun;
+import com.finance_tracker.repository.SipInstallmentRunRepository;
+import com.finance_tracker.repository.SipRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class SipInstallmentProcessorTest {
+
+    private static final YearMonth PERIOD = YearMonth.of(2026, 10);
+    private static final LocalDate TODAY = LocalDate.of(2026, 10, 1);
+
+    @Mock
+    private SipRepository sipRepository;
+
+    @Mock
+    private SipInstallmentRunRepository runRepository;
+
+    @Mock
+    private AmfiNavService amfiNavService;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final Map<Long, Sip> sips = new TreeMap<>();
+    private final List<Long> cursorWrites = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        when(runRepository.findById(anyString())).thenReturn(Optional.empty());
+        when(runRepository.save(any())).thenAnswer(inv -> {
+            SipInstallmentRun run = inv.getArgument(0);
+            cursorWrites.add(run.getLastSipId());
+            return run;
+        });
+        when(sipRepository.findIdsAfter(anyLong(), any(Limit.class))).thenAnswer(inv -> {
+            long after = inv.getArgument(0);
+            int max = ((Limit) inv.getArgument(1)).max();
+            return sips.keySet().stream().filter(id -> id > after).limit(max).toList();
+        });
+        when(sipRepository.findInstallmentFieldsByIdIn(anyCollection())).thenAnswer(inv -> {
+            List<SipRepository.InstallmentSip> found = new ArrayList<>();
+            for (Long id : inv.<Collection<Long>>getArgument(0)) {
+                found.add(new SipRow(sips.get(id)));
+            }
+            return found;
+        });
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(inv -> applyInvestments(inv.getArgument(1)));
+        when(runRepository.findByStatusNotOrderByPeriodAsc(SipInstallmentRun.Status.COMPLETED)).thenReturn(List.of());
+        when(amfiNavService.getNavBySchemeCode("118989")).thenReturn(Optional.of(new BigDecimal("100.00")));
+    }
+
+    // Applies the processor's UPDATE rows to the in-memory SIPs, WHERE clause included
+    private synchronized int[] applyInvestments(List<Object[]> rows) {
+        int[] counts = new int[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            Object[] row = rows.get(i);
+            Sip sip = sips.get((Long) row[4]);
+            LocalDate monthStart = (LocalDate) row[5];
+            if (sip.getLastInvestmentDate() == null || sip.getLastInvestmentDate().isBefore(monthStart)) {
+                BigDecimal units = sip.getTotalUnits() != null ? sip.getTotalUnits() : BigDecimal.ZERO;
+                sip.setTotalUnits(units.add((BigDecimal) row[0]));
+                sip.setCurrentNav((BigDecimal) row[1]);
+                sip.setLastInvestmentDate((LocalDate) row[2]);
+                sip.setLastUpdated((LocalDate) row[3]);
+                counts[i] = 1;
+            }
+        }
+        return counts;
+    }
+
+    private record SipRow(Sip sip) implements SipRepository.InstallmentSip {
+        public Long getId() { return sip.getId(); }
+        public String getSchemeCode() { return sip.getSchemeCode(); }
+        public BigDecimal getMonthlyAmount() { return sip.getMonthlyAmount(); }
+        public LocalDate getStartDate() { return sip.getStartDate(); }
+        public LocalDate getLastInvestmentDate() { return sip.getLastInvestmentDate(); }
+    }
+
+    private SipInstallmentProcessor processor(int chunkSize, int dbConcurrency) {
+        return new SipInstallmentProcessor(sipRepository, runRepository, amfiNavService, jdbcTemplate,
+                transactionManager, chunkSize, dbConcurrency);
+    }
+
+    private SipInstallmentRun unfinishedRun(String period, SipInstallmentRun.Status status, long lastSipId) {
+        SipInstallmentRun run = new SipInstallmentRun();
+        run.setPeriod(period);
+        run.setRunId("run-" + period);
+        run.setStatus(status);
+        run.setLastSipId(lastSipId);
+        run.setProcessedCount(lastSipId);
+        run.setStartedAt(OffsetDateTime.now());
+        when(runRepository.findById(period)).thenReturn(Optional.of(run));
+        return run;
+    }
+
+    private Sip sip(long id, String schemeCode, LocalDate lastInvestment) {
+        Sip sip = new Sip();
+        sip.setId(id);
+        sip.setSchemeCode(schemeCode);
+        sip.setMonthlyAmount(new BigDecimal("5000.00"));
+        sip.setTotalUnits(new BigDecimal("10"));
+        sip.setLastInvestmentDate(lastInvestment);
+        sips.put(id, sip);
+        return sip;
+    }
+
+    @Test
+    void process_investsDueSipsInChunksAndCompletes() {
+        for (long id = 1; id <= 7; id++) {
+            sip(id, "118989", LocalDate.of(2026, 9, 1));
+        }
+        Sip alreadyInvested = sip(8, "118989", LocalDate.of(2026, 10, 1));
+        sip(9, "000000", null);
+
+        SipInstallmentRun run = processor(3, 2).process(PERIOD, TODAY);
+
+        assertThat(run.getStatus()).isEqualTo(SipInstallmentRun.Status.COMPLETED);
+        assertThat(run.getPeriod()).isEqualTo("2026-10");
+        assertThat(run.getLastSipId()).isEqualTo(9);
+        assertThat(run.getProcessedCount()).isEqualTo(7);
+        assertThat(run.getSkippedCount()).isEqualTo(2);
+        assertThat(run.getFinishedAt()).isNotNull();
+        assertThat(sips.get(1L).getTotalUnits()).isEqualByComparingTo("60");
+        assertThat(sips.get(1L).getLastInvestmentDate()).isEqualTo(TODAY);
+        assertThat(alreadyInvested.getTotalUnits()).isEqualByComparingTo("10");
+        verify(transactionManager, times(3)).commit(any());
+        // Column updates only; the entity, and its encrypted name, is never loaded or saved
+        verify(sipRepository, never()).findAllById(any());
+        verify(sipRepository, never()).saveAll(any());
+        // Chunks may commit out of order, but the persisted cursor only ever moves forward
+        assertThat(cursorWrites).isSorted().endsWith(9L);
+    }
+
+    @Test
+    void process_resumesFromPersistedCursor() {
+        for (long id = 1; id <= 6; id++) {
+            sip(id, "118989", LocalDate.of(2026, 9, 1));
+        }
+        unfinishedRun("2026-10", SipInstallmentRun.Status.RUNNING, 4);
+
+        SipInstallmentRun run = processor(10, 1).process(PERIOD, TODAY);
+
+        assertThat(run.getRunId()).isEqualTo("run-2026-10");
+        assertThat(run.getStatus()).isEqualTo(SipInstallmentRun.Status.COMPLETED);
+        assertThat(run.getProcessedCount()).isEqualTo(6);
+        verify(sipRepository).findIdsAfter(eq(4L), any(Limit.class));
+        assertThat(sips.get(1L).getLastInvestmentDate()).isEqualTo(LocalDate.of(2026, 9, 1));
+        assertThat(sips.get(5L).getLastInvestmentDate()).isEqualTo(TODAY);
+    }
+
+    @Test
+    void process_completedMonthIsLeftAlone() {
+        SipInstallmentRun done = new SipInstallmentRun();
+        done.setPeriod("2026-10");
+        done.setStatus(SipInstallmentRun.Status.COMPLETED);
+        when(runRepository.findById("2026-10")).thenReturn(Optional.of(done));
+
+        assertThat(processor(10, 1).process(PERIOD, TODAY)).isSameAs(done);
+        verify(sipRepository, never()).findIdsAfter(anyLong(), any(Limit.class));
+        verify(runRepository, never()).save(any());
+    }
+
+    @Test
+    void process_failedCommitStopsRunWithCursorBeforeFailedChunk() {
+        for (long id = 1; id <= 6; id++) {
+            sip(id, "118989", LocalDate.of(2026, 9, 1));
+        }
+        doAnswer(inv -> applyInvestments(inv.getArgument(1)))
+                .doThrow(new DataAccessResourceFailureException("connection lost"))
+                .when(jdbcTemplate).batchUpdate(anyString(), anyList());
+
+        SipInstallmentRun run = processor(2, 1).process(PERIOD, TODAY);
+
+        assertThat(run.getStatus()).isEqualTo(SipInstallmentRun.Status.FAILED);
+        assertThat(run.getLastSipId()).isEqualTo(2);
+        assertThat(run.getProcessedCount()).isEqualTo(2);
+        assertThat(run.getError()).contains("connection lost");
+        // The chunk after the failed one is never started
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void process_sipErrorIsCountedWithoutFailingTheChunk() {
+        sip(1, "118989", LocalDate.of(2026, 9, 1)).setMonthlyAmount(null);
+        sip(2, "118989", LocalDate.of(2026, 9, 1));
+
+        SipInstallmentRun run = processor(10, 1).process(PERIOD, TODAY);
+
+        assertThat(run.getStatus()).isEqualTo(SipInstallmentRun.Status.COMPLETED);
+        assertThat(run.getFailedCount()).isEqualTo(1);
+        assertThat(run.getProcessedCount()).isEqualTo(1);
+        assertThat(sips.get(2L).getTotalUnits()).isEqualByComparingTo("60");
+    }
+
+    @Test
+    void process_sipInvestedMeanwhileIsSkippedByTheUpdate() {
+        sip(1, "118989", LocalDate.of(2026, 9, 1));
+        // Another run invests it between this one's read and its UPDATE
+        when(sipRepository.findInstallmentFieldsByIdIn(anyCollection())).thenAnswer(inv -> {
+            List<SipRepository.InstallmentSip> found = List.of(new SipRow(copyOf(sips.get(1L))));
+            sips.get(1L).setLastInvestmentDate(TODAY);
+            return found;
+        });
+
+        SipInstallmentRun run = processor(10, 1).process(PERIOD, TODAY);
+
+        assertThat(run.getProcessedCount()).isZero();
+        assertThat(run.getSkippedCount()).isEqualTo(1);
+        assertThat(sips.get(1L).getTotalUnits()).isEqualByComparingTo("10");
+    }
+
+    private static Sip copyOf(Sip source) {
+        Sip copy = new Sip();
+        copy.setId(source.getId());
+        copy.setSchemeCode(source.getSchemeCode());
+        copy.setMonthlyAmount(source.getMonthlyAmount());
+        copy.setStartDate(source.getStartDate());
+        copy.setLastInvestmentDate(source.getLastInvestmentDate());
+        return copy;
+    }
+
+    @Test
+    void resumeUnfinished_finishesAPastFailedMonthDatedItsLastDay() {
+        YearMonth lastMonth = YearMonth.now().minusMonths(1);
+        for (long id = 1; id <= 4; id++) {
+            sip(id, "118989", lastMonth.minusMonths(1).atDay(1));
+        }
+        // The failed run invested the first two before it stopped
+        sips.get(1L).setLastInvestmentDate(lastMonth.atDay(1));
+        sips.get(2L).setLastInvestmentDate(lastMonth.atDay(1));
+        SipInstallmentRun failedRun = unfinishedRun(lastMonth.toString(), SipInstallmentRun.Status.FAILED, 2);
+        when(runRepository.findByStatusNotOrderByPeriodAsc(SipInstallmentRun.Status.COMPLETED))
+                .thenReturn(List.of(failedRun));
+
+        List<SipInstallmentRun> resumed = processor(10, 1).resumeUnfinished();
+
+        assertThat(resumed).singleElement().satisfies(run -> {
+            assertThat(run.getPeriod()).isEqualTo(lastMonth.toString());
+            assertThat(run.getStatus()).isEqualTo(SipInstallmentRun.Status.COMPLETED);
+            assertThat(run.getProcessedCount()).isEqualTo(4);
+        });
+        verify(sipRepository).findIdsAfter(eq(2L), any(Limit.class));
+        assertThat(sips.get(3L).getLastInvestmentDate()).isEqualTo(lastMonth.atEndOfMonth());
+        assertThat(sips.get(4L).getTotalUnits()).isEqualByComparingTo("60");
+        // This month's installment is still due for every SIP
+        assertThat(sips.values()).allSatisfy(sip -> assertThat(SipInstallmentProcessor.isDue(
+                sip.getStartDate(), sip.getLastInvestmentDate(), LocalDate.now())).isTrue());
+    }
+
+    @Test
+    void resumeUnfinished_nothingUnfinishedDoesNothing() {
+        sip(1, "118989", null);
+
+        assertThat(processor(10, 1).resumeUnfinished()).isEmpty();
+        verify(sipRepository, never()).findIdsAfter(anyLong(), any(Limit.class));
+        verify(runRepository, never()).save(any());
+    }
+
+    @Test
+    void isDue_followsStartDateAndLastInvestmentMonth() {
+        assertThat(SipInstallmentProcessor.isDue(null, null, TODAY)).isTrue();
+        assertThat(SipInstallmentProcessor.isDue(TODAY.plusDays(1), null, TODAY)).isFalse();
+
+        assertThat(SipInstallmentProcessor.isDue(null, LocalDate.of(2025, 10, 15), TODAY)).isTrue();
+        assertThat(SipInstallmentProcessor.isDue(null, LocalDate.of(2026, 10, 1), TODAY)).isFalse();
+        // Already invested in a later month than the one being resumed
+        assertThat(SipInstallmentProcessor.isDue(null, LocalDate.of(2026, 11, 1), TODAY)).isFalse();
+    }
+}
@@ -9,11 +9,15 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -45,6 +49,15 @@ class SipServiceTest {
     @Mock
     private AmfiNavService amfiNavService;
 
+    @Mock
+    private PriceHistoryService priceHistoryService;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private SipInstallmentProcessor sipInstallmentProcessor;
+
     @InjectMocks
     private SipService sipService;
 
@@ -94,6 +107,11 @@ class SipServiceTest {
         return inv;
     }
 
+    // Typed, so the batchUpdate stubs and verifies compile without unchecked warnings
+    private static <T> ParameterizedPreparedStatementSetter<T> anySetter() {
+        return any();
+    }
+
     // ── getAllSips ────────────────────────────────────────────────────────────
 
     @Test
@@ -385,6 +403,7 @@ class SipServiceTest {
 
         sipService.updateCurrentNavs();
 
+        verifyNoInteractions(jdbcTemplate);
         verify(sipRepository, never()).save(any());
     }
 
@@ -394,66 +413,91 @@ class SipServiceTest {
 
         sipService.updateCurrentNavs();
 
-        verify(sipRepository, never()).save(any());
+        verifyNoInteractions(jdbcTemplate);
     }
 
     @Test
-    void updateCurrentNavs_navFound_updatesAndSaves() {
-        Sip s = buildSip(1L, USER_ID);
-        s.setSchemeCode("118989");
-
-        when(amfiNavService.getAllNavs()).thenReturn(Map.of("118989", new BigDecimal("90.00")));
-        when(sipRepository.findAll()).thenReturn(List.of(s));
-        when(sipRepository.save(any())).thenReturn(s);
+    void updateCurrentNavs_navFound_updatesHoldersInOneStatement() {
+        when(amfiNavService.getAllNavs()).thenReturn(Map.of(
+                "118989", new BigDecimal("90.00"), "120503", new BigDecimal("45.20"), "999999", BigDecimal.ONE));
+        heldSchemeCodes("118989", "120503");
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(3);
 
         sipService.updateCurrentNavs();
 
-        assertThat(s.getCurrentNav()).isEqualByComparingTo("90.00");
-        verify(sipRepository).save(s);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).update(contains("FROM (VALUES (?, CAST(? AS NUMERIC)), (?, CAST(? AS NUMERIC))) AS v"),
+                args.capture());
+        assertThat(args.getValue()).containsExactly(java.sql.Date.valueOf(LocalDate.now()),
+                "118989", new BigDecimal("90.00"), "120503", new BigDecimal("45.20"));
+        verify(sipRepository, never()).findAll();
+        verify(sipRepository, never()).save(any());
+        verify(priceHistoryService).record(
+                Map.of("118989", new BigDecimal("90.00"), "120503", new BigDecimal("45.20")), LocalDate.now());
     }
 
     @Test
     void updateCurrentNavs_navNotFound_skips() {
-        Sip s = buildSip(1L, USER_ID);
-        s.setSchemeCode("UNKNOWN");
-
         when(amfiNavService.getAllNavs()).thenReturn(Map.of("118989", new BigDecimal("90.00")));
-        when(sipRepository.findAll()).thenReturn(List.of(s));
+        heldSchemeCodes("UNKNOWN");
 
         sipService.updateCurrentNavs();
 
-        verify(sipRepository, never()).save(any());
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
     }
 
     @Test
-    void updateCurrentNavs_noSchemeCode_resolvesViaIsin() {
-        Sip s = buildSip(1L, USER_ID);
-        s.setSchemeCode(null);
-        s.setIsin("INF179K01VQ8");
-
+    void updateCurrentNavs_noSchemeCode_backfillsFromIsinBeforeUpdating() {
         when(amfiNavService.getAllNavs()).thenReturn(Map.of("118989", new BigDecimal("75.00")));
-        when(sipRepository.findAll()).thenReturn(List.of(s));
+        when(jdbcTemplate.queryForList(contains("SELECT DISTINCT isin"), eq(String.class)))
+                .thenReturn(List.of("INF179K01VQ8", "INF000X00000"));
         when(amfiNavService.lookupSchemeCodeByIsin("INF179K01VQ8")).thenReturn(Optional.of("118989"));
-        when(sipRepository.save(any())).thenReturn(s);
+        when(amfiNavService.lookupSchemeCodeByIsin("INF000X00000")).thenReturn(Optional.empty());
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), anySetter()))
+                .thenReturn(new int[][]{{1}});
+        heldSchemeCodes("118989");
 
         sipService.updateCurrentNavs();
 
-        assertThat(s.getSchemeCode()).isEqualTo("118989");
-        verify(sipRepository).save(s);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<String[]>> rows = ArgumentCaptor.forClass(List.class);
+        InOrder order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).batchUpdate(contains("SET scheme_code = ?"), rows.capture(), anyInt(),
+                anySetter());
+        order.verify(jdbcTemplate).update(contains("UPDATE sips AS s SET current_nav"), any(Object[].class));
+        assertThat(rows.getValue()).singleElement()
+                .satisfies(row -> assertThat(row).containsExactly("118989", "INF179K01VQ8"));
     }
 
     @Test
-    void updateCurrentNavs_noSchemeCodeAndNoIsin_skips() {
-        Sip s = buildSip(1L, USER_ID);
-        s.setSchemeCode(null);
-        s.setIsin(null);
-
+    void updateCurrentNavs_nothingToBackfill_skipsBatch() {
         when(amfiNavService.getAllNavs()).thenReturn(Map.of("118989", new BigDecimal("75.00")));
-        when(sipRepository.findAll()).thenReturn(List.of(s));
+        heldSchemeCodes("118989");
 
         sipService.updateCurrentNavs();
 
-        verify(sipRepository, never()).save(any());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyCollection(), anyInt(),
+                anySetter());
+    }
+
+    private void heldSchemeCodes(String... schemeCodes) {
+        when(jdbcTemplate.queryForList(contains("SELECT DISTINCT scheme_code"), eq(String.class)))
+                .thenReturn(List.of(schemeCodes));
+    }
+
+    @Test
+    void processMonthlyInvestments_delegatesToChunkedProcessor() {
+        sipService.processMonthlyInvestments();
+
+        verify(sipInstallmentProcessor).run();
+        verify(sipRepository, never()).findAll();
+    }
+
+    @Test
+    void resumeUnfinishedInvestments_delegatesToChunkedProcessor() {
+        sipService.resumeUnfinishedInvestments();
+
+        verify(sipInstallmentProcessor).resumeUnfinished();
     }
 
     // ── bulkDelete ────────────────────────────────────────────────────────────
@@ -461,23 +505,25 @@ class SipServiceTest {
     @Test
     void bulkDelete_skipsNotFound_countsDeleted() {
         Sip s = buildSip(2L, USER_ID);
-        when(sipRepository.findById(1L)).thenReturn(Optional.empty());
-        when(sipRepository.findById(2L)).thenReturn(Optional.of(s));
+        when(sipRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(s));
 
         int count = sipService.bulkDelete(List.of(1L, 2L));
 
         assertThat(count).isEqualTo(1);
-        verify(sipRepository, never()).deleteById(1L);
-        verify(sipRepository).deleteById(2L);
+        verify(sipRepository).deleteAllByIdInBatch(List.of(2L));
+        verify(ledgerService).recordEvents(argThat(entries -> entries.size() == 1
+                && entries.get(0).entityId().equals("2") && entries.get(0).actionType().equals("DELETE")), eq(String.valueOf(USER_ID)));
+        verify(sipRepository, never()).deleteById(any());
     }
 
     @Test
     void bulkDelete_differentOwner_throws() {
         Sip s = buildSip(1L, 999L);
-        when(sipRepository.findById(1L)).thenReturn(Optional.of(s));
+        when(sipRepository.findAllById(List.of(1L))).thenReturn(List.of(s));
 
         assertThatThrownBy(() -> sipService.bulkDelete(List.of(1L)))
                 .isInstanceOf(ResourceNotFoundException.class);
+        verify(sipRepository, never()).deleteAllByIdInBatch(any());
     }
 
     @Test
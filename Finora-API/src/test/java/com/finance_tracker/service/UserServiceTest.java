@@ -7,6 +7,9 @@ import com.finance_tracker.model.Role;
 import com.finance_tracker.model.User;
 import com.finance_tracker.repository.UserRepository;
 import com.finance_tracker.utils.security.JwtService;
+import com.finance_tracker.utils.security.DataKey;
+import com.finance_tracker.utils.security.VaultKeyContext;
+import org.springframework.security.access.AccessDeniedException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -14,6 +17,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
+import javax.crypto.spec.SecretKeySpec;
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -38,6 +42,9 @@ class UserServiceTest {
     @Mock
     private FieldEncryptionService encryptionService;
 
+    @Mock
+    private DataKeyService dataKeyService;
+
     @InjectMocks
     private UserService userService;
 
@@ -324,6 +331,24 @@ class UserServiceTest {
                 .isInstanceOf(ResourceNotFoundException.class);
     }
 
+    @Test
+    void requireAdmin_admin_passes() {
+        User user = buildUser(1L, "alice", "a@test.com");
+        user.setRole(Role.ADMIN);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        userService.requireAdmin(1L);
+    }
+
+    @Test
+    void requireAdmin_regularOrUnknownUser_throwsAccessDenied() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(buildUser(1L, "alice", "a@test.com")));
+        when(userRepository.findById(99L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> userService.requireAdmin(1L)).isInstanceOf(AccessDeniedException.class);
+        assertThatThrownBy(() -> userService.requireAdmin(99L)).isInstanceOf(AccessDeniedException.class);
+    }
+
     @Test
     void setActiveStatus_updatesAndReturns() {
         User user = buildUser(1L, "alice", "a@test.com");
@@ -450,6 +475,53 @@ class UserServiceTest {
         assertThat(user.getVaultSalt()).isNull();
     }
 
+    @Test
+    void disableVault_withBoundDataKey_rewrapsUnderServerKey() {
+        User user = buildUser(1L, "alice", "a@test.com");
+        user.setVaultEnabled(true);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.save(any())).thenReturn(user);
+        DataKey dataKey = new DataKey(1L, new SecretKeySpec(new byte[32], "AES"));
+        VaultKeyContext.setDataKey(dataKey);
+
+        try {
+            userService.disableVault(1L, new VaultDisableRequestDTO());
+        } finally {
+            VaultKeyContext.clear();
+        }
+
+        verify(dataKeyService).rewrap(dataKey, null);
+    }
+
+    @Test
+    void disableVault_encryptionOff_withoutDataKey_doesNotRewrap() {
+        User user = buildUser(1L, "alice", "a@test.com");
+        user.setVaultEnabled(true);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.save(any())).thenReturn(user);
+
+        userService.disableVault(1L, new VaultDisableRequestDTO());
+
+        verifyNoInteractions(dataKeyService);
+    }
+
+    @Test
+    void disableVault_withoutDataKey_isRejectedAndVaultStaysOn() {
+        User user = buildUser(1L, "alice", "a@test.com");
+        user.setVaultEnabled(true);
+        user.setVaultSalt("somesalt");
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(encryptionService.isEnabled()).thenReturn(true);
+
+        assertThatThrownBy(() -> userService.disableVault(1L, new VaultDisableRequestDTO()))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("X-Vault-Key");
+
+        assertThat(user.isVaultEnabled()).isTrue();
+        verify(userRepository, never()).save(any());
+        verifyNoInteractions(dataKeyService);
+    }
+
     @Test
     void disableVault_notEnabled_throws() {
         User user = buildUser(1L, "alice", "a@test.com");
@@ -89,17 +89,27 @@ class ExpenseImportServiceTest {
         return req;
     }
 
+    @SuppressWarnings("unchecked")
+    private Expense savedExpense() {
+        ArgumentCaptor<List<Expense>> captor = ArgumentCaptor.forClass(List.class);
+        verify(expenseService).saveExpenses(captor.capture());
+        return captor.getValue().get(0);
+    }
+
     @Test
     void confirmImport_allValid() {
         ExpenseImportRequest req = requestOf(
                 validEntry("Coffee", "Food"),
                 validEntry("Bus ticket", "Transport"));
 
+        when(expenseService.saveExpenses(anyList())).thenAnswer(inv -> inv.getArgument(0));
+
         ExpenseImportResultDTO result = expenseImportService.confirmImport(req);
 
         assertThat(result.getImported()).isEqualTo(2);
         assertThat(result.getSkipped()).isEqualTo(0);
-        verify(expenseService, times(2)).saveExpense(any());
+        verify(expenseService, times(1)).saveExpenses(argThat(list -> list.size() == 2));
+        verify(expenseService, never()).saveExpense(any());
     }
 
     @Test
@@ -153,9 +163,7 @@ class ExpenseImportServiceTest {
 
         expenseImportService.confirmImport(requestOf(e));
 
-        ArgumentCaptor<Expense> captor = ArgumentCaptor.forClass(Expense.class);
-        verify(expenseService).saveExpense(captor.capture());
-        assertThat(captor.getValue().getPaymentMethod()).isEqualTo("Net Banking");
+        assertThat(savedExpense().getPaymentMethod()).isEqualTo("Net Banking");
     }
 
     @Test
@@ -165,9 +173,7 @@ class ExpenseImportServiceTest {
 
         expenseImportService.confirmImport(requestOf(e));
 
-        ArgumentCaptor<Expense> captor = ArgumentCaptor.forClass(Expense.class);
-        verify(expenseService).saveExpense(captor.capture());
-        assertThat(captor.getValue().getDate()).isEqualTo(LocalDate.of(2024, 1, 15));
+        assertThat(savedExpense().getDate()).isEqualTo(LocalDate.of(2024, 1, 15));
     }
 
     @Test
@@ -177,13 +183,12 @@ class ExpenseImportServiceTest {
 
         expenseImportService.confirmImport(requestOf(e));
 
-        ArgumentCaptor<Expense> captor = ArgumentCaptor.forClass(Expense.class);
-        verify(expenseService).saveExpense(captor.capture());
-        assertThat(captor.getValue().getDate()).isEqualTo(LocalDate.now());
+        assertThat(savedExpense().getDate()).isEqualTo(LocalDate.now());
     }
 
     @Test
     void confirmImport_serviceExceptionCountsAsSkipped() {
+        doThrow(new RuntimeException("DB write failed")).when(expenseService).saveExpenses(anyList());
         doThrow(new RuntimeException("DB write failed")).when(expenseService).saveExpense(any());
         ExpenseImportRequest.ExpenseEntry e = validEntry("Coffee", "Food");
 
@@ -192,4 +197,35 @@ class ExpenseImportServiceTest {
         assertThat(result.getSkipped()).isEqualTo(1);
         assertThat(result.getImported()).isEqualTo(0);
     }
+
+    @Test
+    void confirmImport_mixedEntries_savesValidOnesInOneBatch() {
+        ExpenseImportRequest.ExpenseEntry invalid = validEntry("Lunch", "Food");
+        invalid.setAmount(null);
+        when(expenseService.saveExpenses(anyList())).thenAnswer(inv -> inv.getArgument(0));
+
+        ExpenseImportResultDTO result = expenseImportService.confirmImport(
+                requestOf(validEntry("Coffee", "Food"), invalid, validEntry("Taxi", "Transport")));
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getSkipped()).isEqualTo(1);
+        verify(expenseService).saveExpenses(argThat(list -> list.size() == 2));
+    }
+
+    @Test
+    void confirmImport_batchFailure_fallsBackToPerRowAndKeepsGoodRows() {
+        doThrow(new RuntimeException("value too long")).when(expenseService).saveExpenses(anyList());
+        when(expenseService.saveExpense(any())).thenAnswer(inv -> {
+            Expense expense = inv.getArgument(0);
+            if (expense.getDescription().equals("Bad row")) throw new RuntimeException("value too long");
+            return expense;
+        });
+
+        ExpenseImportResultDTO result = expenseImportService.confirmImport(
+                requestOf(validEntry("Coffee", "Food"), validEntry("Bad row", "Food"), validEntry("Taxi", "Transport")));
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getSkipped()).isEqualTo(1);
+        verify(expenseService, times(3)).saveExpense(argThat(e -> e.getId() == null));
+    }
 }
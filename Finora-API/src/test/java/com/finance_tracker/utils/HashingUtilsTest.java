@@ -1,8 +1,27 @@
 package com.finance_tracker.utils;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.finance_tracker.model.CompoundingFrequency;
+import com.finance_tracker.model.Expense;
+import com.finance_tracker.model.Investment;
+import com.finance_tracker.model.InvestmentType;
+import com.finance_tracker.model.Loan;
+import com.finance_tracker.model.LoanInterestType;
+import com.finance_tracker.model.Sip;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
@@ -44,6 +63,117 @@ class HashingUtilsTest {
         assertThat(hashingUtils.toCanonicalJson(42)).isEqualTo("42");
     }
 
+    @Test
+    void toCanonicalJson_bigDecimal_normalisedLikeTreeRoundTrip() {
+        assertThat(hashingUtils.toCanonicalJson(new BigDecimal("150.00"))).isEqualTo("1.5E+2");
+        assertThat(hashingUtils.toCanonicalJson(new BigDecimal("0.00"))).isEqualTo("0");
+        assertThat(hashingUtils.toCanonicalJson(new BigDecimal("-0.50"))).isEqualTo("-0.5");
+        assertThat(hashingUtils.toCanonicalJson(new BigDecimal("412.57"))).isEqualTo("412.57");
+    }
+
+    @Test
+    void toCanonicalJson_entities_byteIdenticalToTreeRoundTrip() throws Exception {
+        ObjectMapper legacy = new ObjectMapper();
+        legacy.registerModule(new JavaTimeModule());
+        legacy.configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+        legacy.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+
+        Random random = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            Map<String, Object> nested = new LinkedHashMap<>();
+            nested.put("zeta", decimal(random));
+            nested.put("alpha", Arrays.asList(decimal(random), "x", Map.of("b", 1, "a", 2)));
+            for (Object value : List.of(expense(random), investment(random), loan(random), sip(random), nested)) {
+                String expected = legacy.writeValueAsString(
+                        legacy.treeToValue(legacy.valueToTree(value), Object.class));
+                assertThat(hashingUtils.toCanonicalJson(value)).isEqualTo(expected);
+            }
+        }
+    }
+
+    private static BigDecimal decimal(Random random) {
+        return switch (random.nextInt(6)) {
+            case 0 -> null;
+            case 1 -> BigDecimal.ZERO.setScale(random.nextInt(4));
+            case 2 -> BigDecimal.valueOf(random.nextInt(1_000) * 100L, 2);
+            case 3 -> BigDecimal.valueOf(random.nextLong(-10_000_000, 10_000_000), random.nextInt(7));
+            case 4 -> BigDecimal.valueOf(random.nextInt(50) + 1).movePointRight(random.nextInt(8));
+            default -> new BigDecimal(random.nextDouble() * 1e6).setScale(random.nextInt(10), RoundingMode.HALF_UP);
+        };
+    }
+
+    private static LocalDate date(Random random) {
+        return random.nextInt(5) == 0 ? null : LocalDate.of(2015, 1, 1).plusDays(random.nextInt(4_000));
+    }
+
+    private static String text(Random random) {
+        return random.nextInt(5) == 0 ? null : "v3:\u00e9\"" + Long.toHexString(random.nextLong()) + "\\/₹";
+    }
+
+    private static Expense expense(Random random) {
+        Expense e = new Expense();
+        e.setId(random.nextLong(1, 1_000_000));
+        e.setDescription(text(random));
+        e.setAmount(decimal(random));
+        e.setDate(date(random));
+        e.setCategory(text(random));
+        e.setPaymentMethod(text(random));
+        e.setUserId(random.nextBoolean() ? null : 7L);
+        return e;
+    }
+
+    private static Investment investment(Random random) {
+        Investment inv = new Investment();
+        inv.setId(random.nextLong(1, 1_000_000));
+        inv.setName(text(random));
+        inv.setSymbol("RELIANCE.NS");
+        inv.setType(InvestmentType.values()[random.nextInt(InvestmentType.values().length)]);
+        inv.setQuantity(decimal(random));
+        inv.setPurchasePrice(decimal(random));
+        inv.setCurrentPrice(decimal(random));
+        inv.setPurchaseDate(date(random));
+        inv.setLastUpdated(date(random));
+        inv.setUserId(7L);
+        inv.setIsin(random.nextBoolean() ? null : "INE002A01018");
+        return inv;
+    }
+
+    private static Loan loan(Random random) {
+        Loan loan = new Loan();
+        loan.setId(random.nextLong(1, 1_000_000));
+        loan.setName(text(random));
+        loan.setPrincipalAmount(decimal(random));
+        loan.setInterestRate(decimal(random));
+        loan.setInterestType(random.nextBoolean() ? LoanInterestType.SIMPLE : LoanInterestType.COMPOUND);
+        loan.setCompoundingFrequency(random.nextBoolean() ? null : CompoundingFrequency.MONTHLY);
+        loan.setStartDate(date(random));
+        loan.setTenureMonths(random.nextBoolean() ? null : random.nextInt(1, 360));
+        loan.setEmiAmount(decimal(random));
+        loan.setCurrentBalance(decimal(random));
+        loan.setLastUpdated(date(random));
+        loan.setUserId(7L);
+        return loan;
+    }
+
+    private static Sip sip(Random random) {
+        Sip sip = new Sip();
+        sip.setId(random.nextLong(1, 1_000_000));
+        sip.setName(text(random));
+        sip.setSchemeCode("119551");
+        sip.setMonthlyAmount(decimal(random));
+        sip.setStartDate(date(random));
+        sip.setDurationMonths(random.nextBoolean() ? null : random.nextInt(1, 240));
+        sip.setCurrentNav(decimal(random));
+        sip.setTotalUnits(decimal(random));
+        sip.setLastUpdated(date(random));
+        sip.setLastInvestmentDate(date(random));
+        sip.setTotalInvested(decimal(random));
+        sip.setUserId(7L);
+        sip.setIsin(random.nextBoolean() ? null : "INF209K01YY7");
+        sip.setInvestmentId(random.nextBoolean() ? null : random.nextLong(1, 1_000));
+        return sip;
+    }
+
     // ── computeHash ───────────────────────────────────────────────────────────
 
     @Test
@@ -1,6 +1,7 @@
 package com.finance_tracker.utils.converter;
 
 import com.finance_tracker.service.FieldEncryptionService;
+import com.finance_tracker.utils.security.DataKey;
 import com.finance_tracker.utils.security.VaultKeyContext;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
@@ -9,7 +10,13 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import javax.crypto.spec.SecretKeySpec;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -33,14 +40,32 @@ class EncryptedStringConverterTest {
     }
 
     @Test
-    void convertToDatabaseColumn_encryptsWithVaultKey() {
+    void convertToDatabaseColumn_encryptionDisabled_storesPlaintext() {
+        when(encryptionService.isEnabled()).thenReturn(false);
+
+        assertThat(converter.convertToDatabaseColumn("sensitive")).isEqualTo("sensitive");
+        verify(encryptionService, never()).encrypt(anyString(), any());
+    }
+
+    @Test
+    void convertToDatabaseColumn_withoutDataKey_refusesServerKeyFallback() {
+        when(encryptionService.isEnabled()).thenReturn(true);
         VaultKeyContext.set("my-vault-key");
-        when(encryptionService.encrypt("sensitive", "my-vault-key")).thenReturn("encrypted");
 
-        String result = converter.convertToDatabaseColumn("sensitive");
+        assertThatThrownBy(() -> converter.convertToDatabaseColumn("sensitive"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("No data key");
+        verify(encryptionService, never()).encrypt(anyString(), any());
+    }
+
+    @Test
+    void convertToDatabaseColumn_withDataKey_usesEnvelopeEncryption() {
+        DataKey dataKey = new DataKey(1L, new SecretKeySpec(new byte[32], "AES"));
+        VaultKeyContext.setDataKey(dataKey);
+        when(encryptionService.isEnabled()).thenReturn(true);
+        when(encryptionService.encryptWithDataKey("sensitive", dataKey)).thenReturn("v3:envelope");
 
-        assertThat(result).isEqualTo("encrypted");
-        verify(encryptionService).encrypt("sensitive", "my-vault-key");
+        assertThat(converter.convertToDatabaseColumn("sensitive")).isEqualTo("v3:envelope");
     }
 
     @Test
@@ -1,5 +1,6 @@
 package com.finance_tracker.utils.scheduler;
 
+import com.finance_tracker.service.EncryptionMigrationService;
 import com.finance_tracker.service.LoanService;
 import com.finance_tracker.service.SipService;
 import org.junit.jupiter.api.Test;
@@ -20,6 +21,9 @@ class FinanceDataUpdateSchedulerTest {
     @Mock
     private LoanService loanService;
 
+    @Mock
+    private EncryptionMigrationService encryptionMigrationService;
+
     @InjectMocks
     private FinanceDataUpdateScheduler scheduler;
 
@@ -35,6 +39,18 @@ class FinanceDataUpdateSchedulerTest {
         scheduler.processMonthlySipInvestments(); // must not throw
     }
 
+    @Test
+    void resumeUnfinishedSipInvestments_delegatesToSipService() {
+        scheduler.resumeUnfinishedSipInvestments();
+        verify(sipService).resumeUnfinishedInvestments();
+    }
+
+    @Test
+    void resumeUnfinishedSipInvestments_swallowsException() {
+        doThrow(new RuntimeException("db down")).when(sipService).resumeUnfinishedInvestments();
+        scheduler.resumeUnfinishedSipInvestments(); // must not throw
+    }
+
     @Test
     void updateLoanBalances_delegatesToLoanService() {
         scheduler.updateLoanBalances();
@@ -46,4 +62,16 @@ class FinanceDataUpdateSchedulerTest {
         doThrow(new RuntimeException("DB timeout")).when(loanService).updateLoanBalances();
         scheduler.updateLoanBalances(); // must not throw
     }
+
+    @Test
+    void migrateLegacyEncryption_delegatesToMigrationService() {
+        scheduler.migrateLegacyEncryption();
+        verify(encryptionMigrationService).migrateAll();
+    }
+
+    @Test
+    void migrateLegacyEncryption_swallowsException() {
+        doThrow(new RuntimeException("db down")).when(encryptionMigrationService).migrateAll();
+        scheduler.migrateLegacyEncryption(); // must not throw
+    }
 }
@@ -0,0 +1,67 @@
+package com.finance_tracker.utils.scheduler;
+
+import com.finance_tracker.repository.LedgerOutboxRepository;
+import com.finance_tracker.service.LedgerService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerOutboxWriterTest {
+
+    @Mock
+    private LedgerService ledgerService;
+
+    @Mock
+    private LedgerOutboxRepository outboxRepository;
+
+    @InjectMocks
+    private LedgerOutboxWriter writer;
+
+    @Test
+    void drain_appendsEachUsersQueueUntilShortBatch() {
+        when(outboxRepository.findPendingUserIds()).thenReturn(List.of("1", "2"));
+        when(ledgerService.appendPending("1", 200)).thenReturn(200, 15);
+        when(ledgerService.appendPending("2", 200)).thenReturn(4);
+
+        writer.drain();
+
+        verify(ledgerService, times(2)).appendPending("1", 200);
+        verify(ledgerService).appendPending("2", 200);
+        assertThat(writer.getAppendedCount()).isEqualTo(219);
+    }
+
+    @Test
+    void drain_failureForOneUser_leavesItQueuedAndContinues() {
+        when(outboxRepository.findPendingUserIds()).thenReturn(List.of("1", "2"));
+        when(ledgerService.appendPending("1", 200)).thenThrow(new RuntimeException("lock timeout"));
+        when(ledgerService.appendPending("2", 200)).thenReturn(1);
+
+        writer.drain(); // must not throw
+
+        assertThat(writer.getFailureCount()).isEqualTo(1);
+        assertThat(writer.getAppendedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void drainOnStartup_runsADrain() {
+        when(outboxRepository.findPendingUserIds()).thenReturn(List.of());
+
+        writer.drainOnStartup();
+
+        verify(outboxRepository).findPendingUserIds();
+        verify(ledgerService, never()).appendPending(anyString(), anyInt());
+    }
+}
@@ -0,0 +1,104 @@
+package com.finance_tracker.utils.security;
+
+import com.finance_tracker.model.Role;
+import com.finance_tracker.model.User;
+import com.finance_tracker.repository.UserRepository;
+import com.finance_tracker.service.LoanBalanceSweep;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ActuatorSecurityTest {
+
+    private static final long ADMIN_ID = 1L;
+    private static final long USER_ID = 2L;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @MockitoBean
+    private UserRepository userRepository;
+
+    // Keeps the startup sweep from racing the readiness probe
+    @MockitoBean
+    private LoanBalanceSweep loanBalanceSweep;
+
+    @BeforeEach
+    void setUp() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(userRepository.findById(ADMIN_ID)).thenReturn(Optional.of(user(Role.ADMIN)));
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user(Role.USER)));
+        when(loanBalanceSweep.getStatus()).thenReturn(Map.of("state", "completed"));
+    }
+
+    private static User user(Role role) {
+        User user = new User();
+        user.setRole(role);
+        return user;
+    }
+
+    private String bearer(long userId) {
+        return "Bearer " + jwtService.generateToken(userId);
+    }
+
+    @Test
+    void health_isPublicForProbes() throws Exception {
+        mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/health/readiness")).andExpect(status().isOk());
+    }
+
+    @Test
+    void readiness_showsNoSweepDetailsPublicly() throws Exception {
+        mockMvc.perform(get("/actuator/health/readiness"))
+                .andExpect(jsonPath("$.status").exists())
+                .andExpect(jsonPath("$.components").doesNotExist());
+    }
+
+    @Test
+    void metrics_requiresAdmin() throws Exception {
+        mockMvc.perform(get("/actuator/metrics")).andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/metrics").header("Authorization", bearer(USER_ID)))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/metrics").header("Authorization", bearer(ADMIN_ID)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void ledgerAudit_requiresAdmin() throws Exception {
+        mockMvc.perform(get("/actuator/ledgeraudit")).andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/ledgeraudit").header("Authorization", bearer(USER_ID)))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/ledgeraudit").header("Authorization", bearer(ADMIN_ID)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void loanBalanceSweep_requiresAdmin() throws Exception {
+        mockMvc.perform(get("/actuator/loanbalancesweep")).andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/loanbalancesweep").header("Authorization", bearer(USER_ID)))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/loanbalancesweep").header("Authorization", bearer(ADMIN_ID)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state").exists());
+    }
+}
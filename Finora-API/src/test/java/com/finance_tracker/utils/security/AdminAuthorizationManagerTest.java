@@ -0,0 +1,73 @@
+package com.finance_tracker.utils.security;
+
+import com.finance_tracker.model.Role;
+import com.finance_tracker.model.User;
+import com.finance_tracker.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AdminAuthorizationManagerTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private AdminAuthorizationManager manager;
+
+    private static Authentication token(String name) {
+        return new UsernamePasswordAuthenticationToken(name, null, Collections.emptyList());
+    }
+
+    private static User user(Role role) {
+        User user = new User();
+        user.setRole(role);
+        return user;
+    }
+
+    @Test
+    void authorize_adminUser_granted() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user(Role.ADMIN)));
+
+        assertThat(manager.authorize(() -> token("1"), null).isGranted()).isTrue();
+    }
+
+    @Test
+    void authorize_regularUser_denied() {
+        when(userRepository.findById(2L)).thenReturn(Optional.of(user(Role.USER)));
+
+        assertThat(manager.authorize(() -> token("2"), null).isGranted()).isFalse();
+    }
+
+    @Test
+    void authorize_unknownUser_denied() {
+        when(userRepository.findById(3L)).thenReturn(Optional.empty());
+
+        assertThat(manager.authorize(() -> token("3"), null).isGranted()).isFalse();
+    }
+
+    @Test
+    void authorize_anonymous_deniedWithoutLookup() {
+        Authentication anonymous = new AnonymousAuthenticationToken("key", "anonymousUser",
+                AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS"));
+
+        assertThat(manager.authorize(() -> anonymous, null).isGranted()).isFalse();
+        assertThat(manager.authorize(() -> null, null).isGranted()).isFalse();
+        assertThat(manager.authorize(() -> token("not-a-number"), null).isGranted()).isFalse();
+        verifyNoInteractions(userRepository);
+    }
+}
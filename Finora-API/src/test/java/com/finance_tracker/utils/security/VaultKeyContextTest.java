@@ -3,6 +3,8 @@ package com.finance_tracker.utils.security;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
+import javax.crypto.spec.SecretKeySpec;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 class VaultKeyContextTest {
@@ -30,6 +32,20 @@ class VaultKeyContextTest {
         assertThat(VaultKeyContext.get()).isNull();
     }
 
+    @Test
+    void setDataKey_thenGet_returnsKey() {
+        DataKey dataKey = new DataKey(1L, new SecretKeySpec(new byte[32], "AES"));
+        VaultKeyContext.setDataKey(dataKey);
+        assertThat(VaultKeyContext.getDataKey()).isSameAs(dataKey);
+    }
+
+    @Test
+    void clear_removesDataKey() {
+        VaultKeyContext.setDataKey(new DataKey(1L, new SecretKeySpec(new byte[32], "AES")));
+        VaultKeyContext.clear();
+        assertThat(VaultKeyContext.getDataKey()).isNull();
+    }
+
     @Test
     void isPresent_withKey_returnsTrue() {
         VaultKeyContext.set("my-key");
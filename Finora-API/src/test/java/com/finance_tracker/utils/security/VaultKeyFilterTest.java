@@ -1,15 +1,25 @@
 package com.finance_tracker.utils.security;
 
+import com.finance_tracker.service.DataKeyService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.util.Collections;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -24,11 +34,65 @@ class VaultKeyFilterTest {
     @Mock
     private FilterChain chain;
 
-    private final VaultKeyFilter filter = new VaultKeyFilter();
+    @Mock
+    private ObjectProvider<DataKeyService> dataKeyServiceProvider;
+
+    @Mock
+    private DataKeyService dataKeyService;
+
+    @InjectMocks
+    private VaultKeyFilter filter;
 
     @AfterEach
     void clearContext() {
         VaultKeyContext.clear();
+        SecurityContextHolder.clearContext();
+    }
+
+    private void setAuth(String userId) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(userId, null, Collections.emptyList()));
+    }
+
+    @Test
+    void doFilterInternal_authenticated_bindsDataKeyForChain() throws Exception {
+        setAuth("7");
+        DataKey dataKey = new DataKey(7L, new SecretKeySpec(new byte[32], "AES"));
+        when(request.getHeader("X-Vault-Key")).thenReturn("vault");
+        when(dataKeyServiceProvider.getIfAvailable()).thenReturn(dataKeyService);
+        when(dataKeyService.resolveForRequest(7L, "vault")).thenReturn(dataKey);
+        DataKey[] seen = new DataKey[1];
+        doAnswer(inv -> {
+            seen[0] = VaultKeyContext.getDataKey();
+            return null;
+        }).when(chain).doFilter(request, response);
+
+        filter.doFilterInternal(request, response, chain);
+
+        assertThat(seen[0]).isSameAs(dataKey);
+        assertThat(VaultKeyContext.getDataKey()).isNull();
+    }
+
+    @Test
+    void doFilterInternal_dataKeyLookupFails_chainStillRuns() throws Exception {
+        setAuth("7");
+        when(dataKeyServiceProvider.getIfAvailable()).thenReturn(dataKeyService);
+        when(dataKeyService.resolveForRequest(eq(7L), any())).thenThrow(new RuntimeException("db down"));
+
+        filter.doFilterInternal(request, response, chain);
+
+        verify(chain).doFilter(request, response);
+    }
+
+    @Test
+    void doFilterInternal_nonNumericPrincipal_skipsDataKey() throws Exception {
+        setAuth("anonymousUser");
+        when(dataKeyServiceProvider.getIfAvailable()).thenReturn(dataKeyService);
+
+        filter.doFilterInternal(request, response, chain);
+
+        verifyNoInteractions(dataKeyService);
+        verify(chain).doFilter(request, response);
     }
 
     @Test
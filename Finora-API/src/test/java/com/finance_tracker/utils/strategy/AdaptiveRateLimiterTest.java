@@ -0,0 +1,76 @@
+package com.finance_tracker.utils.strategy;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveRateLimiterTest {
+
+    private long now = 0;
+    private final AdaptiveRateLimiter limiter =
+            new AdaptiveRateLimiter("Test", new AdaptiveRateLimiter.RateLimit(2, 3), () -> now);
+
+    private void advance(Duration duration) {
+        now += duration.toNanos();
+    }
+
+    @Test
+    void tryAcquire_allowsBurstThenRefillsAtRate() {
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+
+        advance(Duration.ofMillis(500));
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void onRateLimited_pausesForRetryAfterAndHalvesRate() {
+        limiter.onRateLimited(Duration.ofSeconds(10));
+
+        assertThat(limiter.getRate()).isEqualTo(1.0);
+        advance(Duration.ofSeconds(9));
+        assertThat(limiter.tryAcquire()).isFalse();
+        advance(Duration.ofSeconds(1));
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void onRateLimited_withoutHint_pausesUntilBucketWouldRefill() {
+        limiter.onRateLimited(null);
+
+        // Three tokens at the halved rate of one a second
+        advance(Duration.ofMillis(2900));
+        assertThat(limiter.tryAcquire()).isFalse();
+        advance(Duration.ofMillis(100));
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void rate_neverDropsBelowFloorAndRecoversOnSuccess() {
+        for (int i = 0; i < 10; i++) {
+            limiter.onRateLimited(Duration.ZERO);
+        }
+        assertThat(limiter.getRate()).isEqualTo(2.0 / 16);
+
+        for (int i = 0; i < 40; i++) {
+            limiter.onSuccess();
+        }
+        assertThat(limiter.getRate()).isEqualTo(2.0);
+    }
+
+    @Test
+    void tryAcquire_neverBlocks() {
+        limiter.onRateLimited(Duration.ofHours(1));
+
+        long started = System.nanoTime();
+        assertThat(limiter.tryAcquire()).isFalse();
+        assertThat(System.nanoTime() - started).isLessThan(TimeUnit.MILLISECONDS.toNanos(100));
+    }
+}
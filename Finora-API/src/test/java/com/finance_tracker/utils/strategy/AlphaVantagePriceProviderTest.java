@@ -1,9 +1,15 @@
 package com.finance_tracker.utils.strategy;
 
 import com.finance_tracker.model.InvestmentType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 class AlphaVantagePriceProviderTest {
@@ -39,4 +45,29 @@ class AlphaVantagePriceProviderTest {
         AlphaVantagePriceProvider p = providerWithKey("");
         assertThat(p.fetchPrice("RELIANCE.NS", InvestmentType.STOCK)).isNull();
     }
+
+    @Test
+    void getMaxBatchSize_singleUnlessBulkQuotesEnabled() {
+        AlphaVantagePriceProvider p = providerWithKey("key");
+        assertThat(p.getMaxBatchSize()).isEqualTo(1);
+
+        ReflectionTestUtils.setField(p, "bulkQuotes", true);
+        assertThat(p.getMaxBatchSize()).isEqualTo(100);
+    }
+
+    @Test
+    void parseBulkQuotes_mapsBseSymbolsBackToEveryRequestedSpelling() throws Exception {
+        JsonNode root = new ObjectMapper().readTree("""
+                {"data":[
+                  {"symbol":"RELIANCE.BSE","close":"2450.5000"},
+                  {"symbol":"TCS.BSE","close":""}
+                ]}""");
+
+        Map<String, BigDecimal> prices = AlphaVantagePriceProvider.parseBulkQuotes(root, Map.of(
+                "RELIANCE.BSE", List.of("RELIANCE.NS", "RELIANCE.BO"),
+                "TCS.BSE", List.of("TCS.NS")));
+
+        assertThat(prices).containsOnlyKeys("RELIANCE.NS", "RELIANCE.BO");
+        assertThat(prices.get("RELIANCE.BO")).isEqualByComparingTo("2450.5");
+    }
 }
@@ -0,0 +1,75 @@
+package com.finance_tracker.utils.strategy;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+
+    private long now = 0;
+    private final CircuitBreaker breaker = new CircuitBreaker("Test", 3, Duration.ofSeconds(30), () -> now);
+
+    private void fail(int times) {
+        for (int i = 0; i < times; i++) {
+            assertThat(breaker.tryAcquire()).isTrue();
+            breaker.onFailure();
+        }
+    }
+
+    @Test
+    void opensAfterConsecutiveFailures() {
+        fail(2);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        fail(1);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void successResetsFailureCount() {
+        fail(2);
+        breaker.onSuccess();
+        fail(2);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void afterOpenDuration_letsOneTrialThrough() {
+        fail(3);
+        now += Duration.ofSeconds(30).toNanos();
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+
+        breaker.onSuccess();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void failedTrial_reopensForAnotherFullPeriod() {
+        fail(3);
+        now += Duration.ofSeconds(30).toNanos();
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onFailure();
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        now += Duration.ofSeconds(29).toNanos();
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void releasedTrial_letsTheNextCallerTry() {
+        fail(3);
+        now += Duration.ofSeconds(30).toNanos();
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.release();
+
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+}
@@ -0,0 +1,53 @@
+package com.finance_tracker.utils.strategy;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyHistogramTest {
+
+    @Test
+    void percentile_emptyIsNull() {
+        assertThat(new LatencyHistogram(100).percentile(0.95)).isNull();
+    }
+
+    @Test
+    void percentile_returnsBucketBoundWithinNineteenPercent() {
+        LatencyHistogram histogram = new LatencyHistogram(1000);
+        for (int i = 0; i < 95; i++) {
+            histogram.record(Duration.ofMillis(100));
+        }
+        for (int i = 0; i < 5; i++) {
+            histogram.record(Duration.ofSeconds(5));
+        }
+
+        assertThat(histogram.percentile(0.5).toMillis()).isBetween(100L, 119L);
+        assertThat(histogram.percentile(0.95).toMillis()).isBetween(100L, 119L);
+        assertThat(histogram.percentile(0.99).toMillis()).isBetween(5000L, 5946L);
+    }
+
+    @Test
+    void record_halvesCountsOnceDecayThresholdReached() {
+        LatencyHistogram histogram = new LatencyHistogram(10);
+        for (int i = 0; i < 10; i++) {
+            histogram.record(Duration.ofMillis(100));
+        }
+        assertThat(histogram.count()).isEqualTo(5);
+
+        // Recent slow calls now outweigh the halved history
+        for (int i = 0; i < 4; i++) {
+            histogram.record(Duration.ofSeconds(2));
+        }
+        assertThat(histogram.percentile(0.5).toMillis()).isBetween(100L, 119L);
+        assertThat(histogram.percentile(0.6).toMillis()).isBetween(2000L, 2379L);
+    }
+
+    @Test
+    void buckets_coverSubMillisecondAndVeryLongCalls() {
+        assertThat(LatencyHistogram.bucketFor(0)).isZero();
+        assertThat(LatencyHistogram.upperBoundMillis(LatencyHistogram.bucketFor(100))).isGreaterThanOrEqualTo(100);
+        assertThat(LatencyHistogram.bucketFor(Duration.ofHours(1).toMillis())).isEqualTo(63);
+    }
+}
@@ -9,15 +9,50 @@ import org.mockito.quality.Strictness;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 @MockitoSettings(strictness = Strictness.LENIENT)
 class PriceProviderServiceTest {
 
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-10-12T05:00:00Z")); // Monday 10:30 IST
+    private final QuoteCache quoteCache = new QuoteCache(100, Duration.ofMinutes(1), Duration.ofHours(12),
+            Duration.ofHours(6), clock);
+
+    private PriceProviderService service(java.util.List<PriceProviderStrategy> providers) {
+        return new PriceProviderService(providers, quoteCache, 3, Duration.ofSeconds(30),
+                false, 0.95, Duration.ofMillis(250), Duration.ofSeconds(2));
+    }
+
+    private PriceProviderService hedgingService(java.util.List<PriceProviderStrategy> providers, Duration minDelay,
+                                                Duration defaultDelay) {
+        return new PriceProviderService(providers, quoteCache, 3, Duration.ofSeconds(30),
+                true, 0.95, minDelay, defaultDelay);
+    }
+
     private PriceProviderStrategy provider(boolean available, BigDecimal price) {
         PriceProviderStrategy p = mock(PriceProviderStrategy.class);
         when(p.isAvailable()).thenReturn(available);
@@ -31,7 +66,7 @@ class PriceProviderServiceTest {
     @Test
     void fetchPrice_returnsFirstPositiveResult() {
         PriceProviderStrategy p = provider(true, new BigDecimal("2450.00"));
-        PriceProviderService service = new PriceProviderService(java.util.List.of(p));
+        PriceProviderService service = service(java.util.List.of(p));
 
         BigDecimal price = service.fetchPrice("RELIANCE.NS", InvestmentType.STOCK);
         assertThat(price).isEqualByComparingTo("2450.00");
@@ -44,7 +79,7 @@ class PriceProviderServiceTest {
 
         PriceProviderStrategy available = provider(true, new BigDecimal("100.00"));
 
-        PriceProviderService service = new PriceProviderService(java.util.List.of(unavailable, available));
+        PriceProviderService service = service(java.util.List.of(unavailable, available));
         assertThat(service.fetchPrice("RELIANCE.NS", InvestmentType.STOCK)).isEqualByComparingTo("100.00");
     }
 
@@ -53,14 +88,14 @@ class PriceProviderServiceTest {
         PriceProviderStrategy first = provider(true, null);
         PriceProviderStrategy second = provider(true, new BigDecimal("200.00"));
 
-        PriceProviderService service = new PriceProviderService(java.util.List.of(first, second));
+        PriceProviderService service = service(java.util.List.of(first, second));
         assertThat(service.fetchPrice("RELIANCE.NS", InvestmentType.STOCK)).isEqualByComparingTo("200.00");
     }
 
     @Test
     void fetchPrice_returnsNullWhenAllFail() {
         PriceProviderStrategy p = provider(true, null);
-        PriceProviderService service = new PriceProviderService(java.util.List.of(p));
+        PriceProviderService service = service(java.util.List.of(p));
 
         assertThat(service.fetchPrice("RELIANCE.NS", InvestmentType.STOCK)).isNull();
     }
@@ -75,7 +110,362 @@ class PriceProviderServiceTest {
 
         PriceProviderStrategy fallback = provider(true, new BigDecimal("999.00"));
 
-        PriceProviderService service = new PriceProviderService(java.util.List.of(throwing, fallback));
+        PriceProviderService service = service(java.util.List.of(throwing, fallback));
         assertThat(service.fetchPrice("RELIANCE.NS", InvestmentType.STOCK)).isEqualByComparingTo("999.00");
     }
+
+    @Test
+    void fetchPrice_capsInFlightRequestsPerProvider() throws Exception {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        PriceProviderStrategy p = mock(PriceProviderStrategy.class);
+        when(p.isAvailable()).thenReturn(true);
+        when(p.getMaxConcurrentRequests()).thenReturn(2);
+        when(p.getRateLimit()).thenReturn(new AdaptiveRateLimiter.RateLimit(1000, 100));
+        when(p.fetchPrice(anyString(), any())).thenAnswer(inv -> {
+            peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            inFlight.decrementAndGet();
+            return new BigDecimal("1.00");
+        });
+        PriceProviderService service = service(java.util.List.of(p));
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            // Distinct symbols, so a quote cached by an early call cannot answer a later one
+            for (int i = 0; i < 12; i++) {
+                String symbol = "S" + i + ".NS";
+                executor.submit(() -> service.fetchPrice(symbol, InvestmentType.STOCK));
+            }
+        }
+
+        assertThat(peak.get()).isEqualTo(2);
+        verify(p, times(12)).fetchPrice(anyString(), any());
+    }
+
+    @Test
+    void fetchPrice_rateLimitedProvider_isSkippedUntilItsPauseEnds() {
+        PriceProviderStrategy throttled = provider(true, null);
+        when(throttled.getProviderName()).thenReturn("Throttled");
+        when(throttled.fetchPrice(anyString(), any()))
+                .thenThrow(new RateLimitedException("429", Duration.ofMinutes(1)));
+        PriceProviderStrategy fallback = mock(PriceProviderStrategy.class);
+        when(fallback.isAvailable()).thenReturn(true);
+        when(fallback.getProviderName()).thenReturn("Fallback");
+        when(fallback.fetchPrice(anyString(), any())).thenReturn(BigDecimal.TEN);
+        PriceProviderService service = service(java.util.List.of(throttled, fallback));
+
+        assertThat(service.fetchPrice("RELIANCE.NS", InvestmentType.STOCK)).isEqualByComparingTo("10");
+        assertThat(service.fetchPrice("TCS.NS", InvestmentType.STOCK)).isEqualByComparingTo("10");
+
+        verify(throttled, times(1)).fetchPrice(anyString(), any());
+        // Throttling is not a health problem, so the breaker stays closed
+        assertThat(service.getProviderHealth().get("Throttled")).containsEntry("circuit", "CLOSED");
+        assertThat((double) service.getProviderHealth().get("Throttled").get("requestsPerSecond")).isEqualTo(2.5);
+    }
+
+    @Test
+    void fetchPrice_failingProvider_tripsCircuitAndIsNoLongerCalled() {
+        PriceProviderStrategy failing = mock(PriceProviderStrategy.class);
+        when(failing.isAvailable()).thenReturn(true);
+        when(failing.getProviderName()).thenReturn("Failing");
+        when(failing.fetchPrice(anyString(), any())).thenThrow(new IllegalStateException("HTTP 503"));
+        PriceProviderStrategy fallback = mock(PriceProviderStrategy.class);
+        when(fallback.isAvailable()).thenReturn(true);
+        when(fallback.getProviderName()).thenReturn("Fallback");
+        when(fallback.fetchPrice(anyString(), any())).thenReturn(BigDecimal.ONE);
+        PriceProviderService service = service(java.util.List.of(failing, fallback));
+
+        for (String symbol : java.util.List.of("A.NS", "B.NS", "C.NS", "D.NS", "E.NS")) {
+            assertThat(service.fetchPrice(symbol, InvestmentType.STOCK)).isEqualByComparingTo("1");
+        }
+
+        verify(failing, times(3)).fetchPrice(anyString(), any());
+        assertThat(service.getProviderHealth().get("Failing")).containsEntry("circuit", "OPEN");
+    }
+
+    @Test
+    void hedging_slowPrimary_fallbackAnswersAndPrimaryIsCancelled() throws Exception {
+        CountDownLatch never = new CountDownLatch(1);
+        CountDownLatch primaryInterrupted = new CountDownLatch(1);
+        PriceProviderStrategy slow = mock(PriceProviderStrategy.class);
+        when(slow.isAvailable()).thenReturn(true);
+        when(slow.getProviderName()).thenReturn("Slow");
+        when(slow.fetchPrice(anyString(), any())).thenAnswer(inv -> {
+            try {
+                never.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                primaryInterrupted.countDown();
+            }
+            return BigDecimal.ONE;
+        });
+        PriceProviderStrategy fast = mock(PriceProviderStrategy.class);
+        when(fast.isAvailable()).thenReturn(true);
+        when(fast.getProviderName()).thenReturn("Fast");
+        when(fast.fetchPrice(anyString(), any())).thenReturn(BigDecimal.TWO);
+        PriceProviderService service = hedgingService(java.util.List.of(slow, fast),
+                Duration.ofMillis(10), Duration.ofMillis(50));
+
+        long started = System.nanoTime();
+        assertThat(service.fetchPrice("RELIANCE.NS", InvestmentType.STOCK)).isEqualByComparingTo("2");
+
+        assertThat(System.nanoTime() - started).isLessThan(TimeUnit.SECONDS.toNanos(2));
+        assertThat(primaryInterrupted.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(service.getProviderHealth().get("Slow"))
+                .containsEntry("hedged", 1L)
+                .containsEntry("hedgesLost", 1L);
+    }
+
+    @Test
+    void hedging_primaryAnswersInTime_fallbackNeverCalled() {
+        PriceProviderStrategy primary = provider(true, new BigDecimal("2450.00"));
+        PriceProviderStrategy fallback = mock(PriceProviderStrategy.class);
+        when(fallback.isAvailable()).thenReturn(true);
+        when(fallback.getProviderName()).thenReturn("Fallback");
+        PriceProviderService service = hedgingService(java.util.List.of(primary, fallback),
+                Duration.ofMillis(10), Duration.ofSeconds(2));
+
+        assertThat(service.fetchPrice("RELIANCE.NS", InvestmentType.STOCK)).isEqualByComparingTo("2450.00");
+
+        verify(fallback, never()).fetchPrice(anyString(), any());
+        assertThat(service.getProviderHealth().get("MockProvider")).containsEntry("hedged", 0L);
+    }
+
+    @Test
+    void hedging_raceIsPerBatch_manyBatchesInTimeNeverHedge() {
+        PriceProviderStrategy primary = mock(PriceProviderStrategy.class);
+        when(primary.isAvailable()).thenReturn(true);
+        when(primary.getProviderName()).thenReturn("Batcher");
+        when(primary.getMaxBatchSize()).thenReturn(2);
+        when(primary.getRateLimit()).thenReturn(new AdaptiveRateLimiter.RateLimit(1000, 100));
+        when(primary.fetchPrices(anyCollection(), any())).thenAnswer(inv -> {
+            Thread.sleep(40);
+            Map<String, BigDecimal> prices = new HashMap<>();
+            inv.<Collection<String>>getArgument(0).forEach(symbol -> prices.put(symbol, BigDecimal.TEN));
+            return prices;
+        });
+        PriceProviderStrategy fallback = mock(PriceProviderStrategy.class);
+        when(fallback.isAvailable()).thenReturn(true);
+        when(fallback.getProviderName()).thenReturn("Fallback");
+        PriceProviderService service = hedgingService(java.util.List.of(primary, fallback),
+                Duration.ofMillis(10), Duration.ofMillis(500));
+
+        // Five batches take well over the delay in total, but each one answers within it
+        Map<String, BigDecimal> prices = service.fetchPrices(java.util.List.of(
+                "A.NS", "B.NS", "C.NS", "D.NS", "E.NS", "F.NS", "G.NS", "H.NS", "I.NS", "J.NS"), InvestmentType.STOCK);
+
+        assertThat(prices).hasSize(10);
+        verify(fallback, never()).fetchPrices(anyCollection(), any());
+        verify(fallback, never()).fetchPrice(anyString(), any());
+        assertThat(service.getProviderHealth().get("Batcher")).containsEntry("hedged", 0L);
+    }
+
+    @Test
+    void hedging_emptyHedgeIsNotAWin_primaryAnswerIsAwaited() {
+        PriceProviderStrategy slow = mock(PriceProviderStrategy.class);
+        when(slow.isAvailable()).thenReturn(true);
+        when(slow.getProviderName()).thenReturn("Slow");
+        when(slow.fetchPrice(anyString(), any())).thenAnswer(inv -> {
+            Thread.sleep(100);
+            return BigDecimal.ONE;
+        });
+        PriceProviderStrategy empty = mock(PriceProviderStrategy.class);
+        when(empty.isAvailable()).thenReturn(true);
+        when(empty.getProviderName()).thenReturn("Empty");
+        PriceProviderService service = hedgingService(java.util.List.of(slow, empty),
+                Duration.ofMillis(10), Duration.ofMillis(20));
+
+        assertThat(service.fetchPrice("RELIANCE.NS", InvestmentType.STOCK)).isEqualByComparingTo("1");
+
+        verify(empty).fetchPrice("RELIANCE.NS", InvestmentType.STOCK);
+        assertThat(service.getProviderHealth().get("Slow"))
+                .containsEntry("hedged", 1L)
+                .containsEntry("hedgesLost", 0L);
+    }
+
+    @Test
+    void hedgeDelay_usesDefaultUntilTimedThenPrimaryPercentile() {
+        PriceProviderStrategy p = mock(PriceProviderStrategy.class);
+        when(p.isAvailable()).thenReturn(true);
+        when(p.getProviderName()).thenReturn("Timed");
+        when(p.getRateLimit()).thenReturn(new AdaptiveRateLimiter.RateLimit(1000, 100));
+        when(p.fetchPrice(anyString(), any())).thenAnswer(inv -> {
+            Thread.sleep(20);
+            return BigDecimal.ONE;
+        });
+        PriceProviderService service = hedgingService(java.util.List.of(p), Duration.ofMillis(1), Duration.ofSeconds(2));
+        assertThat(service.hedgeDelay(p)).isEqualTo(Duration.ofSeconds(2));
+
+        for (int i = 0; i < 20; i++) {
+            service.fetchPrice("S" + i + ".NS", InvestmentType.STOCK);
+        }
+
+        assertThat(service.hedgeDelay(p)).isBetween(Duration.ofMillis(20), Duration.ofMillis(200));
+    }
+
+    @Test
+    void fetchPrice_freshQuote_servedFromCache() {
+        PriceProviderStrategy p = provider(true, new BigDecimal("2450.00"));
+        PriceProviderService service = service(java.util.List.of(p));
+
+        service.fetchPrice("RELIANCE.NS", InvestmentType.STOCK);
+        clock.advance(Duration.ofSeconds(30));
+        BigDecimal second = service.fetchPrice("RELIANCE.NS", InvestmentType.STOCK);
+
+        assertThat(second).isEqualByComparingTo("2450.00");
+        verify(p, times(1)).fetchPrice("RELIANCE.NS", InvestmentType.STOCK);
+        assertThat(service.getQuoteCacheStats().hits()).isEqualTo(1);
+        assertThat(service.getQuoteCacheStats().misses()).isEqualTo(1);
+    }
+
+    @Test
+    void fetchPrice_staleQuote_returnedWithoutWaitingAndRevalidatedInBackground() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        PriceProviderStrategy p = provider(true, null);
+        when(p.fetchPrice("RELIANCE.NS", InvestmentType.STOCK))
+                .thenReturn(new BigDecimal("2450.00"))
+                .thenAnswer(inv -> {
+                    release.await(5, TimeUnit.SECONDS);
+                    return new BigDecimal("2460.00");
+                });
+        PriceProviderService service = service(java.util.List.of(p));
+        service.fetchPrice("RELIANCE.NS", InvestmentType.STOCK);
+        clock.advance(Duration.ofMinutes(5));
+
+        // The provider is blocked, so only the cached value can come back here
+        assertThat(service.fetchPrice("RELIANCE.NS", InvestmentType.STOCK)).isEqualByComparingTo("2450.00");
+        assertThat(service.fetchPrice("RELIANCE.NS", InvestmentType.STOCK)).isEqualByComparingTo("2450.00");
+        release.countDown();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (quoteCache.get("RELIANCE.NS", "MockProvider").price().compareTo(new BigDecimal("2460.00")) != 0
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(service.fetchPrice("RELIANCE.NS", InvestmentType.STOCK)).isEqualByComparingTo("2460.00");
+        // Two stale reads, one background refresh
+        verify(p, times(2)).fetchPrice("RELIANCE.NS", InvestmentType.STOCK);
+        assertThat(service.getQuoteCacheStats().staleHits()).isEqualTo(2);
+    }
+
+    @Test
+    void fetchPrice_quotePastMaxStale_fetchesAgain() {
+        PriceProviderStrategy p = provider(true, null);
+        when(p.fetchPrice("RELIANCE.NS", InvestmentType.STOCK))
+                .thenReturn(new BigDecimal("2450.00"), new BigDecimal("2500.00"));
+        PriceProviderService service = service(java.util.List.of(p));
+        service.fetchPrice("RELIANCE.NS", InvestmentType.STOCK);
+        clock.advance(Duration.ofHours(7));
+
+        assertThat(service.fetchPrice("RELIANCE.NS", InvestmentType.STOCK)).isEqualByComparingTo("2500.00");
+        assertThat(service.getQuoteCacheStats().misses()).isEqualTo(2);
+    }
+
+    @Test
+    void fetchPrices_splitsMissesIntoProviderSizedBatches() {
+        PriceProviderStrategy p = mock(PriceProviderStrategy.class);
+        when(p.isAvailable()).thenReturn(true);
+        when(p.getProviderName()).thenReturn("Batcher");
+        when(p.getMaxBatchSize()).thenReturn(2);
+        when(p.fetchPrices(anyCollection(), any())).thenAnswer(inv -> {
+            Map<String, BigDecimal> prices = new HashMap<>();
+            inv.<Collection<String>>getArgument(0).forEach(symbol -> prices.put(symbol, BigDecimal.TEN));
+            return prices;
+        });
+        when(p.fetchPrice(anyString(), any())).thenReturn(BigDecimal.TEN);
+
+        Map<String, BigDecimal> prices = service(java.util.List.of(p))
+                .fetchPrices(java.util.List.of("A.NS", "B.NS", "C.NS", "D.NS", "E.NS"), InvestmentType.STOCK);
+
+        assertThat(prices).containsOnlyKeys("A.NS", "B.NS", "C.NS", "D.NS", "E.NS");
+        verify(p).fetchPrices(java.util.List.of("A.NS", "B.NS"), InvestmentType.STOCK);
+        verify(p).fetchPrices(java.util.List.of("C.NS", "D.NS"), InvestmentType.STOCK);
+        // A trailing chunk of one goes through the single-symbol call
+        verify(p).fetchPrice("E.NS", InvestmentType.STOCK);
+    }
+
+    @Test
+    void fetchPrices_symbolsMissingFromOneProviderFallThroughToTheNext() {
+        PriceProviderStrategy first = mock(PriceProviderStrategy.class);
+        when(first.isAvailable()).thenReturn(true);
+        when(first.getProviderName()).thenReturn("First");
+        when(first.getMaxBatchSize()).thenReturn(10);
+        when(first.fetchPrices(anyCollection(), any())).thenReturn(Map.of("A.NS", BigDecimal.ONE));
+        PriceProviderStrategy second = mock(PriceProviderStrategy.class);
+        when(second.isAvailable()).thenReturn(true);
+        when(second.getProviderName()).thenReturn("Second");
+        when(second.fetchPrice("B.NS", InvestmentType.STOCK)).thenReturn(BigDecimal.TWO);
+
+        Map<String, BigDecimal> prices = service(java.util.List.of(first, second))
+                .fetchPrices(java.util.List.of("A.NS", "B.NS"), InvestmentType.STOCK);
+
+        assertThat(prices).containsEntry("A.NS", BigDecimal.ONE).containsEntry("B.NS", BigDecimal.TWO);
+        verify(second, never()).fetchPrice(eq("A.NS"), any());
+    }
+
+    @Test
+    void fetchPrices_onlyFetchesSymbolsNotFreshInCache() {
+        PriceProviderStrategy p = provider(true, new BigDecimal("2450.00"));
+        when(p.getMaxBatchSize()).thenReturn(10);
+        when(p.fetchPrice("TCS.NS", InvestmentType.STOCK)).thenReturn(new BigDecimal("4000.00"));
+        PriceProviderService service = service(java.util.List.of(p));
+        service.fetchPrice("RELIANCE.NS", InvestmentType.STOCK);
+
+        Map<String, BigDecimal> prices = service.fetchPrices(java.util.List.of("RELIANCE.NS", "TCS.NS"), InvestmentType.STOCK);
+
+        assertThat(prices).containsEntry("RELIANCE.NS", new BigDecimal("2450.00")).containsEntry("TCS.NS", new BigDecimal("4000.00"));
+        verify(p, times(1)).fetchPrice("RELIANCE.NS", InvestmentType.STOCK);
+        verify(p).fetchPrice("TCS.NS", InvestmentType.STOCK);
+        verify(p, never()).fetchPrices(anyCollection(), any());
+    }
+
+    @Test
+    void defaultFetchPrices_fallsBackToSingleFetches() {
+        PriceProviderStrategy single = new PriceProviderStrategy() {
+            @Override
+            public BigDecimal fetchPrice(String symbol, InvestmentType type) {
+                return "UNKNOWN".equals(symbol) ? null : BigDecimal.ONE;
+            }
+
+            @Override
+            public String getProviderName() {
+                return "Single";
+            }
+
+            @Override
+            public boolean isAvailable() {
+                return true;
+            }
+        };
+
+        assertThat(single.fetchPrices(java.util.List.of("A.NS", "UNKNOWN"), InvestmentType.STOCK))
+                .containsExactly(Map.entry("A.NS", BigDecimal.ONE));
+        assertThat(single.getMaxBatchSize()).isEqualTo(1);
+    }
+
+    static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
 }
@@ -0,0 +1,83 @@
+package com.finance_tracker.utils.strategy;
+
+import com.finance_tracker.model.InvestmentType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QuoteCacheTest {
+
+    // 2026-10-12 is a Monday; NSE trades 09:15-15:30 IST (UTC+5:30)
+    private static final Instant MONDAY_10_30_IST = Instant.parse("2026-10-12T05:00:00Z");
+    private static final Instant MONDAY_16_00_IST = Instant.parse("2026-10-12T10:30:00Z");
+    private static final Instant FRIDAY_16_00_IST = Instant.parse("2026-10-16T10:30:00Z");
+
+    private final PriceProviderServiceTest.MutableClock clock = new PriceProviderServiceTest.MutableClock(MONDAY_10_30_IST);
+    private final QuoteCache cache = new QuoteCache(2, Duration.ofMinutes(1), Duration.ofHours(24), Duration.ofHours(6), clock);
+
+    @Test
+    void expiryFor_stockDuringMarketHours_usesShortTtl() {
+        assertThat(cache.expiryFor(InvestmentType.STOCK, MONDAY_10_30_IST))
+                .isEqualTo(MONDAY_10_30_IST.plus(Duration.ofMinutes(1)));
+    }
+
+    @Test
+    void expiryFor_stockAfterClose_cappedAtNextOpen() {
+        assertThat(cache.expiryFor(InvestmentType.ETF, MONDAY_16_00_IST))
+                .isEqualTo(Instant.parse("2026-10-13T03:45:00Z")); // Tuesday 09:15 IST
+    }
+
+    @Test
+    void expiryFor_stockFridayEvening_longTtlWithinWeekend() {
+        assertThat(cache.expiryFor(InvestmentType.STOCK, FRIDAY_16_00_IST))
+                .isEqualTo(FRIDAY_16_00_IST.plus(Duration.ofHours(24)));
+    }
+
+    @Test
+    void expiryFor_stockSundayNight_cappedAtMondayOpen() {
+        Instant sundayNight = Instant.parse("2026-10-18T17:00:00Z"); // Sunday 22:30 IST
+        assertThat(cache.expiryFor(InvestmentType.STOCK, sundayNight))
+                .isEqualTo(Instant.parse("2026-10-19T03:45:00Z"));
+    }
+
+    @Test
+    void expiryFor_otherTypes_ignoreMarketHours() {
+        assertThat(cache.expiryFor(InvestmentType.BOND, MONDAY_10_30_IST))
+                .isEqualTo(MONDAY_10_30_IST.plus(Duration.ofHours(24)));
+    }
+
+    @Test
+    void freshness_movesFromFreshToStaleToExpired() {
+        QuoteCache.Quote quote = cache.put("RELIANCE.NS", "Yahoo Finance", InvestmentType.STOCK, new BigDecimal("2450"));
+
+        assertThat(cache.freshness(quote)).isEqualTo(QuoteCache.Freshness.FRESH);
+        clock.advance(Duration.ofMinutes(2));
+        assertThat(cache.freshness(quote)).isEqualTo(QuoteCache.Freshness.STALE);
+        clock.advance(Duration.ofHours(6));
+        assertThat(cache.freshness(quote)).isEqualTo(QuoteCache.Freshness.EXPIRED);
+    }
+
+    @Test
+    void put_beyondMaxEntries_evictsLeastRecentlyUsed() {
+        cache.put("A.NS", "Yahoo Finance", InvestmentType.STOCK, BigDecimal.ONE);
+        cache.put("B.NS", "Yahoo Finance", InvestmentType.STOCK, BigDecimal.ONE);
+        cache.get("A.NS", "Yahoo Finance");
+        cache.put("C.NS", "Yahoo Finance", InvestmentType.STOCK, BigDecimal.ONE);
+
+        assertThat(cache.get("A.NS", "Yahoo Finance")).isNotNull();
+        assertThat(cache.get("B.NS", "Yahoo Finance")).isNull();
+        assertThat(cache.stats().evictions()).isEqualTo(1);
+        assertThat(cache.stats().size()).isEqualTo(2);
+    }
+
+    @Test
+    void get_keysByProvider() {
+        cache.put("RELIANCE.NS", "Yahoo Finance", InvestmentType.STOCK, BigDecimal.ONE);
+
+        assertThat(cache.get("RELIANCE.NS", "Alpha Vantage")).isNull();
+    }
+}
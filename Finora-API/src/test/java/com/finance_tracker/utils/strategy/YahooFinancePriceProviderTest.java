@@ -1,8 +1,14 @@
 package com.finance_tracker.utils.strategy;
 
 import com.finance_tracker.model.InvestmentType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 class YahooFinancePriceProviderTest {
@@ -18,4 +24,52 @@ class YahooFinancePriceProviderTest {
     void getProviderName_returnsYahooFinance() {
         assertThat(provider.getProviderName()).isEqualTo("Yahoo Finance");
     }
+
+    @Test
+    void parseSparkPrices_mapsBackToRequestedSymbols() throws Exception {
+        JsonNode root = new ObjectMapper().readTree("""
+                {"spark":{"result":[
+                  {"symbol":"RELIANCE.NS","response":[{"meta":{"regularMarketPrice":2450.5}}]},
+                  {"symbol":"TCS.NS","response":[{"meta":{},"indicators":{"quote":[{"close":[3990.0,4001.25]}]}}]},
+                  {"symbol":"GONE.NS","response":[{"meta":{}}]}
+                ]}}""");
+
+        Map<String, BigDecimal> prices = YahooFinancePriceProvider.parseSparkPrices(root, Map.of(
+                "RELIANCE.NS", List.of("RELIANCE"),
+                "TCS.NS", List.of("TCS.NS"),
+                "GONE.NS", List.of("GONE.NS")));
+
+        assertThat(prices).hasSize(2);
+        assertThat(prices.get("RELIANCE")).isEqualByComparingTo("2450.5");
+        assertThat(prices.get("TCS.NS")).isEqualByComparingTo("4001.25");
+    }
+
+    @Test
+    void chartPrice_chartAndSparkResultsGiveTheSamePrice() throws Exception {
+        String series = """
+                {"meta":{"regularMarketPrice":2461.0},"indicators":{"quote":[{"close":[2440.0,2450.5]}]}}""";
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode chart = mapper.readTree("{\"chart\":{\"result\":[" + series + "]}}");
+        JsonNode spark = mapper.readTree("{\"spark\":{\"result\":[{\"symbol\":\"RELIANCE.NS\",\"response\":["
+                + series + "]}]}}");
+
+        BigDecimal single = YahooFinancePriceProvider.chartPrice(chart.at("/chart/result/0"));
+        Map<String, BigDecimal> batch = YahooFinancePriceProvider.parseSparkPrices(spark,
+                Map.of("RELIANCE.NS", List.of("RELIANCE")));
+
+        assertThat(single).isEqualByComparingTo("2450.5");
+        assertThat(batch.get("RELIANCE")).isEqualByComparingTo(single);
+    }
+
+    @Test
+    void getMaxBatchSize_allowsMultiSymbolRequests() {
+        assertThat(provider.getMaxBatchSize()).isGreaterThan(1);
+    }
+
+    @Test
+    void retryAfter_readsDelaySecondsOnly() {
+        assertThat(YahooFinancePriceProvider.retryAfter("120")).isEqualTo(java.time.Duration.ofMinutes(2));
+        assertThat(YahooFinancePriceProvider.retryAfter("Wed, 21 Oct 2026 07:28:00 GMT")).isNull();
+        assertThat(YahooFinancePriceProvider.retryAfter(null)).isNull();
+    }
 }